@@ -41,6 +41,12 @@ public class Main {
             DeadsideBot bot = new DeadsideBot(token);
             bot.start();
             
+            // Stop background work and flush pending writes before the JVM exits
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                bot.shutdown();
+                MongoDBConnection.close();
+            }, "shutdown"));
+            
             logger.info("Bot started successfully");
             
         } catch (Exception e) {
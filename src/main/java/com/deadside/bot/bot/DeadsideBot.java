@@ -6,10 +6,17 @@ import com.deadside.bot.db.repositories.GameServerRepository;
 import com.deadside.bot.db.repositories.PlayerRepository;
 import com.deadside.bot.listeners.CommandListener;
 import com.deadside.bot.listeners.ModalListener;
+import com.deadside.bot.parsers.ServerEventRouter;
+import com.deadside.bot.schedulers.KillfeedScheduler;
+import com.deadside.bot.services.PlayerSessionTracker;
+import com.deadside.bot.services.SchedulerService;
+import com.deadside.bot.utils.DiscordOutbox;
 import com.deadside.bot.utils.Config;
 import net.dv8tion.jda.api.JDA;
 import net.dv8tion.jda.api.JDABuilder;
 import net.dv8tion.jda.api.entities.Activity;
+import net.dv8tion.jda.api.events.session.ReadyEvent;
+import net.dv8tion.jda.api.hooks.ListenerAdapter;
 import net.dv8tion.jda.api.requests.GatewayIntent;
 import net.dv8tion.jda.api.utils.ChunkingFilter;
 import net.dv8tion.jda.api.utils.MemberCachePolicy;
@@ -30,6 +37,7 @@ public class DeadsideBot {
     private final GameServerRepository serverRepository;
     private final PlayerRepository playerRepository;
     private final AutoStartupCleanup autoStartupCleanup;
+    private final KillfeedScheduler killfeedScheduler;
     
     public DeadsideBot(String token) {
         this.token = token;
@@ -37,6 +45,7 @@ public class DeadsideBot {
         this.serverRepository = new GameServerRepository();
         this.playerRepository = new PlayerRepository();
         this.autoStartupCleanup = new AutoStartupCleanup(config);
+        this.killfeedScheduler = new KillfeedScheduler();
     }
     
     /**
@@ -60,8 +69,19 @@ public class DeadsideBot {
                 )
                 .setMemberCachePolicy(MemberCachePolicy.ALL)
                 .setChunkingFilter(ChunkingFilter.ALL)
+                .addEventListeners(new ListenerAdapter() {
+                    @Override
+                    public void onReady(ReadyEvent event) {
+                        // Poll killfeeds once the guild cache is loaded, so the first polls can resolve their channels
+                        killfeedScheduler.initialize(event.getJDA());
+                        killfeedScheduler.startPolling();
+                    }
+                })
                 .build();
         
+        // Game event notifications resolve their channels through this instance
+        ServerEventRouter.getInstance().setJda(jda);
+        
         // Initialize command manager
         commandManager = new CommandManager(jda, config);
         
@@ -83,6 +103,13 @@ public class DeadsideBot {
      * Shut down the bot
      */
     public void shutdown() {
+        // Stop scheduled jobs first so nothing new is queued for Discord while it disconnects
+        killfeedScheduler.stopPolling();
+        // Write pending playtime while its flush job can still be cancelled and the database is open
+        PlayerSessionTracker.shutdown();
+        SchedulerService.shutdown();
+        DiscordOutbox.shutdown();
+        
         if (jda != null) {
             jda.shutdown();
             logger.info("Bot has been shut down");
@@ -1,6 +1,9 @@
 package com.deadside.bot.commands;
 
-import com.deadside.bot.db.models.Player;
+import com.deadside.bot.db.models.GameServer;
+import com.deadside.bot.db.models.PlayerField;
+import com.deadside.bot.db.models.PlayerSummary;
+import com.deadside.bot.db.repositories.GameServerRepository;
 import com.deadside.bot.db.repositories.PlayerRepository;
 import net.dv8tion.jda.api.EmbedBuilder;
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
@@ -10,6 +13,7 @@ import net.dv8tion.jda.api.interactions.commands.build.Commands;
 import java.awt.*;
 import java.util.List;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
 
 /**
  * Command for listing all players on the server
@@ -17,50 +21,58 @@ import java.util.logging.Logger;
 public class PlayerListCommand implements ICommand {
     private static final Logger logger = Logger.getLogger(PlayerListCommand.class.getName());
     private final PlayerRepository playerRepository;
+    private final GameServerRepository gameServerRepository;
     private static final int PLAYERS_PER_PAGE = 10;
 
     public PlayerListCommand() {
         this.playerRepository = new PlayerRepository();
+        this.gameServerRepository = new GameServerRepository();
     }
 
     @Override
     public void execute(SlashCommandInteractionEvent event) {
-        String guildId = event.getGuild().getId();
+        long guildId = event.getGuild().getIdLong();
+        List<String> serverIds = gameServerRepository.findByGuildId(guildId).stream()
+                .map(GameServer::getServerId)
+                .collect(Collectors.toList());
         
-        // Get all players for this guild/server
-        List<Player> players = playerRepository.findAllByGuildId(guildId);
+        // Count players for this guild's servers and load only the first page as lightweight views
+        long totalPlayers = serverIds.isEmpty() ? 0 : playerRepository.countActiveByServerIds(serverIds);
         
-        if (players.isEmpty()) {
+        if (totalPlayers == 0) {
             event.reply("No players found for this server.").queue();
             return;
         }
         
+        List<PlayerSummary> players;
+        try {
+            players = playerRepository.findTopSummaries(
+                    serverIds, PlayerField.KILLS, 0, PLAYERS_PER_PAGE, PlayerRepository.LEADERBOARD_FIELDS);
+        } catch (Exception e) {
+            logger.warning("Error retrieving player list: " + e.getMessage());
+            event.reply("An error occurred while retrieving the player list.").setEphemeral(true).queue();
+            return;
+        }
+        
         // Build the player list embed
         EmbedBuilder embed = new EmbedBuilder()
-                .setTitle("Player List - " + players.size() + " Players Total")
+                .setTitle("Player List - " + totalPlayers + " Players Total")
                 .setColor(Color.BLUE);
         
-        // Add up to PLAYERS_PER_PAGE players to the embed
         StringBuilder playerList = new StringBuilder();
-        int count = 0;
         
-        for (Player player : players) {
-            if (count < PLAYERS_PER_PAGE) {
-                playerList.append(player.getName())
-                        .append(" | K: ").append(player.getKills())
-                        .append(" | D: ").append(player.getDeaths())
-                        .append("\n");
-                count++;
-            } else {
-                break;
-            }
+        for (PlayerSummary player : players) {
+            playerList.append(player.name())
+                    .append(" | K: ").append(player.kills())
+                    .append(" | D: ").append(player.deaths())
+                    .append("\n");
         }
         
         embed.setDescription(playerList.toString());
         
         // Add note if there are more players
-        if (players.size() > PLAYERS_PER_PAGE) {
-            embed.setFooter("Showing " + PLAYERS_PER_PAGE + " of " + players.size() + " players. Use /topplayers for rankings.");
+        if (totalPlayers > PLAYERS_PER_PAGE) {
+            embed.setFooter("Showing " + PLAYERS_PER_PAGE + " of " + totalPlayers + " players. Use /topplayers for rankings.");
         }
         
         event.replyEmbeds(embed.build()).queue();
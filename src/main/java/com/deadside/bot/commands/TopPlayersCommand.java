@@ -1,6 +1,9 @@
 package com.deadside.bot.commands;
 
-import com.deadside.bot.db.models.Player;
+import com.deadside.bot.db.models.GameServer;
+import com.deadside.bot.db.models.PlayerField;
+import com.deadside.bot.db.models.PlayerSummary;
+import com.deadside.bot.db.repositories.GameServerRepository;
 import com.deadside.bot.db.repositories.PlayerRepository;
 import net.dv8tion.jda.api.EmbedBuilder;
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
@@ -12,6 +15,7 @@ import net.dv8tion.jda.api.interactions.commands.build.OptionData;
 import java.awt.*;
 import java.util.List;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
 
 /**
  * Command for viewing top players by kills
@@ -19,10 +23,12 @@ import java.util.logging.Logger;
 public class TopPlayersCommand implements ICommand {
     private static final Logger logger = Logger.getLogger(TopPlayersCommand.class.getName());
     private final PlayerRepository playerRepository;
+    private final GameServerRepository gameServerRepository;
     private static final int DEFAULT_LIMIT = 10;
 
     public TopPlayersCommand() {
         this.playerRepository = new PlayerRepository();
+        this.gameServerRepository = new GameServerRepository();
     }
 
     @Override
@@ -35,8 +41,13 @@ public class TopPlayersCommand implements ICommand {
             // Convert guildId to long for repository method
             long guildIdLong = Long.parseLong(guildId);
             
-            // Get top players by kills for this guild
-            List<Player> topPlayers = playerRepository.findTopPlayersByKills(guildIdLong, limit);
+            List<String> serverIds = gameServerRepository.findByGuildId(guildIdLong).stream()
+                    .map(GameServer::getServerId)
+                    .collect(Collectors.toList());
+            
+            // Get top players by kills for this guild's servers, loading only leaderboard fields
+            List<PlayerSummary> topPlayers = serverIds.isEmpty() ? List.of() : playerRepository.findTopSummaries(
+                    serverIds, PlayerField.KILLS, 0, limit, PlayerRepository.LEADERBOARD_FIELDS);
             
             if (topPlayers.isEmpty()) {
                 event.reply("No player statistics found for this server.").queue();
@@ -52,11 +63,11 @@ public class TopPlayersCommand implements ICommand {
             StringBuilder playerList = new StringBuilder();
             int rank = 1;
             
-            for (Player player : topPlayers) {
-                playerList.append(rank).append(". **").append(player.getName()).append("**")
-                        .append(" | K: ").append(player.getKills())
-                        .append(" | D: ").append(player.getDeaths())
-                        .append(" | K/D: ").append(String.format("%.2f", player.getKdRatio()))
+            for (PlayerSummary player : topPlayers) {
+                playerList.append(rank).append(". **").append(player.name()).append("**")
+                        .append(" | K: ").append(player.kills())
+                        .append(" | D: ").append(player.deaths())
+                        .append(" | K/D: ").append(String.format("%.2f", player.kdRatio()))
                         .append("\n");
                 rank++;
             }
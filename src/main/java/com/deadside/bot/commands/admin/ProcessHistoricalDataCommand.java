@@ -5,7 +5,9 @@ import com.deadside.bot.db.models.GameServer;
 import com.deadside.bot.db.repositories.GameServerRepository;
 import com.deadside.bot.db.repositories.PlayerRepository;
 import com.deadside.bot.parsers.DeadsideCsvParser;
+import com.deadside.bot.parsers.HistoricalBackfillEngine;
 import com.deadside.bot.parsers.KillfeedParser;
+import com.deadside.bot.services.SchedulerService;
 import com.deadside.bot.sftp.SftpConnector;
 import com.deadside.bot.utils.EmbedUtils;
 import com.deadside.bot.utils.EmbedSender;
@@ -47,6 +49,7 @@ public class ProcessHistoricalDataCommand implements ICommand {
     public CommandData getCommandData() {
         return Commands.slash(getName(), "Process all historical data for a server (admin only)")
                 .addOption(OptionType.STRING, "server", "Server name", true)
+                .addOption(OptionType.BOOLEAN, "offline", "Re-parse the local copies only, without contacting the server", false)
                 .setDefaultPermissions(DefaultMemberPermissions.enabledFor(Permission.ADMINISTRATOR));
     }
     
@@ -56,6 +59,7 @@ public class ProcessHistoricalDataCommand implements ICommand {
         
         try {
             String serverName = event.getOption("server", "", OptionMapping::getAsString);
+            boolean offline = event.getOption("offline", false, OptionMapping::getAsBoolean);
             if (serverName.isEmpty()) {
                 event.getHook().sendMessageEmbeds(
                         EmbedUtils.errorEmbed("Error", "Server name is required")
@@ -72,7 +76,7 @@ public class ProcessHistoricalDataCommand implements ICommand {
             }
             
             // Process the request in a separate thread to avoid blocking
-            new Thread(() -> {
+            SchedulerService.getInstance().submit("historical", () -> {
                 try {
                     // Let the user know we're starting
                     event.getHook().sendMessageEmbeds(
@@ -89,10 +93,12 @@ public class ProcessHistoricalDataCommand implements ICommand {
                     DeadsideCsvParser csvParser = new DeadsideCsvParser(jda, new SftpConnector(), new PlayerRepository(), new GameServerRepository());
                     
                     // Process historical killfeed data
-                    int kills = killfeedParser.processServer(server, true);
+                    HistoricalBackfillEngine.Progress killfeedResult =
+                            new HistoricalBackfillEngine(killfeedParser).backfill(server, null, offline).join();
+                    long kills = killfeedResult.records();
                     
-                    // Process historical death logs
-                    int deaths = csvParser.processDeathLogs(server, true);
+                    // Process historical death logs; an offline re-parse covers the killfeed only
+                    int deaths = offline ? 0 : csvParser.processDeathLogs(server, true);
                     
                     // Update the server to save the progress
                     serverRepository.save(server);
@@ -101,7 +107,8 @@ public class ProcessHistoricalDataCommand implements ICommand {
                     event.getHook().sendMessageEmbeds(
                             new EmbedBuilder()
                                     .setTitle("Historical Data Processing Complete")
-                                    .setDescription("Processed **" + kills + " kills** and **" + deaths + " deaths** for server: " + serverName)
+                                    .setDescription("Processed **" + kills + " kills** and **" + deaths + " deaths** for server: " + serverName
+                                            + String.format("\nKillfeed throughput: %.0f records/s", killfeedResult.recordsPerSecond()))
                                     .setColor(Color.GREEN)
                                     .build()
                     ).queue();
@@ -114,7 +121,7 @@ public class ProcessHistoricalDataCommand implements ICommand {
                             EmbedUtils.errorEmbed("Error", "Error processing historical data: " + e.getMessage())
                     ).queue();
                 }
-            }).start();
+            });
             
         } catch (Exception e) {
             logger.error("Error executing processhistorical command", e);
@@ -3,6 +3,8 @@ package com.deadside.bot.commands.admin;
 import com.deadside.bot.commands.ICommand;
 import com.deadside.bot.db.models.GuildConfig;
 import com.deadside.bot.db.repositories.GuildConfigRepository;
+import com.deadside.bot.schedulers.PlayerCountVoiceChannelUpdater;
+import com.deadside.bot.utils.DiscordOutbox;
 import com.deadside.bot.utils.EmbedUtils;
 import com.deadside.bot.utils.EmbedSender;
 import net.dv8tion.jda.api.Permission;
@@ -109,8 +111,10 @@ public class SetVoiceChannelCommand implements ICommand {
             config.setPlayerCountServerName(serverName);
             guildConfigRepository.save(config);
             
-            // Update the voice channel name initially
-            voiceChannel.getManager().setName("Players: Updating...").queue();
+            // Update the voice channel name initially; the next count replaces this if it is still queued
+            DiscordOutbox.getInstance().submitCoalesced(DiscordOutbox.Lane.COSMETIC,
+                    DiscordOutbox.renameRoute(voiceChannel), PlayerCountVoiceChannelUpdater.renameKey(voiceChannel),
+                    () -> voiceChannel.getManager().setName("Players: Updating..."), null, null);
             
             // Send success message
             event.getHook().sendMessageEmbeds(
@@ -2,9 +2,12 @@ package com.deadside.bot.commands.admin;
 
 import com.deadside.bot.commands.ICommand;
 import com.deadside.bot.db.MongoDBConnection;
+import com.deadside.bot.db.MongoMetrics;
 import com.deadside.bot.db.models.GameServer;
 import com.deadside.bot.db.repositories.GameServerRepository;
 import com.deadside.bot.db.repositories.PlayerRepository;
+import com.deadside.bot.services.SchedulerService;
+import com.deadside.bot.utils.DiscordOutbox;
 import com.deadside.bot.utils.EmbedUtils;
 import net.dv8tion.jda.api.EmbedBuilder;
 import net.dv8tion.jda.api.JDA;
@@ -97,6 +100,26 @@ public class StatsCommand implements ICommand {
                     .setColor(0x3498db)
                     .setTimestamp(java.time.Instant.now());
             
+            MongoMetrics metrics = MongoDBConnection.getMetrics();
+            if (metrics != null) {
+                embedBuilder.addField("Database Pool",
+                        metrics.getInUseConnections() + " in use / " + metrics.getOpenConnections() + " open\n" +
+                        "Checkout wait: " + metrics.getCheckoutWait(), false);
+            }
+            
+            DiscordOutbox outbox = DiscordOutbox.getInstance();
+            embedBuilder.addField("Discord Outbox",
+                    "Queued: " + outbox.getQueueDepth(DiscordOutbox.Lane.INTERACTION) + " interaction / " +
+                    outbox.getQueueDepth(DiscordOutbox.Lane.KILLFEED) + " killfeed / " +
+                    outbox.getQueueDepth(DiscordOutbox.Lane.LEADERBOARD) + " leaderboard / " +
+                    outbox.getQueueDepth(DiscordOutbox.Lane.COSMETIC) + " cosmetic\n" +
+                    "In flight: " + outbox.getInFlight(), false);
+            
+            SchedulerService scheduler = SchedulerService.getInstance();
+            embedBuilder.addField("Scheduler",
+                    "Jobs: " + scheduler.getJobCount() + "\n" +
+                    "Worker threads: " + scheduler.getActiveThreadCount(), false);
+            
             event.getHook().editOriginalEmbeds(embedBuilder.build()).queue();
         } catch (Exception e) {
             logger.error("Error retrieving bot stats", e);
@@ -4,6 +4,7 @@ import com.deadside.bot.commands.ICommand;
 import com.deadside.bot.db.repositories.PlayerRepository;
 import com.deadside.bot.db.repositories.GameServerRepository;
 import com.deadside.bot.parsers.DeadsideCsvParser;
+import com.deadside.bot.services.SchedulerService;
 import com.deadside.bot.sftp.SftpConnector;
 import com.deadside.bot.utils.EmbedUtils;
 import net.dv8tion.jda.api.JDA;
@@ -59,8 +60,8 @@ public class SyncStatsCommand implements ICommand {
                     gameServerRepository
             );
             
-            // Run synchronization in a separate thread to avoid blocking
-            Thread syncThread = new Thread(() -> {
+            // Run synchronization on the maintenance pool to avoid blocking
+            SchedulerService.getInstance().submit("maintenance", () -> {
                 try {
                     // Run the synchronization
                     int updatedCount = csvParser.syncPlayerStatistics();
@@ -103,10 +104,6 @@ public class SyncStatsCommand implements ICommand {
                 }
             });
             
-            // Start the thread
-            syncThread.setName("StatsSyncThread");
-            syncThread.start();
-            
         } catch (Exception e) {
             logger.error("Error executing syncstats command", e);
             event.getHook().sendMessageEmbeds(
@@ -1,8 +1,8 @@
 package com.deadside.bot.commands.economy;
 
 import com.deadside.bot.commands.ICommand;
-import com.deadside.bot.db.models.Player;
-import com.deadside.bot.db.repositories.PlayerRepository;
+import com.deadside.bot.db.repositories.CurrencyRepository;
+import com.deadside.bot.economy.EconomyLedger;
 import com.deadside.bot.utils.Config;
 import net.dv8tion.jda.api.EmbedBuilder;
 import net.dv8tion.jda.api.entities.User;
@@ -21,12 +21,11 @@ import java.util.logging.Logger;
  */
 public class AdminEconomyCommand implements ICommand {
     private static final Logger logger = Logger.getLogger(AdminEconomyCommand.class.getName());
-    private final PlayerRepository playerRepository;
+    private static final String LEDGER_TYPE = "admin";
     private final Config config;
 
     public AdminEconomyCommand(Config config) {
         this.config = config;
-        this.playerRepository = new PlayerRepository();
     }
 
     @Override
@@ -82,24 +81,12 @@ public class AdminEconomyCommand implements ICommand {
         }
 
         try {
-            // Find the player by Discord ID
-            Player player = playerRepository.findByDiscordId(targetUser.getId(), Long.parseLong(guildId));
-
-            if (player == null) {
-                // If player doesn't exist, create a new one
-                player = new Player();
-                player.setName(targetUser.getName());
-                player.setDiscordId(targetUser.getId());
-                player.setGuildId(Long.parseLong(guildId));
-                player.setCurrency(0);
-            }
-
-            // Update currency
-            long newBalance = player.getCurrency() + amount;
-            player.setCurrency(newBalance);
-
-            // Save updated player
-            playerRepository.save(player);
+            // Credit through the ledger so the change is auditable
+            long guild = Long.parseLong(guildId);
+            EconomyLedger ledger = EconomyLedger.getInstance();
+            ledger.record(targetUser.getIdLong(), guild, CurrencyRepository.GUILD_ECONOMY_SERVER_ID,
+                    amount, LEDGER_TYPE, "give by " + event.getUser().getId());
+            long newBalance = ledger.getBalance(targetUser.getIdLong(), guild, CurrencyRepository.GUILD_ECONOMY_SERVER_ID);
 
             // Send success message
             EmbedBuilder embed = new EmbedBuilder()
@@ -127,21 +114,12 @@ public class AdminEconomyCommand implements ICommand {
         }
 
         try {
-            // Find the player by Discord ID
-            Player player = playerRepository.findByDiscordId(targetUser.getId(), Long.parseLong(guildId));
-
-            if (player == null) {
-                event.reply("Player not found in database.").setEphemeral(true).queue();
-                return;
-            }
-
-            // Update currency (don't go below 0)
-            long newBalance = Math.max(0, player.getCurrency() - amount);
-            long actualAmountTaken = player.getCurrency() - newBalance;
-            player.setCurrency(newBalance);
-
-            // Save updated player
-            playerRepository.save(player);
+            // Debit clamped at zero through the ledger
+            long guild = Long.parseLong(guildId);
+            EconomyLedger ledger = EconomyLedger.getInstance();
+            long actualAmountTaken = ledger.debitUpTo(targetUser.getIdLong(), guild, CurrencyRepository.GUILD_ECONOMY_SERVER_ID,
+                    amount, LEDGER_TYPE, "take by " + event.getUser().getId());
+            long newBalance = ledger.getBalance(targetUser.getIdLong(), guild, CurrencyRepository.GUILD_ECONOMY_SERVER_ID);
 
             // Send success message
             EmbedBuilder embed = new EmbedBuilder()
@@ -169,22 +147,9 @@ public class AdminEconomyCommand implements ICommand {
         }
 
         try {
-            // Find the player by Discord ID
-            Player player = playerRepository.findByDiscordId(targetUser.getId(), Long.parseLong(guildId));
-
-            if (player == null) {
-                // If player doesn't exist, create a new one
-                player = new Player();
-                player.setName(targetUser.getName());
-                player.setDiscordId(targetUser.getId());
-                player.setGuildId(Long.parseLong(guildId));
-            }
-
-            // Set currency to exact amount
-            player.setCurrency(amount);
-
-            // Save updated player
-            playerRepository.save(player);
+            // Set currency to exact amount by recording the difference in the ledger
+            EconomyLedger.getInstance().setBalance(targetUser.getIdLong(), Long.parseLong(guildId),
+                    CurrencyRepository.GUILD_ECONOMY_SERVER_ID, amount, LEDGER_TYPE, "set by " + event.getUser().getId());
 
             // Send success message
             EmbedBuilder embed = new EmbedBuilder()
@@ -205,19 +170,9 @@ public class AdminEconomyCommand implements ICommand {
         String guildId = event.getGuild().getId();
 
         try {
-            // Find the player by Discord ID
-            Player player = playerRepository.findByDiscordId(targetUser.getId(), Long.parseLong(guildId));
-
-            if (player == null) {
-                event.reply("Player not found in database.").setEphemeral(true).queue();
-                return;
-            }
-
-            // Reset currency to 0
-            player.setCurrency(0);
-
-            // Save updated player
-            playerRepository.save(player);
+            // Reset currency to 0 by recording the difference in the ledger
+            EconomyLedger.getInstance().setBalance(targetUser.getIdLong(), Long.parseLong(guildId),
+                    CurrencyRepository.GUILD_ECONOMY_SERVER_ID, 0, LEDGER_TYPE, "reset by " + event.getUser().getId());
 
             // Send success message
             EmbedBuilder embed = new EmbedBuilder()
@@ -1,8 +1,8 @@
 package com.deadside.bot.commands.economy;
 
 import com.deadside.bot.commands.ICommand;
-import com.deadside.bot.db.models.Player;
-import com.deadside.bot.db.repositories.PlayerRepository;
+import com.deadside.bot.db.repositories.CurrencyRepository;
+import com.deadside.bot.economy.EconomyLedger;
 import net.dv8tion.jda.api.EmbedBuilder;
 import net.dv8tion.jda.api.entities.User;
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
@@ -19,12 +19,6 @@ import java.util.logging.Logger;
  */
 public class BalanceCommand implements ICommand {
     private static final Logger logger = Logger.getLogger(BalanceCommand.class.getName());
-    private final PlayerRepository playerRepository;
-
-    public BalanceCommand() {
-        this.playerRepository = new PlayerRepository();
-    }
-
     @Override
     public void execute(SlashCommandInteractionEvent event) {
         User targetUser = event.getOption("user") != null ? 
@@ -32,29 +26,15 @@ public class BalanceCommand implements ICommand {
         String guildId = event.getGuild().getId();
         
         try {
-            // Get the Discord ID as a string
-            String discordId = targetUser.getId();
-            
-            // Find the player by Discord ID
-            Player player = playerRepository.findByDiscordId(discordId, Long.parseLong(guildId));
-            
-            if (player == null) {
-                // If the player doesn't exist, create a new one with default values
-                player = new Player();
-                player.setName(targetUser.getName());
-                player.setDiscordId(discordId);
-                player.setGuildId(Long.parseLong(guildId));
-                player.setCurrency(0);
-                
-                // Save the new player
-                playerRepository.save(player);
-            }
+            // Snapshot plus any ledger entries not yet folded into it
+            long balance = EconomyLedger.getInstance().getBalance(
+                    targetUser.getIdLong(), Long.parseLong(guildId), CurrencyRepository.GUILD_ECONOMY_SERVER_ID);
             
             // Display the balance in an embed
             EmbedBuilder embed = new EmbedBuilder()
                     .setTitle(targetUser.getName() + "'s Balance")
                     .setColor(Color.GOLD)
-                    .setDescription(targetUser.getAsMention() + " has **" + player.getCurrency() + "** credits")
+                    .setDescription(targetUser.getAsMention() + " has **" + balance + "** credits")
                     .setThumbnail(targetUser.getEffectiveAvatarUrl());
             
             event.replyEmbeds(embed.build()).queue();
@@ -1,10 +1,14 @@
 package com.deadside.bot.commands.economy;
 
 import com.deadside.bot.commands.ICommand;
+import com.deadside.bot.db.models.Currency;
 import com.deadside.bot.db.models.LinkedPlayer;
 import com.deadside.bot.db.models.Player;
+import com.deadside.bot.db.repositories.CurrencyRepository;
 import com.deadside.bot.db.repositories.LinkedPlayerRepository;
 import com.deadside.bot.db.repositories.PlayerRepository;
+import com.deadside.bot.economy.EconomyLedger;
+import com.deadside.bot.economy.LedgerWallet;
 import com.deadside.bot.utils.EmbedUtils;
 import com.deadside.bot.utils.EmbedSender;
 import net.dv8tion.jda.api.events.interaction.command.CommandAutoCompleteInteractionEvent;
@@ -31,6 +35,7 @@ public class BankCommand implements ICommand {
     private static final Logger logger = LoggerFactory.getLogger(BankCommand.class);
     private final LinkedPlayerRepository linkedPlayerRepository = new LinkedPlayerRepository();
     private final PlayerRepository playerRepository = new PlayerRepository();
+    private final CurrencyRepository currencyRepository = new CurrencyRepository();
     
     @Override
     public String getName() {
@@ -91,11 +96,14 @@ public class BankCommand implements ICommand {
                 return;
             }
             
+            // Wallet changes go through the economy ledger
+            LedgerWallet wallet = EconomyLedger.getInstance().wallet(userId, event.getGuild().getIdLong(), "bank");
+            
             // Process the appropriate subcommand
             switch (subCommand) {
-                case "deposit" -> handleDeposit(event, player);
-                case "withdraw" -> handleWithdraw(event, player);
-                case "info" -> handleInfo(event, player);
+                case "deposit" -> handleDeposit(event, wallet);
+                case "withdraw" -> handleWithdraw(event, wallet);
+                case "info" -> handleInfo(event, wallet);
                 default -> event.getHook().sendMessage("Unknown subcommand: " + subCommand).queue();
             }
             
@@ -114,7 +122,7 @@ public class BankCommand implements ICommand {
     /**
      * Handle deposit operation
      */
-    private void handleDeposit(SlashCommandInteractionEvent event, Player player) {
+    private void handleDeposit(SlashCommandInteractionEvent event, LedgerWallet wallet) {
         long amount = event.getOption("amount", 0L, OptionMapping::getAsLong);
         
         // Validate amount
@@ -126,20 +134,22 @@ public class BankCommand implements ICommand {
             return;
         }
         
-        // Check if player has enough funds
-        if (player.getCurrency().getCoins() < amount) {
+        // Take the amount from the wallet if it has enough funds
+        if (!wallet.removeCoins(amount, "deposit")) {
             event.getHook().sendMessageEmbeds(
                     EmbedUtils.errorEmbed("Insufficient Funds", 
                             "You don't have enough coins in your wallet. You currently have " + 
-                            formatAmount(player.getCurrency().getCoins()) + " coins.")
+                            formatAmount(wallet.getCoins()) + " coins.")
             ).queue();
             return;
         }
         
         // Deposit the amount
-        boolean success = player.getCurrency().depositToBank(amount);
+        long bankBalance = currencyRepository.addBankCoins(wallet.getUserId(), amount, wallet.getGuildId(), wallet.getServerId());
         
-        if (!success) {
+        if (bankBalance < 0) {
+            // Return the coins to the wallet
+            wallet.addCoins(amount, "deposit failed");
             event.getHook().sendMessageEmbeds(
                     EmbedUtils.errorEmbed("Transaction Failed", 
                             "Failed to deposit the coins. Please try again later.")
@@ -147,15 +157,12 @@ public class BankCommand implements ICommand {
             return;
         }
         
-        // Save the changes
-        playerRepository.save(player);
-        
         // Send success message
         StringBuilder message = new StringBuilder();
         message.append("Successfully deposited ").append(formatAmount(amount)).append(" coins into your bank account.\n\n");
         message.append("**New Balances**\n");
-        message.append("💰 Wallet: `").append(formatAmount(player.getCurrency().getCoins())).append(" coins`\n");
-        message.append("🏦 Bank: `").append(formatAmount(player.getCurrency().getBankCoins())).append(" coins`\n");
+        message.append("💰 Wallet: `").append(formatAmount(wallet.getCoins())).append(" coins`\n");
+        message.append("🏦 Bank: `").append(formatAmount(bankBalance)).append(" coins`\n");
         
         event.getHook().sendMessageEmbeds(
                 EmbedUtils.successEmbed("Deposit Successful", message.toString())
@@ -167,7 +174,7 @@ public class BankCommand implements ICommand {
     /**
      * Handle withdraw operation
      */
-    private void handleWithdraw(SlashCommandInteractionEvent event, Player player) {
+    private void handleWithdraw(SlashCommandInteractionEvent event, LedgerWallet wallet) {
         long amount = event.getOption("amount", 0L, OptionMapping::getAsLong);
         
         // Validate amount
@@ -179,36 +186,26 @@ public class BankCommand implements ICommand {
             return;
         }
         
-        // Check if player has enough funds in bank
-        if (player.getCurrency().getBankCoins() < amount) {
+        // Withdraw the amount if the bank has enough funds
+        long bankBalance = currencyRepository.removeBankCoins(wallet.getUserId(), amount, wallet.getGuildId(), wallet.getServerId());
+        
+        if (bankBalance == CurrencyRepository.INSUFFICIENT_FUNDS) {
             event.getHook().sendMessageEmbeds(
                     EmbedUtils.errorEmbed("Insufficient Funds", 
                             "You don't have enough coins in your bank account. You currently have " + 
-                            formatAmount(player.getCurrency().getBankCoins()) + " coins in the bank.")
-            ).queue();
-            return;
-        }
-        
-        // Withdraw the amount
-        boolean success = player.getCurrency().withdrawFromBank(amount);
-        
-        if (!success) {
-            event.getHook().sendMessageEmbeds(
-                    EmbedUtils.errorEmbed("Transaction Failed", 
-                            "Failed to withdraw the coins. Please try again later.")
+                            formatAmount(getBankBalance(wallet)) + " coins in the bank.")
             ).queue();
             return;
         }
         
-        // Save the changes
-        playerRepository.save(player);
+        wallet.addCoins(amount, "withdraw");
         
         // Send success message
         StringBuilder message = new StringBuilder();
         message.append("Successfully withdrew ").append(formatAmount(amount)).append(" coins from your bank account.\n\n");
         message.append("**New Balances**\n");
-        message.append("💰 Wallet: `").append(formatAmount(player.getCurrency().getCoins())).append(" coins`\n");
-        message.append("🏦 Bank: `").append(formatAmount(player.getCurrency().getBankCoins())).append(" coins`\n");
+        message.append("💰 Wallet: `").append(formatAmount(wallet.getCoins())).append(" coins`\n");
+        message.append("🏦 Bank: `").append(formatAmount(bankBalance)).append(" coins`\n");
         
         event.getHook().sendMessageEmbeds(
                 EmbedUtils.successEmbed("Withdrawal Successful", message.toString())
@@ -220,13 +217,14 @@ public class BankCommand implements ICommand {
     /**
      * Handle info operation
      */
-    private void handleInfo(SlashCommandInteractionEvent event, Player player) {
+    private void handleInfo(SlashCommandInteractionEvent event, LedgerWallet wallet) {
+        long bankBalance = getBankBalance(wallet);
         StringBuilder description = new StringBuilder();
         
         description.append("**Bank Account Information**\n\n");
-        description.append("🏦 **Current Balance**: `").append(formatAmount(player.getCurrency().getBankCoins())).append(" coins`\n");
-        description.append("💰 **Wallet Balance**: `").append(formatAmount(player.getCurrency().getCoins())).append(" coins`\n");
-        description.append("💸 **Total Assets**: `").append(formatAmount(player.getCurrency().getTotalBalance())).append(" coins`\n\n");
+        description.append("🏦 **Current Balance**: `").append(formatAmount(bankBalance)).append(" coins`\n");
+        description.append("💰 **Wallet Balance**: `").append(formatAmount(wallet.getCoins())).append(" coins`\n");
+        description.append("💸 **Total Assets**: `").append(formatAmount(wallet.getCoins() + bankBalance)).append(" coins`\n\n");
         
         // Add some tips
         description.append("**Bank Benefits**\n");
@@ -240,6 +238,15 @@ public class BankCommand implements ICommand {
         ).queue();
     }
     
+    /**
+     * Get the bank balance for a wallet's owner
+     */
+    private long getBankBalance(LedgerWallet wallet) {
+        Currency currency = currencyRepository.findByUserIdAndGuildIdAndServerId(
+                wallet.getUserId(), wallet.getGuildId(), wallet.getServerId());
+        return currency != null ? currency.getBankCoins() : 0;
+    }
+    
     /**
      * Format a currency amount with commas
      */
@@ -269,8 +276,12 @@ public class BankCommand implements ICommand {
                 }
                 
                 // Get wallet and bank balances
-                long walletBalance = player.getCurrency().getCoins();
-                long bankBalance = player.getCurrency().getBankCoins();
+                long guildId = event.getGuild().getIdLong();
+                long walletBalance = EconomyLedger.getInstance().getBalance(userId, guildId,
+                        CurrencyRepository.GUILD_ECONOMY_SERVER_ID);
+                Currency currency = currencyRepository.findByUserIdAndGuildIdAndServerId(userId, guildId,
+                        CurrencyRepository.GUILD_ECONOMY_SERVER_ID);
+                long bankBalance = currency != null ? currency.getBankCoins() : 0;
                 
                 String currentValue = event.getFocusedOption().getValue();
                 boolean hasCustomValue = !currentValue.isEmpty();
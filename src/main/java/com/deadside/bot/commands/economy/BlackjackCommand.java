@@ -3,10 +3,16 @@ package com.deadside.bot.commands.economy;
 import com.deadside.bot.commands.ICommand;
 import com.deadside.bot.db.models.LinkedPlayer;
 import com.deadside.bot.db.models.Player;
+import com.deadside.bot.db.repositories.CurrencyRepository;
 import com.deadside.bot.db.repositories.LinkedPlayerRepository;
 import com.deadside.bot.db.repositories.PlayerRepository;
+import com.deadside.bot.economy.CooldownTracker;
+import com.deadside.bot.economy.EconomyLedger;
+import com.deadside.bot.economy.GameSessionRegistry;
+import com.deadside.bot.economy.LedgerWallet;
 import com.deadside.bot.utils.EmbedUtils;
 import com.deadside.bot.utils.EmbedSender;
+import com.deadside.bot.utils.RandomService;
 import net.dv8tion.jda.api.entities.emoji.Emoji;
 import net.dv8tion.jda.api.events.interaction.command.CommandAutoCompleteInteractionEvent;
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
@@ -33,18 +39,20 @@ public class BlackjackCommand implements ICommand {
     private static final Logger logger = LoggerFactory.getLogger(BlackjackCommand.class);
     private final LinkedPlayerRepository linkedPlayerRepository = new LinkedPlayerRepository();
     private final PlayerRepository playerRepository = new PlayerRepository();
-    private final Random random = new Random();
     
-    // Game sessions
-    private final Map<Long, BlackjackGame> activeGames = new HashMap<>();
+    // Game sessions, expired after 5 minutes of inactivity
+    private static final long GAME_TIMEOUT_MINUTES = 5;
+    private final GameSessionRegistry<Long, BlackjackGame> activeGames = new GameSessionRegistry<>(
+            GAME_TIMEOUT_MINUTES, TimeUnit.MINUTES,
+            (userId, game) -> logger.info("Blackjack game for user {} expired due to inactivity", userId));
     
     // Card symbols
     private static final String[] SUITS = {"♠️", "♥️", "♦️", "♣️"};
     private static final String[] RANKS = {"A", "2", "3", "4", "5", "6", "7", "8", "9", "10", "J", "Q", "K"};
     
     // Cooldown tracking
-    private final Map<Long, Long> lastUsage = new HashMap<>();
     private static final long COOLDOWN_SECONDS = 3; // 3 second cooldown
+    private final CooldownTracker<Long> cooldowns = new CooldownTracker<>(COOLDOWN_SECONDS, TimeUnit.SECONDS);
     
     @Override
     public String getName() {
@@ -64,10 +72,10 @@ public class BlackjackCommand implements ICommand {
     @Override
     public void execute(SlashCommandInteractionEvent event) {
         try {
-            // Check cooldown
+            // Check and start cooldown
             long userId = event.getUser().getIdLong();
-            if (isOnCooldown(userId)) {
-                long timeLeft = getRemainingCooldown(userId);
+            if (cooldowns.tryAcquire(userId) > 0) {
+                long timeLeft = cooldowns.getRemainingSeconds(userId);
                 event.reply("You need to wait " + timeLeft + " more seconds before playing again.").setEphemeral(true).queue();
                 return;
             }
@@ -75,9 +83,6 @@ public class BlackjackCommand implements ICommand {
             // Defer reply to give us time to process
             event.deferReply().queue();
             
-            // Set cooldown
-            setCooldown(userId);
-            
             // Get bet amount
             int betAmount = event.getOption("bet", 0, OptionMapping::getAsInt);
             
@@ -113,17 +118,18 @@ public class BlackjackCommand implements ICommand {
             }
             
             // Check if player has enough coins
-            if (player.getCurrency().getCoins() < betAmount) {
+            LedgerWallet wallet = EconomyLedger.getInstance().wallet(userId, event.getGuild().getIdLong(), "blackjack");
+            if (wallet.getCoins() < betAmount) {
                 event.getHook().sendMessageEmbeds(
                         EmbedUtils.errorEmbed("Insufficient Funds", 
                                 "You don't have enough coins to place this bet. Your current balance is " + 
-                                formatAmount(player.getCurrency().getCoins()) + " coins.")
+                                formatAmount(wallet.getCoins()) + " coins.")
                 ).queue();
                 return;
             }
             
             // Check if player already has an active game
-            if (activeGames.containsKey(userId)) {
+            if (activeGames.contains(userId)) {
                 event.getHook().sendMessageEmbeds(
                         EmbedUtils.warningEmbed("Game In Progress", 
                                 "You already have a blackjack game in progress. Finish that game first.")
@@ -132,7 +138,7 @@ public class BlackjackCommand implements ICommand {
             }
             
             // Start a new blackjack game
-            startBlackjackGame(event, player, betAmount);
+            startBlackjackGame(event, player, wallet, betAmount);
             
         } catch (Exception e) {
             logger.error("Error executing blackjack command", e);
@@ -149,19 +155,32 @@ public class BlackjackCommand implements ICommand {
     /**
      * Start a new blackjack game
      */
-    private void startBlackjackGame(SlashCommandInteractionEvent event, Player player, int betAmount) {
+    private void startBlackjackGame(SlashCommandInteractionEvent event, Player player, LedgerWallet wallet, int betAmount) {
         // Take the bet
-        player.getCurrency().removeCoins(betAmount);
-        playerRepository.save(player);
+        if (!wallet.removeCoins(betAmount, "bet")) {
+            event.getHook().sendMessageEmbeds(
+                    EmbedUtils.errorEmbed("Insufficient Funds", 
+                            "You don't have enough coins to place this bet. Your current balance is " + 
+                            formatAmount(wallet.getCoins()) + " coins.")
+            ).queue();
+            return;
+        }
         
         // Create a new game
-        BlackjackGame game = new BlackjackGame(betAmount, player);
+        BlackjackGame game = new BlackjackGame(betAmount, player, wallet);
         
         // Deal initial cards
         game.dealInitialCards();
         
-        // Store the game
-        activeGames.put(event.getUser().getIdLong(), game);
+        // Store the game; if one was started meanwhile, e.g. from another click, give the bet back
+        if (!activeGames.start(event.getUser().getIdLong(), game)) {
+            wallet.addCoins(betAmount, "refund");
+            event.getHook().sendMessageEmbeds(
+                    EmbedUtils.createErrorEmbed("Game In Progress",
+                            "You already have an active blackjack game. Your bet has been refunded.")
+            ).queue();
+            return;
+        }
         
         // Create buttons
         Button hitButton = Button.success("blackjack:hit:" + event.getUser().getId(), "Hit")
@@ -172,7 +191,7 @@ public class BlackjackCommand implements ICommand {
                 .withEmoji(Emoji.fromUnicode("💰"));
         
         // Disable double down if player doesn't have enough coins
-        if (player.getCurrency().getCoins() < betAmount) {
+        if (wallet.getCoins() < betAmount) {
             doubleDownButton = doubleDownButton.asDisabled();
         }
         
@@ -196,11 +215,10 @@ public class BlackjackCommand implements ICommand {
             
             // End game and give payout (blackjack pays 3:2)
             int payout = (int) (betAmount * 2.5);
-            player.getCurrency().addCoins(payout);
-            playerRepository.save(player);
+            wallet.addCoins(payout, "payout");
             
             // Remove the game
-            activeGames.remove(event.getUser().getIdLong());
+            activeGames.end(event.getUser().getIdLong());
             
             logger.info("User {} got blackjack and won {} coins", event.getUser().getName(), payout - betAmount);
             
@@ -216,19 +234,6 @@ public class BlackjackCommand implements ICommand {
         ).addActionRow(hitButton, standButton, doubleDownButton).queue();
         
         logger.info("User {} started a blackjack game with {} coin bet", event.getUser().getName(), betAmount);
-        
-        // Set a timer to auto-end the game after 5 minutes of inactivity
-        new Timer().schedule(new TimerTask() {
-            @Override
-            public void run() {
-                BlackjackGame expiredGame = activeGames.get(event.getUser().getIdLong());
-                if (expiredGame != null && expiredGame.getStartTime() == game.getStartTime()) {
-                    // Game still exists and hasn't been updated - expire it
-                    activeGames.remove(event.getUser().getIdLong());
-                    logger.info("Blackjack game for user {} expired due to inactivity", event.getUser().getName());
-                }
-            }
-        }, 5 * 60 * 1000); // 5 minutes
     }
     
     /**
@@ -267,6 +272,9 @@ public class BlackjackCommand implements ICommand {
             return;
         }
         
+        // Any action keeps the game alive
+        activeGames.touch(event.getUser().getIdLong());
+        
         // Handle the button based on action
         switch (action) {
             case "hit" -> handleHitAction(event, game);
@@ -300,10 +308,10 @@ public class BlackjackCommand implements ICommand {
             Button halfButton = Button.secondary("blackjack:newHalf:" + game.getBetAmount() + ":" + event.getUser().getId(), "Half Bet");
             
             // Check if player can afford these bets
-            if (game.getPlayer().getCurrency().getCoins() < game.getBetAmount()) {
+            if (game.getWallet().getCoins() < game.getBetAmount()) {
                 playAgainButton = playAgainButton.asDisabled();
             }
-            if (game.getPlayer().getCurrency().getCoins() < game.getBetAmount() * 2) {
+            if (game.getWallet().getCoins() < game.getBetAmount() * 2) {
                 doubleButton = doubleButton.asDisabled();
             }
             
@@ -313,7 +321,7 @@ public class BlackjackCommand implements ICommand {
             ).setActionRow(halfButton, playAgainButton, doubleButton).queue();
             
             // Remove the game
-            activeGames.remove(event.getUser().getIdLong());
+            activeGames.end(event.getUser().getIdLong());
             
             logger.info("User {} busted in blackjack and lost {} coins", event.getUser().getName(), game.getBetAmount());
             
@@ -385,8 +393,7 @@ public class BlackjackCommand implements ICommand {
         
         // Add payout to player's balance
         if (payout > 0) {
-            game.getPlayer().getCurrency().addCoins(payout);
-            playerRepository.save(game.getPlayer());
+            game.getWallet().addCoins(payout, "payout");
         }
         
         // Add result details to the message
@@ -400,7 +407,7 @@ public class BlackjackCommand implements ICommand {
             message += "**Lost**: -" + formatAmount(game.getBetAmount()) + " coins\n";
         }
         
-        message += "**Balance**: " + formatAmount(game.getPlayer().getCurrency().getCoins()) + " coins";
+        message += "**Balance**: " + formatAmount(game.getWallet().getCoins()) + " coins";
         
         // Add buttons for new game
         Button playAgainButton = Button.success("blackjack:playAgain:" + game.getBetAmount() + ":" + event.getUser().getId(), "Play Again");
@@ -408,10 +415,10 @@ public class BlackjackCommand implements ICommand {
         Button halfButton = Button.secondary("blackjack:newHalf:" + game.getBetAmount() + ":" + event.getUser().getId(), "Half Bet");
         
         // Check if player can afford these bets
-        if (game.getPlayer().getCurrency().getCoins() < game.getBetAmount()) {
+        if (game.getWallet().getCoins() < game.getBetAmount()) {
             playAgainButton = playAgainButton.asDisabled();
         }
-        if (game.getPlayer().getCurrency().getCoins() < game.getBetAmount() * 2) {
+        if (game.getWallet().getCoins() < game.getBetAmount() * 2) {
             doubleButton = doubleButton.asDisabled();
         }
         
@@ -421,7 +428,7 @@ public class BlackjackCommand implements ICommand {
         ).setActionRow(halfButton, playAgainButton, doubleButton).queue();
         
         // Remove the game
-        activeGames.remove(event.getUser().getIdLong());
+        activeGames.end(event.getUser().getIdLong());
         
         // Log the result
         logger.info("User {} finished blackjack game with result: {}", event.getUser().getName(), result);
@@ -431,8 +438,8 @@ public class BlackjackCommand implements ICommand {
      * Handle "Double Down" button action
      */
     private void handleDoubleDownAction(ButtonInteractionEvent event, BlackjackGame game) {
-        // Check if player has enough coins to double down
-        if (game.getPlayer().getCurrency().getCoins() < game.getBetAmount()) {
+        // Take the extra stake; the debit itself checks the player has enough coins
+        if (!game.getWallet().removeCoins(game.getBetAmount(), "double down")) {
             event.reply("You don't have enough coins to double down.").setEphemeral(true).queue();
             return;
         }
@@ -441,8 +448,6 @@ public class BlackjackCommand implements ICommand {
         event.deferEdit().queue();
         
         // Double the bet
-        game.getPlayer().getCurrency().removeCoins(game.getBetAmount());
-        playerRepository.save(game.getPlayer());
         game.doubleBet();
         
         // Deal one card to player
@@ -486,8 +491,7 @@ public class BlackjackCommand implements ICommand {
         
         // Add payout to player's balance
         if (payout > 0) {
-            game.getPlayer().getCurrency().addCoins(payout);
-            playerRepository.save(game.getPlayer());
+            game.getWallet().addCoins(payout, "payout");
         }
         
         // Add result details to the message
@@ -502,7 +506,7 @@ public class BlackjackCommand implements ICommand {
             message += "**Lost**: -" + formatAmount(game.getBetAmount()) + " coins\n";
         }
         
-        message += "**Balance**: " + formatAmount(game.getPlayer().getCurrency().getCoins()) + " coins";
+        message += "**Balance**: " + formatAmount(game.getWallet().getCoins()) + " coins";
         
         // Add buttons for new game
         Button playAgainButton = Button.success("blackjack:playAgain:" + (game.getBetAmount() / 2) + ":" + event.getUser().getId(), "Play Again");
@@ -510,10 +514,10 @@ public class BlackjackCommand implements ICommand {
         Button halfButton = Button.secondary("blackjack:newHalf:" + (game.getBetAmount() / 2) + ":" + event.getUser().getId(), "Half Bet");
         
         // Check if player can afford these bets
-        if (game.getPlayer().getCurrency().getCoins() < (game.getBetAmount() / 2)) {
+        if (game.getWallet().getCoins() < (game.getBetAmount() / 2)) {
             playAgainButton = playAgainButton.asDisabled();
         }
-        if (game.getPlayer().getCurrency().getCoins() < game.getBetAmount()) {
+        if (game.getWallet().getCoins() < game.getBetAmount()) {
             doubleButton = doubleButton.asDisabled();
         }
         
@@ -523,7 +527,7 @@ public class BlackjackCommand implements ICommand {
         ).setActionRow(halfButton, playAgainButton, doubleButton).queue();
         
         // Remove the game
-        activeGames.remove(event.getUser().getIdLong());
+        activeGames.end(event.getUser().getIdLong());
         
         // Log the result
         logger.info("User {} double down in blackjack with result: {}", event.getUser().getName(), result);
@@ -566,20 +570,18 @@ public class BlackjackCommand implements ICommand {
             return;
         }
         
-        // Check cooldown
-        if (isOnCooldown(event.getUser().getIdLong())) {
-            long timeLeft = getRemainingCooldown(event.getUser().getIdLong());
+        // Check and start cooldown
+        if (cooldowns.tryAcquire(event.getUser().getIdLong()) > 0) {
+            long timeLeft = cooldowns.getRemainingSeconds(event.getUser().getIdLong());
             event.reply("You need to wait " + timeLeft + " more seconds before playing again.").setEphemeral(true).queue();
             return;
         }
         
-        // Set cooldown
-        setCooldown(event.getUser().getIdLong());
-        
         // Check if player has enough balance
-        if (player.getCurrency().getCoins() < betAmount) {
+        LedgerWallet wallet = EconomyLedger.getInstance().wallet(event.getUser().getIdLong(), event.getGuild().getIdLong(), "blackjack");
+        if (wallet.getCoins() < betAmount) {
             event.reply("You don't have enough coins for this bet. Your current balance is " + 
-                       formatAmount(player.getCurrency().getCoins()) + " coins.")
+                       formatAmount(wallet.getCoins()) + " coins.")
                  .setEphemeral(true).queue();
             return;
         }
@@ -588,25 +590,34 @@ public class BlackjackCommand implements ICommand {
         event.deferEdit().queue();
         
         // Start a new game
-        startNewBlackjackGame(event, player, betAmount);
+        startNewBlackjackGame(event, player, wallet, betAmount);
     }
     
     /**
      * Start a new blackjack game from button interaction
      */
-    private void startNewBlackjackGame(ButtonInteractionEvent event, Player player, int betAmount) {
+    private void startNewBlackjackGame(ButtonInteractionEvent event, Player player, LedgerWallet wallet, int betAmount) {
         // Take the bet
-        player.getCurrency().removeCoins(betAmount);
-        playerRepository.save(player);
+        if (!wallet.removeCoins(betAmount, "bet")) {
+            event.getHook().sendMessage("You don't have enough coins for this bet. Your current balance is " + 
+                       formatAmount(wallet.getCoins()) + " coins.")
+                 .setEphemeral(true).queue();
+            return;
+        }
         
         // Create a new game
-        BlackjackGame game = new BlackjackGame(betAmount, player);
+        BlackjackGame game = new BlackjackGame(betAmount, player, wallet);
         
         // Deal initial cards
         game.dealInitialCards();
         
-        // Store the game
-        activeGames.put(event.getUser().getIdLong(), game);
+        // Store the game; if one was started meanwhile, e.g. from another click, give the bet back
+        if (!activeGames.start(event.getUser().getIdLong(), game)) {
+            wallet.addCoins(betAmount, "refund");
+            event.getHook().sendMessage("You already have an active blackjack game. Your bet has been refunded.")
+                 .setEphemeral(true).queue();
+            return;
+        }
         
         // Create buttons
         Button hitButton = Button.success("blackjack:hit:" + event.getUser().getId(), "Hit")
@@ -617,7 +628,7 @@ public class BlackjackCommand implements ICommand {
                 .withEmoji(Emoji.fromUnicode("💰"));
         
         // Disable double down if player doesn't have enough coins
-        if (player.getCurrency().getCoins() < betAmount) {
+        if (wallet.getCoins() < betAmount) {
             doubleDownButton = doubleDownButton.asDisabled();
         }
         
@@ -641,11 +652,10 @@ public class BlackjackCommand implements ICommand {
             
             // End game and give payout (blackjack pays 3:2)
             int payout = (int) (betAmount * 2.5);
-            player.getCurrency().addCoins(payout);
-            playerRepository.save(player);
+            wallet.addCoins(payout, "payout");
             
             // Remove the game
-            activeGames.remove(event.getUser().getIdLong());
+            activeGames.end(event.getUser().getIdLong());
             
             logger.info("User {} got blackjack and won {} coins", event.getUser().getName(), payout - betAmount);
             
@@ -661,19 +671,6 @@ public class BlackjackCommand implements ICommand {
         ).setActionRow(hitButton, standButton, doubleDownButton).queue();
         
         logger.info("User {} started a new blackjack game with {} coin bet", event.getUser().getName(), betAmount);
-        
-        // Set a timer to auto-end the game after 5 minutes of inactivity
-        new Timer().schedule(new TimerTask() {
-            @Override
-            public void run() {
-                BlackjackGame expiredGame = activeGames.get(event.getUser().getIdLong());
-                if (expiredGame != null && expiredGame.getStartTime() == game.getStartTime()) {
-                    // Game still exists and hasn't been updated - expire it
-                    activeGames.remove(event.getUser().getIdLong());
-                    logger.info("Blackjack game for user {} expired due to inactivity", event.getUser().getName());
-                }
-            }
-        }, 5 * 60 * 1000); // 5 minutes
     }
     
     /**
@@ -735,47 +732,11 @@ public class BlackjackCommand implements ICommand {
         display.append("\n\n");
         
         // Add balance
-        display.append("**Balance**: `").append(formatAmount(game.getPlayer().getCurrency().getCoins())).append(" coins`");
+        display.append("**Balance**: `").append(formatAmount(game.getWallet().getCoins())).append(" coins`");
         
         return display.toString();
     }
     
-    /**
-     * Check if user is on cooldown
-     */
-    private boolean isOnCooldown(long userId) {
-        if (!lastUsage.containsKey(userId)) {
-            return false;
-        }
-        
-        long lastUsed = lastUsage.get(userId);
-        long currentTime = System.currentTimeMillis();
-        return (currentTime - lastUsed) < (COOLDOWN_SECONDS * 1000);
-    }
-    
-    /**
-     * Set cooldown for user
-     */
-    private void setCooldown(long userId) {
-        lastUsage.put(userId, System.currentTimeMillis());
-    }
-    
-    /**
-     * Get remaining cooldown time in seconds
-     */
-    private long getRemainingCooldown(long userId) {
-        if (!lastUsage.containsKey(userId)) {
-            return 0;
-        }
-        
-        long lastUsed = lastUsage.get(userId);
-        long currentTime = System.currentTimeMillis();
-        long elapsed = currentTime - lastUsed;
-        long remaining = (COOLDOWN_SECONDS * 1000) - elapsed;
-        
-        return TimeUnit.MILLISECONDS.toSeconds(remaining) + 1; // +1 to round up
-    }
-    
     /**
      * Format a currency amount with commas
      */
@@ -804,7 +765,8 @@ public class BlackjackCommand implements ICommand {
                 }
                 
                 // Get wallet balance
-                long walletBalance = player.getCurrency().getCoins();
+                long walletBalance = EconomyLedger.getInstance().getBalance(userId, event.getGuild().getIdLong(),
+                        CurrencyRepository.GUILD_ECONOMY_SERVER_ID);
                 
                 // Handle user's input
                 String currentValue = event.getFocusedOption().getValue();
@@ -901,16 +863,18 @@ public class BlackjackCommand implements ICommand {
         private final int initialBetAmount;
         private int betAmount;
         private final Player player;
+        private final LedgerWallet wallet;
         private final List<BlackjackCard> playerCards = new ArrayList<>();
         private final List<BlackjackCard> dealerCards = new ArrayList<>();
         private boolean dealerRevealed = false;
         private final long startTime;
         private final List<BlackjackCard> deck = new ArrayList<>();
         
-        public BlackjackGame(int betAmount, Player player) {
+        public BlackjackGame(int betAmount, Player player, LedgerWallet wallet) {
             this.initialBetAmount = betAmount;
             this.betAmount = betAmount;
             this.player = player;
+            this.wallet = wallet;
             this.startTime = System.currentTimeMillis();
             
             // Create and shuffle deck
@@ -931,7 +895,7 @@ public class BlackjackCommand implements ICommand {
             }
             
             // Shuffle the deck
-            Collections.shuffle(deck);
+            RandomService.shuffle(deck, RandomService.getInstance().outcome("blackjack", String.valueOf(wallet.getUserId())));
         }
         
         /**
@@ -1111,6 +1075,10 @@ public class BlackjackCommand implements ICommand {
             return player;
         }
         
+        public LedgerWallet getWallet() {
+            return wallet;
+        }
+        
         public long getStartTime() {
             return startTime;
         }
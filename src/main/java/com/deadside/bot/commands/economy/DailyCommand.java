@@ -1,8 +1,9 @@
 package com.deadside.bot.commands.economy;
 
 import com.deadside.bot.commands.ICommand;
-import com.deadside.bot.db.models.Player;
-import com.deadside.bot.db.repositories.PlayerRepository;
+import com.deadside.bot.db.models.Currency;
+import com.deadside.bot.db.repositories.CurrencyRepository;
+import com.deadside.bot.economy.EconomyLedger;
 import com.deadside.bot.utils.Config;
 import net.dv8tion.jda.api.EmbedBuilder;
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
@@ -12,7 +13,6 @@ import net.dv8tion.jda.api.interactions.commands.build.Commands;
 import java.awt.*;
 import java.time.Duration;
 import java.time.Instant;
-import java.time.temporal.ChronoUnit;
 import java.util.logging.Logger;
 
 /**
@@ -20,43 +20,36 @@ import java.util.logging.Logger;
  */
 public class DailyCommand implements ICommand {
     private static final Logger logger = Logger.getLogger(DailyCommand.class.getName());
-    private final PlayerRepository playerRepository;
+    private final CurrencyRepository currencyRepository;
     private final Config config;
     private static final Duration COOLDOWN = Duration.ofHours(24);
 
     public DailyCommand(Config config) {
         this.config = config;
-        this.playerRepository = new PlayerRepository();
+        this.currencyRepository = new CurrencyRepository();
     }
 
     @Override
     public void execute(SlashCommandInteractionEvent event) {
-        String discordId = event.getUser().getId();
         String guildId = event.getGuild().getId();
         
         try {
-            // Find the player by Discord ID
-            Player player = playerRepository.findByDiscordId(discordId, Long.parseLong(guildId));
-            
-            if (player == null) {
-                // If player doesn't exist, create a new one
-                player = new Player();
-                player.setName(event.getUser().getName());
-                player.setDiscordId(discordId);
-                player.setGuildId(Long.parseLong(guildId));
-                player.setCurrency(0);
-                player.setLastDailyReward(Instant.EPOCH); // Set to epoch time for first-time users
-            }
+            long userId = event.getUser().getIdLong();
+            long guild = Long.parseLong(guildId);
+            long rewardAmount = config.getDailyAmount();
             
-            // Check if the player can claim a daily reward
-            Instant now = Instant.now();
-            Instant lastClaim = player.getLastDailyReward();
-            Duration timeSinceLastClaim = Duration.between(lastClaim, now);
+            // Cooldown check, credit and timestamp update happen in a single atomic update
+            long newBalance = currencyRepository.claimTimedReward(userId, "lastDailyReward", rewardAmount,
+                    COOLDOWN.toMillis(), guild, CurrencyRepository.GUILD_ECONOMY_SERVER_ID);
             
-            if (timeSinceLastClaim.compareTo(COOLDOWN) < 0 && !lastClaim.equals(Instant.EPOCH)) {
+            if (newBalance == CurrencyRepository.ON_COOLDOWN) {
                 // Player cannot claim yet
-                long hoursRemaining = COOLDOWN.minus(timeSinceLastClaim).toHours();
-                long minutesRemaining = COOLDOWN.minus(timeSinceLastClaim).toMinutes() % 60;
+                Currency currency = currencyRepository.findByUserIdAndGuildIdAndServerId(
+                        userId, guild, CurrencyRepository.GUILD_ECONOMY_SERVER_ID);
+                Instant lastClaim = Instant.ofEpochMilli(currency != null ? currency.getLastDailyReward() : 0);
+                Duration remaining = COOLDOWN.minus(Duration.between(lastClaim, Instant.now()));
+                long hoursRemaining = Math.max(0, remaining.toHours());
+                long minutesRemaining = Math.max(0, remaining.toMinutes() % 60);
                 
                 EmbedBuilder embed = new EmbedBuilder()
                         .setTitle("Daily Reward - Not Available")
@@ -68,20 +61,20 @@ public class DailyCommand implements ICommand {
                 return;
             }
             
-            // Player can claim reward
-            long rewardAmount = config.getDailyAmount();
-            player.setCurrency(player.getCurrency() + rewardAmount);
-            player.setLastDailyReward(now);
+            if (newBalance < 0) {
+                event.reply("An error occurred while processing your daily reward.").setEphemeral(true).queue();
+                return;
+            }
             
-            // Save updated player
-            playerRepository.save(player);
+            // Include gambling and bank changes that have not been folded into the snapshot yet
+            newBalance = EconomyLedger.getInstance().getBalance(userId, guild, CurrencyRepository.GUILD_ECONOMY_SERVER_ID);
             
             // Send success message
             EmbedBuilder embed = new EmbedBuilder()
                     .setTitle("Daily Reward Claimed!")
                     .setColor(Color.GREEN)
                     .setDescription("You've received **" + rewardAmount + "** credits!\n" +
-                                   "Your new balance: **" + player.getCurrency() + "** credits")
+                                   "Your new balance: **" + newBalance + "** credits")
                     .setFooter("Come back in 24 hours for your next reward");
             
             event.replyEmbeds(embed.build()).queue();
@@ -3,10 +3,16 @@ package com.deadside.bot.commands.economy;
 import com.deadside.bot.commands.ICommand;
 import com.deadside.bot.db.models.LinkedPlayer;
 import com.deadside.bot.db.models.Player;
+import com.deadside.bot.db.repositories.CurrencyRepository;
 import com.deadside.bot.db.repositories.LinkedPlayerRepository;
 import com.deadside.bot.db.repositories.PlayerRepository;
+import com.deadside.bot.economy.EconomyLedger;
+import com.deadside.bot.economy.GameSessionRegistry;
+import com.deadside.bot.economy.LedgerWallet;
 import com.deadside.bot.utils.EmbedUtils;
 import com.deadside.bot.utils.EmbedSender;
+import com.deadside.bot.utils.HashedTimerWheel;
+import com.deadside.bot.utils.RandomService;
 import net.dv8tion.jda.api.EmbedBuilder;
 import net.dv8tion.jda.api.entities.emoji.Emoji;
 import net.dv8tion.jda.api.events.interaction.command.CommandAutoCompleteInteractionEvent;
@@ -27,13 +33,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.awt.*;
-import java.security.SecureRandom;
 import java.time.Duration;
 import java.util.*;
 import java.util.List;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
@@ -45,9 +47,18 @@ public class RouletteCommand implements ICommand {
     
     private final LinkedPlayerRepository linkedPlayerRepository = new LinkedPlayerRepository();
     private final PlayerRepository playerRepository = new PlayerRepository();
-    private final SecureRandom random = new SecureRandom();
-    private final ConcurrentHashMap<String, RouletteGame> activeGames = new ConcurrentHashMap<>();
-    private final ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(2);
+    
+    private static final long GAME_TIMEOUT_MINUTES = 5;
+    
+    // Games expire after 5 minutes without interaction; an unspun bet is refunded
+    private final GameSessionRegistry<String, RouletteGame> activeGames = new GameSessionRegistry<>(
+        GAME_TIMEOUT_MINUTES, TimeUnit.MINUTES, (userId, game) -> {
+            if (game.isActive() && !game.isSpinning()) {
+                game.end();
+                game.getWallet().addCoins(game.getBet(), "refund");
+                logger.info("Roulette game for user {} timed out and bet was refunded", userId);
+            }
+        });
     
     // Roulette wheel has 37 slots: 0-36 (0 is green, 1-36 are red/black alternating)
     private static final int NUM_WHEEL_SLOTS = 37;
@@ -75,11 +86,12 @@ public class RouletteCommand implements ICommand {
         private boolean isSpinning = false;
         private int winningNumber;
         private long winAmount;
-        private ScheduledFuture<?> timeoutFuture;
+        private final LedgerWallet wallet;
         
-        public RouletteGame(String userId, long bet) {
+        public RouletteGame(String userId, long bet, LedgerWallet wallet) {
             this.userId = userId;
             this.bet = bet;
+            this.wallet = wallet;
         }
         
         public void placeBet(String betType, String betValue) {
@@ -101,9 +113,6 @@ public class RouletteCommand implements ICommand {
         
         public void end() {
             this.isActive = false;
-            if (timeoutFuture != null && !timeoutFuture.isDone()) {
-                timeoutFuture.cancel(true);
-            }
         }
         
         // Getters
@@ -115,6 +124,10 @@ public class RouletteCommand implements ICommand {
             return bet;
         }
         
+        public LedgerWallet getWallet() {
+            return wallet;
+        }
+        
         public String getBetType() {
             return betType;
         }
@@ -138,10 +151,6 @@ public class RouletteCommand implements ICommand {
         public long getWinAmount() {
             return winAmount;
         }
-        
-        public void setTimeoutFuture(ScheduledFuture<?> timeoutFuture) {
-            this.timeoutFuture = timeoutFuture;
-        }
     }
     
     @Override
@@ -170,7 +179,7 @@ public class RouletteCommand implements ICommand {
         }
         
         // Check if user already has an active game
-        if (activeGames.containsKey(userId)) {
+        if (activeGames.contains(userId)) {
             EmbedSender.replyEmbed(event, EmbedUtils.errorEmbed("Error", "You already have an active roulette game"), true);
             return;
         }
@@ -196,46 +205,25 @@ public class RouletteCommand implements ICommand {
             return;
         }
         
-        // Check if player has enough balance
-        if (player.getCurrency().getCoins() < bet) {
+        // Check balance and deduct bet amount
+        LedgerWallet wallet = EconomyLedger.getInstance().wallet(Long.parseLong(userId), event.getGuild().getIdLong(), "roulette");
+        if (!wallet.removeCoins(bet, "bet")) {
             EmbedSender.sendEmbed(event.getHook(), EmbedUtils.errorEmbed("Insufficient Funds", 
                              "You don't have enough coins. You have " + 
-                             String.format("%,d", player.getCurrency().getCoins()) + " coins."));
+                             String.format("%,d", wallet.getCoins()) + " coins."));
             return;
         }
         
-        // Deduct bet amount
-        player.getCurrency().removeCoins(bet);
-        playerRepository.save(player);
-        
         // Create new game
-        RouletteGame game = new RouletteGame(userId, bet);
-        activeGames.put(userId, game);
-        
-        // Set timeout for the game (5 minutes)
-        ScheduledFuture<?> timeoutFuture = scheduler.schedule(() -> {
-            if (activeGames.containsKey(userId)) {
-                RouletteGame expiredGame = activeGames.get(userId);
-                if (expiredGame.isActive() && !expiredGame.isSpinning()) {
-                    activeGames.remove(userId);
-                    // Refund bet amount - get the player again in case data changed
-                    try {
-                        LinkedPlayer lp = linkedPlayerRepository.findByDiscordId(Long.parseLong(userId));
-                        if (lp != null) {
-                            Player p = playerRepository.findByPlayerId(lp.getMainPlayerId());
-                            if (p != null) {
-                                p.getCurrency().addCoins(bet);
-                                playerRepository.save(p);
-                                logger.info("Roulette game for user {} timed out and bet was refunded", userId);
-                            }
-                        }
-                    } catch (Exception e) {
-                        logger.error("Error refunding bet for timed out roulette game", e);
-                    }
-                }
-            }
-        }, 5, TimeUnit.MINUTES);
-        game.setTimeoutFuture(timeoutFuture);
+        RouletteGame game = new RouletteGame(userId, bet, wallet);
+        if (!activeGames.start(userId, game)) {
+            // A game was started meanwhile, e.g. from another click; give the bet back
+            wallet.addCoins(bet, "refund");
+            event.getHook().sendMessageEmbeds(EmbedUtils.createErrorEmbed("Game In Progress",
+                             "You already have an active roulette game. Your bet has been refunded.")).queue();
+            return;
+        }
+        
         
         // Create embed with roulette table and betting options
         EmbedBuilder embed = new EmbedBuilder()
@@ -311,6 +299,7 @@ public class RouletteCommand implements ICommand {
             event.getHook().sendMessage("This game has expired or does not exist.").setEphemeral(true).queue();
             return;
         }
+        activeGames.touch(userId);
         
         switch (action) {
             case "cancel" -> handleCancelAction(event, game);
@@ -347,6 +336,7 @@ public class RouletteCommand implements ICommand {
             event.getHook().sendMessage("This game has expired or does not exist.").setEphemeral(true).queue();
             return;
         }
+        activeGames.touch(userId);
         
         String selectedValue = event.getValues().get(0);
         
@@ -541,9 +531,9 @@ public class RouletteCommand implements ICommand {
                 .queue();
         
         // Schedule the result to be shown after a delay (3 seconds)
-        scheduler.schedule(() -> {
+        HashedTimerWheel.getInstance().schedule(() -> {
             // Determine the winning number (0-36)
-            int winningNumber = random.nextInt(NUM_WHEEL_SLOTS);
+            int winningNumber = RandomService.getInstance().outcome("roulette", game.getUserId()).nextInt(NUM_WHEEL_SLOTS);
             game.setWinningNumber(winningNumber);
             
             // Calculate if player won and how much
@@ -553,14 +543,7 @@ public class RouletteCommand implements ICommand {
             
             // Update player balance if they won
             if (won) {
-                LinkedPlayer linkedPlayer = linkedPlayerRepository.findByDiscordId(Long.parseLong(game.getUserId()));
-                if (linkedPlayer != null) {
-                    Player player = playerRepository.findByPlayerId(linkedPlayer.getMainPlayerId());
-                    if (player != null) {
-                        player.getCurrency().addCoins(winAmount);
-                        playerRepository.save(player);
-                    }
-                }
+                game.getWallet().addCoins(winAmount, "payout");
             }
             
             // Determine the color of the winning number
@@ -619,7 +602,7 @@ public class RouletteCommand implements ICommand {
             
             // Game is complete, remove from active games
             game.end();
-            activeGames.remove(game.getUserId());
+            activeGames.end(game.getUserId());
             
         }, 3, TimeUnit.SECONDS);
     }
@@ -633,15 +616,15 @@ public class RouletteCommand implements ICommand {
         // Defer reply for database operations
         event.deferReply().queue();
         
-        // Refund the bet
-        LinkedPlayer linkedPlayer = linkedPlayerRepository.findByDiscordId(Long.parseLong(game.getUserId()));
-        if (linkedPlayer != null) {
-            Player player = playerRepository.findByPlayerId(linkedPlayer.getMainPlayerId());
-            if (player != null) {
-                player.getCurrency().addCoins(game.getBet());
-                playerRepository.save(player);
-            }
+        // End the game first so the bet cannot also be refunded by the timeout
+        if (activeGames.end(game.getUserId()) == null) {
+            event.getHook().sendMessage("This game has expired or does not exist.").setEphemeral(true).queue();
+            return;
         }
+        game.end();
+        
+        // Refund the bet
+        game.getWallet().addCoins(game.getBet(), "refund");
         
         EmbedBuilder embed = new EmbedBuilder()
                 .setTitle("🎲 Roulette - Cancelled")
@@ -651,10 +634,6 @@ public class RouletteCommand implements ICommand {
         event.getHook().sendMessageEmbeds(embed.build())
                 .setEphemeral(true)
                 .queue();
-        
-        // End the game
-        game.end();
-        activeGames.remove(game.getUserId());
     }
     
     /**
@@ -671,7 +650,7 @@ public class RouletteCommand implements ICommand {
         event.deferReply().queue();
         
         // Make sure they're not already in a game
-        if (activeGames.containsKey(userId)) {
+        if (activeGames.contains(userId)) {
             event.getHook().sendMessage("You already have an active roulette game").setEphemeral(true).queue();
             return;
         }
@@ -694,46 +673,25 @@ public class RouletteCommand implements ICommand {
             return;
         }
         
-        // Check if player has enough balance
-        if (player.getCurrency().getCoins() < bet) {
+        // Check balance and deduct bet amount
+        LedgerWallet wallet = EconomyLedger.getInstance().wallet(Long.parseLong(userId), event.getGuild().getIdLong(), "roulette");
+        if (!wallet.removeCoins(bet, "bet")) {
             event.getHook().sendMessage("You don't have enough coins for this bet. Your current balance is " + 
-                   String.format("%,d", player.getCurrency().getCoins()) + " coins.")
+                   String.format("%,d", wallet.getCoins()) + " coins.")
                  .setEphemeral(true).queue();
             return;
         }
         
-        // Deduct bet amount
-        player.getCurrency().removeCoins(bet);
-        playerRepository.save(player);
-        
         // Create new game
-        RouletteGame newGame = new RouletteGame(userId, bet);
-        activeGames.put(userId, newGame);
-        
-        // Set timeout for the game (5 minutes)
-        ScheduledFuture<?> timeoutFuture = scheduler.schedule(() -> {
-            if (activeGames.containsKey(userId)) {
-                RouletteGame expiredGame = activeGames.get(userId);
-                if (expiredGame.isActive() && !expiredGame.isSpinning()) {
-                    activeGames.remove(userId);
-                    // Refund bet amount - get the player again in case data changed
-                    try {
-                        LinkedPlayer lp = linkedPlayerRepository.findByDiscordId(Long.parseLong(userId));
-                        if (lp != null) {
-                            Player p = playerRepository.findByPlayerId(lp.getMainPlayerId());
-                            if (p != null) {
-                                p.getCurrency().addCoins(bet);
-                                playerRepository.save(p);
-                                logger.info("Roulette game for user {} timed out and bet was refunded", userId);
-                            }
-                        }
-                    } catch (Exception e) {
-                        logger.error("Error refunding bet for timed out roulette game", e);
-                    }
-                }
-            }
-        }, 5, TimeUnit.MINUTES);
-        newGame.setTimeoutFuture(timeoutFuture);
+        RouletteGame newGame = new RouletteGame(userId, bet, wallet);
+        if (!activeGames.start(userId, newGame)) {
+            // A game was started meanwhile, e.g. from another click; give the bet back
+            wallet.addCoins(bet, "refund");
+            event.getHook().sendMessage("You already have an active roulette game. Your bet has been refunded.")
+                 .setEphemeral(true).queue();
+            return;
+        }
+        
         
         // Create embed with roulette table and betting options
         EmbedBuilder embed = new EmbedBuilder()
@@ -953,7 +911,8 @@ public class RouletteCommand implements ICommand {
                 }
                 
                 // Get wallet balance
-                long walletBalance = player.getCurrency().getCoins();
+                long walletBalance = EconomyLedger.getInstance().getBalance(userId, event.getGuild().getIdLong(),
+                        CurrencyRepository.GUILD_ECONOMY_SERVER_ID);
                 
                 // Handle user's input
                 String currentValue = event.getFocusedOption().getValue();
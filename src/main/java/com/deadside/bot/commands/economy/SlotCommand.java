@@ -3,10 +3,16 @@ package com.deadside.bot.commands.economy;
 import com.deadside.bot.commands.ICommand;
 import com.deadside.bot.db.models.LinkedPlayer;
 import com.deadside.bot.db.models.Player;
+import com.deadside.bot.db.repositories.CurrencyRepository;
 import com.deadside.bot.db.repositories.LinkedPlayerRepository;
 import com.deadside.bot.db.repositories.PlayerRepository;
+import com.deadside.bot.economy.CooldownTracker;
+import com.deadside.bot.economy.EconomyLedger;
+import com.deadside.bot.economy.LedgerWallet;
+import com.deadside.bot.services.SchedulerService;
 import com.deadside.bot.utils.EmbedUtils;
 import com.deadside.bot.utils.EmbedSender;
+import com.deadside.bot.utils.RandomService;
 import net.dv8tion.jda.api.entities.emoji.Emoji;
 import net.dv8tion.jda.api.events.interaction.command.CommandAutoCompleteInteractionEvent;
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
@@ -21,11 +27,10 @@ import org.slf4j.LoggerFactory;
 
 import java.awt.Color;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.Random;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.random.RandomGenerator;
 import java.util.stream.Collectors;
 
 /**
@@ -35,7 +40,6 @@ public class SlotCommand implements ICommand {
     private static final Logger logger = LoggerFactory.getLogger(SlotCommand.class);
     private final LinkedPlayerRepository linkedPlayerRepository = new LinkedPlayerRepository();
     private final PlayerRepository playerRepository = new PlayerRepository();
-    private final Random random = new Random();
     
     // Slot machine symbols and their weights (probability)
     private static final SlotSymbol[] SYMBOLS = {
@@ -51,8 +55,14 @@ public class SlotCommand implements ICommand {
     private static final int TOTAL_WEIGHT = computeTotalWeight();
     
     // Cooldown tracking
-    private final Map<Long, Long> lastUsage = new HashMap<>();
     private static final long COOLDOWN_SECONDS = 5; // 5 second cooldown
+    private final CooldownTracker<Long> cooldowns = new CooldownTracker<>(COOLDOWN_SECONDS, TimeUnit.SECONDS);
+    
+    /**
+     * One step of the slot machine animation, shown for {@code delayMillis}
+     */
+    private record AnimationFrame(String title, String description, Color color, long delayMillis) {
+    }
     
     @Override
     public String getName() {
@@ -72,17 +82,14 @@ public class SlotCommand implements ICommand {
     @Override
     public void execute(SlashCommandInteractionEvent event) {
         try {
-            // Check cooldown
+            // Check and start cooldown
             long userId = event.getUser().getIdLong();
-            if (isOnCooldown(userId)) {
-                long timeLeft = getRemainingCooldown(userId);
+            if (cooldowns.tryAcquire(userId) > 0) {
+                long timeLeft = cooldowns.getRemainingSeconds(userId);
                 event.reply("You need to wait " + timeLeft + " more seconds before playing again.").setEphemeral(true).queue();
                 return;
             }
             
-            // Set cooldown
-            setCooldown(userId);
-            
             // Defer reply to give us time to process
             event.deferReply().queue();
             
@@ -120,18 +127,19 @@ public class SlotCommand implements ICommand {
                 return;
             }
             
-            // Check if player has enough coins
-            if (player.getCurrency().getCoins() < betAmount) {
+            // Check if player has enough coins and take the bet
+            LedgerWallet wallet = EconomyLedger.getInstance().wallet(userId, event.getGuild().getIdLong(), "slots");
+            if (!wallet.removeCoins(betAmount, "bet")) {
                 event.getHook().sendMessageEmbeds(
                         EmbedUtils.errorEmbed("Insufficient Funds", 
                                 "You don't have enough coins to place this bet. Your current balance is " + 
-                                formatAmount(player.getCurrency().getCoins()) + " coins.")
+                                formatAmount(wallet.getCoins()) + " coins.")
                 ).queue();
                 return;
             }
             
             // Play the slot machine
-            playSlots(event, player, betAmount);
+            playSlots(event, wallet, betAmount);
             
         } catch (Exception e) {
             logger.error("Error executing slot command", e);
@@ -148,10 +156,7 @@ public class SlotCommand implements ICommand {
     /**
      * Play the slot machine with animations
      */
-    private void playSlots(SlashCommandInteractionEvent event, Player player, int betAmount) {
-        // First, take the bet
-        player.getCurrency().removeCoins(betAmount);
-        
+    private void playSlots(SlashCommandInteractionEvent event, LedgerWallet wallet, int betAmount) {
         // Animation phases
         final String[] spinningSymbols = {"🎰", "💫", "✨", "🎲", "🎯"};
         
@@ -163,14 +168,14 @@ public class SlotCommand implements ICommand {
         initialMessage.append("**Bet**: `").append(formatAmount(betAmount)).append(" coins`\n\n");
         initialMessage.append("# ").append(initialDisplay).append("\n\n");
         initialMessage.append("*Spinning the reels...*\n\n");
-        initialMessage.append("**Balance**: `").append(formatAmount(player.getCurrency().getCoins())).append(" coins`");
+        initialMessage.append("**Balance**: `").append(formatAmount(wallet.getCoins())).append(" coins`");
         
         // Send the initial spinning message
         event.getHook().sendMessageEmbeds(
                 EmbedUtils.customEmbed("Slot Machine - Spinning", initialMessage.toString(), Color.BLUE)
         ).queue(message -> {
             // Start the spinning animation
-            animateSlotMachine(message, player, betAmount);
+            animateSlotMachine(message, wallet, betAmount);
         });
         
         // Log the bet
@@ -180,14 +185,14 @@ public class SlotCommand implements ICommand {
     /**
      * Access method for animateSlotMachine (used by ButtonListener)
      */
-    public void accessAnimateSlotMachine(net.dv8tion.jda.api.entities.Message message, Player player, int betAmount) {
-        animateSlotMachine(message, player, betAmount);
+    public void accessAnimateSlotMachine(net.dv8tion.jda.api.entities.Message message, LedgerWallet wallet, int betAmount) {
+        animateSlotMachine(message, wallet, betAmount);
     }
     
     /**
      * Animate the slot machine spinning
      */
-    private void animateSlotMachine(net.dv8tion.jda.api.entities.Message message, Player player, int betAmount) {
+    private void animateSlotMachine(net.dv8tion.jda.api.entities.Message message, LedgerWallet wallet, int betAmount) {
         // Animation frames for spinning
         final String[][] spinFrames = {
             {"🎰", "🎰", "🎰"},
@@ -203,9 +208,10 @@ public class SlotCommand implements ICommand {
         };
         
         // Final result (computed now but revealed later)
+        RandomGenerator random = RandomService.getInstance().outcome("slots", String.valueOf(wallet.getUserId()));
         SlotSymbol[] results = new SlotSymbol[3];
         for (int i = 0; i < 3; i++) {
-            results[i] = spinReel();
+            results[i] = spinReel(random);
         }
         
         // Calculate win amount
@@ -214,148 +220,128 @@ public class SlotCommand implements ICommand {
         
         // If win, add to player's balance
         if (isWin) {
-            player.getCurrency().addCoins(winAmount);
+            wallet.addCoins(winAmount, "payout");
         }
         
-        // Save player data
-        playerRepository.save(player);
+        // Each frame is its own edit, scheduled after the previous one, so no games pool thread sleeps between frames
+        List<AnimationFrame> frames = new ArrayList<>();
+        for (int frame = 0; frame < spinFrames.length; frame++) {
+            // Create spinning display for current frame
+            String spinningDisplay = "[ " + spinFrames[frame][0] + " | " + 
+                                     spinFrames[frame][1] + " | " + 
+                                     spinFrames[frame][2] + " ]";
+            
+            StringBuilder spinMessage = new StringBuilder();
+            spinMessage.append("**Bet**: `").append(formatAmount(betAmount)).append(" coins`\n\n");
+            spinMessage.append("# ").append(spinningDisplay).append("\n\n");
+            spinMessage.append("*Spinning the reels... " + (frame+1) + "/" + spinFrames.length + "*\n\n");
+            spinMessage.append("**Balance**: `").append(formatAmount(wallet.getCoins())).append(" coins`");
+            
+            // Slight delay between frames (speed up toward the end)
+            frames.add(new AnimationFrame("Slot Machine - Spinning", spinMessage.toString(), Color.BLUE,
+                    Math.max(200, 500 - (frame * 50))));
+        }
         
-        // Create a thread to update the message multiple times for animation
-        new Thread(() -> {
-            try {
-                // Show spinning frames
-                for (int frame = 0; frame < spinFrames.length; frame++) {
-                    // Create spinning display for current frame
-                    String spinningDisplay = "[ " + spinFrames[frame][0] + " | " + 
-                                             spinFrames[frame][1] + " | " + 
-                                             spinFrames[frame][2] + " ]";
-                    
-                    // Update message with spinning animation
-                    StringBuilder spinMessage = new StringBuilder();
-                    spinMessage.append("**Bet**: `").append(formatAmount(betAmount)).append(" coins`\n\n");
-                    spinMessage.append("# ").append(spinningDisplay).append("\n\n");
-                    spinMessage.append("*Spinning the reels... " + (frame+1) + "/" + spinFrames.length + "*\n\n");
-                    spinMessage.append("**Balance**: `").append(formatAmount(player.getCurrency().getCoins())).append(" coins`");
-                    
-                    // Update the message
-                    message.editMessageEmbeds(
-                        EmbedUtils.customEmbed("Slot Machine - Spinning", spinMessage.toString(), Color.BLUE)
-                    ).queue();
-                    
-                    // Slight delay between frames (speed up toward the end)
-                    Thread.sleep(Math.max(200, 500 - (frame * 50)));
-                }
-                
-                // Final reveal - first reel
-                String partialReveal1 = "[ " + results[0].symbol + " | " + "💫" + " | " + "💫" + " ]";
-                StringBuilder revealMessage1 = new StringBuilder();
-                revealMessage1.append("**Bet**: `").append(formatAmount(betAmount)).append(" coins`\n\n");
-                revealMessage1.append("# ").append(partialReveal1).append("\n\n");
-                revealMessage1.append("*Revealing results...*\n\n");
-                revealMessage1.append("**Balance**: `").append(formatAmount(player.getCurrency().getCoins())).append(" coins`");
-                
-                message.editMessageEmbeds(
-                    EmbedUtils.customEmbed("Slot Machine - Revealing", revealMessage1.toString(), Color.YELLOW)
-                ).queue();
-                Thread.sleep(700);
-                
-                // Final reveal - second reel
-                String partialReveal2 = "[ " + results[0].symbol + " | " + results[1].symbol + " | " + "💫" + " ]";
-                StringBuilder revealMessage2 = new StringBuilder();
-                revealMessage2.append("**Bet**: `").append(formatAmount(betAmount)).append(" coins`\n\n");
-                revealMessage2.append("# ").append(partialReveal2).append("\n\n");
-                revealMessage2.append("*Almost there...*\n\n");
-                revealMessage2.append("**Balance**: `").append(formatAmount(player.getCurrency().getCoins())).append(" coins`");
-                
-                message.editMessageEmbeds(
-                    EmbedUtils.customEmbed("Slot Machine - Revealing", revealMessage2.toString(), Color.YELLOW)
-                ).queue();
-                Thread.sleep(1000);
-                
-                // Final result display
-                String finalDisplay = "[ " + results[0].symbol + " | " + results[1].symbol + " | " + results[2].symbol + " ]";
-                
-                // Create the final response message
-                StringBuilder finalMessage = new StringBuilder();
-                finalMessage.append("**Bet**: `").append(formatAmount(betAmount)).append(" coins`\n\n");
-                finalMessage.append("# ").append(finalDisplay).append("\n\n");
-                
-                if (isWin) {
-                    finalMessage.append("**🎉 YOU WON!** `").append(formatAmount(winAmount)).append(" coins`\n\n");
-                    if (winAmount >= betAmount * 10) {
-                        finalMessage.append("🔥 **MASSIVE WIN!** 🔥\n\n");
-                    } else if (winAmount >= betAmount * 5) {
-                        finalMessage.append("⭐ **BIG WIN!** ⭐\n\n");
-                    }
-                } else {
-                    finalMessage.append("**😢 YOU LOST!** Better luck next time!\n\n");
-                }
-                
-                finalMessage.append("**Balance**: `").append(formatAmount(player.getCurrency().getCoins())).append(" coins`");
-                
-                // Send the final response with appropriate color based on result
-                Color color = isWin ? Color.GREEN : Color.RED;
-                String title = isWin ? "Slot Machine - Winner!" : "Slot Machine - Try Again";
-                
-                // Add buttons for replay
-                net.dv8tion.jda.api.interactions.components.buttons.Button playAgainButton = 
-                    net.dv8tion.jda.api.interactions.components.buttons.Button.primary("slot:playAgain:" + betAmount, "Play Again");
-                net.dv8tion.jda.api.interactions.components.buttons.Button doubleButton = 
-                    net.dv8tion.jda.api.interactions.components.buttons.Button.success("slot:double:" + betAmount, "Double Bet");
-                net.dv8tion.jda.api.interactions.components.buttons.Button halfButton = 
-                    net.dv8tion.jda.api.interactions.components.buttons.Button.secondary("slot:half:" + betAmount, "Half Bet");
-                
-                // Disable buttons if not enough balance
-                if (player.getCurrency().getCoins() < betAmount) {
-                    playAgainButton = playAgainButton.asDisabled();
-                }
-                if (player.getCurrency().getCoins() < betAmount * 2) {
-                    doubleButton = doubleButton.asDisabled();
-                }
-                
-                message.editMessageEmbeds(
-                    EmbedUtils.customEmbed(title, finalMessage.toString(), color)
-                ).setActionRow(halfButton, playAgainButton, doubleButton).queue();
-                
-                // Log the result
-                if (isWin) {
-                    logger.info("User {} won {} coins from slots with a {} coin bet", 
-                            message.getInteraction().getUser().getName(), winAmount, betAmount);
-                } else {
-                    logger.info("User {} lost {} coins on slots", 
-                            message.getInteraction().getUser().getName(), betAmount);
-                }
-                
-            } catch (InterruptedException e) {
-                logger.error("Slot machine animation interrupted", e);
-                
-                // In case of error, show final result immediately
-                String finalDisplay = "[ " + results[0].symbol + " | " + results[1].symbol + " | " + results[2].symbol + " ]";
-                
-                // Create the error message
-                StringBuilder errorMessage = new StringBuilder();
-                errorMessage.append("**Animation Error**\n\n");
-                errorMessage.append("# ").append(finalDisplay).append("\n\n");
-                
-                if (isWin) {
-                    errorMessage.append("**You won** `").append(formatAmount(winAmount)).append(" coins`\n\n");
-                } else {
-                    errorMessage.append("**You lost** `").append(formatAmount(betAmount)).append(" coins`\n\n");
+        // Final reveal - first reel
+        String partialReveal1 = "[ " + results[0].symbol + " | " + "💫" + " | " + "💫" + " ]";
+        StringBuilder revealMessage1 = new StringBuilder();
+        revealMessage1.append("**Bet**: `").append(formatAmount(betAmount)).append(" coins`\n\n");
+        revealMessage1.append("# ").append(partialReveal1).append("\n\n");
+        revealMessage1.append("*Revealing results...*\n\n");
+        revealMessage1.append("**Balance**: `").append(formatAmount(wallet.getCoins())).append(" coins`");
+        frames.add(new AnimationFrame("Slot Machine - Revealing", revealMessage1.toString(), Color.YELLOW, 700));
+        
+        // Final reveal - second reel
+        String partialReveal2 = "[ " + results[0].symbol + " | " + results[1].symbol + " | " + "💫" + " ]";
+        StringBuilder revealMessage2 = new StringBuilder();
+        revealMessage2.append("**Bet**: `").append(formatAmount(betAmount)).append(" coins`\n\n");
+        revealMessage2.append("# ").append(partialReveal2).append("\n\n");
+        revealMessage2.append("*Almost there...*\n\n");
+        revealMessage2.append("**Balance**: `").append(formatAmount(wallet.getCoins())).append(" coins`");
+        frames.add(new AnimationFrame("Slot Machine - Revealing", revealMessage2.toString(), Color.YELLOW, 1000));
+        
+        showFrames(message, frames, 0, () -> {
+            // Final result display
+            String finalDisplay = "[ " + results[0].symbol + " | " + results[1].symbol + " | " + results[2].symbol + " ]";
+            
+            // Create the final response message
+            StringBuilder finalMessage = new StringBuilder();
+            finalMessage.append("**Bet**: `").append(formatAmount(betAmount)).append(" coins`\n\n");
+            finalMessage.append("# ").append(finalDisplay).append("\n\n");
+            
+            if (isWin) {
+                finalMessage.append("**🎉 YOU WON!** `").append(formatAmount(winAmount)).append(" coins`\n\n");
+                if (winAmount >= betAmount * 10) {
+                    finalMessage.append("🔥 **MASSIVE WIN!** 🔥\n\n");
+                } else if (winAmount >= betAmount * 5) {
+                    finalMessage.append("⭐ **BIG WIN!** ⭐\n\n");
                 }
-                
-                errorMessage.append("**Balance**: `").append(formatAmount(player.getCurrency().getCoins())).append(" coins`");
-                
-                message.editMessageEmbeds(
-                    EmbedUtils.customEmbed("Slot Machine - Result", errorMessage.toString(), Color.GRAY)
-                ).queue();
+            } else {
+                finalMessage.append("**😢 YOU LOST!** Better luck next time!\n\n");
+            }
+            
+            finalMessage.append("**Balance**: `").append(formatAmount(wallet.getCoins())).append(" coins`");
+            
+            // Send the final response with appropriate color based on result
+            Color color = isWin ? Color.GREEN : Color.RED;
+            String title = isWin ? "Slot Machine - Winner!" : "Slot Machine - Try Again";
+            
+            // Add buttons for replay
+            net.dv8tion.jda.api.interactions.components.buttons.Button playAgainButton = 
+                net.dv8tion.jda.api.interactions.components.buttons.Button.primary("slot:playAgain:" + betAmount, "Play Again");
+            net.dv8tion.jda.api.interactions.components.buttons.Button doubleButton = 
+                net.dv8tion.jda.api.interactions.components.buttons.Button.success("slot:double:" + betAmount, "Double Bet");
+            net.dv8tion.jda.api.interactions.components.buttons.Button halfButton = 
+                net.dv8tion.jda.api.interactions.components.buttons.Button.secondary("slot:half:" + betAmount, "Half Bet");
+            
+            // Disable buttons if not enough balance
+            if (wallet.getCoins() < betAmount) {
+                playAgainButton = playAgainButton.asDisabled();
+            }
+            if (wallet.getCoins() < betAmount * 2) {
+                doubleButton = doubleButton.asDisabled();
+            }
+            
+            message.editMessageEmbeds(
+                EmbedUtils.customEmbed(title, finalMessage.toString(), color)
+            ).setActionRow(halfButton, playAgainButton, doubleButton).queue();
+            
+            // Log the result
+            if (isWin) {
+                logger.info("User {} won {} coins from slots with a {} coin bet", 
+                        message.getInteraction().getUser().getName(), winAmount, betAmount);
+            } else {
+                logger.info("User {} lost {} coins on slots", 
+                        message.getInteraction().getUser().getName(), betAmount);
             }
-        }).start();
+        });
+    }
+    
+    /**
+     * Show an animation frame, then schedule the next one after the frame's delay
+     * @param finish Shows the result once every frame has been shown
+     */
+    private void showFrames(net.dv8tion.jda.api.entities.Message message, List<AnimationFrame> frames, int index, Runnable finish) {
+        if (index == frames.size()) {
+            finish.run();
+            return;
+        }
+        
+        AnimationFrame frame = frames.get(index);
+        message.editMessageEmbeds(EmbedUtils.customEmbed(frame.title(), frame.description(), frame.color())).queue();
+        try {
+            SchedulerService.getInstance().schedule("games",
+                    () -> showFrames(message, frames, index + 1, finish), frame.delayMillis(), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // Scheduler is shutting down, show the result immediately
+            finish.run();
+        }
     }
     
     /**
      * Spin a single reel and get a random symbol based on weight
      */
-    private SlotSymbol spinReel() {
+    private SlotSymbol spinReel(RandomGenerator random) {
         int value = random.nextInt(TOTAL_WEIGHT);
         int weightSum = 0;
         
@@ -419,42 +405,6 @@ public class SlotCommand implements ICommand {
         return total;
     }
     
-    /**
-     * Check if user is on cooldown
-     */
-    private boolean isOnCooldown(long userId) {
-        if (!lastUsage.containsKey(userId)) {
-            return false;
-        }
-        
-        long lastUsed = lastUsage.get(userId);
-        long currentTime = System.currentTimeMillis();
-        return (currentTime - lastUsed) < (COOLDOWN_SECONDS * 1000);
-    }
-    
-    /**
-     * Set cooldown for user
-     */
-    private void setCooldown(long userId) {
-        lastUsage.put(userId, System.currentTimeMillis());
-    }
-    
-    /**
-     * Get remaining cooldown time in seconds
-     */
-    private long getRemainingCooldown(long userId) {
-        if (!lastUsage.containsKey(userId)) {
-            return 0;
-        }
-        
-        long lastUsed = lastUsage.get(userId);
-        long currentTime = System.currentTimeMillis();
-        long elapsed = currentTime - lastUsed;
-        long remaining = (COOLDOWN_SECONDS * 1000) - elapsed;
-        
-        return TimeUnit.MILLISECONDS.toSeconds(remaining) + 1; // +1 to round up
-    }
-    
     /**
      * Format a currency amount with commas
      */
@@ -483,7 +433,8 @@ public class SlotCommand implements ICommand {
                 }
                 
                 // Get wallet balance
-                long walletBalance = player.getCurrency().getCoins();
+                long walletBalance = EconomyLedger.getInstance().getBalance(userId, event.getGuild().getIdLong(),
+                        CurrencyRepository.GUILD_ECONOMY_SERVER_ID);
                 
                 // Handle user's input
                 String currentValue = event.getFocusedOption().getValue();
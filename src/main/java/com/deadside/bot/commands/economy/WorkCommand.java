@@ -1,9 +1,11 @@
 package com.deadside.bot.commands.economy;
 
 import com.deadside.bot.commands.ICommand;
-import com.deadside.bot.db.models.Player;
-import com.deadside.bot.db.repositories.PlayerRepository;
+import com.deadside.bot.db.models.Currency;
+import com.deadside.bot.db.repositories.CurrencyRepository;
+import com.deadside.bot.economy.EconomyLedger;
 import com.deadside.bot.utils.Config;
+import com.deadside.bot.utils.RandomService;
 import net.dv8tion.jda.api.EmbedBuilder;
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
 import net.dv8tion.jda.api.interactions.commands.build.CommandData;
@@ -12,7 +14,7 @@ import net.dv8tion.jda.api.interactions.commands.build.Commands;
 import java.awt.*;
 import java.time.Duration;
 import java.time.Instant;
-import java.util.Random;
+import java.util.random.RandomGenerator;
 import java.util.logging.Logger;
 
 /**
@@ -20,9 +22,8 @@ import java.util.logging.Logger;
  */
 public class WorkCommand implements ICommand {
     private static final Logger logger = Logger.getLogger(WorkCommand.class.getName());
-    private final PlayerRepository playerRepository;
+    private final CurrencyRepository currencyRepository;
     private final Config config;
-    private final Random random = new Random();
     private static final Duration COOLDOWN = Duration.ofHours(3);
     
     // Work messages for flavor text
@@ -41,37 +42,33 @@ public class WorkCommand implements ICommand {
 
     public WorkCommand(Config config) {
         this.config = config;
-        this.playerRepository = new PlayerRepository();
+        this.currencyRepository = new CurrencyRepository();
     }
 
     @Override
     public void execute(SlashCommandInteractionEvent event) {
-        String discordId = event.getUser().getId();
         String guildId = event.getGuild().getId();
         
         try {
-            // Find the player by Discord ID
-            Player player = playerRepository.findByDiscordId(discordId, Long.parseLong(guildId));
-            
-            if (player == null) {
-                // If player doesn't exist, create a new one
-                player = new Player();
-                player.setName(event.getUser().getName());
-                player.setDiscordId(discordId);
-                player.setGuildId(Long.parseLong(guildId));
-                player.setCurrency(0);
-                player.setLastWorkTime(Instant.EPOCH); // Set to epoch time for first-time users
-            }
+            long userId = event.getUser().getIdLong();
+            long guild = Long.parseLong(guildId);
+            long minReward = config.getWorkMinAmount();
+            long maxReward = config.getWorkMaxAmount();
+            RandomGenerator random = RandomService.getInstance().outcome("work", String.valueOf(userId));
+            long earnedAmount = random.nextLong(minReward, maxReward + 1);
             
-            // Check if the player can work
-            Instant now = Instant.now();
-            Instant lastWork = player.getLastWorkTime();
-            Duration timeSinceLastWork = Duration.between(lastWork, now);
+            // Cooldown check, credit and timestamp update happen in a single atomic update
+            long newBalance = currencyRepository.claimTimedReward(userId, "lastWork", earnedAmount,
+                    COOLDOWN.toMillis(), guild, CurrencyRepository.GUILD_ECONOMY_SERVER_ID);
             
-            if (timeSinceLastWork.compareTo(COOLDOWN) < 0 && !lastWork.equals(Instant.EPOCH)) {
+            if (newBalance == CurrencyRepository.ON_COOLDOWN) {
                 // Player cannot work yet
-                long hoursRemaining = COOLDOWN.minus(timeSinceLastWork).toHours();
-                long minutesRemaining = COOLDOWN.minus(timeSinceLastWork).toMinutes() % 60;
+                Currency currency = currencyRepository.findByUserIdAndGuildIdAndServerId(
+                        userId, guild, CurrencyRepository.GUILD_ECONOMY_SERVER_ID);
+                Instant lastWork = Instant.ofEpochMilli(currency != null ? currency.getLastWork() : 0);
+                Duration remaining = COOLDOWN.minus(Duration.between(lastWork, Instant.now()));
+                long hoursRemaining = Math.max(0, remaining.toHours());
+                long minutesRemaining = Math.max(0, remaining.toMinutes() % 60);
                 
                 EmbedBuilder embed = new EmbedBuilder()
                         .setTitle("Work - Cooldown Active")
@@ -83,16 +80,13 @@ public class WorkCommand implements ICommand {
                 return;
             }
             
-            // Player can work
-            long minReward = config.getWorkMinAmount();
-            long maxReward = config.getWorkMaxAmount();
-            long earnedAmount = minReward + random.nextInt((int)(maxReward - minReward + 1));
-            
-            player.setCurrency(player.getCurrency() + earnedAmount);
-            player.setLastWorkTime(now);
+            if (newBalance < 0) {
+                event.reply("An error occurred while processing your work.").setEphemeral(true).queue();
+                return;
+            }
             
-            // Save updated player
-            playerRepository.save(player);
+            // Include gambling and bank changes that have not been folded into the snapshot yet
+            newBalance = EconomyLedger.getInstance().getBalance(userId, guild, CurrencyRepository.GUILD_ECONOMY_SERVER_ID);
             
             // Get a random work message
             String workMessage = WORK_MESSAGES[random.nextInt(WORK_MESSAGES.length)];
@@ -103,7 +97,7 @@ public class WorkCommand implements ICommand {
                     .setColor(Color.GREEN)
                     .setDescription(workMessage + ".\n\n" +
                                     "You've earned **" + earnedAmount + "** credits!\n" +
-                                    "Your new balance: **" + player.getCurrency() + "** credits")
+                                    "Your new balance: **" + newBalance + "** credits")
                     .setFooter("You can work again in 3 hours");
             
             event.replyEmbeds(embed.build()).queue();
@@ -5,6 +5,8 @@ import com.deadside.bot.db.models.Player;
 import com.deadside.bot.db.repositories.LeaderboardChannelRepository;
 import com.deadside.bot.db.repositories.PlayerRepository;
 import com.deadside.bot.premium.FeatureGate;
+import com.deadside.bot.services.SchedulerService;
+import com.deadside.bot.utils.DiscordOutbox;
 import com.deadside.bot.utils.EmbedUtils;
 import net.dv8tion.jda.api.Permission;
 import net.dv8tion.jda.api.entities.MessageEmbed;
@@ -21,8 +23,6 @@ import org.slf4j.LoggerFactory;
 
 import java.text.DecimalFormat;
 import java.util.*;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -35,19 +35,11 @@ public class AutoLeaderboardCommand implements ICommand {
     private final LeaderboardChannelRepository leaderboardChannelRepository = new LeaderboardChannelRepository();
     private final DecimalFormat df = new DecimalFormat("#.##");
     
-    // Task scheduler for regular updates 
-    private static final ScheduledExecutorService scheduler = new ScheduledThreadPoolExecutor(1);
-    
-    // Initialize the scheduler on class load
+    // Register the regular updates on the shared scheduler on class load
     static {
         // Update leaderboards every hour
-        scheduler.scheduleAtFixedRate(() -> {
-            try {
-                new AutoLeaderboardCommand().updateAllLeaderboards();
-            } catch (Exception e) {
-                LoggerFactory.getLogger(AutoLeaderboardCommand.class).error("Error in scheduled leaderboard update", e);
-            }
-        }, 1, 60, TimeUnit.MINUTES);
+        SchedulerService.getInstance().scheduleJob("auto-leaderboard", "leaderboard",
+            () -> new AutoLeaderboardCommand().updateAllLeaderboards(), 1, 60, TimeUnit.MINUTES);
     }
     
     @Override
@@ -172,18 +164,17 @@ public class AutoLeaderboardCommand implements ICommand {
         MessageEmbed streakEmbed = createTopStreakEmbed(topStreak);
         MessageEmbed weaponsEmbed = createTopWeaponsEmbed(3);
         
-        // Send each embed with a small delay to ensure order
-        channel.sendMessageEmbeds(killersEmbed).queue(success -> {
-            channel.sendMessageEmbeds(kdEmbed).queue(success2 -> {
-                channel.sendMessageEmbeds(deathsEmbed).queue(success3 -> {
-                    channel.sendMessageEmbeds(distanceEmbed).queue(success4 -> {
-                        channel.sendMessageEmbeds(streakEmbed).queue(success5 -> {
-                            channel.sendMessageEmbeds(weaponsEmbed).queue();
-                        });
-                    });
-                });
-            });
-        });
+        // Send the embeds in order as one chained request; a newer refresh of the same channel
+        // replaces this one if it is still waiting in the outbox
+        DiscordOutbox.getInstance().submitCoalesced(DiscordOutbox.Lane.LEADERBOARD, DiscordOutbox.messageRoute(channel),
+            "leaderboard:" + channel.getId(),
+            () -> channel.sendMessageEmbeds(killersEmbed)
+                .flatMap(success -> channel.sendMessageEmbeds(kdEmbed))
+                .flatMap(success -> channel.sendMessageEmbeds(deathsEmbed))
+                .flatMap(success -> channel.sendMessageEmbeds(distanceEmbed))
+                .flatMap(success -> channel.sendMessageEmbeds(streakEmbed))
+                .flatMap(success -> channel.sendMessageEmbeds(weaponsEmbed)),
+            null, error -> logger.error("Failed to send leaderboard to channel {}", channel.getId(), error));
     }
     
     /**
@@ -3,6 +3,9 @@ package com.deadside.bot.commands.stats;
 import com.deadside.bot.commands.ICommand;
 import com.deadside.bot.db.models.GameServer;
 import com.deadside.bot.db.models.Player;
+import com.deadside.bot.db.models.PlayerField;
+import com.deadside.bot.db.models.PlayerSummary;
+import com.deadside.bot.db.repositories.AsyncPlayerRepository;
 import com.deadside.bot.db.repositories.GameServerRepository;
 import com.deadside.bot.db.repositories.PlayerRepository;
 import com.deadside.bot.isolation.DefaultServerInitializer;
@@ -32,6 +35,7 @@ import java.util.stream.Collectors;
 public class LeaderboardCommand implements ICommand {
     private static final Logger logger = LoggerFactory.getLogger(LeaderboardCommand.class);
     private final PlayerRepository playerRepository = new PlayerRepository();
+    private final AsyncPlayerRepository asyncPlayerRepository = new AsyncPlayerRepository(playerRepository);
     private final DecimalFormat df = new DecimalFormat("#.##");
     
     @Override
@@ -124,43 +128,45 @@ public class LeaderboardCommand implements ICommand {
         }
         
         try {
-            // Get top players by kills with proper isolation
-            List<Player> allPlayers = playerRepository.getTopPlayersByKills(guildId, serverId, 10);
-            
-            if (allPlayers.isEmpty()) {
-                // Use our helper method to get the appropriate message based on isolation mode
-                String reason = getIsolationReasonMessage(activeServer);
+            // Get top players by kills with proper isolation, loading only leaderboard fields
+            asyncPlayerRepository.findTopSummaries(serverId, PlayerField.KILLS, 0, 10, PlayerRepository.LEADERBOARD_FIELDS)
+                .thenAccept(GuildIsolationManager.getInstance().withCurrentContext(allPlayers -> {
+                    if (allPlayers.isEmpty()) {
+                        // Use our helper method to get the appropriate message based on isolation mode
+                        String reason = getIsolationReasonMessage(activeServer);
                 
-                event.getHook().sendMessageEmbeds(
-                    EmbedThemes.fallbackLeaderboardEmbed(
-                        "Top Killers Leaderboard", 
-                        reason,
-                        activeServer != null ? activeServer.getName() : event.getGuild().getName()
-                    )
-                ).queue();
-                return;
-            }
+                        event.getHook().sendMessageEmbeds(
+                            EmbedThemes.fallbackLeaderboardEmbed(
+                                "Top Killers Leaderboard", 
+                                reason,
+                                activeServer != null ? activeServer.getName() : event.getGuild().getName()
+                            )
+                        ).queue();
+                        return;
+                    }
             
-            // Build leaderboard
-            StringBuilder description = new StringBuilder();
+                    // Build leaderboard
+                    StringBuilder description = new StringBuilder();
             
-            for (int i = 0; i < allPlayers.size(); i++) {
-                Player player = allPlayers.get(i);
-                description.append("`").append(i + 1).append(".` **")
-                        .append(player.getName()).append("** - ")
-                        .append(player.getKills()).append(" kills (")
-                        .append(player.getDeaths()).append(" deaths)\n");
-            }
+                    for (int i = 0; i < allPlayers.size(); i++) {
+                        PlayerSummary player = allPlayers.get(i);
+                        description.append("`").append(i + 1).append(".` **")
+                                .append(player.name()).append("** - ")
+                                .append(player.kills()).append(" kills (")
+                                .append(player.deaths()).append(" deaths)\n");
+                    }
             
-            // Use our new isolation-aware embed with proper context
-            event.getHook().sendMessageEmbeds(
-                EmbedThemes.isolationAwareLeaderboardEmbed(
-                    "Top Killers Leaderboard", 
-                    description.toString(),
-                    activeServer != null ? activeServer.getIsolationMode() : "standard",
-                    activeServer != null ? activeServer.getName() : event.getGuild().getName()
-                )
-            ).queue();
+                    // Use our new isolation-aware embed with proper context
+                    event.getHook().sendMessageEmbeds(
+                        EmbedThemes.isolationAwareLeaderboardEmbed(
+                            "Top Killers Leaderboard", 
+                            description.toString(),
+                            activeServer != null ? activeServer.getIsolationMode() : "standard",
+                            activeServer != null ? activeServer.getName() : event.getGuild().getName()
+                        )
+                    ).queue();
+                }))
+                .exceptionally(e -> handleAsyncError(event, e));
         } finally {
             // Always clear context when done
             GuildIsolationManager.getInstance().clearContext();
@@ -184,63 +190,65 @@ public class LeaderboardCommand implements ICommand {
         
         try {
             // Get top 10 players by K/D ratio (minimum 10 kills to qualify) with proper isolation
-            List<Player> kdPlayers = playerRepository.getTopPlayersByKD(guildId, serverId, 10, 10);
-            
-            if (kdPlayers.isEmpty()) {
-                // Use our helper method and add additional context for KD requirements
-                String reason = getIsolationReasonMessage(activeServer);
+            asyncPlayerRepository.findTopSummaries(serverId, PlayerField.KDR, 10, 10, PlayerRepository.LEADERBOARD_FIELDS)
+                .thenAccept(GuildIsolationManager.getInstance().withCurrentContext(kdPlayers -> {
+                    if (kdPlayers.isEmpty()) {
+                        // Use our helper method and add additional context for KD requirements
+                        String reason = getIsolationReasonMessage(activeServer);
                 
-                // If not a restricted server, add additional context for KD requirements
-                if (activeServer == null || (!activeServer.hasRestrictedIsolation())) {
-                    reason = "No player statistics available for this server yet. " +
-                            "Players will appear here after they've recorded at least 10 kills.";
-                }
+                        // If not a restricted server, add additional context for KD requirements
+                        if (activeServer == null || (!activeServer.hasRestrictedIsolation())) {
+                            reason = "No player statistics available for this server yet. " +
+                                    "Players will appear here after they've recorded at least 10 kills.";
+                        }
                 
-                event.getHook().sendMessageEmbeds(
-                    EmbedThemes.fallbackLeaderboardEmbed(
-                        "Top K/D Ratio Leaderboard", 
-                        reason,
-                        activeServer != null ? activeServer.getName() : event.getGuild().getName()
-                    )
-                ).queue();
-                return;
-            }
+                        event.getHook().sendMessageEmbeds(
+                            EmbedThemes.fallbackLeaderboardEmbed(
+                                "Top K/D Ratio Leaderboard", 
+                                reason,
+                                activeServer != null ? activeServer.getName() : event.getGuild().getName()
+                            )
+                        ).queue();
+                        return;
+                    }
             
-            // Sort by K/D ratio with improved calculation to handle division by zero
-            kdPlayers.sort((p1, p2) -> {
-                double kd1 = calculateKD(p1.getKills(), p1.getDeaths());
-                double kd2 = calculateKD(p2.getKills(), p2.getDeaths());
-                return Double.compare(kd2, kd1);
-            });
+                    // Sort by K/D ratio with improved calculation to handle division by zero
+                    kdPlayers.sort((p1, p2) -> {
+                        double kd1 = calculateKD(p1.kills(), p1.deaths());
+                        double kd2 = calculateKD(p2.kills(), p2.deaths());
+                        return Double.compare(kd2, kd1);
+                    });
             
-            // Limit to top 10
-            if (kdPlayers.size() > 10) {
-                kdPlayers = kdPlayers.subList(0, 10);
-            }
+                    // Limit to top 10
+                    if (kdPlayers.size() > 10) {
+                        kdPlayers = kdPlayers.subList(0, 10);
+                    }
             
-            // Build leaderboard
-            StringBuilder description = new StringBuilder();
+                    // Build leaderboard
+                    StringBuilder description = new StringBuilder();
             
-            for (int i = 0; i < kdPlayers.size(); i++) {
-                Player player = kdPlayers.get(i);
-                double kd = calculateKD(player.getKills(), player.getDeaths());
+                    for (int i = 0; i < kdPlayers.size(); i++) {
+                        PlayerSummary player = kdPlayers.get(i);
+                        double kd = calculateKD(player.kills(), player.deaths());
                 
-                description.append("`").append(i + 1).append(".` **")
-                        .append(player.getName()).append("** - ")
-                        .append(df.format(kd)).append(" K/D (")
-                        .append(player.getKills()).append("k/")
-                        .append(player.getDeaths()).append("d)\n");
-            }
+                        description.append("`").append(i + 1).append(".` **")
+                                .append(player.name()).append("** - ")
+                                .append(df.format(kd)).append(" K/D (")
+                                .append(player.kills()).append("k/")
+                                .append(player.deaths()).append("d)\n");
+                    }
             
-            // Use our new isolation-aware embed with proper context
-            event.getHook().sendMessageEmbeds(
-                EmbedThemes.isolationAwareLeaderboardEmbed(
-                    "Top K/D Ratio Leaderboard", 
-                    description.toString(),
-                    activeServer != null ? activeServer.getIsolationMode() : "standard",
-                    activeServer != null ? activeServer.getName() : event.getGuild().getName()
-                )
-            ).queue();
+                    // Use our new isolation-aware embed with proper context
+                    event.getHook().sendMessageEmbeds(
+                        EmbedThemes.isolationAwareLeaderboardEmbed(
+                            "Top K/D Ratio Leaderboard", 
+                            description.toString(),
+                            activeServer != null ? activeServer.getIsolationMode() : "standard",
+                            activeServer != null ? activeServer.getName() : event.getGuild().getName()
+                        )
+                    ).queue();
+                }))
+                .exceptionally(e -> handleAsyncError(event, e));
         } finally {
             // Always clear context when done
             GuildIsolationManager.getInstance().clearContext();
@@ -258,6 +266,15 @@ public class LeaderboardCommand implements ICommand {
         return (double) kills / deaths;
     }
     
+    /**
+     * Report a failed asynchronous leaderboard query to the deferred reply
+     */
+    private Void handleAsyncError(SlashCommandInteractionEvent event, Throwable error) {
+        logger.error("Error retrieving leaderboard", error);
+        event.getHook().sendMessage("An error occurred while retrieving the leaderboard.").queue();
+        return null;
+    }
+    
     /**
      * Display leaderboard for longest kill distances
      */
@@ -550,49 +567,52 @@ public class LeaderboardCommand implements ICommand {
         
         try {
             // Get top players by death count with proper isolation
-            List<Player> deathPlayers = playerRepository.getTopPlayersByDeaths(guildId, serverId, 10);
-            
-            if (deathPlayers.isEmpty()) {
-                // Use our new fallback embed for empty data
-                // Use our helper method and add additional context when appropriate
-                String reason = getIsolationReasonMessage(activeServer);
+            asyncPlayerRepository.findTopSummaries(serverId, PlayerField.DEATHS, 0, 10, PlayerRepository.DEATHS_LEADERBOARD_FIELDS)
+                .thenAccept(GuildIsolationManager.getInstance().withCurrentContext(deathPlayers -> {
+                    if (deathPlayers.isEmpty()) {
+                        // Use our new fallback embed for empty data
+                        // Use our helper method and add additional context when appropriate
+                        String reason = getIsolationReasonMessage(activeServer);
                 
-                // If not a restricted server, provide a more specific message
-                if (activeServer == null || (!activeServer.hasRestrictedIsolation())) {
-                    reason = "No deaths have been recorded yet.";
-                }
+                        // If not a restricted server, provide a more specific message
+                        if (activeServer == null || (!activeServer.hasRestrictedIsolation())) {
+                            reason = "No deaths have been recorded yet.";
+                        }
                 
-                event.getHook().sendMessageEmbeds(
-                    EmbedThemes.fallbackLeaderboardEmbed(
-                        "Most Deaths Leaderboard", 
-                        reason,
-                        activeServer != null ? activeServer.getName() : event.getGuild().getName()
-                    )
-                ).queue();
-                return;
-            }
-            
-            // Build leaderboard
-            StringBuilder description = new StringBuilder();
+                        event.getHook().sendMessageEmbeds(
+                            EmbedThemes.fallbackLeaderboardEmbed(
+                                "Most Deaths Leaderboard", 
+                                reason,
+                                activeServer != null ? activeServer.getName() : event.getGuild().getName()
+                            )
+                        ).queue();
+                        return;
+                    }
             
-            for (int i = 0; i < deathPlayers.size(); i++) {
-                Player player = deathPlayers.get(i);
-                description.append("`").append(i + 1).append(".` **")
-                        .append(player.getName()).append("** - ")
-                        .append(player.getDeaths()).append(" deaths ")
-                        .append("(Suicides: ").append(player.getSuicides()).append(" | ")
-                        .append("Killed most by: ").append(player.getKilledByMost()).append(")\n");
-            }
+                    // Build leaderboard
+                    StringBuilder description = new StringBuilder();
+            
+                    for (int i = 0; i < deathPlayers.size(); i++) {
+                        PlayerSummary player = deathPlayers.get(i);
+                        description.append("`").append(i + 1).append(".` **")
+                                .append(player.name()).append("** - ")
+                                .append(player.deaths()).append(" deaths ")
+                                .append("(Suicides: ").append(player.suicides()).append(" | ")
+                                .append("Killed most by: ")
+                                .append(player.killedByMost() != null ? player.killedByMost() : "None").append(")\n");
+                    }
             
-            // Use our new isolation-aware embed with proper context
-            event.getHook().sendMessageEmbeds(
-                EmbedThemes.isolationAwareLeaderboardEmbed(
-                    "Most Deaths Leaderboard", 
-                    description.toString(),
-                    activeServer != null ? activeServer.getIsolationMode() : "standard",
-                    activeServer != null ? activeServer.getName() : event.getGuild().getName()
-                )
-            ).queue();
+                    // Use our new isolation-aware embed with proper context
+                    event.getHook().sendMessageEmbeds(
+                        EmbedThemes.isolationAwareLeaderboardEmbed(
+                            "Most Deaths Leaderboard", 
+                            description.toString(),
+                            activeServer != null ? activeServer.getIsolationMode() : "standard",
+                            activeServer != null ? activeServer.getName() : event.getGuild().getName()
+                        )
+                    ).queue();
+                }))
+                .exceptionally(e -> handleAsyncError(event, e));
         } finally {
             // Always clear context when done
             GuildIsolationManager.getInstance().clearContext();
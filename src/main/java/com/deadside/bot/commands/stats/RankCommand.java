@@ -1,11 +1,17 @@
 package com.deadside.bot.commands.stats;
 
 import com.deadside.bot.commands.ICommand;
+import com.deadside.bot.db.models.GameServer;
 import com.deadside.bot.db.models.Player;
+import com.deadside.bot.db.models.PlayerField;
+import com.deadside.bot.db.models.PlayerSummary;
+import com.deadside.bot.db.repositories.AsyncPlayerRepository;
+import com.deadside.bot.db.repositories.GameServerRepository;
 import com.deadside.bot.db.repositories.PlayerRepository;
 import com.deadside.bot.premium.PremiumManager;
 import com.deadside.bot.utils.EmbedUtils;
 import com.deadside.bot.utils.EmbedSender;
+import com.deadside.bot.utils.GuildIsolationManager;
 import net.dv8tion.jda.api.entities.User;
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
 import net.dv8tion.jda.api.interactions.commands.OptionMapping;
@@ -27,9 +33,17 @@ import java.util.stream.Collectors;
 public class RankCommand implements ICommand {
     private static final Logger logger = LoggerFactory.getLogger(RankCommand.class);
     private final PlayerRepository playerRepository = new PlayerRepository();
+    private final GameServerRepository gameServerRepository = new GameServerRepository();
+    private final AsyncPlayerRepository asyncPlayerRepository = new AsyncPlayerRepository(playerRepository);
     private final PremiumManager premiumManager = new PremiumManager();
     private final DecimalFormat df = new DecimalFormat("#.##");
     
+    /** Minimum threshold to be included in ranking */
+    private static final int MIN_KILLS = 5;
+    
+    /** Maximum number of players considered when computing ranks */
+    private static final int RANKING_POOL_SIZE = 1000;
+    
     @Override
     public String getName() {
         return "rank";
@@ -51,13 +65,20 @@ public class RankCommand implements ICommand {
         
         // Check for premium if feature is restricted
         long guildId = event.getGuild().getIdLong();
-        String serverId = event.getGuild().getName(); // Use guild name as server ID
         
         if (!premiumManager.hasPremium(guildId)) {
             event.reply("This command is only available with premium. The killfeed is available for free.").setEphemeral(true).queue();
             return;
         }
         
+        // Players record the game server IDs they played on, so rank within the guild's game server
+        GameServer server = getGameServer(guildId);
+        if (server == null) {
+            event.reply("No game server has been added to this Discord yet.").setEphemeral(true).queue();
+            return;
+        }
+        String serverId = server.getServerId();
+        
         String playerName = event.getOption("player", OptionMapping::getAsString);
         User targetUser = event.getOption("user", OptionMapping::getAsUser);
         
@@ -68,6 +89,9 @@ public class RankCommand implements ICommand {
         
         event.deferReply().queue();
         
+        // Set isolation context for proper data boundaries
+        GuildIsolationManager.getInstance().setContext(guildId, serverId);
+        
         try {
             Player player = null;
             
@@ -112,29 +136,48 @@ public class RankCommand implements ICommand {
                 return;
             }
             
-            // Get all ranked players to compute ranks with server isolation
-            List<Player> allPlayers = playerRepository.getTopPlayersByKills(guildId, serverId, 1000); // Get a lot of players with server isolation
-            
-            // Calculate ranks and send embed
-            event.getHook().sendMessageEmbeds(buildRankEmbed(player, allPlayers)).queue();
+            // Get all rankable players with server isolation as lightweight views, without blocking
+            final Player rankedPlayer = player;
+            asyncPlayerRepository.findTopSummaries(
+                    serverId, PlayerField.KILLS, MIN_KILLS, RANKING_POOL_SIZE, PlayerRepository.LEADERBOARD_FIELDS)
+                .thenAccept(GuildIsolationManager.getInstance().withCurrentContext(rankedPlayers ->
+                    // Calculate ranks and send embed
+                    event.getHook().sendMessageEmbeds(buildRankEmbed(rankedPlayer, rankedPlayers)).queue()))
+                .exceptionally(e -> {
+                    logger.error("Error retrieving player rank", e);
+                    event.getHook().sendMessage("An error occurred while retrieving player rank.").queue();
+                    return null;
+                });
             
         } catch (Exception e) {
             logger.error("Error retrieving player rank", e);
             event.getHook().sendMessage("An error occurred while retrieving player rank.").queue();
+        } finally {
+            // Always clear context when done
+            GuildIsolationManager.getInstance().clearContext();
         }
     }
     
+    /**
+     * Get the game server of a guild, preferring an active one
+     * @return The server, or null if the guild has none
+     */
+    private GameServer getGameServer(long guildId) {
+        List<GameServer> servers = gameServerRepository.findActiveByGuildId(guildId);
+        if (servers.isEmpty()) {
+            servers = gameServerRepository.findByGuildId(guildId);
+        }
+        return servers.isEmpty() ? null : servers.get(0);
+    }
+    
     /**
      * Build the player rank embed with various stat rankings
      */
-    private net.dv8tion.jda.api.entities.MessageEmbed buildRankEmbed(Player player, List<Player> allPlayers) {
-        // Minimum threshold to be included in ranking
-        final int MIN_KILLS = 5;
-        
-        // Filter players with minimum kills for ranking and exclude invalid player records
-        List<Player> rankablePlayers = allPlayers.stream()
-                .filter(p -> p.getKills() >= MIN_KILLS)
-                .filter(p -> p.getName() != null && !p.getName().isEmpty() && !"**".equals(p.getName()))
+    private net.dv8tion.jda.api.entities.MessageEmbed buildRankEmbed(Player player, List<PlayerSummary> rankedPlayers) {
+        // Exclude invalid player records from ranking
+        List<PlayerSummary> rankablePlayers = rankedPlayers.stream()
+                .filter(p -> p.kills() >= MIN_KILLS)
+                .filter(p -> p.name() != null && !p.name().isEmpty() && !"**".equals(p.name()))
                 .collect(Collectors.toList());
         
         // Total number of ranked players
@@ -145,36 +188,12 @@ public class RankCommand implements ICommand {
         
         // Calculate kills rank
         int killsRank = isRanked ? calculateRank(player, rankablePlayers, 
-                Comparator.comparingInt(Player::getKills).reversed()) : -1;
+                Comparator.comparingInt(PlayerSummary::kills).reversed()) : -1;
         
         // Calculate K/D rank (only for players with kills)
         int kdRank = isRanked ? calculateRank(player, rankablePlayers,
-                Comparator.comparingDouble(Player::getKdRatio).reversed()) : -1;
-        
-        // Calculate score rank
-        int scoreRank = isRanked ? calculateRank(player, rankablePlayers,
-                Comparator.comparingInt(Player::getScore).reversed()) : -1;
-                
-        // Calculate distance rank (if available)
-        int distanceRank = -1;
-        if (player.getLongestKillDistance() > 0) {
-            distanceRank = calculateRank(player, allPlayers.stream()
-                .filter(p -> p.getLongestKillDistance() > 0)
-                .filter(p -> p.getName() != null && !p.getName().isEmpty() && !"**".equals(p.getName()))
-                .collect(Collectors.toList()),
-                Comparator.comparingInt(Player::getLongestKillDistance).reversed());
-        }
+                Comparator.comparingDouble(PlayerSummary::kdRatio).reversed()) : -1;
         
-        // Calculate streak rank (if available)
-        int streakRank = -1;
-        if (player.getLongestKillStreak() > 0) {
-            streakRank = calculateRank(player, allPlayers.stream()
-                .filter(p -> p.getLongestKillStreak() > 0)
-                .filter(p -> p.getName() != null && !p.getName().isEmpty() && !"**".equals(p.getName()))
-                .collect(Collectors.toList()),
-                Comparator.comparingInt(Player::getLongestKillStreak).reversed());
-        }
-                
         // Build embed description
         StringBuilder description = new StringBuilder();
         description.append("# ").append(player.getName()).append("'s Rankings\n\n");
@@ -217,26 +236,7 @@ public class RankCommand implements ICommand {
                      
             description.append("K/D Ratio Rank: **#").append(kdRank).append("** (Top ")
                      .append(calculatePercentile(kdRank, totalPlayers)).append("%)\n");
-                     
-            description.append("Score Rank: **#").append(scoreRank).append("** (Top ")
-                     .append(calculatePercentile(scoreRank, totalPlayers)).append("%)\n");
-                     
-            // Add distance and streak rankings if available
-            if (distanceRank > 0) {
-                int distanceTotalPlayers = (int)allPlayers.stream()
-                    .filter(p -> p.getLongestKillDistance() > 0).count();
-                    
-                description.append("Longest Kill Rank: **#").append(distanceRank).append("** (Top ")
-                         .append(calculatePercentile(distanceRank, distanceTotalPlayers)).append("%)\n");
-            }
-            
-            if (streakRank > 0) {
-                int streakTotalPlayers = (int)allPlayers.stream()
-                    .filter(p -> p.getLongestKillStreak() > 0).count();
-                    
-                description.append("Kill Streak Rank: **#").append(streakRank).append("** (Top ")
-                         .append(calculatePercentile(streakRank, streakTotalPlayers)).append("%)\n");
-            }
+
         } else {
             description.append("Not enough kills to be ranked yet. Get ").append(MIN_KILLS - player.getKills())
                      .append(" more kills to be included in rankings.\n");
@@ -308,15 +308,15 @@ public class RankCommand implements ICommand {
     /**
      * Calculate the rank of a player among all players using the provided comparator
      */
-    private int calculateRank(Player player, List<Player> allPlayers, Comparator<Player> comparator) {
+    private int calculateRank(Player player, List<PlayerSummary> allPlayers, Comparator<PlayerSummary> comparator) {
         // Sort players by the given comparator
-        List<Player> sortedPlayers = allPlayers.stream()
+        List<PlayerSummary> sortedPlayers = allPlayers.stream()
                 .sorted(comparator)
                 .collect(Collectors.toList());
         
         // Find player's position (0-based index)
         for (int i = 0; i < sortedPlayers.size(); i++) {
-            if (sortedPlayers.get(i).getPlayerId().equals(player.getPlayerId())) {
+            if (sortedPlayers.get(i).id().equals(player.getId())) {
                 return i + 1; // Convert to 1-based index for display
             }
         }
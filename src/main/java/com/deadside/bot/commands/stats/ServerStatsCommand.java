@@ -2,8 +2,10 @@ package com.deadside.bot.commands.stats;
 
 import com.deadside.bot.commands.ICommand;
 import com.deadside.bot.db.models.GameServer;
+import com.deadside.bot.db.models.ServerActivity;
 import com.deadside.bot.db.repositories.GameServerRepository;
 import com.deadside.bot.db.repositories.PlayerRepository;
+import com.deadside.bot.services.PlayerSessionTracker;
 import com.deadside.bot.utils.EmbedThemes;
 import net.dv8tion.jda.api.entities.Guild;
 import net.dv8tion.jda.api.events.interaction.command.CommandAutoCompleteInteractionEvent;
@@ -63,9 +65,11 @@ public class ServerStatsCommand implements ICommand {
                 return;
             }
             
-            // Get player count, unique players, etc.
-            int totalPlayers = playerRepository.countUniquePlayersByServerId(server.getServerId());
-            int activePlayersLast24h = playerRepository.countActivePlayersInLastHours(server.getServerId(), 24);
+            // Activity is precomputed by the session tracker from join/leave events
+            ServerActivity activity = PlayerSessionTracker.getInstance().getActivity(server);
+            long totalPlayers = playerRepository.countActiveByServerIds(List.of(server.getServerId()));
+            int activePlayersLast24h = activity != null ? activity.activeLast24h() : 0;
+            int peakPlayersLast24h = activity != null ? activity.peakLast24h() : 0;
             int totalKills = playerRepository.countTotalKillsByServerId(server.getServerId());
             int onlinePlayers = server.getCurrentPlayers();
             int maxPlayers = server.getMaxPlayers();
@@ -75,6 +79,7 @@ public class ServerStatsCommand implements ICommand {
             stats.append("**Players Online:** ").append(onlinePlayers).append("/").append(maxPlayers).append("\n");
             stats.append("**Total Unique Players:** ").append(totalPlayers).append("\n");
             stats.append("**Active Last 24h:** ").append(activePlayersLast24h).append("\n");
+            stats.append("**Peak Last 24h:** ").append(peakPlayersLast24h).append("\n");
             stats.append("**Total Kills:** ").append(totalKills).append("\n");
             
             if (server.getServerVersion() != null && !server.getServerVersion().isEmpty()) {
@@ -149,7 +149,7 @@ public class Config {
      * @return Update interval in seconds
      */
     public int getKillfeedUpdateInterval() {
-        return getIntProperty("killfeed.interval", 60);
+        return getIntProperty("killfeed.update.interval", 60);
     }
     
     /**
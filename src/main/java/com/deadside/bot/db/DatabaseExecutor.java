@@ -0,0 +1,90 @@
+package com.deadside.bot.db;
+
+import com.deadside.bot.config.Config;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Dedicated executor for asynchronous database calls.
+ * Keeps blocking MongoDB round trips off JDA event threads and scheduler threads.
+ */
+public class DatabaseExecutor {
+    private static final Logger logger = LoggerFactory.getLogger(DatabaseExecutor.class);
+    private static final int DEFAULT_THREADS = 16;
+    private static ExecutorService executor;
+
+    /**
+     * Get the shared database executor, creating it on first use
+     * @return Executor service for database calls
+     */
+    public static synchronized ExecutorService getExecutor() {
+        if (executor == null || executor.isShutdown()) {
+            int threads = Math.max(1, Config.getIntProperty("mongodb.async.threads", DEFAULT_THREADS));
+            executor = Executors.newFixedThreadPool(threads, new DatabaseThreadFactory());
+            logger.info("Database executor started with {} threads", threads);
+        }
+        return executor;
+    }
+
+    /**
+     * Run a database call asynchronously
+     * @param call The blocking database call
+     * @param <T> Result type
+     * @return Future completed with the call's result
+     */
+    public static <T> CompletableFuture<T> supplyAsync(Supplier<T> call) {
+        return CompletableFuture.supplyAsync(call, getExecutor());
+    }
+
+    /**
+     * Run a database call without a result asynchronously
+     * @param call The blocking database call
+     * @return Future completed when the call finishes
+     */
+    public static CompletableFuture<Void> runAsync(Runnable call) {
+        return CompletableFuture.runAsync(call, getExecutor());
+    }
+
+    /**
+     * Shut down the executor, waiting briefly for in-flight calls
+     */
+    public static synchronized void shutdown() {
+        if (executor == null) {
+            return;
+        }
+
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        executor = null;
+        logger.info("Database executor stopped");
+    }
+
+    /**
+     * Thread factory producing named daemon threads for database work
+     */
+    private static class DatabaseThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "mongo-async-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -1,7 +1,10 @@
 package com.deadside.bot.db;
 
+import com.deadside.bot.config.Config;
+import com.deadside.bot.economy.EconomyLedger;
 import com.mongodb.ConnectionString;
 import com.mongodb.MongoClientSettings;
+import com.mongodb.ReadPreference;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoClients;
 import com.mongodb.client.MongoCollection;
@@ -12,6 +15,8 @@ import org.bson.codecs.pojo.PojoCodecProvider;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.concurrent.TimeUnit;
+
 import static org.bson.codecs.configuration.CodecRegistries.fromProviders;
 import static org.bson.codecs.configuration.CodecRegistries.fromRegistries;
 
@@ -24,6 +29,8 @@ public class MongoDBConnection {
     private static MongoDatabase database;
     private static boolean initialized = false;
     private static String connectionString;
+    private static MongoMetrics metrics;
+    private static ReadPreference leaderboardReadPreference = ReadPreference.primary();
 
     /**
      * Initialize the MongoDB connection
@@ -45,11 +52,53 @@ public class MongoDBConnection {
                     fromProviders(PojoCodecProvider.builder().automatic(true).build())
             );
 
-            // Configure client settings
-            MongoClientSettings settings = MongoClientSettings.builder()
+            // Pool and command metrics
+            metrics = new MongoMetrics(Config.getIntProperty("mongodb.pool.slowCheckoutMs", 250));
+            
+            // Configure client settings; explicit config.properties values override the connection string
+            MongoClientSettings.Builder builder = MongoClientSettings.builder()
                     .applyConnectionString(new ConnectionString(mongoUri))
                     .codecRegistry(pojoCodecRegistry)
-                    .build();
+                    .addCommandListener(metrics)
+                    .applyToConnectionPoolSettings(pool -> {
+                        pool.addConnectionPoolListener(metrics);
+                        if (Config.hasProperty("mongodb.pool.maxSize")) {
+                            pool.maxSize(Config.getIntProperty("mongodb.pool.maxSize", 100));
+                        }
+                        if (Config.hasProperty("mongodb.pool.minSize")) {
+                            pool.minSize(Config.getIntProperty("mongodb.pool.minSize", 0));
+                        }
+                        if (Config.hasProperty("mongodb.pool.maxConnecting")) {
+                            pool.maxConnecting(Config.getIntProperty("mongodb.pool.maxConnecting", 2));
+                        }
+                        if (Config.hasProperty("mongodb.pool.maxWaitMs")) {
+                            pool.maxWaitTime(Config.getIntProperty("mongodb.pool.maxWaitMs", 120000), TimeUnit.MILLISECONDS);
+                        }
+                        if (Config.hasProperty("mongodb.pool.maxIdleMs")) {
+                            pool.maxConnectionIdleTime(Config.getIntProperty("mongodb.pool.maxIdleMs", 0), TimeUnit.MILLISECONDS);
+                        }
+                    })
+                    .applyToSocketSettings(socket -> {
+                        if (Config.hasProperty("mongodb.socket.connectTimeoutMs")) {
+                            socket.connectTimeout(Config.getIntProperty("mongodb.socket.connectTimeoutMs", 10000), TimeUnit.MILLISECONDS);
+                        }
+                        if (Config.hasProperty("mongodb.socket.readTimeoutMs")) {
+                            socket.readTimeout(Config.getIntProperty("mongodb.socket.readTimeoutMs", 0), TimeUnit.MILLISECONDS);
+                        }
+                    })
+                    .applyToClusterSettings(cluster -> {
+                        if (Config.hasProperty("mongodb.serverSelectionTimeoutMs")) {
+                            cluster.serverSelectionTimeout(Config.getIntProperty("mongodb.serverSelectionTimeoutMs", 30000), TimeUnit.MILLISECONDS);
+                        }
+                    });
+            
+            if (Config.hasProperty("mongodb.readPreference")) {
+                builder.readPreference(ReadPreference.valueOf(Config.getProperty("mongodb.readPreference")));
+            }
+            leaderboardReadPreference = ReadPreference.valueOf(
+                    Config.getProperty("mongodb.leaderboard.readPreference", "primary"));
+            
+            MongoClientSettings settings = builder.build();
 
             // Create client and get database
             mongoClient = MongoClients.create(settings);
@@ -94,12 +143,38 @@ public class MongoDBConnection {
         return getDatabase().getCollection(collectionName, documentClass);
     }
 
+    /**
+     * Get a collection configured for leaderboard-style reads.
+     * Uses the configured leaderboard read preference (e.g. secondaryPreferred) so heavy ranking
+     * queries can be served by replica set secondaries.
+     * @param collectionName Name of the collection
+     * @return MongoDB collection
+     */
+    public static MongoCollection<Document> getLeaderboardCollection(String collectionName) {
+        return getCollection(collectionName).withReadPreference(leaderboardReadPreference);
+    }
+
+    /**
+     * Get the pool and command metrics for the current client
+     * @return Metrics, or null if the connection has not been initialized
+     */
+    public static MongoMetrics getMetrics() {
+        return metrics;
+    }
+
     /**
      * Close the MongoDB connection
      */
     public static void close() {
+        // Write queued ledger entries and asynchronous calls before the client goes away
+        EconomyLedger.shutdown();
+        DatabaseExecutor.shutdown();
+        
         if (mongoClient != null) {
             logger.info("Closing MongoDB connection");
+            if (metrics != null) {
+                logger.info("MongoDB metrics at shutdown:\n{}", metrics.summary());
+            }
             mongoClient.close();
             initialized = false;
         }
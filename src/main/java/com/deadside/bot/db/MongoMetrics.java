@@ -0,0 +1,244 @@
+package com.deadside.bot.db;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandSucceededEvent;
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import com.mongodb.event.ConnectionCheckOutStartedEvent;
+import com.mongodb.event.ConnectionCheckedInEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionCreatedEvent;
+import com.mongodb.event.ConnectionClosedEvent;
+import com.mongodb.event.ConnectionPoolListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Connection pool and command metrics for the MongoDB client.
+ * Records checkout wait time, in-use and open connections, and per-command latency histograms
+ * so pool saturation can be diagnosed during heavy load such as historical backfills.
+ */
+public class MongoMetrics implements ConnectionPoolListener, CommandListener {
+    private static final Logger logger = LoggerFactory.getLogger(MongoMetrics.class);
+
+    private final long slowCheckoutMillis;
+    private final Map<Long, Long> checkoutStarts = new ConcurrentHashMap<>();
+    private final LatencyHistogram checkoutWait = new LatencyHistogram();
+    private final Map<String, LatencyHistogram> commandLatency = new ConcurrentHashMap<>();
+    private final AtomicInteger inUseConnections = new AtomicInteger();
+    private final AtomicInteger openConnections = new AtomicInteger();
+    private final LongAdder checkoutFailures = new LongAdder();
+    private final LongAdder commandFailures = new LongAdder();
+
+    /**
+     * Create metrics collector
+     * @param slowCheckoutMillis Checkout waits at or above this are logged as warnings
+     */
+    public MongoMetrics(long slowCheckoutMillis) {
+        this.slowCheckoutMillis = slowCheckoutMillis;
+    }
+
+    @Override
+    public void connectionCheckOutStarted(ConnectionCheckOutStartedEvent event) {
+        checkoutStarts.put(event.getOperationId(), System.nanoTime());
+    }
+
+    @Override
+    public void connectionCheckedOut(ConnectionCheckedOutEvent event) {
+        inUseConnections.incrementAndGet();
+        recordCheckoutWait(event.getOperationId());
+    }
+
+    @Override
+    public void connectionCheckOutFailed(ConnectionCheckOutFailedEvent event) {
+        checkoutFailures.increment();
+        long waitMillis = recordCheckoutWait(event.getOperationId());
+        logger.warn("MongoDB connection checkout failed after {} ms: {} (in use: {}, open: {})",
+            waitMillis, event.getReason(), inUseConnections.get(), openConnections.get());
+    }
+
+    @Override
+    public void connectionCheckedIn(ConnectionCheckedInEvent event) {
+        inUseConnections.decrementAndGet();
+    }
+
+    @Override
+    public void connectionCreated(ConnectionCreatedEvent event) {
+        openConnections.incrementAndGet();
+    }
+
+    @Override
+    public void connectionClosed(ConnectionClosedEvent event) {
+        openConnections.decrementAndGet();
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        commandLatency.computeIfAbsent(event.getCommandName(), name -> new LatencyHistogram())
+            .record(event.getElapsedTime(TimeUnit.MILLISECONDS));
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        commandFailures.increment();
+        commandLatency.computeIfAbsent(event.getCommandName(), name -> new LatencyHistogram())
+            .record(event.getElapsedTime(TimeUnit.MILLISECONDS));
+    }
+
+    private long recordCheckoutWait(long operationId) {
+        Long start = checkoutStarts.remove(operationId);
+        if (start == null) {
+            return 0;
+        }
+
+        long waitMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        checkoutWait.record(waitMillis);
+        if (slowCheckoutMillis > 0 && waitMillis >= slowCheckoutMillis) {
+            logger.warn("Slow MongoDB connection checkout: waited {} ms (in use: {}, open: {})",
+                waitMillis, inUseConnections.get(), openConnections.get());
+        }
+        return waitMillis;
+    }
+
+    /**
+     * Get the number of connections currently checked out of the pool
+     * @return In-use connection count
+     */
+    public int getInUseConnections() {
+        return inUseConnections.get();
+    }
+
+    /**
+     * Get the number of open connections in the pool
+     * @return Open connection count
+     */
+    public int getOpenConnections() {
+        return openConnections.get();
+    }
+
+    /**
+     * Get the number of failed connection checkouts
+     * @return Checkout failure count
+     */
+    public long getCheckoutFailures() {
+        return checkoutFailures.sum();
+    }
+
+    /**
+     * Get the connection checkout wait histogram
+     * @return Checkout wait histogram
+     */
+    public LatencyHistogram getCheckoutWait() {
+        return checkoutWait;
+    }
+
+    /**
+     * Get the latency histogram for every command name seen so far
+     * @return Command name to latency histogram, sorted by name
+     */
+    public Map<String, LatencyHistogram> getCommandLatency() {
+        return new TreeMap<>(commandLatency);
+    }
+
+    /**
+     * Build a one-line-per-metric summary suitable for logs or an admin command
+     * @return Summary text
+     */
+    public String summary() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Connections: ").append(inUseConnections.get()).append(" in use / ")
+          .append(openConnections.get()).append(" open, checkout failures: ").append(checkoutFailures.sum())
+          .append(", command failures: ").append(commandFailures.sum()).append("\n");
+        sb.append("checkout wait: ").append(checkoutWait).append("\n");
+        for (Map.Entry<String, LatencyHistogram> entry : getCommandLatency().entrySet()) {
+            sb.append(entry.getKey()).append(": ").append(entry.getValue()).append("\n");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Fixed-bucket latency histogram in milliseconds.
+     * Buckets are upper bounds; the last bucket collects everything slower.
+     */
+    public static class LatencyHistogram {
+        private static final long[] BUCKET_BOUNDS_MS = {1, 2, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000};
+
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_BOUNDS_MS.length + 1);
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalMillis = new LongAdder();
+
+        /**
+         * Record a single observation
+         * @param millis Latency in milliseconds
+         */
+        public void record(long millis) {
+            int index = BUCKET_BOUNDS_MS.length;
+            for (int i = 0; i < BUCKET_BOUNDS_MS.length; i++) {
+                if (millis <= BUCKET_BOUNDS_MS[i]) {
+                    index = i;
+                    break;
+                }
+            }
+            buckets.incrementAndGet(index);
+            count.increment();
+            totalMillis.add(millis);
+        }
+
+        /**
+         * Get the number of observations
+         * @return Observation count
+         */
+        public long getCount() {
+            return count.sum();
+        }
+
+        /**
+         * Get the mean latency
+         * @return Mean latency in milliseconds
+         */
+        public double getMeanMillis() {
+            long n = count.sum();
+            return n == 0 ? 0 : (double) totalMillis.sum() / n;
+        }
+
+        /**
+         * Get an approximate percentile as the upper bound of the bucket containing it
+         * @param percentile Percentile between 0 and 100
+         * @return Bucket upper bound in milliseconds, or -1 if the value lies beyond the last bound
+         */
+        public long getPercentileMillis(double percentile) {
+            long n = count.sum();
+            if (n == 0) {
+                return 0;
+            }
+
+            long target = (long) Math.ceil(n * percentile / 100.0);
+            long seen = 0;
+            for (int i = 0; i < buckets.length(); i++) {
+                seen += buckets.get(i);
+                if (seen >= target) {
+                    return i < BUCKET_BOUNDS_MS.length ? BUCKET_BOUNDS_MS[i] : -1;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("n=%d mean=%.1fms p50<=%s p99<=%s",
+                getCount(), getMeanMillis(), formatBound(getPercentileMillis(50)), formatBound(getPercentileMillis(99)));
+        }
+
+        private static String formatBound(long bound) {
+            return bound < 0 ? ">" + BUCKET_BOUNDS_MS[BUCKET_BOUNDS_MS.length - 1] + "ms" : bound + "ms";
+        }
+    }
+}
@@ -19,6 +19,7 @@ public class Currency {
     private long totalEarned;        // Total amount of coins earned (lifetime)
     private long totalSpent;         // Total amount of coins spent (lifetime)
     private long lastUpdated;        // Timestamp of last update
+    private ObjectId ledgerWatermark; // Last ledger entry folded into coins
     
     public Currency() {
         // Required for MongoDB POJO codec
@@ -130,6 +131,14 @@ public class Currency {
         this.lastUpdated = lastUpdated;
     }
     
+    public ObjectId getLedgerWatermark() {
+        return ledgerWatermark;
+    }
+    
+    public void setLedgerWatermark(ObjectId ledgerWatermark) {
+        this.ledgerWatermark = ledgerWatermark;
+    }
+    
     public long getTotalEarned() {
         return totalEarned;
     }
@@ -270,6 +270,7 @@ public class GuildConfig {
             case "airdrop":
             case "mission":
             case "helicrash":
+            case "trader":
             case "event":
             case "supply":
                 return eventLogChannelId != 0 ? eventLogChannelId : primaryLogChannelId;
@@ -0,0 +1,97 @@
+package com.deadside.bot.db.models;
+
+import org.bson.types.ObjectId;
+
+/**
+ * A single balance change in the append-only economy ledger.
+ * Entries are never updated; a wallet balance is its snapshot plus every entry after the snapshot watermark.
+ */
+public class LedgerEntry {
+    private ObjectId id;             // Assigned at flush time, monotonic in insert order
+    private long userId;             // Discord user ID
+    private long guildId;            // Discord guild (server) ID for isolation
+    private String serverId;         // Game server ID for isolation
+    private long delta;              // Signed change to the wallet balance
+    private String type;             // Source of the change (blackjack, roulette, slots, bank, admin)
+    private String reference;        // Optional free-form detail, e.g. bet outcome
+    private long timestamp;          // Time the change was recorded
+
+    public LedgerEntry() {
+        // Required for MongoDB POJO codec
+        this.timestamp = System.currentTimeMillis();
+    }
+
+    public LedgerEntry(long userId, long guildId, String serverId, long delta, String type, String reference) {
+        this();
+        this.userId = userId;
+        this.guildId = guildId;
+        this.serverId = serverId;
+        this.delta = delta;
+        this.type = type;
+        this.reference = reference;
+    }
+
+    public ObjectId getId() {
+        return id;
+    }
+
+    public void setId(ObjectId id) {
+        this.id = id;
+    }
+
+    public long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(long userId) {
+        this.userId = userId;
+    }
+
+    public long getGuildId() {
+        return guildId;
+    }
+
+    public void setGuildId(long guildId) {
+        this.guildId = guildId;
+    }
+
+    public String getServerId() {
+        return serverId;
+    }
+
+    public void setServerId(String serverId) {
+        this.serverId = serverId;
+    }
+
+    public long getDelta() {
+        return delta;
+    }
+
+    public void setDelta(long delta) {
+        this.delta = delta;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getReference() {
+        return reference;
+    }
+
+    public void setReference(String reference) {
+        this.reference = reference;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(long timestamp) {
+        this.timestamp = timestamp;
+    }
+}
@@ -0,0 +1,118 @@
+package com.deadside.bot.db.models;
+
+/**
+ * Position of the log tailer in a server's log file, with a fingerprint of the file it was read from.
+ * The fingerprint (size, modification time and a checksum of the first bytes) tells an append apart
+ * from a truncation or a rotation without reading the file again.
+ */
+public class LogCursor {
+    private long guildId;            // Discord guild (server) ID for isolation
+    private String serverName;       // Game server name for isolation
+    private String file;             // Name of the tailed file
+    private long offset;             // Byte offset just past the last complete line processed
+    private long size;               // File size when last read
+    private long modifiedTime;       // File modification time when last read, epoch seconds
+    private int headLength;          // Number of leading bytes covered by headChecksum
+    private long headChecksum;       // Checksum of the first headLength bytes
+    private long updatedAt;          // Time the cursor was last saved
+
+    public LogCursor() {
+        // Required for MongoDB mapping
+    }
+
+    public LogCursor(long guildId, String serverName, String file) {
+        this.guildId = guildId;
+        this.serverName = serverName;
+        this.file = file;
+    }
+
+    /**
+     * Check whether the cursor has a fingerprint of its file yet
+     */
+    public boolean hasFingerprint() {
+        return headLength > 0;
+    }
+
+    /**
+     * Forget the position and fingerprint, so the file is read from its start
+     */
+    public void reset() {
+        offset = 0;
+        size = 0;
+        modifiedTime = 0;
+        headLength = 0;
+        headChecksum = 0;
+    }
+
+    public long getGuildId() {
+        return guildId;
+    }
+
+    public void setGuildId(long guildId) {
+        this.guildId = guildId;
+    }
+
+    public String getServerName() {
+        return serverName;
+    }
+
+    public void setServerName(String serverName) {
+        this.serverName = serverName;
+    }
+
+    public String getFile() {
+        return file;
+    }
+
+    public void setFile(String file) {
+        this.file = file;
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+
+    public void setOffset(long offset) {
+        this.offset = offset;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public void setSize(long size) {
+        this.size = size;
+    }
+
+    public long getModifiedTime() {
+        return modifiedTime;
+    }
+
+    public void setModifiedTime(long modifiedTime) {
+        this.modifiedTime = modifiedTime;
+    }
+
+    public int getHeadLength() {
+        return headLength;
+    }
+
+    public void setHeadLength(int headLength) {
+        this.headLength = headLength;
+    }
+
+    public long getHeadChecksum() {
+        return headChecksum;
+    }
+
+    public void setHeadChecksum(long headChecksum) {
+        this.headChecksum = headChecksum;
+    }
+
+    public long getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(long updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,15 @@
+package com.deadside.bot.db.models;
+
+/**
+ * Success statistics of one candidate directory
+ * @param owner Server the directory was used by, or null for a fleet-wide path template
+ * @param category File category, e.g. "csv" or "log"
+ * @param path The directory, or for a template the directory with {@code {host}} and {@code {server}} placeholders
+ * @param hits Number of times files were found there
+ * @param failures Number of times files were expected there but not found
+ * @param lastSuccess Time of the last hit, epoch milliseconds
+ * @param lastFailure Time of the last failure, epoch milliseconds
+ */
+public record PathStat(String owner, String category, String path, long hits, long failures,
+                       long lastSuccess, long lastFailure) {
+}
@@ -0,0 +1,47 @@
+package com.deadside.bot.db.models;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Typed set of player document fields that can be requested in a projected query
+ */
+public enum PlayerField {
+    ID("_id"),
+    STEAM_ID("steamId"),
+    NAME("displayName"),
+    KILLS("killCount"),
+    DEATHS("deathCount"),
+    KDR("kdr"),
+    PLAYTIME("totalPlaytime"),
+    LAST_SEEN("lastSeen"),
+    COINS("coins"),
+    SUICIDES("stats.suicides"),
+    KILLED_BY_MOST("stats.killedByMost");
+
+    private final String fieldName;
+
+    PlayerField(String fieldName) {
+        this.fieldName = fieldName;
+    }
+
+    /**
+     * Get the name of the field in the players collection
+     * @return MongoDB field name
+     */
+    public String getFieldName() {
+        return fieldName;
+    }
+
+    /**
+     * Convert a set of fields to the MongoDB field names to include in a projection
+     * @param fields Fields to include
+     * @return List of MongoDB field names
+     */
+    public static List<String> toFieldNames(Collection<PlayerField> fields) {
+        return fields.stream()
+                .map(PlayerField::getFieldName)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,77 @@
+package com.deadside.bot.db.models;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Accumulated change to one player's kill statistics, so a batch of kill records
+ * becomes a single update per player instead of one read and write per kill
+ */
+public class PlayerStatDelta {
+    private final String playerName;
+    private int kills;
+    private int deaths;
+    private int suicides;
+    private final Map<String, Integer> weaponKills = new HashMap<>();
+
+    public PlayerStatDelta(String playerName) {
+        this.playerName = playerName;
+    }
+
+    /**
+     * Add the effect of kill records to per-player deltas
+     * @param records Kill records to add
+     * @param deltas Deltas by player name, updated in place
+     */
+    public static void accumulate(Iterable<KillRecord> records, Map<String, PlayerStatDelta> deltas) {
+        for (KillRecord record : records) {
+            accumulate(record, deltas);
+        }
+    }
+
+    /**
+     * Add the effect of one kill record to per-player deltas
+     * @param deltas Deltas by player name, updated in place
+     */
+    public static void accumulate(KillRecord record, Map<String, PlayerStatDelta> deltas) {
+        if (record.isSuicide()) {
+            deltas.computeIfAbsent(record.getVictim(), PlayerStatDelta::new).suicides++;
+            return;
+        }
+
+        PlayerStatDelta killer = deltas.computeIfAbsent(record.getKiller(), PlayerStatDelta::new);
+        killer.kills++;
+        killer.weaponKills.merge(record.getWeapon(), 1, Integer::sum);
+        deltas.computeIfAbsent(record.getVictim(), PlayerStatDelta::new).deaths++;
+    }
+
+    /**
+     * Fold another delta for the same player into this one
+     */
+    public void merge(PlayerStatDelta other) {
+        kills += other.kills;
+        deaths += other.deaths;
+        suicides += other.suicides;
+        other.weaponKills.forEach((weapon, count) -> weaponKills.merge(weapon, count, Integer::sum));
+    }
+
+    public String getPlayerName() {
+        return playerName;
+    }
+
+    public int getKills() {
+        return kills;
+    }
+
+    public int getDeaths() {
+        return deaths;
+    }
+
+    public int getSuicides() {
+        return suicides;
+    }
+
+    public Map<String, Integer> getWeaponKills() {
+        return weaponKills;
+    }
+}
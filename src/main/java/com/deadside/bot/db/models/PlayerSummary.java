@@ -0,0 +1,30 @@
+package com.deadside.bot.db.models;
+
+/**
+ * Lightweight read-only view of a player, decoded from a projected query.
+ * Fields that were not part of the requested projection keep their default value.
+ */
+public record PlayerSummary(
+        String id,
+        String steamId,
+        String name,
+        int kills,
+        int deaths,
+        double kdr,
+        int totalPlaytime,
+        long lastSeen,
+        long coins,
+        int suicides,
+        String killedByMost) {
+
+    /**
+     * Get the K/D ratio, falling back to kills when no deaths are recorded
+     * @return K/D ratio
+     */
+    public double kdRatio() {
+        if (kdr > 0) {
+            return kdr;
+        }
+        return deaths == 0 ? kills : (double) kills / deaths;
+    }
+}
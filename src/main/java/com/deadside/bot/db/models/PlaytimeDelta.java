@@ -0,0 +1,43 @@
+package com.deadside.bot.db.models;
+
+/**
+ * Accumulated playtime of one player from closed sessions, written to the player in one update
+ */
+public class PlaytimeDelta {
+    private final String playerName;
+    private long seconds;
+    private long lastSeen;
+
+    public PlaytimeDelta(String playerName) {
+        this.playerName = playerName;
+    }
+
+    /**
+     * Add a closed session
+     * @param seconds Length of the session
+     * @param endedAt Time the session ended, epoch milliseconds
+     */
+    public void add(long seconds, long endedAt) {
+        this.seconds += seconds;
+        this.lastSeen = Math.max(lastSeen, endedAt);
+    }
+
+    /**
+     * Fold another delta for the same player into this one
+     */
+    public void merge(PlaytimeDelta other) {
+        add(other.seconds, other.lastSeen);
+    }
+
+    public String getPlayerName() {
+        return playerName;
+    }
+
+    public long getSeconds() {
+        return seconds;
+    }
+
+    public long getLastSeen() {
+        return lastSeen;
+    }
+}
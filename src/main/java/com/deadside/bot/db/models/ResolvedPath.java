@@ -0,0 +1,10 @@
+package com.deadside.bot.db.models;
+
+/**
+ * A remote directory found by probing for one kind of server file
+ * @param configuredPath Directory configured on the server when the probe ran, so a config change invalidates it
+ * @param path Directory that held the files
+ * @param resolvedAt Time of the probe, epoch milliseconds
+ */
+public record ResolvedPath(String configuredPath, String path, long resolvedAt) {
+}
@@ -0,0 +1,11 @@
+package com.deadside.bot.db.models;
+
+/**
+ * Precomputed player activity of a game server, maintained from join and leave events
+ * @param onlinePlayers Players with an open session
+ * @param activeLast24h Distinct players seen in the last 24 hours
+ * @param peakLast24h Most players online at once in the last 24 hours
+ * @param updatedAt Time the values were computed, epoch milliseconds
+ */
+public record ServerActivity(int onlinePlayers, int activeLast24h, int peakLast24h, long updatedAt) {
+}
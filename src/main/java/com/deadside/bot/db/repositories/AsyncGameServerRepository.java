@@ -0,0 +1,58 @@
+package com.deadside.bot.db.repositories;
+
+import com.deadside.bot.db.DatabaseExecutor;
+import com.deadside.bot.db.models.GameServer;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Asynchronous view of {@link GameServerRepository} backed by the {@link DatabaseExecutor}
+ */
+public class AsyncGameServerRepository {
+    private final GameServerRepository gameServerRepository;
+
+    public AsyncGameServerRepository() {
+        this(new GameServerRepository());
+    }
+
+    public AsyncGameServerRepository(GameServerRepository gameServerRepository) {
+        this.gameServerRepository = gameServerRepository;
+    }
+
+    /**
+     * Find server by ID
+     * @param id Server ID
+     * @return Future with the server or null if not found
+     */
+    public CompletableFuture<GameServer> findById(String id) {
+        return DatabaseExecutor.supplyAsync(() -> gameServerRepository.findById(id));
+    }
+
+    /**
+     * Find all servers for a guild
+     * @param guildId Guild ID
+     * @return Future with the list of servers
+     */
+    public CompletableFuture<List<GameServer>> findByGuildId(long guildId) {
+        return DatabaseExecutor.supplyAsync(() -> gameServerRepository.findByGuildId(guildId));
+    }
+
+    /**
+     * Find all active servers for a guild
+     * @param guildId Guild ID
+     * @return Future with the list of active servers
+     */
+    public CompletableFuture<List<GameServer>> findActiveByGuildId(long guildId) {
+        return DatabaseExecutor.supplyAsync(() -> gameServerRepository.findActiveByGuildId(guildId));
+    }
+
+    /**
+     * Save a server (insert or update)
+     * @param server Server to save
+     * @return Future with the saved server
+     */
+    public CompletableFuture<GameServer> save(GameServer server) {
+        return DatabaseExecutor.supplyAsync(() -> gameServerRepository.save(server));
+    }
+}
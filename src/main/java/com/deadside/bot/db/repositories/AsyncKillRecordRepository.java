@@ -0,0 +1,40 @@
+package com.deadside.bot.db.repositories;
+
+import com.deadside.bot.db.DatabaseExecutor;
+import com.deadside.bot.db.models.KillRecord;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Asynchronous view of {@link KillRecordRepository} backed by the {@link DatabaseExecutor}
+ */
+public class AsyncKillRecordRepository {
+    private final KillRecordRepository killRecordRepository;
+
+    public AsyncKillRecordRepository() {
+        this(new KillRecordRepository());
+    }
+
+    public AsyncKillRecordRepository(KillRecordRepository killRecordRepository) {
+        this.killRecordRepository = killRecordRepository;
+    }
+
+    /**
+     * Save a kill record
+     * @param killRecord Kill record to save
+     * @return Future completed when the record is stored
+     */
+    public CompletableFuture<Void> save(KillRecord killRecord) {
+        return DatabaseExecutor.runAsync(() -> killRecordRepository.save(killRecord));
+    }
+
+    /**
+     * Save multiple kill records
+     * @param killRecords Kill records to save
+     * @return Future completed when the records are stored
+     */
+    public CompletableFuture<Void> saveAll(List<KillRecord> killRecords) {
+        return DatabaseExecutor.runAsync(() -> killRecordRepository.saveAll(killRecords));
+    }
+}
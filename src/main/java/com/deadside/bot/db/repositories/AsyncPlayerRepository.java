@@ -0,0 +1,103 @@
+package com.deadside.bot.db.repositories;
+
+import com.deadside.bot.db.DatabaseExecutor;
+import com.deadside.bot.db.models.Player;
+import com.deadside.bot.db.models.PlayerField;
+import com.deadside.bot.db.models.PlayerSummary;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Asynchronous view of {@link PlayerRepository}.
+ * Every call runs on the {@link DatabaseExecutor} and returns a future so callers can compose
+ * database work without blocking the calling thread.
+ */
+public class AsyncPlayerRepository {
+    private final PlayerRepository playerRepository;
+
+    public AsyncPlayerRepository() {
+        this(new PlayerRepository());
+    }
+
+    public AsyncPlayerRepository(PlayerRepository playerRepository) {
+        this.playerRepository = playerRepository;
+    }
+
+    /**
+     * Find player by ID
+     * @param id Player ID
+     * @return Future with the player or null if not found
+     */
+    public CompletableFuture<Player> findById(String id) {
+        return DatabaseExecutor.supplyAsync(() -> playerRepository.findById(id));
+    }
+
+    /**
+     * Find player by Steam ID
+     * @param steamId Steam ID
+     * @return Future with the player or null if not found
+     */
+    public CompletableFuture<Player> findBySteamId(String steamId) {
+        return DatabaseExecutor.supplyAsync(() -> playerRepository.findBySteamId(steamId));
+    }
+
+    /**
+     * Find player by display name (case-insensitive)
+     * @param name Display name
+     * @return Future with the player or null if not found
+     */
+    public CompletableFuture<Player> findByName(String name) {
+        return DatabaseExecutor.supplyAsync(() -> playerRepository.findByName(name));
+    }
+
+    /**
+     * Find the top players on a server as lightweight views
+     * @see PlayerRepository#findTopSummaries(String, PlayerField, int, int, Set)
+     */
+    public CompletableFuture<List<PlayerSummary>> findTopSummaries(String serverId, PlayerField sortField,
+                                                                   int minKills, int limit, Set<PlayerField> fields) {
+        return DatabaseExecutor.supplyAsync(
+            () -> playerRepository.findTopSummaries(serverId, sortField, minKills, limit, fields));
+    }
+
+    /**
+     * Find the top players across a set of servers as lightweight views
+     * @see PlayerRepository#findTopSummaries(Collection, PlayerField, int, int, Set)
+     */
+    public CompletableFuture<List<PlayerSummary>> findTopSummaries(Collection<String> serverIds, PlayerField sortField,
+                                                                   int minKills, int limit, Set<PlayerField> fields) {
+        return DatabaseExecutor.supplyAsync(
+            () -> playerRepository.findTopSummaries(serverIds, sortField, minKills, limit, fields));
+    }
+
+    /**
+     * Count active players across a set of servers
+     * @param serverIds Server IDs, or null for all active players
+     * @return Future with the number of active players
+     */
+    public CompletableFuture<Long> countActiveByServerIds(Collection<String> serverIds) {
+        return DatabaseExecutor.supplyAsync(() -> playerRepository.countActiveByServerIds(serverIds));
+    }
+
+    /**
+     * Save a player (insert or update)
+     * @param player Player to save
+     * @return Future with the saved player
+     */
+    public CompletableFuture<Player> save(Player player) {
+        return DatabaseExecutor.supplyAsync(() -> playerRepository.save(player));
+    }
+
+    /**
+     * Get or create a player
+     * @param steamId Steam ID
+     * @param playerName Player name
+     * @return Future with the player
+     */
+    public CompletableFuture<Player> getOrCreate(String steamId, String playerName) {
+        return DatabaseExecutor.supplyAsync(() -> playerRepository.getOrCreate(steamId, playerName));
+    }
+}
@@ -0,0 +1,101 @@
+package com.deadside.bot.db.repositories;
+
+import com.deadside.bot.db.MongoDBConnection;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.ReplaceOptions;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Repository for historical backfill checkpoints: one document per fully processed file of a server
+ */
+public class BackfillCheckpointRepository {
+    private static final Logger logger = LoggerFactory.getLogger(BackfillCheckpointRepository.class);
+    private static final String COLLECTION_NAME = "backfill_checkpoints";
+
+    private static volatile boolean indexesEnsured = false;
+
+    private MongoCollection<Document> getCollection() {
+        MongoCollection<Document> collection = MongoDBConnection.getCollection(COLLECTION_NAME);
+        if (!indexesEnsured) {
+            try {
+                collection.createIndex(Indexes.ascending("guildId", "serverName", "kind"),
+                    new IndexOptions().name("server_kind"));
+                indexesEnsured = true;
+            } catch (Exception e) {
+                logger.warn("Could not create backfill checkpoint index: {}", e.getMessage());
+            }
+        }
+        return collection;
+    }
+
+    /**
+     * Get the files of a server that have already been backfilled
+     * @param kind Kind of backfill, e.g. "killfeed"
+     * @return Names of the completed files
+     * @throws com.mongodb.MongoException if the checkpoints cannot be read; an empty set would redo every file
+     */
+    public Set<String> findCompletedFiles(long guildId, String serverName, String kind) {
+        Set<String> files = new HashSet<>();
+        for (Document doc : getCollection().find(serverFilter(guildId, serverName, kind))
+                .projection(Projections.include("file"))) {
+            files.add(doc.getString("file"));
+        }
+        return files;
+    }
+
+    /**
+     * Record that a file has been fully backfilled
+     * @param records Number of records taken from the file
+     * @param durationMillis Time spent processing the file
+     * @return true if the checkpoint was stored
+     */
+    public boolean markCompleted(long guildId, String serverName, String kind, String file,
+                                 int records, long durationMillis) {
+        try {
+            Document doc = new Document("_id", guildId + ":" + serverName + ":" + kind + ":" + file)
+                .append("guildId", guildId)
+                .append("serverName", serverName)
+                .append("kind", kind)
+                .append("file", file)
+                .append("records", records)
+                .append("durationMillis", durationMillis)
+                .append("completedAt", System.currentTimeMillis());
+            getCollection().replaceOne(Filters.eq("_id", doc.getString("_id")), doc, new ReplaceOptions().upsert(true));
+            return true;
+        } catch (Exception e) {
+            logger.error("Error saving backfill checkpoint for file {} of server {}", file, serverName, e);
+            return false;
+        }
+    }
+
+    /**
+     * Remove every checkpoint of a server, so the next backfill starts from the first file
+     * @return Number of checkpoints removed
+     */
+    public long clear(long guildId, String serverName, String kind) {
+        try {
+            return getCollection().deleteMany(serverFilter(guildId, serverName, kind)).getDeletedCount();
+        } catch (Exception e) {
+            logger.error("Error clearing backfill checkpoints for server {} in guild {}", serverName, guildId, e);
+            return 0;
+        }
+    }
+
+    private static Bson serverFilter(long guildId, String serverName, String kind) {
+        return Filters.and(
+            Filters.eq("guildId", guildId),
+            Filters.eq("serverName", serverName),
+            Filters.eq("kind", kind)
+        );
+    }
+}
@@ -2,11 +2,21 @@ package com.deadside.bot.db.repositories;
 
 import com.deadside.bot.db.MongoDBConnection;
 import com.deadside.bot.db.models.Currency;
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoException;
 import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Accumulators;
+import com.mongodb.client.model.Aggregates;
 import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.ReturnDocument;
 import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.UpdateOptions;
 import com.mongodb.client.model.Updates;
 import com.mongodb.client.result.DeleteResult;
+import org.bson.Document;
 import org.bson.conversions.Bson;
 import org.bson.types.ObjectId;
 import org.slf4j.Logger;
@@ -22,12 +32,37 @@ public class CurrencyRepository {
     private static final Logger logger = LoggerFactory.getLogger(CurrencyRepository.class);
     private static final String COLLECTION_NAME = "currencies";
     
+    /** Returned when a wallet or bank cannot cover a debit, e.g. by {@link #removeBankCoins} */
+    public static final long INSUFFICIENT_FUNDS = -2;
+    
+    /** Returned by {@link #claimTimedReward} when the reward's cooldown has not elapsed */
+    public static final long ON_COOLDOWN = -3;
+    
+    /** Server ID used for guild-wide balances that are not tied to a single game server */
+    public static final String GUILD_ECONOMY_SERVER_ID = "guild";
+    
+    private static final FindOneAndUpdateOptions RETURN_AFTER =
+        new FindOneAndUpdateOptions().returnDocument(ReturnDocument.AFTER);
+    private static final FindOneAndUpdateOptions UPSERT_RETURN_AFTER =
+        new FindOneAndUpdateOptions().upsert(true).returnDocument(ReturnDocument.AFTER);
+    
+    /** Counters added together when duplicate balances are merged */
+    private static final List<String> SUMMED_LONG_FIELDS =
+        List.of("coins", "bankCoins", "totalEarned", "totalSpent");
+    private static final List<String> SUMMED_INT_FIELDS = List.of("bountyPoints", "prestigePoints");
+    
+    /** Timestamps of which the latest is kept when duplicate balances are merged */
+    private static final List<String> LATEST_FIELDS = List.of("lastDailyReward", "lastWork", "lastUpdated");
+    
+    private static volatile boolean indexesEnsured = false;
+    
     private MongoCollection<Currency> collection;
     
     public CurrencyRepository() {
         try {
             this.collection = MongoDBConnection.getInstance().getDatabase()
                 .getCollection(COLLECTION_NAME, Currency.class);
+            ensureIndexes();
         } catch (IllegalStateException e) {
             // This can happen during early initialization - handle gracefully
             logger.warn("MongoDB connection not initialized yet. Usage will be deferred until initialization.");
@@ -43,6 +78,7 @@ public class CurrencyRepository {
                 // Try to get the collection now that MongoDB should be initialized
                 this.collection = MongoDBConnection.getInstance().getDatabase()
                     .getCollection(COLLECTION_NAME, Currency.class);
+                ensureIndexes();
             } catch (Exception e) {
                 logger.error("Failed to initialize currency collection", e);
             }
@@ -50,6 +86,91 @@ public class CurrencyRepository {
         return collection;
     }
     
+    /**
+     * One balance per user, guild and server. Upserts rely on this index so concurrent
+     * first-time mutations cannot create duplicate balances. Duplicates left by older versions
+     * would fail the index build, so they are merged first. If the index still cannot be built
+     * the repository keeps working without it and the build is tried again by the next instance.
+     */
+    private void ensureIndexes() {
+        if (indexesEnsured) {
+            return;
+        }
+        try {
+            createUniqueIndex();
+        } catch (MongoException e) {
+            if (ErrorCategory.fromErrorCode(e.getCode()) != ErrorCategory.DUPLICATE_KEY) {
+                logger.error("Could not create unique currency index, first-time balances may be duplicated", e);
+                return;
+            }
+            try {
+                logger.warn("Merged {} duplicate currency balances", mergeDuplicateBalances());
+                createUniqueIndex();
+            } catch (MongoException retry) {
+                logger.error("Could not merge duplicate currency balances, first-time balances may be duplicated", retry);
+            }
+        }
+    }
+    
+    private void createUniqueIndex() {
+        collection.createIndex(
+            Indexes.ascending("userId", "guildId", "serverId"),
+            new IndexOptions().unique(true)
+        );
+        indexesEnsured = true;
+    }
+    
+    /**
+     * Fold every set of balances sharing a user, guild and server into its oldest document:
+     * counters are added, the latest timestamps and ledger watermark kept, and the rest deleted
+     * @return Number of duplicate documents removed
+     */
+    private int mergeDuplicateBalances() {
+        MongoCollection<Document> documents = collection.withDocumentClass(Document.class);
+        List<Document> groups = documents.aggregate(List.of(
+            Aggregates.group(
+                new Document("userId", "$userId").append("guildId", "$guildId").append("serverId", "$serverId"),
+                Accumulators.push("ids", "$_id"),
+                Accumulators.sum("count", 1)),
+            Aggregates.match(Filters.gt("count", 1))
+        )).into(new ArrayList<>());
+        
+        int removed = 0;
+        for (Document group : groups) {
+            List<Document> balances = documents.find(Filters.in("_id", group.getList("ids", Object.class)))
+                .sort(Sorts.ascending("_id"))
+                .into(new ArrayList<>());
+            Document kept = balances.get(0);
+            List<Object> duplicates = new ArrayList<>();
+            for (Document duplicate : balances.subList(1, balances.size())) {
+                for (String field : SUMMED_LONG_FIELDS) {
+                    kept.put(field, longValue(kept, field) + longValue(duplicate, field));
+                }
+                for (String field : SUMMED_INT_FIELDS) {
+                    kept.put(field, (int) (longValue(kept, field) + longValue(duplicate, field)));
+                }
+                for (String field : LATEST_FIELDS) {
+                    kept.put(field, Math.max(longValue(kept, field), longValue(duplicate, field)));
+                }
+                ObjectId watermark = duplicate.getObjectId("ledgerWatermark");
+                ObjectId keptWatermark = kept.getObjectId("ledgerWatermark");
+                if (watermark != null && (keptWatermark == null || watermark.compareTo(keptWatermark) > 0)) {
+                    kept.put("ledgerWatermark", watermark);
+                }
+                duplicates.add(duplicate.get("_id"));
+            }
+            documents.replaceOne(Filters.eq("_id", kept.get("_id")), kept);
+            documents.deleteMany(Filters.in("_id", duplicates));
+            removed += duplicates.size();
+        }
+        return removed;
+    }
+    
+    private static long longValue(Document doc, String field) {
+        Number value = doc.get(field, Number.class);
+        return value != null ? value.longValue() : 0;
+    }
+    
     /**
      * Save a currency with proper isolation checks
      */
@@ -97,85 +218,208 @@ public class CurrencyRepository {
     }
     
     /**
-     * Add coins to a user's currency with proper isolation
+     * Read the wallet snapshot the economy ledger builds balances on.
+     * Unlike {@link #findByUserIdAndGuildIdAndServerId}, a failed read is not reported as a missing balance.
+     * @return The balance, or null if the user has none
+     * @throws MongoException if the balance cannot be read
+     */
+    public Currency findSnapshot(long userId, long guildId, String serverId) {
+        MongoCollection<Currency> currencies = getCollection();
+        if (currencies == null) {
+            throw new MongoException("Currency collection is not available");
+        }
+        return currencies.find(isolationFilter(userId, guildId, serverId)).first();
+    }
+    
+    /**
+     * Claim a cooldown-gated reward (daily, work).
+     * The reward is credited and the timestamp field updated only if the cooldown has elapsed, checked
+     * atomically on an existing balance. A user without a balance gets one through a plain insert, which
+     * the unique isolation index rejects if the balance exists; the claim is then retried once, in case
+     * the balance was created without a claim in between.
+     * @param timestampField Currency field holding the last claim time (e.g. "lastDailyReward", "lastWork")
+     * @param reward Coins to credit
+     * @param cooldownMs Cooldown in milliseconds
+     * @return The new wallet balance, or {@link #ON_COOLDOWN} if the cooldown has not elapsed
      */
-    public void addCoins(long userId, long amount, long guildId, String serverId) {
+    public long claimTimedReward(long userId, String timestampField, long reward, long cooldownMs,
+                                 long guildId, String serverId) {
+        long now = System.currentTimeMillis();
         try {
-            Currency currency = findByUserIdAndGuildIdAndServerId(userId, guildId, serverId);
+            Currency currency = claimIfElapsed(userId, timestampField, reward, cooldownMs, guildId, serverId, now);
+            if (currency != null) {
+                return currency.getCoins();
+            }
             
-            if (currency == null) {
-                // Create new currency for this user
-                currency = new Currency();
-                currency.setUserId(userId);
-                currency.setGuildId(guildId);
-                currency.setServerId(serverId);
-                currency.setCoins(amount);
-                currency.setLastUpdated(System.currentTimeMillis());
-                save(currency);
-            } else {
-                // Update existing currency
-                Bson filter = Filters.and(
-                    Filters.eq("userId", userId),
-                    Filters.eq("guildId", guildId),
-                    Filters.eq("serverId", serverId)
-                );
-                
-                getCollection().updateOne(filter, 
-                    Updates.combine(
-                        Updates.inc("coins", amount),
-                        Updates.set("lastUpdated", System.currentTimeMillis())
-                    )
-                );
+            try {
+                getCollection().withDocumentClass(Document.class).insertOne(new Document()
+                    .append("userId", userId)
+                    .append("guildId", guildId)
+                    .append("serverId", serverId)
+                    .append("coins", reward)
+                    .append("totalEarned", reward)
+                    .append(timestampField, now)
+                    .append("lastUpdated", now));
+                return reward;
+            } catch (MongoException e) {
+                if (ErrorCategory.fromErrorCode(e.getCode()) != ErrorCategory.DUPLICATE_KEY) {
+                    throw e;
+                }
             }
             
-            logger.debug("Added {} coins to user {} with isolation (Guild={}, Server={})",
-                amount, userId, guildId, serverId);
+            currency = claimIfElapsed(userId, timestampField, reward, cooldownMs, guildId, serverId, now);
+            return currency != null ? currency.getCoins() : ON_COOLDOWN;
         } catch (Exception e) {
-            logger.error("Error adding coins to user with isolation: {} (Guild={}, Server={})",
-                userId, guildId, serverId, e);
+            logger.error("Error claiming {} reward for user with isolation: {} (Guild={}, Server={})",
+                timestampField, userId, guildId, serverId, e);
+            return -1;
         }
     }
     
     /**
-     * Set coins for a user's currency with proper isolation
+     * Credit a timed reward to an existing balance whose cooldown has elapsed, without upserting
+     * @return The updated balance, or null if there is no balance or it is on cooldown
+     */
+    private Currency claimIfElapsed(long userId, String timestampField, long reward, long cooldownMs,
+                                    long guildId, String serverId, long now) {
+        return getCollection().findOneAndUpdate(
+            Filters.and(
+                isolationFilter(userId, guildId, serverId),
+                Filters.or(
+                    Filters.exists(timestampField, false),
+                    Filters.lte(timestampField, now - cooldownMs)
+                )
+            ),
+            Updates.combine(
+                Updates.inc("coins", reward),
+                Updates.inc("totalEarned", reward),
+                Updates.set(timestampField, now),
+                Updates.set("lastUpdated", now)
+            ),
+            RETURN_AFTER
+        );
+    }
+    
+    /**
+     * Fold a range of ledger entries into a wallet's coin balance.
+     * Applies only if the wallet's watermark is older than {@code lastEntryId}, so re-running a
+     * snapshot pass over the same range never applies it twice. A wallet without a balance gets one
+     * through a plain insert, which the unique isolation index rejects if the balance exists; the
+     * conditional update is then retried once, in case the balance was created without a watermark.
+     * @param ledgerTotal Sum of the ledger deltas in the range
+     * @param lastEntryId ID of the newest ledger entry in the range
+     * @return true if the range was applied or had already been applied
      */
-    public void setCoins(long userId, long amount, long guildId, String serverId) {
+    public boolean applyLedgerSnapshot(long userId, long guildId, String serverId, long ledgerTotal, ObjectId lastEntryId) {
         try {
-            Currency currency = findByUserIdAndGuildIdAndServerId(userId, guildId, serverId);
+            if (foldIfNewer(userId, guildId, serverId, ledgerTotal, lastEntryId)) {
+                return true;
+            }
             
-            if (currency == null) {
-                // Create new currency for this user
-                currency = new Currency();
-                currency.setUserId(userId);
-                currency.setGuildId(guildId);
-                currency.setServerId(serverId);
-                currency.setCoins(amount);
-                currency.setLastUpdated(System.currentTimeMillis());
-                save(currency);
-            } else {
-                // Update existing currency
-                Bson filter = Filters.and(
-                    Filters.eq("userId", userId),
-                    Filters.eq("guildId", guildId),
-                    Filters.eq("serverId", serverId)
-                );
-                
-                getCollection().updateOne(filter, 
-                    Updates.combine(
-                        Updates.set("coins", amount),
-                        Updates.set("lastUpdated", System.currentTimeMillis())
-                    )
-                );
+            try {
+                getCollection().withDocumentClass(Document.class).insertOne(new Document()
+                    .append("userId", userId)
+                    .append("guildId", guildId)
+                    .append("serverId", serverId)
+                    .append("coins", ledgerTotal)
+                    .append("ledgerWatermark", lastEntryId)
+                    .append("lastUpdated", System.currentTimeMillis()));
+                return true;
+            } catch (MongoException e) {
+                if (ErrorCategory.fromErrorCode(e.getCode()) != ErrorCategory.DUPLICATE_KEY) {
+                    throw e;
+                }
             }
             
-            logger.debug("Set coins to {} for user {} with isolation (Guild={}, Server={})",
-                amount, userId, guildId, serverId);
+            // The balance exists: either it has no watermark yet, or its watermark is at or past this range
+            foldIfNewer(userId, guildId, serverId, ledgerTotal, lastEntryId);
+            return true;
         } catch (Exception e) {
-            logger.error("Error setting coins for user with isolation: {} (Guild={}, Server={})",
+            logger.error("Error applying ledger snapshot for user with isolation: {} (Guild={}, Server={})",
                 userId, guildId, serverId, e);
+            return false;
         }
     }
     
+    /**
+     * Fold a ledger range into an existing balance whose watermark is older, without upserting
+     * @return true if a balance was updated
+     */
+    private boolean foldIfNewer(long userId, long guildId, String serverId, long ledgerTotal, ObjectId lastEntryId) {
+        return getCollection().updateOne(
+            Filters.and(
+                isolationFilter(userId, guildId, serverId),
+                Filters.or(
+                    Filters.exists("ledgerWatermark", false),
+                    Filters.lt("ledgerWatermark", lastEntryId)
+                )
+            ),
+            Updates.combine(
+                Updates.inc("coins", ledgerTotal),
+                Updates.set("ledgerWatermark", lastEntryId),
+                Updates.set("lastUpdated", System.currentTimeMillis())
+            )
+        ).getMatchedCount() > 0;
+    }
+    
+    /**
+     * Add coins to a user's bank balance with proper isolation
+     * @return The new bank balance, or -1 on error
+     */
+    public long addBankCoins(long userId, long amount, long guildId, String serverId) {
+        try {
+            Currency currency = getCollection().findOneAndUpdate(
+                isolationFilter(userId, guildId, serverId),
+                Updates.combine(
+                    Updates.inc("bankCoins", amount),
+                    Updates.set("lastUpdated", System.currentTimeMillis())
+                ),
+                UPSERT_RETURN_AFTER
+            );
+            return currency != null ? currency.getBankCoins() : -1;
+        } catch (Exception e) {
+            logger.error("Error adding bank coins for user with isolation: {} (Guild={}, Server={})",
+                userId, guildId, serverId, e);
+            return -1;
+        }
+    }
+    
+    /**
+     * Remove coins from a user's bank balance, guarded so the bank never goes negative
+     * @return The new bank balance, or {@link #INSUFFICIENT_FUNDS} if the bank cannot cover the amount
+     */
+    public long removeBankCoins(long userId, long amount, long guildId, String serverId) {
+        try {
+            Currency currency = getCollection().findOneAndUpdate(
+                Filters.and(
+                    isolationFilter(userId, guildId, serverId),
+                    Filters.gte("bankCoins", amount)
+                ),
+                Updates.combine(
+                    Updates.inc("bankCoins", -amount),
+                    Updates.set("lastUpdated", System.currentTimeMillis())
+                ),
+                RETURN_AFTER
+            );
+            return currency != null ? currency.getBankCoins() : INSUFFICIENT_FUNDS;
+        } catch (Exception e) {
+            logger.error("Error removing bank coins for user with isolation: {} (Guild={}, Server={})",
+                userId, guildId, serverId, e);
+            return INSUFFICIENT_FUNDS;
+        }
+    }
+    
+    /**
+     * Build the isolation filter identifying a single user's balance
+     */
+    private Bson isolationFilter(long userId, long guildId, String serverId) {
+        return Filters.and(
+            Filters.eq("userId", userId),
+            Filters.eq("guildId", guildId),
+            Filters.eq("serverId", serverId)
+        );
+    }
+    
     /**
      * Get top users by coin balance with proper isolation
      */
@@ -202,32 +446,14 @@ public class CurrencyRepository {
      */
     public void updateLastDailyClaim(long userId, long timestamp, long guildId, String serverId) {
         try {
-            Currency currency = findByUserIdAndGuildIdAndServerId(userId, guildId, serverId);
-            
-            if (currency == null) {
-                // Create new currency for this user
-                currency = new Currency();
-                currency.setUserId(userId);
-                currency.setGuildId(guildId);
-                currency.setServerId(serverId);
-                currency.setLastDailyClaim(timestamp);
-                currency.setLastUpdated(System.currentTimeMillis());
-                save(currency);
-            } else {
-                // Update existing currency
-                Bson filter = Filters.and(
-                    Filters.eq("userId", userId),
-                    Filters.eq("guildId", guildId),
-                    Filters.eq("serverId", serverId)
-                );
-                
-                getCollection().updateOne(filter, 
-                    Updates.combine(
-                        Updates.set("lastDailyClaim", timestamp),
-                        Updates.set("lastUpdated", System.currentTimeMillis())
-                    )
-                );
-            }
+            getCollection().updateOne(
+                isolationFilter(userId, guildId, serverId),
+                Updates.combine(
+                    Updates.set("lastDailyReward", timestamp),
+                    Updates.set("lastUpdated", System.currentTimeMillis())
+                ),
+                new UpdateOptions().upsert(true)
+            );
             
             logger.debug("Updated last daily claim for user {} with isolation (Guild={}, Server={})",
                 userId, guildId, serverId);
@@ -242,32 +468,14 @@ public class CurrencyRepository {
      */
     public void updateLastWork(long userId, long timestamp, long guildId, String serverId) {
         try {
-            Currency currency = findByUserIdAndGuildIdAndServerId(userId, guildId, serverId);
-            
-            if (currency == null) {
-                // Create new currency for this user
-                currency = new Currency();
-                currency.setUserId(userId);
-                currency.setGuildId(guildId);
-                currency.setServerId(serverId);
-                currency.setLastWork(timestamp);
-                currency.setLastUpdated(System.currentTimeMillis());
-                save(currency);
-            } else {
-                // Update existing currency
-                Bson filter = Filters.and(
-                    Filters.eq("userId", userId),
-                    Filters.eq("guildId", guildId),
-                    Filters.eq("serverId", serverId)
-                );
-                
-                getCollection().updateOne(filter, 
-                    Updates.combine(
-                        Updates.set("lastWork", timestamp),
-                        Updates.set("lastUpdated", System.currentTimeMillis())
-                    )
-                );
-            }
+            getCollection().updateOne(
+                isolationFilter(userId, guildId, serverId),
+                Updates.combine(
+                    Updates.set("lastWork", timestamp),
+                    Updates.set("lastUpdated", System.currentTimeMillis())
+                ),
+                new UpdateOptions().upsert(true)
+            );
             
             logger.debug("Updated last work for user {} with isolation (Guild={}, Server={})",
                 userId, guildId, serverId);
@@ -5,6 +5,7 @@ import com.deadside.bot.db.models.GameServer;
 import com.mongodb.client.FindIterable;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
 import com.mongodb.client.model.Updates;
 import com.mongodb.client.result.DeleteResult;
 import com.mongodb.client.result.UpdateResult;
@@ -14,6 +15,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -156,6 +158,29 @@ public class GameServerRepository {
         }
     }
 
+    /**
+     * Find the status of every server in a set of guilds, loading only the fields needed for player counts
+     * @param guildIds Guild IDs
+     * @return Servers with ID, guild, name, online state and player counts populated
+     */
+    public List<GameServer> findStatusByGuildIds(Collection<Long> guildIds) {
+        List<GameServer> servers = new ArrayList<>();
+        if (guildIds.isEmpty()) {
+            return servers;
+        }
+        
+        try {
+            MongoCollection<Document> collection = MongoDBConnection.getCollection(COLLECTION_NAME);
+            collection.find(Filters.in("guildId", guildIds))
+                .projection(Projections.include("guildId", "name", "online", "playerCount", "maxPlayers"))
+                .forEach(doc -> servers.add(documentToServer(doc)));
+        } catch (Exception e) {
+            logger.error("Error finding server status for {} guilds", guildIds.size(), e);
+        }
+        
+        return servers;
+    }
+
     /**
      * Update server status
      * @param serverId Server ID
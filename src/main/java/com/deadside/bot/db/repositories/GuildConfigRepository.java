@@ -3,6 +3,7 @@ package com.deadside.bot.db.repositories;
 import com.deadside.bot.db.MongoDBConnection;
 import com.deadside.bot.db.models.GuildConfig;
 import com.deadside.bot.utils.GuildIsolationManager;
+import com.mongodb.MongoException;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.model.Filters;
 import com.mongodb.client.model.ReplaceOptions;
@@ -14,14 +15,32 @@ import com.mongodb.client.DistinctIterable;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Repository for GuildConfig objects in MongoDB with isolation awareness
  */
 public class GuildConfigRepository {
     private static final Logger logger = LoggerFactory.getLogger(GuildConfigRepository.class);
+    private static final List<ChangeListener> listeners = new CopyOnWriteArrayList<>();
     private MongoCollection<Document> collection;
     
+    /**
+     * Notified after a guild configuration is saved or deleted, so in-memory views can follow it
+     */
+    public interface ChangeListener {
+        void onSaved(GuildConfig config);
+        
+        void onDeleted(long guildId);
+    }
+    
+    /**
+     * Register a listener for saved and deleted guild configurations
+     */
+    public static void addChangeListener(ChangeListener listener) {
+        listeners.add(listener);
+    }
+    
     /**
      * Creates a new GuildConfigRepository
      */
@@ -76,6 +95,44 @@ public class GuildConfigRepository {
         }
     }
     
+    /**
+     * Find every guild configuration with a player count voice channel set, in a single query
+     * 
+     * @return Guild configurations that track a player count channel
+     * @throws MongoException if the configurations cannot be read
+     */
+    public List<GuildConfig> findWithPlayerCountChannel() {
+        MongoCollection<Document> configs = getCollection();
+        if (configs == null) {
+            throw new MongoException("Guild config collection is not available");
+        }
+        
+        List<GuildConfig> result = new ArrayList<>();
+        configs.find(Filters.gt("playerCountVoiceChannelId", 0L))
+            .forEach(doc -> result.add(new GuildConfig(doc)));
+        return result;
+    }
+    
+    /**
+     * Find every guild configuration with an event or primary log channel set, in a single query
+     * 
+     * @return Guild configurations that can receive game event notifications
+     * @throws MongoException if the configurations cannot be read
+     */
+    public List<GuildConfig> findWithEventChannels() {
+        MongoCollection<Document> configs = getCollection();
+        if (configs == null) {
+            throw new MongoException("Guild config collection is not available");
+        }
+        
+        List<GuildConfig> result = new ArrayList<>();
+        configs.find(Filters.or(
+                Filters.gt("eventLogChannelId", 0L),
+                Filters.gt("primaryLogChannelId", 0L)))
+            .forEach(doc -> result.add(new GuildConfig(doc)));
+        return result;
+    }
+    
     /**
      * Save a guild configuration with isolation validation
      * 
@@ -107,6 +164,9 @@ public class GuildConfigRepository {
                     config.getGuildId());
             }
             
+            // Keep in-memory views of the configs in step without them re-reading configs
+            notifySaved(config);
+            
             return config;
         } catch (Exception e) {
             logger.error("Error saving guild configuration for guild ID: {}", config.getGuildId(), e);
@@ -135,6 +195,7 @@ public class GuildConfigRepository {
                 Filters.eq("_id", config.getId()),
                 Filters.eq("guildId", config.getGuildId())
             ));
+            notifyDeleted(config.getGuildId());
             logger.debug("Deleted guild config with isolation (Guild={})", config.getGuildId());
         } catch (Exception e) {
             logger.error("Error deleting guild config: {}", config.getId(), e);
@@ -164,6 +225,7 @@ public class GuildConfigRepository {
                 Filters.eq("_id", id),
                 Filters.eq("guildId", guildId)
             ));
+            notifyDeleted(guildId);
             logger.debug("Deleted guild config with isolation (Guild={})", guildId);
         } catch (Exception e) {
             logger.error("Error deleting guild config by ID: {} with guild ID: {}", id, guildId, e);
@@ -200,12 +262,25 @@ public class GuildConfigRepository {
             }
             
             getCollection().deleteOne(Filters.eq("guildId", guildId));
+            notifyDeleted(guildId);
             logger.debug("Deleted guild config by guild ID with isolation (Guild={})", guildId);
         } catch (Exception e) {
             logger.error("Error deleting guild config by guild ID: {}", guildId, e);
         }
     }
     
+    private static void notifySaved(GuildConfig config) {
+        for (ChangeListener listener : listeners) {
+            listener.onSaved(config);
+        }
+    }
+    
+    private static void notifyDeleted(long guildId) {
+        for (ChangeListener listener : listeners) {
+            listener.onDeleted(guildId);
+        }
+    }
+    
     /**
      * Find all guild configurations that have premium status using isolation-aware approach
      * 
@@ -3,10 +3,21 @@ package com.deadside.bot.db.repositories;
 import com.deadside.bot.db.MongoDBConnection;
 import com.deadside.bot.db.models.KillRecord;
 import com.deadside.bot.utils.GuildIsolationManager;
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.MongoException;
+import com.mongodb.bulk.BulkWriteError;
 import com.mongodb.client.FindIterable;
 import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Accumulators;
+import com.mongodb.client.model.Aggregates;
 import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.InsertManyOptions;
 import com.mongodb.client.model.Sorts;
+import org.bson.BsonType;
+import org.bson.Document;
 import org.bson.conversions.Bson;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -21,12 +32,15 @@ public class KillRecordRepository {
     private static final Logger logger = LoggerFactory.getLogger(KillRecordRepository.class);
     private static final String COLLECTION_NAME = "kill_records";
     
+    private static volatile boolean indexesEnsured = false;
+    
     private MongoCollection<KillRecord> collection;
     
     public KillRecordRepository() {
         try {
             this.collection = MongoDBConnection.getInstance().getDatabase()
                 .getCollection(COLLECTION_NAME, KillRecord.class);
+            ensureIndexes();
         } catch (IllegalStateException e) {
             // This can happen during early initialization - handle gracefully
             logger.warn("MongoDB connection not initialized yet. Usage will be deferred until initialization.");
@@ -42,6 +56,7 @@ public class KillRecordRepository {
                 // Try to get the collection now that MongoDB should be initialized
                 this.collection = MongoDBConnection.getInstance().getDatabase()
                     .getCollection(COLLECTION_NAME, KillRecord.class);
+                ensureIndexes();
             } catch (Exception e) {
                 logger.error("Failed to initialize kill record collection", e);
             }
@@ -49,6 +64,65 @@ public class KillRecordRepository {
         return collection;
     }
     
+    /**
+     * One record per killfeed line of a server, so a file loaded again (a backfill resumed after a crash,
+     * or a line both tailed and backfilled) does not store its kills twice. Duplicates left by older
+     * versions would fail the index build, so they are removed first. If the index still cannot be built
+     * the repository keeps working without it and the build is tried again by the next instance.
+     */
+    private void ensureIndexes() {
+        if (indexesEnsured) {
+            return;
+        }
+        try {
+            createUniqueIndex();
+        } catch (MongoException e) {
+            if (ErrorCategory.fromErrorCode(e.getCode()) != ErrorCategory.DUPLICATE_KEY) {
+                logger.error("Could not create unique kill record index, reloaded files may duplicate kills", e);
+                return;
+            }
+            try {
+                logger.warn("Removed {} duplicate kill records", removeDuplicateRecords());
+                createUniqueIndex();
+            } catch (MongoException retry) {
+                logger.error("Could not remove duplicate kill records, reloaded files may duplicate kills", retry);
+            }
+        }
+    }
+    
+    private void createUniqueIndex() {
+        // Records built without their raw line are not covered
+        collection.createIndex(
+            Indexes.ascending("guildId", "serverId", "originalLine"),
+            new IndexOptions().unique(true).partialFilterExpression(Filters.type("originalLine", BsonType.STRING))
+        );
+        indexesEnsured = true;
+    }
+    
+    /**
+     * Keep the oldest of every set of records sharing a guild, server and raw line, and delete the rest
+     * @return Number of duplicate records removed
+     */
+    private long removeDuplicateRecords() {
+        MongoCollection<Document> documents = collection.withDocumentClass(Document.class);
+        List<Document> groups = documents.aggregate(List.of(
+            Aggregates.match(Filters.type("originalLine", BsonType.STRING)),
+            Aggregates.sort(Sorts.ascending("_id")),
+            Aggregates.group(
+                new Document("guildId", "$guildId").append("serverId", "$serverId").append("originalLine", "$originalLine"),
+                Accumulators.push("ids", "$_id"),
+                Accumulators.sum("count", 1)),
+            Aggregates.match(Filters.gt("count", 1))
+        )).allowDiskUse(true).into(new ArrayList<>());
+        
+        long removed = 0;
+        for (Document group : groups) {
+            List<Object> ids = group.getList("ids", Object.class);
+            removed += documents.deleteMany(Filters.in("_id", ids.subList(1, ids.size()))).getDeletedCount();
+        }
+        return removed;
+    }
+    
     /**
      * Save a kill record with proper isolation checks
      */
@@ -63,6 +137,13 @@ public class KillRecordRepository {
             getCollection().insertOne(killRecord);
             logger.debug("Saved kill record with proper isolation (Guild={}, Server={})",
                 killRecord.getGuildId(), killRecord.getServerId());
+        } catch (MongoException e) {
+            if (ErrorCategory.fromErrorCode(e.getCode()) == ErrorCategory.DUPLICATE_KEY) {
+                logger.debug("Kill record already stored (Guild={}, Server={})",
+                    killRecord.getGuildId(), killRecord.getServerId());
+            } else {
+                logger.error("Error saving kill record", e);
+            }
         } catch (Exception e) {
             logger.error("Error saving kill record", e);
         }
@@ -96,6 +177,47 @@ public class KillRecordRepository {
         }
     }
     
+    /**
+     * Insert a batch of kill records with unordered writes, for bulk loading.
+     * Records already stored for the same line are skipped, so a batch can safely be inserted again.
+     * @return Number of records inserted
+     * @throws MongoException if any record other than an already stored one could not be written
+     */
+    public int insertBatch(List<KillRecord> killRecords) {
+        List<KillRecord> validRecords = new ArrayList<>(killRecords.size());
+        for (KillRecord record : killRecords) {
+            if (record.getGuildId() <= 0 || record.getServerId() == null || record.getServerId().isEmpty()) {
+                logger.error("Skipping kill record without proper isolation fields");
+                continue;
+            }
+            validRecords.add(record);
+        }
+        if (validRecords.isEmpty()) {
+            return 0;
+        }
+        
+        MongoCollection<KillRecord> records = getCollection();
+        if (records == null) {
+            throw new MongoException("Kill record collection is not available");
+        }
+        
+        try {
+            records.insertMany(validRecords, new InsertManyOptions().ordered(false));
+            return validRecords.size();
+        } catch (MongoBulkWriteException e) {
+            if (e.getWriteConcernError() != null) {
+                throw e;
+            }
+            for (BulkWriteError error : e.getWriteErrors()) {
+                if (error.getCategory() != ErrorCategory.DUPLICATE_KEY) {
+                    throw e;
+                }
+            }
+            logger.debug("{} of {} kill records already stored", e.getWriteErrors().size(), validRecords.size());
+            return validRecords.size() - e.getWriteErrors().size();
+        }
+    }
+    
     /**
      * Find recent kill records for a guild with isolation
      */
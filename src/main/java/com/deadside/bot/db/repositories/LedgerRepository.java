@@ -0,0 +1,202 @@
+package com.deadside.bot.db.repositories;
+
+import com.deadside.bot.db.MongoDBConnection;
+import com.deadside.bot.db.models.LedgerEntry;
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Accumulators;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.InsertManyOptions;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.Sorts;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Repository for the append-only economy ledger and its snapshot state
+ */
+public class LedgerRepository {
+    private static final Logger logger = LoggerFactory.getLogger(LedgerRepository.class);
+    private static final String COLLECTION_NAME = "economy_ledger";
+    private static final String STATE_COLLECTION_NAME = "economy_ledger_state";
+    private static final String SNAPSHOT_STATE_ID = "snapshot";
+
+    private static volatile boolean indexesEnsured = false;
+
+    private MongoCollection<LedgerEntry> getCollection() {
+        MongoCollection<LedgerEntry> collection = MongoDBConnection.getCollection(COLLECTION_NAME, LedgerEntry.class);
+        if (!indexesEnsured) {
+            try {
+                collection.createIndex(Indexes.ascending("userId", "guildId", "serverId", "_id"),
+                    new IndexOptions().name("account_tail"));
+                indexesEnsured = true;
+            } catch (Exception e) {
+                logger.warn("Could not create economy ledger index: {}", e.getMessage());
+            }
+        }
+        return collection;
+    }
+
+    /**
+     * Insert a batch of ledger entries. Entries must already carry their IDs so a retried
+     * batch is idempotent: entries that were written by an earlier attempt are skipped.
+     * @param entries Entries to insert
+     * @return true if every entry is now stored, false if the batch should be retried
+     */
+    public boolean insertBatch(List<LedgerEntry> entries) {
+        if (entries.isEmpty()) {
+            return true;
+        }
+
+        try {
+            getCollection().insertMany(entries, new InsertManyOptions().ordered(false));
+            return true;
+        } catch (MongoBulkWriteException e) {
+            for (BulkWriteError error : e.getWriteErrors()) {
+                if (ErrorCategory.fromErrorCode(error.getCode()) != ErrorCategory.DUPLICATE_KEY) {
+                    logger.error("Error inserting economy ledger batch of {} entries: {}", entries.size(), error.getMessage());
+                    return false;
+                }
+            }
+            return true;
+        } catch (Exception e) {
+            logger.error("Error inserting economy ledger batch of {} entries", entries.size(), e);
+            return false;
+        }
+    }
+
+    /**
+     * Sum the ledger entries recorded for a wallet after a watermark
+     * @param watermark Last entry already folded into the wallet snapshot, or null for all entries
+     * @return Sum of the deltas after the watermark
+     * @throws com.mongodb.MongoException if the ledger cannot be read; a balance must not be computed without it
+     */
+    public long sumAfter(long userId, long guildId, String serverId, ObjectId watermark) {
+        Bson filter = Filters.and(
+            Filters.eq("userId", userId),
+            Filters.eq("guildId", guildId),
+            Filters.eq("serverId", serverId)
+        );
+        if (watermark != null) {
+            filter = Filters.and(filter, Filters.gt("_id", watermark));
+        }
+
+        Document result = getCollection().aggregate(List.of(
+            Aggregates.match(filter),
+            Aggregates.group(null, Accumulators.sum("total", "$delta"))
+        ), Document.class).first();
+
+        return result != null ? ((Number) result.get("total")).longValue() : 0;
+    }
+
+    /**
+     * Get the ID of the newest ledger entry
+     * @return Newest entry ID, or null if the ledger is empty
+     */
+    public ObjectId findLatestId() {
+        try {
+            LedgerEntry latest = getCollection().find()
+                .sort(Sorts.descending("_id"))
+                .limit(1)
+                .first();
+            return latest != null ? latest.getId() : null;
+        } catch (Exception e) {
+            logger.error("Error finding latest economy ledger entry", e);
+            return null;
+        }
+    }
+
+    /**
+     * Sum ledger entries per wallet within an ID range
+     * @param after Exclusive lower bound, or null to start from the first entry
+     * @param upTo Inclusive upper bound
+     * @return One document per wallet with userId, guildId, serverId, total and lastId
+     * @throws com.mongodb.MongoException if the ledger cannot be read; an empty result would drop the range
+     */
+    public List<Document> sumByWallet(ObjectId after, ObjectId upTo) {
+        Bson range = after != null
+            ? Filters.and(Filters.gt("_id", after), Filters.lte("_id", upTo))
+            : Filters.lte("_id", upTo);
+
+        List<Document> results = new ArrayList<>();
+        getCollection().aggregate(List.of(
+            Aggregates.match(range),
+            Aggregates.group(
+                new Document("userId", "$userId")
+                    .append("guildId", "$guildId")
+                    .append("serverId", "$serverId"),
+                Accumulators.sum("total", "$delta"),
+                Accumulators.max("lastId", "$_id")
+            )
+        ), Document.class).allowDiskUse(true).into(results);
+        return results;
+    }
+
+    /**
+     * Get the most recent ledger entries for a wallet, newest first
+     * @param limit Maximum number of entries
+     * @return Recent entries
+     */
+    public List<LedgerEntry> findRecent(long userId, long guildId, String serverId, int limit) {
+        try {
+            List<LedgerEntry> entries = new ArrayList<>();
+            getCollection().find(Filters.and(
+                    Filters.eq("userId", userId),
+                    Filters.eq("guildId", guildId),
+                    Filters.eq("serverId", serverId)
+                ))
+                .sort(Sorts.descending("_id"))
+                .limit(limit)
+                .into(entries);
+            return entries;
+        } catch (Exception e) {
+            logger.error("Error finding economy ledger entries for user {} (Guild={}, Server={})",
+                userId, guildId, serverId, e);
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Get the persisted snapshot state
+     * @return State document with optional "watermark" and "pendingCutoff" IDs, or an empty document
+     */
+    public Document getSnapshotState() {
+        try {
+            Document state = MongoDBConnection.getCollection(STATE_COLLECTION_NAME)
+                .find(Filters.eq("_id", SNAPSHOT_STATE_ID))
+                .first();
+            return state != null ? state : new Document("_id", SNAPSHOT_STATE_ID);
+        } catch (Exception e) {
+            logger.error("Error reading economy ledger snapshot state", e);
+            return null;
+        }
+    }
+
+    /**
+     * Persist the snapshot state
+     * @param state State document as returned by {@link #getSnapshotState()}
+     * @return true if the state was stored
+     */
+    public boolean saveSnapshotState(Document state) {
+        try {
+            state.put("_id", SNAPSHOT_STATE_ID);
+            MongoDBConnection.getCollection(STATE_COLLECTION_NAME)
+                .replaceOne(Filters.eq("_id", SNAPSHOT_STATE_ID), state, new ReplaceOptions().upsert(true));
+            return true;
+        } catch (Exception e) {
+            logger.error("Error saving economy ledger snapshot state", e);
+            return false;
+        }
+    }
+}
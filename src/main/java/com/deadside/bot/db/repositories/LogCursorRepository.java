@@ -0,0 +1,83 @@
+package com.deadside.bot.db.repositories;
+
+import com.deadside.bot.db.MongoDBConnection;
+import com.deadside.bot.db.models.LogCursor;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.ReplaceOptions;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Repository for log tailer positions: one document per server
+ */
+public class LogCursorRepository {
+    private static final Logger logger = LoggerFactory.getLogger(LogCursorRepository.class);
+    private static final String COLLECTION_NAME = "log_cursors";
+
+    private MongoCollection<Document> getCollection() {
+        return MongoDBConnection.getCollection(COLLECTION_NAME);
+    }
+
+    /**
+     * Find the log cursor of a server
+     * @return The cursor, or null if the server's log has not been read yet
+     */
+    public LogCursor find(long guildId, String serverName) {
+        try {
+            Document doc = getCollection().find(Filters.eq("_id", idOf(guildId, serverName))).first();
+            if (doc == null) {
+                return null;
+            }
+
+            LogCursor cursor = new LogCursor(guildId, serverName, doc.getString("file"));
+            cursor.setOffset(getLong(doc, "offset"));
+            cursor.setSize(getLong(doc, "size"));
+            cursor.setModifiedTime(getLong(doc, "modifiedTime"));
+            cursor.setHeadLength((int) getLong(doc, "headLength"));
+            cursor.setHeadChecksum(getLong(doc, "headChecksum"));
+            cursor.setUpdatedAt(getLong(doc, "updatedAt"));
+            return cursor;
+        } catch (Exception e) {
+            logger.error("Error loading log cursor for server {} in guild {}", serverName, guildId, e);
+            return null;
+        }
+    }
+
+    /**
+     * Save a log cursor, replacing the server's previous one
+     * @return true if the cursor was stored
+     */
+    public boolean save(LogCursor cursor) {
+        try {
+            cursor.setUpdatedAt(System.currentTimeMillis());
+            String id = idOf(cursor.getGuildId(), cursor.getServerName());
+            Document doc = new Document("_id", id)
+                .append("guildId", cursor.getGuildId())
+                .append("serverName", cursor.getServerName())
+                .append("file", cursor.getFile())
+                .append("offset", cursor.getOffset())
+                .append("size", cursor.getSize())
+                .append("modifiedTime", cursor.getModifiedTime())
+                .append("headLength", cursor.getHeadLength())
+                .append("headChecksum", cursor.getHeadChecksum())
+                .append("updatedAt", cursor.getUpdatedAt());
+            getCollection().replaceOne(Filters.eq("_id", id), doc, new ReplaceOptions().upsert(true));
+            return true;
+        } catch (Exception e) {
+            logger.error("Error saving log cursor for server {} in guild {}",
+                cursor.getServerName(), cursor.getGuildId(), e);
+            return false;
+        }
+    }
+
+    private static String idOf(long guildId, String serverName) {
+        return guildId + ":" + serverName;
+    }
+
+    private static long getLong(Document doc, String field) {
+        Object value = doc.get(field);
+        return value instanceof Number ? ((Number) value).longValue() : 0;
+    }
+}
@@ -0,0 +1,102 @@
+package com.deadside.bot.db.repositories;
+
+import com.deadside.bot.db.MongoDBConnection;
+import com.deadside.bot.db.models.PathStat;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Repository for candidate directory statistics: one document per server (or template), category and path
+ */
+public class PathStatRepository {
+    private static final Logger logger = LoggerFactory.getLogger(PathStatRepository.class);
+    private static final String COLLECTION_NAME = "parser_path_stats";
+
+    private MongoCollection<Document> getCollection() {
+        return MongoDBConnection.getCollection(COLLECTION_NAME);
+    }
+
+    /**
+     * Load every statistic
+     */
+    public List<PathStat> findAll() {
+        List<PathStat> result = new ArrayList<>();
+        try {
+            for (Document doc : getCollection().find()) {
+                result.add(new PathStat(doc.getString("owner"), doc.getString("category"), doc.getString("path"),
+                    getLong(doc, "hits"), getLong(doc, "failures"),
+                    getLong(doc, "lastSuccess"), getLong(doc, "lastFailure")));
+            }
+        } catch (Exception e) {
+            logger.error("Error loading parser path statistics", e);
+        }
+        return result;
+    }
+
+    /**
+     * Count a hit for a path
+     * @param owner Server ID, or null for a fleet-wide template
+     */
+    public void recordSuccess(String owner, String category, String path, long time) {
+        upsert(owner, category, path, Updates.combine(Updates.inc("hits", 1L), Updates.max("lastSuccess", time)));
+    }
+
+    /**
+     * Count a failure for a path
+     * @param owner Server ID, or null for a fleet-wide template
+     */
+    public void recordFailure(String owner, String category, String path, long time) {
+        upsert(owner, category, path, Updates.combine(Updates.inc("failures", 1L), Updates.max("lastFailure", time)));
+    }
+
+    /**
+     * Delete the statistics of a server
+     */
+    public void deleteByOwner(String owner) {
+        try {
+            getCollection().deleteMany(Filters.eq("owner", owner));
+        } catch (Exception e) {
+            logger.error("Error deleting parser path statistics of {}", owner, e);
+        }
+    }
+
+    /**
+     * Delete every statistic
+     */
+    public void deleteAll() {
+        try {
+            getCollection().deleteMany(new Document());
+        } catch (Exception e) {
+            logger.error("Error deleting parser path statistics", e);
+        }
+    }
+
+    private void upsert(String owner, String category, String path, Bson counters) {
+        try {
+            String id = (owner != null ? owner : "*") + ":" + category + ":" + path;
+            getCollection().updateOne(Filters.eq("_id", id),
+                Updates.combine(
+                    Updates.setOnInsert("owner", owner),
+                    Updates.setOnInsert("category", category),
+                    Updates.setOnInsert("path", path),
+                    counters),
+                new UpdateOptions().upsert(true));
+        } catch (Exception e) {
+            logger.error("Error saving parser path statistics of {} path {}", category, path, e);
+        }
+    }
+
+    private static long getLong(Document doc, String field) {
+        Object value = doc.get(field);
+        return value instanceof Number ? ((Number) value).longValue() : 0;
+    }
+}
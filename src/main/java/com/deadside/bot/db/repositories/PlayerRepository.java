@@ -2,11 +2,20 @@ package com.deadside.bot.db.repositories;
 
 import com.deadside.bot.db.MongoDBConnection;
 import com.deadside.bot.db.models.Player;
+import com.deadside.bot.db.models.PlayerField;
+import com.deadside.bot.db.models.PlayerStatDelta;
+import com.deadside.bot.db.models.PlayerSummary;
+import com.deadside.bot.db.models.PlaytimeDelta;
 import com.mongodb.client.FindIterable;
 import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
 import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
 import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
 import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
 import com.mongodb.client.result.DeleteResult;
 import com.mongodb.client.result.UpdateResult;
 import org.bson.Document;
@@ -16,7 +25,12 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Repository for Player entity
@@ -24,6 +38,19 @@ import java.util.List;
 public class PlayerRepository {
     private static final Logger logger = LoggerFactory.getLogger(PlayerRepository.class);
     private static final String COLLECTION_NAME = "players";
+    
+    /**
+     * Fields needed to render a leaderboard line (name, kills, deaths, K/D)
+     */
+    public static final Set<PlayerField> LEADERBOARD_FIELDS = Collections.unmodifiableSet(
+        EnumSet.of(PlayerField.ID, PlayerField.NAME, PlayerField.KILLS, PlayerField.DEATHS, PlayerField.KDR));
+
+    /**
+     * Fields needed to render a deaths leaderboard line (name, deaths, suicides, killed most by)
+     */
+    public static final Set<PlayerField> DEATHS_LEADERBOARD_FIELDS = Collections.unmodifiableSet(
+        EnumSet.of(PlayerField.ID, PlayerField.NAME, PlayerField.DEATHS, PlayerField.SUICIDES,
+            PlayerField.KILLED_BY_MOST));
 
     /**
      * Find player by ID
@@ -228,6 +255,122 @@ public class PlayerRepository {
         return player;
     }
 
+    /**
+     * Apply accumulated kill statistics of one server, one update per player in a single bulk write.
+     * Counters are incremented and the K/D ratio recomputed on the server, so no player is read first,
+     * and each player is added to the server's players.
+     *
+     * With a source, each player records the last file of that source applied to it and skips files that
+     * are not newer, so a file applied again after an interrupted or unrecorded write adds nothing twice.
+     * Missing players are then created by a separate upsert that only matches on the name, so the guard
+     * can never cause a second document for a player. A source's files must be applied in name order.
+     * @param deltas Deltas to apply
+     * @param serverId Server the kills happened on
+     * @param source Sequence of files the deltas come from, e.g. "killfeed:guild:server", or null for no guard
+     * @param file File the deltas come from, compared by name; ignored without a source
+     * @return true if the bulk write succeeded
+     */
+    public boolean applyStatDeltas(Collection<PlayerStatDelta> deltas, String serverId, String source, String file) {
+        if (deltas.isEmpty()) {
+            return true;
+        }
+        
+        try {
+            MongoCollection<Document> collection = MongoDBConnection.getCollection(COLLECTION_NAME);
+            String sourceField = source != null
+                ? "statSources." + source.replace('.', '_').replace('$', '_')
+                : null;
+            if (sourceField != null) {
+                List<WriteModel<Document>> inserts = new ArrayList<>(deltas.size());
+                for (PlayerStatDelta delta : deltas) {
+                    inserts.add(new UpdateOneModel<>(
+                        Filters.eq("displayName", delta.getPlayerName()),
+                        Updates.setOnInsert("active", true),
+                        new UpdateOptions().upsert(true)));
+                }
+                collection.bulkWrite(inserts, new BulkWriteOptions().ordered(false));
+            }
+            
+            List<WriteModel<Document>> updates = new ArrayList<>(deltas.size());
+            for (PlayerStatDelta delta : deltas) {
+                Document counters = new Document()
+                    .append("displayName", delta.getPlayerName())
+                    .append("active", new Document("$ifNull", List.of("$active", true)))
+                    .append("servers", new Document("$setUnion", List.of(
+                        new Document("$ifNull", List.of("$servers", List.of())),
+                        new Document("$literal", List.of(serverId)))))
+                    .append("killCount", increment("killCount", delta.getKills()))
+                    .append("deathCount", increment("deathCount", delta.getDeaths()))
+                    .append("stats.suicides", increment("stats.suicides", delta.getSuicides()));
+                for (Map.Entry<String, Integer> weapon : delta.getWeaponKills().entrySet()) {
+                    String field = "weaponStats." + weapon.getKey().replace('.', '_').replace('$', '_');
+                    counters.append(field, increment(field, weapon.getValue()));
+                }
+                if (sourceField != null) {
+                    counters.append(sourceField, new Document("$literal", file));
+                }
+                
+                Document kdr = new Document("kdr", new Document("$cond", List.of(
+                    new Document("$gt", List.of("$deathCount", 0)),
+                    new Document("$divide", List.of("$killCount", "$deathCount")),
+                    new Document("$toDouble", "$killCount"))));
+                
+                Bson filter = Filters.eq("displayName", delta.getPlayerName());
+                if (sourceField != null) {
+                    filter = Filters.and(filter, Filters.or(
+                        Filters.exists(sourceField, false),
+                        Filters.lt(sourceField, file)));
+                }
+                updates.add(new UpdateOneModel<>(
+                    filter,
+                    List.of(new Document("$set", counters), new Document("$set", kdr)),
+                    new UpdateOptions().upsert(sourceField == null)));
+            }
+            
+            collection.bulkWrite(updates, new BulkWriteOptions().ordered(false));
+            return true;
+        } catch (Exception e) {
+            logger.error("Error applying stat deltas for {} players", deltas.size(), e);
+            return false;
+        }
+    }
+    
+    /**
+     * Apply playtime from closed sessions, one upserting update per player in a single bulk write
+     * @param deltas Deltas to apply
+     * @return true if the bulk write succeeded
+     */
+    public boolean applyPlaytime(Collection<PlaytimeDelta> deltas) {
+        if (deltas.isEmpty()) {
+            return true;
+        }
+        
+        try {
+            List<WriteModel<Document>> updates = new ArrayList<>(deltas.size());
+            for (PlaytimeDelta delta : deltas) {
+                updates.add(new UpdateOneModel<>(
+                    Filters.eq("displayName", delta.getPlayerName()),
+                    Updates.combine(
+                        Updates.setOnInsert("active", true),
+                        // Stored as a 32-bit integer, like the model field
+                        Updates.inc("totalPlaytime", (int) Math.min(Integer.MAX_VALUE, delta.getSeconds())),
+                        Updates.max("lastSeen", delta.getLastSeen())),
+                    new UpdateOptions().upsert(true)));
+            }
+            
+            MongoDBConnection.getCollection(COLLECTION_NAME)
+                .bulkWrite(updates, new BulkWriteOptions().ordered(false));
+            return true;
+        } catch (Exception e) {
+            logger.error("Error applying playtime for {} players", deltas.size(), e);
+            return false;
+        }
+    }
+    
+    private static Document increment(String field, int amount) {
+        return new Document("$add", List.of(new Document("$ifNull", List.of("$" + field, 0)), amount));
+    }
+
     /**
      * Update player last seen timestamp
      * @param playerId Player ID
@@ -266,6 +409,130 @@ public class PlayerRepository {
         }
     }
 
+    /**
+     * Find lightweight player views using a projection so only the requested fields are transferred
+     * @param filter Query filter
+     * @param sort Sort order, or null for natural order
+     * @param limit Maximum number of players to return
+     * @param fields Fields to include in the projection
+     * @return List of player summaries
+     * @throws com.mongodb.MongoException if the players cannot be read
+     */
+    public List<PlayerSummary> findSummaries(Bson filter, Bson sort, int limit, Set<PlayerField> fields) {
+        List<PlayerSummary> summaries = new ArrayList<>();
+
+        MongoCollection<Document> collection = MongoDBConnection.getLeaderboardCollection(COLLECTION_NAME);
+        Bson projection = fields.contains(PlayerField.ID)
+                ? Projections.include(PlayerField.toFieldNames(fields))
+                : Projections.fields(
+                        Projections.include(PlayerField.toFieldNames(fields)),
+                        Projections.excludeId());
+
+        FindIterable<Document> docs = collection.find(filter).projection(projection);
+        if (sort != null) {
+            docs = docs.sort(sort);
+        }
+        if (limit > 0) {
+            docs = docs.limit(limit);
+        }
+
+        for (Document doc : docs) {
+            summaries.add(documentToSummary(doc));
+        }
+
+        return summaries;
+    }
+
+    /**
+     * Find the top players on a server ordered by a numeric field
+     * @param serverId Server ID, or null to rank all active players
+     * @param sortField Field to rank by (descending)
+     * @param minKills Minimum kill count to qualify
+     * @param limit Maximum number of players to return
+     * @param fields Fields to include in the projection
+     * @return List of player summaries
+     * @throws com.mongodb.MongoException if the players cannot be read
+     */
+    public List<PlayerSummary> findTopSummaries(String serverId, PlayerField sortField, int minKills,
+                                                int limit, Set<PlayerField> fields) {
+        return findTopSummaries(serverId != null ? List.of(serverId) : null, sortField, minKills, limit, fields);
+    }
+
+    /**
+     * Find the top players across a set of servers ordered by a numeric field
+     * @param serverIds Server IDs, or null to rank all active players
+     * @param sortField Field to rank by (descending)
+     * @param minKills Minimum kill count to qualify
+     * @param limit Maximum number of players to return
+     * @param fields Fields to include in the projection
+     * @return List of player summaries
+     * @throws com.mongodb.MongoException if the players cannot be read
+     */
+    public List<PlayerSummary> findTopSummaries(Collection<String> serverIds, PlayerField sortField, int minKills,
+                                                int limit, Set<PlayerField> fields) {
+        List<Bson> conditions = new ArrayList<>();
+        conditions.add(Filters.eq("active", true));
+        if (serverIds != null) {
+            conditions.add(Filters.in("servers", serverIds));
+        }
+        if (minKills > 0) {
+            conditions.add(Filters.gte(PlayerField.KILLS.getFieldName(), minKills));
+        }
+
+        return findSummaries(
+            Filters.and(conditions),
+            Sorts.orderBy(Sorts.descending(sortField.getFieldName()), Sorts.ascending("_id")),
+            limit,
+            fields
+        );
+    }
+
+    /**
+     * Count active players across a set of servers without loading them
+     * @param serverIds Server IDs, or null for all active players
+     * @return Number of active players
+     */
+    public long countActiveByServerIds(Collection<String> serverIds) {
+        try {
+            MongoCollection<Document> collection = MongoDBConnection.getLeaderboardCollection(COLLECTION_NAME);
+            Bson filter = serverIds == null
+                    ? Filters.eq("active", true)
+                    : Filters.and(Filters.in("servers", serverIds), Filters.eq("active", true));
+            return collection.countDocuments(filter);
+        } catch (Exception e) {
+            logger.error("Error counting active players for servers: {}", serverIds, e);
+            return 0;
+        }
+    }
+
+    /**
+     * Convert a projected document to a player summary
+     * @param doc MongoDB document
+     * @return Player summary
+     */
+    private PlayerSummary documentToSummary(Document doc) {
+        ObjectId id = doc.getObjectId("_id");
+        Number kdr = doc.get("kdr", Number.class);
+        Number lastSeen = doc.get("lastSeen", Number.class);
+        Number coins = doc.get("coins", Number.class);
+        Document stats = doc.get("stats", Document.class);
+        Number suicides = stats != null ? stats.get("suicides", Number.class) : null;
+
+        return new PlayerSummary(
+            id != null ? id.toString() : null,
+            doc.getString("steamId"),
+            doc.getString("displayName"),
+            doc.getInteger("killCount", 0),
+            doc.getInteger("deathCount", 0),
+            kdr != null ? kdr.doubleValue() : 0.0,
+            doc.getInteger("totalPlaytime", 0),
+            lastSeen != null ? lastSeen.longValue() : 0,
+            coins != null ? coins.longValue() : 0,
+            suicides != null ? suicides.intValue() : 0,
+            stats != null ? stats.getString("killedByMost") : null
+        );
+    }
+
     /**
      * Convert document to player
      * @param doc MongoDB document
@@ -405,21 +672,16 @@ public class PlayerRepository {
      * Remove coins from player
      * @param playerId Player ID
      * @param amount Coin amount to remove
-     * @return true if successful, false otherwise
+     * @return true if successful, false if the player does not exist or has too few coins
      */
     public boolean removeCoins(String playerId, long amount) {
         try {
-            Player player = findById(playerId);
-            if (player == null) {
-                return false;
-            }
-            
-            if (player.getCoins() < amount) {
-                return false;
-            }
-            
+            // Balance check and debit in one round trip so concurrent debits cannot overdraw
             MongoCollection<Document> collection = MongoDBConnection.getCollection(COLLECTION_NAME);
-            Bson filter = Filters.eq("_id", new ObjectId(playerId));
+            Bson filter = Filters.and(
+                Filters.eq("_id", new ObjectId(playerId)),
+                Filters.gte("coins", amount)
+            );
             UpdateResult result = collection.updateOne(filter, Updates.inc("coins", -amount));
             return result.getModifiedCount() > 0;
         } catch (Exception e) {
@@ -0,0 +1,76 @@
+package com.deadside.bot.db.repositories;
+
+import com.deadside.bot.db.MongoDBConnection;
+import com.deadside.bot.db.models.ResolvedPath;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.ReplaceOptions;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Repository for probed remote directories: one document per server and file category
+ */
+public class ResolvedPathRepository {
+    private static final Logger logger = LoggerFactory.getLogger(ResolvedPathRepository.class);
+    private static final String COLLECTION_NAME = "resolved_paths";
+
+    private MongoCollection<Document> getCollection() {
+        return MongoDBConnection.getCollection(COLLECTION_NAME);
+    }
+
+    /**
+     * Find the resolved directory of a server
+     * @param category File category, e.g. "csv" or "log"
+     * @return The resolved directory, or null if none is stored
+     */
+    public ResolvedPath find(long guildId, String serverName, String category) {
+        try {
+            Document doc = getCollection().find(Filters.eq("_id", idOf(guildId, serverName, category))).first();
+            if (doc == null) {
+                return null;
+            }
+            Number resolvedAt = doc.get("resolvedAt", Number.class);
+            return new ResolvedPath(doc.getString("configuredPath"), doc.getString("path"),
+                resolvedAt != null ? resolvedAt.longValue() : 0);
+        } catch (Exception e) {
+            logger.error("Error loading resolved {} path for server {} in guild {}", category, serverName, guildId, e);
+            return null;
+        }
+    }
+
+    /**
+     * Store the resolved directory of a server, replacing the previous one
+     */
+    public void save(long guildId, String serverName, String category, ResolvedPath resolved) {
+        try {
+            String id = idOf(guildId, serverName, category);
+            Document doc = new Document("_id", id)
+                .append("guildId", guildId)
+                .append("serverName", serverName)
+                .append("category", category)
+                .append("configuredPath", resolved.configuredPath())
+                .append("path", resolved.path())
+                .append("resolvedAt", resolved.resolvedAt());
+            getCollection().replaceOne(Filters.eq("_id", id), doc, new ReplaceOptions().upsert(true));
+        } catch (Exception e) {
+            logger.error("Error saving resolved {} path for server {} in guild {}", category, serverName, guildId, e);
+        }
+    }
+
+    /**
+     * Forget the resolved directory of a server
+     */
+    public void delete(long guildId, String serverName, String category) {
+        try {
+            getCollection().deleteOne(Filters.eq("_id", idOf(guildId, serverName, category)));
+        } catch (Exception e) {
+            logger.error("Error deleting resolved {} path for server {} in guild {}", category, serverName, guildId, e);
+        }
+    }
+
+    private static String idOf(long guildId, String serverName, String category) {
+        return guildId + ":" + serverName + ":" + category;
+    }
+}
@@ -0,0 +1,100 @@
+package com.deadside.bot.db.repositories;
+
+import com.deadside.bot.db.MongoDBConnection;
+import com.deadside.bot.db.models.ServerActivity;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Repository for server activity: an hourly concurrent-player time series and the latest summary per server
+ */
+public class ServerActivityRepository {
+    private static final Logger logger = LoggerFactory.getLogger(ServerActivityRepository.class);
+    private static final String HOURLY_COLLECTION = "server_activity_hourly";
+    private static final String SUMMARY_COLLECTION = "server_activity";
+
+    /**
+     * Add hourly activity of a server in one bulk write
+     * @param hours Activity by hour start (epoch milliseconds): player-seconds online and peak concurrent players
+     * @return true if the write succeeded
+     */
+    public boolean addHourly(long guildId, String serverName, Map<Long, long[]> hours) {
+        if (hours.isEmpty()) {
+            return true;
+        }
+
+        try {
+            List<WriteModel<Document>> updates = new ArrayList<>(hours.size());
+            for (Map.Entry<Long, long[]> hour : hours.entrySet()) {
+                updates.add(new UpdateOneModel<>(
+                    Filters.eq("_id", guildId + ":" + serverName + ":" + hour.getKey()),
+                    Updates.combine(
+                        Updates.setOnInsert("guildId", guildId),
+                        Updates.setOnInsert("serverName", serverName),
+                        Updates.setOnInsert("hourStart", hour.getKey()),
+                        Updates.inc("playerSeconds", hour.getValue()[0]),
+                        Updates.max("peakPlayers", hour.getValue()[1])),
+                    new UpdateOptions().upsert(true)));
+            }
+            MongoDBConnection.getCollection(HOURLY_COLLECTION).bulkWrite(updates, new BulkWriteOptions().ordered(false));
+            return true;
+        } catch (Exception e) {
+            logger.error("Error saving hourly activity for server {} in guild {}", serverName, guildId, e);
+            return false;
+        }
+    }
+
+    /**
+     * Store the latest activity summary of a server
+     */
+    public void saveSummary(long guildId, String serverName, ServerActivity activity) {
+        try {
+            String id = guildId + ":" + serverName;
+            Document doc = new Document("_id", id)
+                .append("guildId", guildId)
+                .append("serverName", serverName)
+                .append("onlinePlayers", activity.onlinePlayers())
+                .append("activeLast24h", activity.activeLast24h())
+                .append("peakLast24h", activity.peakLast24h())
+                .append("updatedAt", activity.updatedAt());
+            MongoDBConnection.getCollection(SUMMARY_COLLECTION)
+                .replaceOne(Filters.eq("_id", id), doc, new ReplaceOptions().upsert(true));
+        } catch (Exception e) {
+            logger.error("Error saving activity summary for server {} in guild {}", serverName, guildId, e);
+        }
+    }
+
+    /**
+     * Find the latest activity summary of a server
+     * @return The summary, or null if none has been stored
+     */
+    public ServerActivity findSummary(long guildId, String serverName) {
+        try {
+            Document doc = MongoDBConnection.getCollection(SUMMARY_COLLECTION)
+                .find(Filters.eq("_id", guildId + ":" + serverName)).first();
+            if (doc == null) {
+                return null;
+            }
+            return new ServerActivity(
+                doc.getInteger("onlinePlayers", 0),
+                doc.getInteger("activeLast24h", 0),
+                doc.getInteger("peakLast24h", 0),
+                doc.get("updatedAt", Number.class) != null ? doc.get("updatedAt", Number.class).longValue() : 0);
+        } catch (Exception e) {
+            logger.error("Error loading activity summary for server {} in guild {}", serverName, guildId, e);
+            return null;
+        }
+    }
+}
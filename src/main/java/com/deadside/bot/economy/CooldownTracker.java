@@ -0,0 +1,69 @@
+package com.deadside.bot.economy;
+
+import com.deadside.bot.utils.HashedTimerWheel;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Concurrent per-key command cooldowns.
+ * Each entry removes itself through the shared {@link HashedTimerWheel} once its cooldown has passed,
+ * so the tracker only ever holds keys that are currently cooling down.
+ *
+ * @param <K> Cooldown key, usually the Discord user ID
+ */
+public class CooldownTracker<K> {
+    private final Map<K, Long> expiries = new ConcurrentHashMap<>();
+    private final HashedTimerWheel wheel;
+    private final long cooldownMillis;
+
+    public CooldownTracker(long cooldown, TimeUnit unit) {
+        this.wheel = HashedTimerWheel.getInstance();
+        this.cooldownMillis = unit.toMillis(cooldown);
+    }
+
+    /**
+     * Start the cooldown for a key unless it is already cooling down
+     * @return 0 if the cooldown was started, otherwise the remaining cooldown in milliseconds
+     */
+    public long tryAcquire(K key) {
+        long now = System.currentTimeMillis();
+        long[] remaining = {0};
+        Long expiry = expiries.compute(key, (k, current) -> {
+            if (current != null && current > now) {
+                remaining[0] = current - now;
+                return current;
+            }
+            return now + cooldownMillis;
+        });
+
+        if (remaining[0] == 0) {
+            wheel.schedule(() -> expiries.remove(key, expiry), cooldownMillis, TimeUnit.MILLISECONDS);
+        }
+        return remaining[0];
+    }
+
+    /**
+     * Get the remaining cooldown for a key
+     * @return Remaining cooldown in milliseconds, or 0 if the key is not cooling down
+     */
+    public long getRemainingMillis(K key) {
+        Long expiry = expiries.get(key);
+        return expiry != null ? Math.max(0, expiry - System.currentTimeMillis()) : 0;
+    }
+
+    /**
+     * Get the remaining cooldown for a key, rounded up to whole seconds
+     */
+    public long getRemainingSeconds(K key) {
+        return (getRemainingMillis(key) + 999) / 1000;
+    }
+
+    /**
+     * Get the number of keys currently cooling down
+     */
+    public int size() {
+        return expiries.size();
+    }
+}
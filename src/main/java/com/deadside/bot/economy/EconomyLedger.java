@@ -0,0 +1,333 @@
+package com.deadside.bot.economy;
+
+import com.deadside.bot.config.Config;
+import com.deadside.bot.db.models.Currency;
+import com.deadside.bot.db.models.LedgerEntry;
+import com.deadside.bot.db.repositories.CurrencyRepository;
+import com.deadside.bot.db.repositories.LedgerRepository;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Append-only ledger for wallet balance changes.
+ *
+ * Every change is queued in memory and inserted into the ledger collection in batches by a single
+ * writer thread. The same thread periodically folds flushed entries into the wallet's coin balance
+ * in the currencies collection, which acts as the snapshot. A wallet balance is therefore its snapshot,
+ * plus the ledger entries written after the snapshot watermark, plus entries still queued in memory.
+ *
+ * Debits are checked against that balance under a per-wallet lock, which assumes a single bot
+ * instance owns the ledger.
+ */
+public class EconomyLedger {
+    private static final Logger logger = LoggerFactory.getLogger(EconomyLedger.class);
+
+    private static final int DEFAULT_BATCH_SIZE = 100;
+    private static final long DEFAULT_FLUSH_MS = 250;
+    private static final long DEFAULT_SNAPSHOT_MINUTES = 5;
+    private static final int LOCK_STRIPES = 64;
+
+    private static EconomyLedger instance;
+
+    private final LedgerRepository ledgerRepository;
+    private final CurrencyRepository currencyRepository;
+    private final BlockingQueue<LedgerEntry> queue = new LinkedBlockingQueue<>();
+    private final Map<WalletKey, Long> pendingDeltas = new ConcurrentHashMap<>();
+    private final ReentrantReadWriteLock flushLock = new ReentrantReadWriteLock();
+    private final Object[] walletLocks = new Object[LOCK_STRIPES];
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+    private final ScheduledExecutorService writer;
+    private final int batchSize;
+
+    // Batch whose insert failed; retried before anything newer so ledger IDs stay in insert order
+    private List<LedgerEntry> failedBatch = null;
+
+    /**
+     * Identifies a single wallet
+     */
+    private record WalletKey(long userId, long guildId, String serverId) {
+    }
+
+    private EconomyLedger() {
+        this(new LedgerRepository(), new CurrencyRepository());
+    }
+
+    /**
+     * Create a ledger over the given repositories and start its writer
+     */
+    EconomyLedger(LedgerRepository ledgerRepository, CurrencyRepository currencyRepository) {
+        this.ledgerRepository = ledgerRepository;
+        this.currencyRepository = currencyRepository;
+        this.batchSize = Math.max(1, Config.getIntProperty("economy.ledger.batchSize", DEFAULT_BATCH_SIZE));
+
+        for (int i = 0; i < walletLocks.length; i++) {
+            walletLocks[i] = new Object();
+        }
+
+        this.writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "economy-ledger");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        long flushMs = Math.max(10, Config.getIntProperty("economy.ledger.flushMs", (int) DEFAULT_FLUSH_MS));
+        long snapshotMinutes = Math.max(1, Config.getIntProperty("economy.ledger.snapshotMinutes", (int) DEFAULT_SNAPSHOT_MINUTES));
+        writer.scheduleWithFixedDelay(this::flush, flushMs, flushMs, TimeUnit.MILLISECONDS);
+        writer.scheduleWithFixedDelay(this::snapshot, snapshotMinutes, snapshotMinutes, TimeUnit.MINUTES);
+
+        logger.info("Economy ledger started (batch size {}, flush every {} ms, snapshot every {} min)",
+            batchSize, flushMs, snapshotMinutes);
+    }
+
+    /**
+     * Get the shared ledger, starting its writer on first use
+     */
+    public static synchronized EconomyLedger getInstance() {
+        if (instance == null) {
+            instance = new EconomyLedger();
+        }
+        return instance;
+    }
+
+    /**
+     * Get a guild-wide wallet handle for a user
+     * @param type Ledger entry type recorded for changes made through the handle
+     */
+    public LedgerWallet wallet(long userId, long guildId, String type) {
+        return new LedgerWallet(this, userId, guildId, CurrencyRepository.GUILD_ECONOMY_SERVER_ID, type);
+    }
+
+    /**
+     * Record a balance change. Only enqueues; the entry is written by the ledger thread.
+     * Callers must check funds for debits, see {@link #tryDebit}.
+     */
+    public void record(long userId, long guildId, String serverId, long delta, String type, String reference) {
+        if (delta == 0) {
+            return;
+        }
+
+        LedgerEntry entry = new LedgerEntry(userId, guildId, serverId, delta, type, reference);
+        addPending(new WalletKey(userId, guildId, serverId), delta);
+        queue.offer(entry);
+
+        if (queue.size() >= batchSize && !writer.isShutdown() && flushScheduled.compareAndSet(false, true)) {
+            writer.execute(this::flush);
+        }
+    }
+
+    /**
+     * Debit a wallet if the balance covers the amount
+     * @return The new balance, or {@link CurrencyRepository#INSUFFICIENT_FUNDS} if the balance is too low
+     * @throws com.mongodb.MongoException if the balance cannot be read; nothing is debited
+     */
+    public long tryDebit(long userId, long guildId, String serverId, long amount, String type, String reference) {
+        synchronized (lockFor(userId, guildId, serverId)) {
+            long balance = getBalance(userId, guildId, serverId);
+            if (balance < amount) {
+                return CurrencyRepository.INSUFFICIENT_FUNDS;
+            }
+            record(userId, guildId, serverId, -amount, type, reference);
+            return balance - amount;
+        }
+    }
+
+    /**
+     * Debit up to {@code amount}, never taking the balance below zero
+     * @return The amount actually debited
+     * @throws com.mongodb.MongoException if the balance cannot be read; nothing is debited
+     */
+    public long debitUpTo(long userId, long guildId, String serverId, long amount, String type, String reference) {
+        synchronized (lockFor(userId, guildId, serverId)) {
+            long taken = Math.max(0, Math.min(amount, getBalance(userId, guildId, serverId)));
+            record(userId, guildId, serverId, -taken, type, reference);
+            return taken;
+        }
+    }
+
+    /**
+     * Set a wallet to an exact balance by recording the difference
+     * @return The new balance
+     * @throws com.mongodb.MongoException if the current balance cannot be read; nothing is recorded
+     */
+    public long setBalance(long userId, long guildId, String serverId, long balance, String type, String reference) {
+        synchronized (lockFor(userId, guildId, serverId)) {
+            long current = getBalance(userId, guildId, serverId);
+            record(userId, guildId, serverId, balance - current, type, reference);
+            return balance;
+        }
+    }
+
+    /**
+     * Get a wallet balance: snapshot, plus ledger tail after the snapshot watermark, plus queued entries
+     * @throws com.mongodb.MongoException if the snapshot or the ledger tail cannot be read
+     */
+    public long getBalance(long userId, long guildId, String serverId) {
+        flushLock.readLock().lock();
+        try {
+            Currency currency = currencyRepository.findSnapshot(userId, guildId, serverId);
+            long snapshot = currency != null ? currency.getCoins() : 0;
+            ObjectId watermark = currency != null ? currency.getLedgerWatermark() : null;
+            long tail = ledgerRepository.sumAfter(userId, guildId, serverId, watermark);
+            Long pending = pendingDeltas.get(new WalletKey(userId, guildId, serverId));
+            return snapshot + tail + (pending != null ? pending : 0);
+        } finally {
+            flushLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get the most recent ledger entries for a wallet, newest first
+     */
+    public List<LedgerEntry> getHistory(long userId, long guildId, String serverId, int limit) {
+        flush();
+        return ledgerRepository.findRecent(userId, guildId, serverId, limit);
+    }
+
+    /**
+     * Write queued entries to the ledger collection
+     */
+    synchronized void flush() {
+        flushScheduled.set(false);
+
+        if (failedBatch != null) {
+            if (!writeBatch(failedBatch)) {
+                return;
+            }
+            failedBatch = null;
+        }
+
+        while (!queue.isEmpty()) {
+            List<LedgerEntry> batch = new ArrayList<>(batchSize);
+            queue.drainTo(batch, batchSize);
+
+            // IDs are assigned here, on the single writer, so they increase in insert order
+            for (LedgerEntry entry : batch) {
+                entry.setId(new ObjectId());
+            }
+
+            if (!writeBatch(batch)) {
+                failedBatch = batch;
+                logger.warn("Economy ledger batch of {} entries failed, will retry ({} queued)", batch.size(), queue.size());
+                return;
+            }
+        }
+    }
+
+    private boolean writeBatch(List<LedgerEntry> batch) {
+        flushLock.writeLock().lock();
+        try {
+            if (!ledgerRepository.insertBatch(batch)) {
+                return false;
+            }
+            for (LedgerEntry entry : batch) {
+                addPending(new WalletKey(entry.getUserId(), entry.getGuildId(), entry.getServerId()), -entry.getDelta());
+            }
+            return true;
+        } finally {
+            flushLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Fold flushed ledger entries into wallet snapshots.
+     * The cutoff is persisted before folding so an interrupted pass resumes over exactly the same range.
+     */
+    synchronized void snapshot() {
+        try {
+            flush();
+            if (failedBatch != null) {
+                return;
+            }
+
+            Document state = ledgerRepository.getSnapshotState();
+            if (state == null) {
+                return;
+            }
+
+            ObjectId watermark = state.getObjectId("watermark");
+            ObjectId cutoff = state.getObjectId("pendingCutoff");
+            if (cutoff == null) {
+                cutoff = ledgerRepository.findLatestId();
+                if (cutoff == null || cutoff.equals(watermark)) {
+                    return;
+                }
+                state.put("pendingCutoff", cutoff);
+                if (!ledgerRepository.saveSnapshotState(state)) {
+                    return;
+                }
+            }
+
+            // Throws if the ledger cannot be read, leaving the watermark and pending cutoff for the next pass
+            List<Document> totals = ledgerRepository.sumByWallet(watermark, cutoff);
+            for (Document total : totals) {
+                Document wallet = total.get("_id", Document.class);
+                boolean applied = currencyRepository.applyLedgerSnapshot(
+                    ((Number) wallet.get("userId")).longValue(),
+                    ((Number) wallet.get("guildId")).longValue(),
+                    wallet.getString("serverId"),
+                    ((Number) total.get("total")).longValue(),
+                    total.getObjectId("lastId"));
+                if (!applied) {
+                    // Leave the pending cutoff in place; the next pass retries the same range
+                    return;
+                }
+            }
+
+            state.put("watermark", cutoff);
+            state.remove("pendingCutoff");
+            ledgerRepository.saveSnapshotState(state);
+            logger.debug("Economy ledger snapshot folded {} wallets up to {}", totals.size(), cutoff);
+        } catch (Exception e) {
+            logger.error("Error taking economy ledger snapshot", e);
+        }
+    }
+
+    private void addPending(WalletKey key, long delta) {
+        pendingDeltas.merge(key, delta, (current, change) -> {
+            long sum = current + change;
+            return sum == 0 ? null : sum;
+        });
+    }
+
+    private Object lockFor(long userId, long guildId, String serverId) {
+        int hash = new WalletKey(userId, guildId, serverId).hashCode();
+        return walletLocks[Math.floorMod(hash, walletLocks.length)];
+    }
+
+    /**
+     * Flush queued entries and stop the ledger writer
+     */
+    public static synchronized void shutdown() {
+        if (instance == null) {
+            return;
+        }
+
+        instance.writer.shutdown();
+        try {
+            instance.writer.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        instance.flush();
+        if (!instance.queue.isEmpty() || instance.failedBatch != null) {
+            logger.warn("Economy ledger stopped with {} unwritten entries", instance.queue.size()
+                + (instance.failedBatch != null ? instance.failedBatch.size() : 0));
+        }
+        instance = null;
+        logger.info("Economy ledger stopped");
+    }
+}
@@ -0,0 +1,121 @@
+package com.deadside.bot.economy;
+
+import com.deadside.bot.utils.HashedTimerWheel;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * Concurrent registry of active game sessions, one per key, that expire after a period of inactivity.
+ * Expiry is driven by the shared {@link HashedTimerWheel}, so stale sessions are removed without
+ * a thread or executor per game.
+ *
+ * @param <K> Session key, usually the Discord user ID
+ * @param <S> Session state
+ */
+public class GameSessionRegistry<K, S> {
+    private final Map<K, Entry<S>> sessions = new ConcurrentHashMap<>();
+    private final HashedTimerWheel wheel;
+    private final long idleTimeoutMillis;
+    private final BiConsumer<K, S> onExpire;
+
+    /**
+     * Holds a session together with its pending expiry
+     */
+    private static final class Entry<S> {
+        private final S session;
+        private volatile HashedTimerWheel.Timeout timeout;
+
+        private Entry(S session) {
+            this.session = session;
+        }
+    }
+
+    /**
+     * Create a registry on the shared timer wheel
+     * @param idleTimeout Inactivity after which a session expires
+     * @param unit Unit of the idle timeout
+     * @param onExpire Called on the timer thread after an expired session has been removed; must not block
+     */
+    public GameSessionRegistry(long idleTimeout, TimeUnit unit, BiConsumer<K, S> onExpire) {
+        this.wheel = HashedTimerWheel.getInstance();
+        this.idleTimeoutMillis = unit.toMillis(idleTimeout);
+        this.onExpire = onExpire;
+    }
+
+    /**
+     * Start a session unless one is already active for the key
+     * @return true if the session was started
+     */
+    public boolean start(K key, S session) {
+        Entry<S> entry = new Entry<>(session);
+        if (sessions.putIfAbsent(key, entry) != null) {
+            return false;
+        }
+        scheduleExpiry(key, entry);
+        return true;
+    }
+
+    /**
+     * Get the active session for a key
+     * @return The session, or null if none is active
+     */
+    public S get(K key) {
+        Entry<S> entry = sessions.get(key);
+        return entry != null ? entry.session : null;
+    }
+
+    /**
+     * Check whether a session is active for a key
+     */
+    public boolean contains(K key) {
+        return sessions.containsKey(key);
+    }
+
+    /**
+     * Restart the inactivity timeout of an active session
+     */
+    public void touch(K key) {
+        Entry<S> entry = sessions.get(key);
+        if (entry != null) {
+            HashedTimerWheel.Timeout previous = entry.timeout;
+            if (previous != null) {
+                previous.cancel();
+            }
+            scheduleExpiry(key, entry);
+        }
+    }
+
+    /**
+     * End the active session for a key
+     * @return The session that was ended, or null if none was active
+     */
+    public S end(K key) {
+        Entry<S> entry = sessions.remove(key);
+        if (entry == null) {
+            return null;
+        }
+        HashedTimerWheel.Timeout timeout = entry.timeout;
+        if (timeout != null) {
+            timeout.cancel();
+        }
+        return entry.session;
+    }
+
+    /**
+     * Get the number of active sessions
+     */
+    public int size() {
+        return sessions.size();
+    }
+
+    private void scheduleExpiry(K key, Entry<S> entry) {
+        entry.timeout = wheel.schedule(() -> {
+            if (sessions.remove(key, entry) && onExpire != null) {
+                onExpire.accept(key, entry.session);
+            }
+        }, idleTimeoutMillis, TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,97 @@
+package com.deadside.bot.economy;
+
+import com.deadside.bot.db.repositories.CurrencyRepository;
+
+/**
+ * Handle on a single ledger-backed wallet, used by economy commands for the duration of an interaction or game.
+ * The balance is read once when the handle is created and then kept current locally as changes are recorded,
+ * so displaying it costs no database round trip. Debits always re-check the real balance.
+ */
+public class LedgerWallet {
+    private final EconomyLedger ledger;
+    private final long userId;
+    private final long guildId;
+    private final String serverId;
+    private final String type;
+    private long coins;
+
+    LedgerWallet(EconomyLedger ledger, long userId, long guildId, String serverId, String type) {
+        this.ledger = ledger;
+        this.userId = userId;
+        this.guildId = guildId;
+        this.serverId = serverId;
+        this.type = type;
+        this.coins = ledger.getBalance(userId, guildId, serverId);
+    }
+
+    /**
+     * Get the wallet balance as last known by this handle
+     */
+    public long getCoins() {
+        return coins;
+    }
+
+    /**
+     * Re-read the balance from the ledger
+     * @return Current balance
+     */
+    public long refresh() {
+        coins = ledger.getBalance(userId, guildId, serverId);
+        return coins;
+    }
+
+    /**
+     * Credit the wallet
+     */
+    public void addCoins(long amount) {
+        addCoins(amount, null);
+    }
+
+    /**
+     * Credit the wallet
+     * @param reference Optional detail stored with the ledger entry
+     */
+    public void addCoins(long amount, String reference) {
+        if (amount <= 0) return;
+
+        ledger.record(userId, guildId, serverId, amount, type, reference);
+        coins += amount;
+    }
+
+    /**
+     * Debit the wallet if the balance covers the amount
+     * @return true if the coins were removed
+     */
+    public boolean removeCoins(long amount) {
+        return removeCoins(amount, null);
+    }
+
+    /**
+     * Debit the wallet if the balance covers the amount
+     * @param reference Optional detail stored with the ledger entry
+     * @return true if the coins were removed
+     */
+    public boolean removeCoins(long amount, String reference) {
+        if (amount <= 0) return true;
+
+        long balance = ledger.tryDebit(userId, guildId, serverId, amount, type, reference);
+        if (balance == CurrencyRepository.INSUFFICIENT_FUNDS) {
+            coins = ledger.getBalance(userId, guildId, serverId);
+            return false;
+        }
+        coins = balance;
+        return true;
+    }
+
+    public long getUserId() {
+        return userId;
+    }
+
+    public long getGuildId() {
+        return guildId;
+    }
+
+    public String getServerId() {
+        return serverId;
+    }
+}
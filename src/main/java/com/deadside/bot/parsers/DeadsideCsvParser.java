@@ -3,6 +3,7 @@ package com.deadside.bot.parsers;
 import com.deadside.bot.db.repositories.GameServerRepository;
 import com.deadside.bot.db.repositories.PlayerRepository;
 import com.deadside.bot.sftp.SftpConnector;
+import com.deadside.bot.utils.ParserStateManager;
 import net.dv8tion.jda.api.JDA;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -62,6 +63,9 @@ public class DeadsideCsvParser {
     public int processDeathLogs(com.deadside.bot.db.models.GameServer server, boolean processHistorical) {
         logger.info("Processing death logs for server {}, historical: {}", 
             server.getName(), processHistorical);
+        if (!processHistorical && !startTailing(server)) {
+            return 0;
+        }
         
         try {
             // Implementation placeholder for compilation
@@ -82,6 +86,9 @@ public class DeadsideCsvParser {
      */
     public int processDeathLogContent(com.deadside.bot.db.models.GameServer server, String content) {
         logger.info("Processing death log content for server {}", server.getName());
+        if (!startTailing(server)) {
+            return 0;
+        }
         
         try {
             // Implementation placeholder for compilation
@@ -94,6 +101,21 @@ public class DeadsideCsvParser {
         }
     }
     
+    /**
+     * Mark the CSV parser as tailing a server, unless the server is paused or being backfilled
+     * @return true if live data may be processed; other servers are unaffected
+     */
+    private boolean startTailing(com.deadside.bot.db.models.GameServer server) {
+        if (!ParserStateManager.canTail(server.getName(), server.getGuildId(), ParserStateManager.Scope.CSV)) {
+            logger.debug("CSV parser for server {} is {}, skipping live processing", server.getName(),
+                    ParserStateManager.getState(server.getName(), server.getGuildId())
+                            .getPhase(ParserStateManager.Scope.CSV));
+            return false;
+        }
+        ParserStateManager.markTailing(server.getName(), server.getGuildId(), ParserStateManager.Scope.CSV);
+        return true;
+    }
+    
     /**
      * Set whether processing historical data
      * @param isHistorical Whether processing historical data
@@ -0,0 +1,212 @@
+package com.deadside.bot.parsers;
+
+import com.deadside.bot.db.models.GameServer;
+import com.deadside.bot.db.models.KillRecord;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.function.Consumer;
+
+/**
+ * Parses deathlog CSVs straight from a byte buffer, typically a memory-mapped file of the local mirror.
+ *
+ * Line ends are found eight bytes at a time and fields are located by their {@code ;} separators in a
+ * reused line buffer; only the player names, the weapon and the raw line become strings, and the
+ * timestamp and distance are parsed from the bytes. Accepts exactly the lines {@link KillfeedParser}
+ * accepts: {@code timestamp;killer;killerID;victim;victimID;weapon;distance;platform1;platform2;}
+ *
+ * Stateless and thread-safe; files can be scanned in parallel.
+ */
+public final class DeathlogScanner {
+    private static final int FIELDS = 9;
+    private static final String TIMESTAMP_SHAPE = "dddd.dd.dd-dd.dd.dd";
+    private static final int TIMESTAMP_LENGTH = TIMESTAMP_SHAPE.length();
+    private static final int MAX_DISTANCE_DIGITS = 18;
+
+    // Word-at-a-time search for '\n', see "Bit Twiddling Hacks: determine if a word has a zero byte"
+    private static final long NEWLINES = 0x0A0A0A0A0A0A0A0AL;
+    private static final long LOW_BITS = 0x0101010101010101L;
+    private static final long HIGH_BITS = 0x8080808080808080L;
+
+    /**
+     * Totals of one scan
+     * @param lines Lines in the content, empty ones included, so {@code lines - 1} is the last line index
+     * @param records Lines parsed into kill records
+     * @param malformed Non-empty lines that did not parse
+     */
+    public record Result(int lines, int records, int malformed) {
+    }
+
+    private DeathlogScanner() {
+    }
+
+    /**
+     * Parse every line between the buffer's position and limit
+     * @param server The game server the content belongs to
+     * @param content The file content; its position is not changed
+     * @param sink Receives each kill record in file order
+     */
+    public static Result scan(GameServer server, ByteBuffer content, Consumer<KillRecord> sink) {
+        ByteBuffer buffer = content.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        int limit = buffer.limit();
+        ZoneId zone = ZoneId.systemDefault();
+        byte[] line = new byte[256];
+        int[] separators = new int[FIELDS];
+
+        int lines = 0;
+        int records = 0;
+        int malformed = 0;
+        int start = buffer.position();
+        while (start < limit) {
+            int end = indexOfNewline(buffer, start, limit);
+            if (end < 0) {
+                end = limit;
+            }
+            lines++;
+
+            // Trim like String.trim(), which also drops the '\r' of CRLF files
+            int from = start;
+            int to = end;
+            start = end + 1;
+            while (from < to && (buffer.get(from) & 0xFF) <= ' ') {
+                from++;
+            }
+            while (to > from && (buffer.get(to - 1) & 0xFF) <= ' ') {
+                to--;
+            }
+            if (from == to) {
+                continue;
+            }
+
+            int length = to - from;
+            if (line.length < length) {
+                line = new byte[Math.max(length, line.length * 2)];
+            }
+            buffer.get(from, line, 0, length);
+
+            KillRecord record = parseLine(server, line, length, separators, zone);
+            if (record != null) {
+                records++;
+                sink.accept(record);
+            } else {
+                malformed++;
+            }
+        }
+        return new Result(lines, records, malformed);
+    }
+
+    /**
+     * Find the next '\n' at or after {@code from}
+     * @return Its index, or -1 if there is none before {@code limit}
+     */
+    private static int indexOfNewline(ByteBuffer buffer, int from, int limit) {
+        int i = from;
+        for (; i + Long.BYTES <= limit; i += Long.BYTES) {
+            long word = buffer.getLong(i) ^ NEWLINES;
+            long found = (word - LOW_BITS) & ~word & HIGH_BITS;
+            if (found != 0) {
+                // Little-endian, so the lowest flagged byte is the first newline
+                return i + (Long.numberOfTrailingZeros(found) >>> 3);
+            }
+        }
+        for (; i < limit; i++) {
+            if (buffer.get(i) == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static KillRecord parseLine(GameServer server, byte[] line, int length, int[] separators, ZoneId zone) {
+        int count = 0;
+        for (int i = 0; i < length; i++) {
+            if (line[i] == ';') {
+                if (count == FIELDS) {
+                    return null;
+                }
+                separators[count++] = i;
+            }
+        }
+        // Nine non-empty fields, each closed by a separator
+        if (count != FIELDS || separators[FIELDS - 1] != length - 1) {
+            return null;
+        }
+        int fieldStart = 0;
+        for (int separator : separators) {
+            if (separator == fieldStart) {
+                return null;
+            }
+            fieldStart = separator + 1;
+        }
+
+        if (separators[0] != TIMESTAMP_LENGTH) {
+            return null;
+        }
+        LocalDateTime time = parseTimestamp(line);
+        long distance = parseDigits(line, separators[5] + 1, separators[6]);
+        if (time == null || distance < 0) {
+            return null;
+        }
+
+        String killer = text(line, separators[0] + 1, separators[1]);
+        String victim = text(line, separators[2] + 1, separators[3]);
+        String weapon = text(line, separators[4] + 1, separators[5]);
+        long timeMs = time.atZone(zone).toInstant().toEpochMilli();
+        return KillfeedParser.createKillRecord(server, killer, victim, weapon, distance, timeMs,
+                new String(line, 0, length, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Parse a {@code yyyy.MM.dd-HH.mm.ss} timestamp at the start of the line
+     * @return The time, or null if the bytes do not hold a valid one
+     */
+    private static LocalDateTime parseTimestamp(byte[] line) {
+        for (int i = 0; i < TIMESTAMP_LENGTH; i++) {
+            char expected = TIMESTAMP_SHAPE.charAt(i);
+            boolean matches = expected == 'd' ? line[i] >= '0' && line[i] <= '9' : line[i] == expected;
+            if (!matches) {
+                return null;
+            }
+        }
+        try {
+            return LocalDateTime.of(number(line, 0, 4), number(line, 5, 7), number(line, 8, 10),
+                    number(line, 11, 13), number(line, 14, 16), number(line, 17, 19));
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Parse a run of ASCII digits
+     * @return The value, or -1 if the range is empty, holds a non-digit or would overflow
+     */
+    private static long parseDigits(byte[] line, int from, int to) {
+        if (from >= to || to - from > MAX_DISTANCE_DIGITS) {
+            return -1;
+        }
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            if (line[i] < '0' || line[i] > '9') {
+                return -1;
+            }
+            value = value * 10 + (line[i] - '0');
+        }
+        return value;
+    }
+
+    private static int number(byte[] line, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            value = value * 10 + (line[i] - '0');
+        }
+        return value;
+    }
+
+    private static String text(byte[] line, int from, int to) {
+        return new String(line, from, to - from, StandardCharsets.UTF_8);
+    }
+}
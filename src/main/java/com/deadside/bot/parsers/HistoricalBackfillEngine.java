@@ -0,0 +1,280 @@
+package com.deadside.bot.parsers;
+
+import com.deadside.bot.db.models.GameServer;
+import com.deadside.bot.db.repositories.BackfillCheckpointRepository;
+import com.deadside.bot.services.SchedulerService;
+import com.deadside.bot.sftp.LocalMirror;
+import com.deadside.bot.sftp.SftpConnector;
+import com.deadside.bot.sftp.TransferStats;
+import com.deadside.bot.utils.ParserStateManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Backfills a server's killfeed history file by file.
+ *
+ * Each CSV file is a unit of work processed on the bounded backfill pool: the file is bulk loaded through
+ * {@link KillfeedBulkLoader}, so its kill records are inserted in batches and its kills are aggregated per
+ * player. The units' player statistics are then written by the backfill itself, one file at a time in name
+ * order, so units never write the same player concurrently, and a checkpoint for each file is stored in
+ * MongoDB. A backfill that is interrupted resumes with the files that have no checkpoint. Every player
+ * records the last file of the server applied to it, so a file interrupted between its stat update and its
+ * checkpoint is parsed again on resume without counting its kills twice, and kill records are unique per
+ * line, so inserting them again stores nothing new. A file whose records cannot be inserted fails and gets
+ * no checkpoint. Files after one that failed are left for the next run, since applying them would make the
+ * failed file look applied.
+ *
+ * While a server is being backfilled its killfeed state is BACKFILLING, so live tailing skips only that
+ * server, and progress with throughput is reported to an optional listener.
+ *
+ * Files are read from the server's {@link LocalMirror}, which is first brought up to date. An offline
+ * backfill, e.g. a re-parse after a parser fix, reads only the files already mirrored and makes no SFTP
+ * requests.
+ */
+public class HistoricalBackfillEngine {
+    private static final Logger logger = LoggerFactory.getLogger(HistoricalBackfillEngine.class);
+    private static final String KIND = "killfeed";
+    private static final String POOL = "backfill";
+    private static final String COORDINATOR_POOL = "backfill-coordinator";
+    private static final int DEFAULT_THREADS = 4;
+    private static final int DEFAULT_COORDINATOR_THREADS = 2;
+    private static final long PROGRESS_INTERVAL_MILLIS = 5000;
+
+    // Backfills in progress by server, so a second request joins the running one
+    private static final Map<String, CompletableFuture<Progress>> running = new ConcurrentHashMap<>();
+
+    private final KillfeedBulkLoader bulkLoader;
+    private final SftpConnector sftpConnector;
+    private final BackfillCheckpointRepository checkpointRepository;
+
+    /**
+     * Progress of a backfill
+     * @param totalFiles Files found on the server
+     * @param completedFiles Files processed by this run
+     * @param resumedFiles Files skipped because an earlier run completed them
+     * @param failedFiles Files that could not be processed and will be retried by the next run
+     * @param records Kill records processed by this run
+     * @param elapsedMillis Time since this run started
+     */
+    public record Progress(String serverName, int totalFiles, int completedFiles, int resumedFiles,
+                           int failedFiles, long records, long elapsedMillis) {
+        /**
+         * Records processed per second by this run
+         */
+        public double recordsPerSecond() {
+            return elapsedMillis > 0 ? records * 1000.0 / elapsedMillis : 0;
+        }
+
+        /**
+         * Check whether every file has been completed, by this run or an earlier one
+         */
+        public boolean isComplete() {
+            return completedFiles + resumedFiles == totalFiles;
+        }
+    }
+
+    /**
+     * A file whose kill records are loaded and whose player statistics are ready to apply
+     */
+    private record LoadedFile(KillfeedBulkLoader.Session session, KillfeedBulkLoader.Result result) {
+    }
+
+    /**
+     * @param killfeedParser Parser used to turn CSV lines into kill records
+     */
+    public HistoricalBackfillEngine(KillfeedParser killfeedParser) {
+        this.bulkLoader = new KillfeedBulkLoader(killfeedParser);
+        this.sftpConnector = new SftpConnector();
+        this.checkpointRepository = new BackfillCheckpointRepository();
+    }
+
+    /**
+     * Backfill a server's killfeed history, resuming from its checkpoints
+     * @param server The game server
+     * @param listener Receives progress while the backfill runs, may be null
+     * @return Future completed with the final progress
+     */
+    public CompletableFuture<Progress> backfill(GameServer server, Consumer<Progress> listener) {
+        return backfill(server, listener, false);
+    }
+
+    /**
+     * Backfill a server's killfeed history, resuming from its checkpoints
+     * @param server The game server
+     * @param listener Receives progress while the backfill runs, may be null
+     * @param offline Whether to read only the local mirror, without contacting the server
+     * @return Future completed with the final progress
+     */
+    public CompletableFuture<Progress> backfill(GameServer server, Consumer<Progress> listener, boolean offline) {
+        String key = server.getGuildId() + ":" + server.getName();
+        CompletableFuture<Progress> started = new CompletableFuture<>();
+        CompletableFuture<Progress> existing = running.putIfAbsent(key, started);
+        if (existing != null) {
+            logger.info("Backfill already running for server {}, joining it", server.getName());
+            return existing;
+        }
+
+        SchedulerService scheduler = SchedulerService.getInstance();
+        // Coordinators wait on their file units, so they get their own pool rather than one callers may block
+        scheduler.pool(COORDINATOR_POOL, DEFAULT_COORDINATOR_THREADS);
+        scheduler.submit(COORDINATOR_POOL, () -> {
+            try {
+                started.complete(run(server, listener, offline));
+            } catch (Exception e) {
+                started.completeExceptionally(e);
+            } finally {
+                running.remove(key, started);
+            }
+        });
+        return started;
+    }
+
+    /**
+     * Forget a server's checkpoints so the next backfill processes every file again
+     * @return Number of checkpoints removed
+     */
+    public long reset(GameServer server) {
+        return checkpointRepository.clear(server.getGuildId(), server.getName(), KIND);
+    }
+
+    /**
+     * Source under which player statistics from a server's killfeed files are recorded, so every path that
+     * applies those files skips the ones another path already applied
+     */
+    public static String statSource(GameServer server) {
+        return KIND + ":" + server.getGuildId() + ":" + server.getName();
+    }
+
+    /**
+     * Check whether a backfill is running for a server
+     */
+    public static boolean isRunning(GameServer server) {
+        return running.containsKey(server.getGuildId() + ":" + server.getName());
+    }
+
+    private Progress run(GameServer server, Consumer<Progress> listener, boolean offline) {
+        long startedAt = System.currentTimeMillis();
+        LocalMirror mirror = LocalMirror.getInstance();
+        List<String> files = offline ? mirror.listDeathlogs(server) : mirror.syncDeathlogs(server, sftpConnector);
+
+        Set<String> done = checkpointRepository.findCompletedFiles(server.getGuildId(), server.getName(), KIND);
+        List<String> pending = new ArrayList<>();
+        for (String file : files) {
+            if (!done.contains(file)) {
+                pending.add(file);
+            }
+        }
+        int resumed = files.size() - pending.size();
+        logger.info("Backfilling {} of {} killfeed files for server {} ({} already done)",
+                pending.size(), files.size(), server.getName(), resumed);
+
+        int completed = 0;
+        int failed = 0;
+        long records = 0;
+        long lastReport = startedAt;
+
+        if (!ParserStateManager.beginBackfill(server.getName(), server.getGuildId(),
+                ParserStateManager.Scope.KILLFEED, "Historical backfill")) {
+            throw new IllegalStateException("Killfeed parser for server " + server.getName()
+                    + " is paused or already backfilling");
+        }
+        try {
+            ExecutorService pool = SchedulerService.getInstance().pool(POOL, DEFAULT_THREADS);
+            List<CompletableFuture<LoadedFile>> units = new ArrayList<>(pending.size());
+            for (String file : pending) {
+                units.add(CompletableFuture.supplyAsync(() -> loadFile(server, file), pool));
+            }
+
+            String source = statSource(server);
+            boolean stopped = false;
+            for (int i = 0; i < pending.size(); i++) {
+                String file = pending.get(i);
+                LoadedFile loaded = units.get(i).join();
+                if (!stopped && loaded != null && applyFile(server, source, file, loaded)) {
+                    completed++;
+                    records += loaded.result().records();
+                } else {
+                    stopped = true;
+                    failed++;
+                }
+
+                long now = System.currentTimeMillis();
+                if (listener != null && now - lastReport >= PROGRESS_INTERVAL_MILLIS) {
+                    lastReport = now;
+                    listener.accept(new Progress(server.getName(), files.size(), completed, resumed,
+                            failed, records, now - startedAt));
+                }
+            }
+        } finally {
+            ParserStateManager.endBackfill(server.getName(), server.getGuildId(), ParserStateManager.Scope.KILLFEED);
+        }
+
+        Progress result = new Progress(server.getName(), files.size(), completed, resumed,
+                failed, records, System.currentTimeMillis() - startedAt);
+        logger.info("Backfill for server {} finished: {} files, {} records in {} s ({} records/s), {} failed",
+                server.getName(), result.completedFiles(), result.records(),
+                TimeUnit.MILLISECONDS.toSeconds(result.elapsedMillis()),
+                String.format("%.1f", result.recordsPerSecond()), result.failedFiles());
+        logger.info("Mirror transfers so far: {}", TransferStats.getInstance().describe());
+        if (listener != null) {
+            listener.accept(result);
+        }
+        return result;
+    }
+
+    /**
+     * Parse one file and insert its kill records
+     * @return The loaded file, or null if it could not be loaded
+     */
+    private LoadedFile loadFile(GameServer server, String file) {
+        try {
+            Path local = LocalMirror.getInstance().deathlogDirectory(server).resolve(file);
+            ByteBuffer content = Files.exists(local) ? LocalMirror.getInstance().map(local) : null;
+            if (content == null) {
+                logger.warn("Missing or unreadable killfeed file {} for server {}, will retry", file, server.getName());
+                return null;
+            }
+
+            // An empty file is completed with no records rather than retried forever
+            KillfeedBulkLoader.Session session = bulkLoader.open(server);
+            if (content.hasRemaining()) {
+                session.accept(content);
+            }
+            return new LoadedFile(session, session.finishRecords());
+        } catch (Exception e) {
+            logger.error("Error backfilling file {} for server {}", file, server.getName(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Apply a loaded file's player statistics and checkpoint it
+     * @return true if the statistics were applied
+     */
+    private boolean applyFile(GameServer server, String source, String file, LoadedFile loaded) {
+        if (!loaded.session().applyStats(source, file)) {
+            return false;
+        }
+
+        KillfeedBulkLoader.Result result = loaded.result();
+        // Without a checkpoint the file is parsed again by the next run, and its stats are skipped then
+        checkpointRepository.markCompleted(server.getGuildId(), server.getName(), KIND, file,
+                (int) result.records(), result.elapsedMillis());
+        logger.debug("Backfilled {} records from {} for server {} in {} ms",
+                result.records(), file, server.getName(), result.elapsedMillis());
+        return true;
+    }
+}
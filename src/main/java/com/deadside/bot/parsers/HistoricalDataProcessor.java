@@ -1,6 +1,7 @@
 package com.deadside.bot.parsers;
 
 import com.deadside.bot.db.models.GameServer;
+import com.deadside.bot.services.SchedulerService;
 import com.deadside.bot.sftp.SftpConnector;
 import com.deadside.bot.utils.EmbedThemes;
 import com.deadside.bot.utils.ParserStateManager;
@@ -39,12 +40,23 @@ public class HistoricalDataProcessor {
     public CompletableFuture<Void> processHistoricalData(SlashCommandInteractionEvent event, GameServer server) {
         logger.info("Starting historical data processing for server: {}", server.getName());
         
-        // Set historical data processing flag
-        ParserStateManager.setProcessingHistoricalData(true);
-        
         // Create a completable future to track processing completion
         CompletableFuture<Void> processingFuture = new CompletableFuture<>();
         
+        // Mark this server as backfilling; other servers keep tailing
+        if (!ParserStateManager.beginBackfill(server.getName(), server.getGuildId(),
+                ParserStateManager.Scope.CSV, "Historical data processing")) {
+            logger.warn("CSV parser for server {} is paused or already backfilling", server.getName());
+            event.getHook().sendMessageEmbeds(
+                    EmbedThemes.errorEmbed("Historical Data Processing Error",
+                            "Historical data for server **" + server.getName() + "** is already being processed, " +
+                            "or its CSV parser is paused.")
+            ).queue();
+            processingFuture.completeExceptionally(new IllegalStateException(
+                    "CSV parser for server " + server.getName() + " is paused or already backfilling"));
+            return processingFuture;
+        }
+        
         try {
             // Send initial progress message
             event.getHook().sendMessageEmbeds(
@@ -53,7 +65,7 @@ public class HistoricalDataProcessor {
                             "This may take several minutes depending on the amount of data.")
             ).queue(message -> {
                 // Start processing in separate thread to not block the main thread
-                CompletableFuture.runAsync(() -> {
+                SchedulerService.getInstance().submit("historical", () -> {
                     try {
                         // Process the data and track stats
                         AtomicInteger killCount = new AtomicInteger(0);
@@ -93,16 +105,22 @@ public class HistoricalDataProcessor {
                         // Complete the future exceptionally
                         processingFuture.completeExceptionally(e);
                     } finally {
-                        // Always reset the processing flag when done
-                        ParserStateManager.setProcessingHistoricalData(false);
+                        // Always end the backfill when done
+                        ParserStateManager.endBackfill(server.getName(), server.getGuildId(),
+                                ParserStateManager.Scope.CSV);
                     }
                 });
+            }, error -> {
+                // Processing never started, so end the backfill here
+                logger.error("Could not start historical data processing for server {}", server.getName(), error);
+                ParserStateManager.endBackfill(server.getName(), server.getGuildId(), ParserStateManager.Scope.CSV);
+                processingFuture.completeExceptionally(error);
             });
         } catch (Exception e) {
             logger.error("Error starting historical data processing for server {}", server.getName(), e);
             
-            // Reset processing flag and complete future exceptionally
-            ParserStateManager.setProcessingHistoricalData(false);
+            // End the backfill and complete future exceptionally
+            ParserStateManager.endBackfill(server.getName(), server.getGuildId(), ParserStateManager.Scope.CSV);
             processingFuture.completeExceptionally(e);
             
             // Send error message
@@ -129,9 +147,19 @@ public class HistoricalDataProcessor {
         AtomicInteger errorsEncountered = new AtomicInteger(0);
         int filesProcessed = 0; // Simple counter for files processed
         
+        // Set historical processing mode for this server only
+        boolean started = ParserStateManager.beginBackfill(server.getName(), server.getGuildId(),
+                ParserStateManager.Scope.CSV, "Historical data processing");
+        if (!started) {
+            logger.warn("CSV parser for server {} is paused or already backfilling, skipping historical data",
+                    server.getName());
+            errorsEncountered.incrementAndGet();
+        }
+        
         try {
-            // Set historical processing mode
-            ParserStateManager.setProcessingHistoricalData(true);
+            if (!started) {
+                return statistics(filesProcessed, killsRecorded, deathsRecorded, errorsEncountered);
+            }
             
             // Get CSV parser to handle the actual parsing
             csvParser.setProcessingHistoricalData(true);
@@ -149,12 +177,21 @@ public class HistoricalDataProcessor {
             logger.error("Error processing historical data for server {}", server.getName(), e);
             errorsEncountered.incrementAndGet();
         } finally {
-            // Always reset processing flags
-            ParserStateManager.setProcessingHistoricalData(false);
-            csvParser.setProcessingHistoricalData(false);
+            // Reset processing flags, ending only a backfill this call started
+            if (started) {
+                ParserStateManager.endBackfill(server.getName(), server.getGuildId(), ParserStateManager.Scope.CSV);
+                csvParser.setProcessingHistoricalData(false);
+            }
         }
         
-        // Return the processing statistics
+        return statistics(filesProcessed, killsRecorded, deathsRecorded, errorsEncountered);
+    }
+    
+    /**
+     * Build the statistics map returned by {@link #processServerHistoricalData}
+     */
+    private static Map<String, Integer> statistics(int filesProcessed, AtomicInteger killsRecorded,
+                                                   AtomicInteger deathsRecorded, AtomicInteger errorsEncountered) {
         Map<String, Integer> stats = new HashMap<>();
         stats.put("filesProcessed", filesProcessed);
         stats.put("killsRecorded", killsRecorded.get());
@@ -0,0 +1,166 @@
+package com.deadside.bot.parsers;
+
+import com.deadside.bot.config.Config;
+import com.deadside.bot.db.models.GameServer;
+import com.deadside.bot.db.models.KillRecord;
+import com.deadside.bot.db.models.PlayerStatDelta;
+import com.deadside.bot.db.repositories.KillRecordRepository;
+import com.deadside.bot.db.repositories.PlayerRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bulk-load path for historical killfeed data.
+ *
+ * Records are streamed into fixed-size unordered insert batches as they are parsed, so only one batch is
+ * held in memory at a time. Player statistics are aggregated in memory and written with a single bulk
+ * write when the load finishes, or later by a caller that orders the writes of several loads. Nothing is
+ * sent to Discord.
+ */
+public class KillfeedBulkLoader {
+    private static final Logger logger = LoggerFactory.getLogger(KillfeedBulkLoader.class);
+    private static final int DEFAULT_BATCH_SIZE = 1000;
+
+    private final KillfeedParser killfeedParser;
+    private final KillRecordRepository killRecordRepository;
+    private final PlayerRepository playerRepository;
+    private final int batchSize;
+
+    /**
+     * Totals of a finished load
+     * @param records Kill records parsed
+     * @param inserted Kill records inserted
+     * @param players Players whose statistics the load changes
+     */
+    public record Result(long records, long inserted, int players, long elapsedMillis) {
+        public double recordsPerSecond() {
+            return elapsedMillis > 0 ? records * 1000.0 / elapsedMillis : 0;
+        }
+    }
+
+    public KillfeedBulkLoader(KillfeedParser killfeedParser) {
+        this(killfeedParser, new KillRecordRepository(), new PlayerRepository());
+    }
+
+    public KillfeedBulkLoader(KillfeedParser killfeedParser, KillRecordRepository killRecordRepository,
+                              PlayerRepository playerRepository) {
+        this.killfeedParser = killfeedParser;
+        this.killRecordRepository = killRecordRepository;
+        this.playerRepository = playerRepository;
+        this.batchSize = Math.max(1, Config.getIntProperty("backfill.batchSize", DEFAULT_BATCH_SIZE));
+    }
+
+    /**
+     * Start loading data for a server
+     */
+    public Session open(GameServer server) {
+        return new Session(server);
+    }
+
+    /**
+     * One load for one server; not thread-safe, use one session per thread.
+     * End it with {@link #finish()}, or with {@link #finishRecords()} followed by {@link #applyStats}.
+     * A batch that cannot be inserted fails the load with a {@link com.mongodb.MongoException}; records
+     * already stored are skipped, so the load can simply be repeated.
+     */
+    public final class Session {
+        private final GameServer server;
+        private final long startedAt = System.currentTimeMillis();
+        private final List<KillRecord> batch = new ArrayList<>(batchSize);
+        private final Map<String, PlayerStatDelta> deltas = new HashMap<>();
+        private long records;
+        private long inserted;
+        private boolean finished;
+
+        private Session(GameServer server) {
+            this.server = server;
+        }
+
+        /**
+         * Parse the content of one killfeed file into the load
+         * @return Number of lines in the content
+         */
+        public int accept(String content) {
+            if (finished) {
+                throw new IllegalStateException("Bulk load session already finished");
+            }
+            return killfeedParser.forEachKillRecord(server, content, this::add);
+        }
+
+        /**
+         * Scan one killfeed file, e.g. a memory-mapped copy from the local mirror, into the load
+         * @return Number of lines in the content
+         */
+        public int accept(ByteBuffer content) {
+            if (finished) {
+                throw new IllegalStateException("Bulk load session already finished");
+            }
+            return DeathlogScanner.scan(server, content, this::add).lines();
+        }
+
+        private void add(KillRecord record) {
+            records++;
+            PlayerStatDelta.accumulate(record, deltas);
+            batch.add(record);
+            if (batch.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            if (!batch.isEmpty()) {
+                inserted += killRecordRepository.insertBatch(batch);
+                batch.clear();
+            }
+        }
+
+        /**
+         * Insert the last batch and write the aggregated player statistics
+         */
+        public Result finish() {
+            Result result = finishRecords();
+            applyStats(null, null);
+            return result;
+        }
+
+        /**
+         * Insert the last batch, leaving the aggregated player statistics to {@link #applyStats}
+         */
+        public Result finishRecords() {
+            if (finished) {
+                throw new IllegalStateException("Bulk load session already finished");
+            }
+            finished = true;
+            flush();
+
+            Result result = new Result(records, inserted, deltas.size(), System.currentTimeMillis() - startedAt);
+            logger.debug("Bulk loaded {} kill records ({} inserted, {} players) for server {} in {} ms",
+                    result.records(), result.inserted(), result.players(), server.getName(), result.elapsedMillis());
+            return result;
+        }
+
+        /**
+         * Write the aggregated player statistics of a finished load
+         * @param source Sequence of files the load belongs to, or null to apply without a guard
+         * @param file File the load read; players that already have this or a later file of the source skip it
+         * @return true if the statistics were written
+         */
+        public boolean applyStats(String source, String file) {
+            if (!finished) {
+                throw new IllegalStateException("Bulk load session not finished");
+            }
+            boolean applied = playerRepository.applyStatDeltas(deltas.values(), server.getServerId(), source, file);
+            if (!applied) {
+                logger.error("Failed to apply bulk-loaded stats for {} players of server {}",
+                        deltas.size(), server.getName());
+            }
+            return applied;
+        }
+    }
+}
@@ -3,26 +3,34 @@ package com.deadside.bot.parsers;
 import com.deadside.bot.db.models.GameServer;
 import com.deadside.bot.db.models.GuildConfig;
 import com.deadside.bot.db.models.KillRecord;
-import com.deadside.bot.db.models.Player;
+import com.deadside.bot.db.models.PlayerStatDelta;
+import com.deadside.bot.db.repositories.AsyncKillRecordRepository;
 import com.deadside.bot.db.repositories.GuildConfigRepository;
 import com.deadside.bot.db.repositories.KillRecordRepository;
 import com.deadside.bot.db.repositories.PlayerRepository;
 import com.deadside.bot.parsers.fixes.CsvParsingFix;
+import com.deadside.bot.sftp.RemoteDirectoryCache;
 import com.deadside.bot.sftp.SftpManager;
-import com.deadside.bot.utils.EmbedUtils;
 import com.deadside.bot.utils.AdvancedEmbeds;
+import com.deadside.bot.utils.KillfeedEmbeds;
+import com.deadside.bot.utils.ParserStateManager;
+import com.deadside.bot.utils.RandomService;
 import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.entities.MessageEmbed;
 import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Random;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -31,24 +39,40 @@ import java.util.regex.Pattern;
  */
 public class KillfeedParser {
     private static final Logger logger = LoggerFactory.getLogger(KillfeedParser.class);
+    
+    // Varied causes shown for menu suicides
+    private static final String[] MENU_SUICIDE_CAUSES = {
+        "Menu Suicide", 
+        "Wrong Button", 
+        "Menu Navigation",
+        "Respawn Request",
+        "Voluntary Departure",
+        "Redeployment",
+        "Rage Quit",
+        "Strategic Reposition"
+    };
+    
     private final SftpManager sftpManager;
     private final KillRecordRepository killRecordRepository;
+    private final AsyncKillRecordRepository asyncKillRecordRepository;
     private final PlayerRepository playerRepository;
     private final JDA jda;
     
     // Old CSV format: "1970/01/01-00:00:00","PlayerName1","killed","PlayerName2","with","WeaponName","from","100m"
     // New CSV format: timestamp;killer;killerID;victim;victimID;weapon;distance;platform1;platform2
     // Example: 2025.05.15-00.11.07;Fatalben0;0002548521ba4271a497e39d5bfe5611;Rogue731;00022ac42542497589f654e6ac2c0a6f;MR5;20;XSX;XSX;
-    private static final Pattern CSV_PATTERN = Pattern.compile(
+    static final Pattern CSV_PATTERN = Pattern.compile(
             "(\\d{4}\\.\\d{2}\\.\\d{2}-\\d{2}\\.\\d{2}\\.\\d{2});([^;]+);([^;]+);([^;]+);([^;]+);([^;]+);(\\d+);([^;]+);([^;]+);"
     );
     
-    private static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("yyyy.MM.dd-HH.mm.ss");
+    // Immutable and thread-safe, so files can be parsed in parallel during backfill
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy.MM.dd-HH.mm.ss");
     
     public KillfeedParser(JDA jda) {
         this.jda = jda;
         this.sftpManager = new SftpManager();
         this.killRecordRepository = new KillRecordRepository();
+        this.asyncKillRecordRepository = new AsyncKillRecordRepository(killRecordRepository);
         this.playerRepository = new PlayerRepository();
     }
     
@@ -59,6 +83,19 @@ public class KillfeedParser {
      * @return Number of new kill records processed
      */
     public int processServer(GameServer server, boolean processHistorical) {
+        if (processHistorical) {
+            return bulkLoadHistory(server);
+        }
+        
+        // Skip servers that are paused or being backfilled; other servers are unaffected
+        if (!ParserStateManager.canTail(server.getName(), server.getGuildId(), ParserStateManager.Scope.KILLFEED)) {
+            logger.debug("Killfeed parser for server {} is {}, skipping live processing", server.getName(),
+                    ParserStateManager.getState(server.getName(), server.getGuildId())
+                            .getPhase(ParserStateManager.Scope.KILLFEED));
+            return 0;
+        }
+        ParserStateManager.markTailing(server.getName(), server.getGuildId(), ParserStateManager.Scope.KILLFEED);
+        
         try {
             TextChannel killfeedChannel = getTextChannel(server, "kill");
             if (killfeedChannel == null) {
@@ -66,51 +103,30 @@ public class KillfeedParser {
                 return 0;
             }
             
-            // Get CSV files
+            // Get CSV files, sorted by name (date-based)
             List<String> files = sftpManager.getKillfeedFiles(server);
             if (files.isEmpty()) {
                 logger.warn("No killfeed files found for server: {}", server.getName());
                 return 0;
             }
             
-            // Sort files by name (should be date-based)
-            Collections.sort(files);
-            
             String lastProcessedFile = server.getLastProcessedKillfeedFile();
             long lastProcessedLine = server.getLastProcessedKillfeedLine();
             
-            // Determine which files to process based on processHistorical flag
+            // Only process from the last point or newest file
             List<String> filesToProcess = new ArrayList<>();
             
-            if (processHistorical) {
-                // When processing historical data, process ALL files
-                logger.info("Processing ALL historical killfeed data for server: {}", server.getName());
-                filesToProcess.addAll(files);
-                // Reset the last processed line counter since we're starting from scratch
+            // Process current file and any newer files
+            filesToProcess.addAll(RemoteDirectoryCache.fromCursor(files, lastProcessedFile));
+            if (filesToProcess.isEmpty()) {
+                // No file processed yet, or it no longer exists: start with the newest file
+                lastProcessedFile = files.get(files.size() - 1);
+                filesToProcess.add(lastProcessedFile);
                 lastProcessedLine = -1;
-            } else {
-                // Normal operation - only process from the last point or newest file
-                if (lastProcessedFile.isEmpty()) {
-                    // If no file has been processed yet, start with the newest file
-                    lastProcessedFile = files.get(files.size() - 1);
-                    filesToProcess.add(lastProcessedFile);
-                    lastProcessedLine = -1;
-                } else {
-                    // Check if we need to move to a newer file
-                    int fileIndex = files.indexOf(lastProcessedFile);
-                    if (fileIndex < 0) {
-                        // File no longer exists, start with the newest file
-                        lastProcessedFile = files.get(files.size() - 1);
-                        filesToProcess.add(lastProcessedFile);
-                        lastProcessedLine = -1;
-                    } else {
-                        // Process current file and any newer files
-                        filesToProcess.addAll(files.subList(fileIndex, files.size()));
-                    }
-                }
             }
             
             List<KillRecord> newRecords = new ArrayList<>();
+            Map<String, PlayerStatDelta> deltas = new HashMap<>();
             int processedKills = 0;
             
             // Process each file in the list
@@ -122,10 +138,9 @@ public class KillfeedParser {
                     continue;
                 }
                 
-                // Only apply the line counter to the first file if not in historical mode
-                // For new files or historical processing, always start from the beginning
+                // Only apply the line counter to the file we stopped in; new files start from the beginning
                 long startLine = -1;
-                if (currentFile.equals(lastProcessedFile) && !processHistorical) {
+                if (currentFile.equals(lastProcessedFile)) {
                     startLine = lastProcessedLine;
                 }
                 
@@ -143,13 +158,11 @@ public class KillfeedParser {
                         newRecords.add(killRecord);
                         processedKills++;
                         
-                        // Update player stats
-                        updatePlayerStats(killRecord);
+                        // Collect player stats, written once for the whole poll
+                        PlayerStatDelta.accumulate(killRecord, deltas);
                         
-                        // Send to Discord channel (only if not historical processing)
-                        if (!processHistorical) {
-                            sendKillfeedMessage(killfeedChannel, killRecord);
-                        }
+                        // Send to Discord channel
+                        sendKillfeedMessage(killfeedChannel, killRecord);
                     }
                     
                     // Update the last line we processed for this file
@@ -160,9 +173,18 @@ public class KillfeedParser {
                 lastProcessedFile = currentFile;
             }
             
-            // Save all new records to database
+            // Field-level updates, so playtime and other stats written meanwhile are kept
+            if (!playerRepository.applyStatDeltas(deltas.values(), server.getServerId(), null, null)) {
+                logger.warn("Could not update stats of {} players for server: {}", deltas.size(), server.getName());
+            }
+            
+            // Save all new records to database; live tailing does not wait for the insert
             if (!newRecords.isEmpty()) {
-                killRecordRepository.saveAll(newRecords);
+                asyncKillRecordRepository.saveAll(newRecords).exceptionally(e -> {
+                    logger.error("Error saving {} kill records for server: {}",
+                            newRecords.size(), server.getName(), e);
+                    return null;
+                });
             }
             
             // Update server progress
@@ -185,6 +207,79 @@ public class KillfeedParser {
         return processServer(server, false);
     }
     
+    /**
+     * Parse the lines of a killfeed CSV file one at a time, without splitting the whole content up front.
+     * Lines that do not parse are skipped. Does not touch player stats, the database or Discord;
+     * safe to call from several threads.
+     * @param server The game server the file belongs to
+     * @param content The file content
+     * @param sink Receives each kill record in file order
+     * @return Number of lines in the content
+     */
+    public int forEachKillRecord(GameServer server, String content, Consumer<KillRecord> sink) {
+        int lines = 0;
+        int start = 0;
+        int length = content.length();
+        while (start < length) {
+            int end = content.indexOf('\n', start);
+            if (end < 0) {
+                end = length;
+            }
+            lines++;
+            
+            String line = content.substring(start, end).trim();
+            start = end + 1;
+            if (line.isEmpty()) continue;
+            
+            KillRecord record = parseKillRecord(line, server);
+            if (record != null) {
+                sink.accept(record);
+            }
+        }
+        return lines;
+    }
+    
+    /**
+     * Load all historical killfeed files of a server through the bulk-load path:
+     * batched unordered inserts, in-memory player aggregates and no Discord messages
+     * @return Number of kill records loaded
+     */
+    private int bulkLoadHistory(GameServer server) {
+        try {
+            List<String> files = sftpManager.getKillfeedFiles(server);
+            if (files.isEmpty()) {
+                logger.warn("No killfeed files found for server: {}", server.getName());
+                return 0;
+            }
+            logger.info("Bulk loading ALL historical killfeed data for server: {}", server.getName());
+            
+            KillfeedBulkLoader.Session session = new KillfeedBulkLoader(this, killRecordRepository, playerRepository)
+                    .open(server);
+            String lastFile = null;
+            long lastLine = -1;
+            for (String file : files) {
+                String fileContent = sftpManager.readKillfeedFile(server, file);
+                if (fileContent.isEmpty()) {
+                    logger.warn("Empty or unreadable killfeed file: {} for server: {}", file, server.getName());
+                    continue;
+                }
+                lastLine = session.accept(fileContent) - 1;
+                lastFile = file;
+            }
+            
+            KillfeedBulkLoader.Result result = session.finish();
+            if (lastFile != null) {
+                server.updateKillfeedProgress(lastFile, lastLine);
+            }
+            logger.info("Bulk loaded {} kills for {} players on server: {} ({} records/s)", result.records(),
+                    result.players(), server.getName(), String.format("%.1f", result.recordsPerSecond()));
+            return (int) result.records();
+        } catch (Exception e) {
+            logger.error("Error bulk loading killfeed for server: {}", server.getName(), e);
+            return 0;
+        }
+    }
+    
     /**
      * Parse a CSV line into a KillRecord
      */
@@ -203,37 +298,13 @@ public class KillfeedParser {
             String victimId = matcher.group(5);
             String weapon = matcher.group(6);
             String distanceStr = matcher.group(7);
-            String killerPlatform = matcher.group(8);
-            String victimPlatform = matcher.group(9);
-            
-            // Handle suicide cases - identify if this is a suicide/falling death
-            boolean isSuicide = killer.equals(victim);
-            boolean isFalling = weapon.equalsIgnoreCase("falling") || 
-                               weapon.toLowerCase().contains("fall damage");
-            boolean isMenuSuicide = isSuicide && (weapon.toLowerCase().contains("suicide") || 
-                                   weapon.toLowerCase().contains("menu"));
             
             long distance = Long.parseLong(distanceStr);
-            long timeMs = DATE_FORMAT.parse(timestamp).getTime();
-            
-            KillRecord record = new KillRecord(
-                    server.getGuildId(),
-                    server.getName(),
-                    killer,
-                    victim,
-                    weapon,
-                    distance,
-                    timeMs,
-                    line
-            );
+            long timeMs = LocalDateTime.parse(timestamp, DATE_FORMAT)
+                    .atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
             
-            // Add death type flags
-            record.setSuicide(isSuicide);
-            record.setFalling(isFalling);
-            record.setMenuSuicide(isMenuSuicide);
-            
-            return record;
-        } catch (ParseException e) {
+            return createKillRecord(server, killer, victim, weapon, distance, timeMs, line);
+        } catch (DateTimeParseException e) {
             logger.error("Error parsing killfeed timestamp in line: {}", line, e);
             return null;
         } catch (NumberFormatException e) {
@@ -246,83 +317,35 @@ public class KillfeedParser {
     }
     
     /**
-     * Update player statistics from a kill record
-     * Enhanced to handle suicides separately from regular deaths
+     * Build a kill record from parsed fields, flagging suicides and falling deaths
+     * @param line The raw killfeed line
      */
-    private void updatePlayerStats(KillRecord record) {
-        try {
-            // For suicides, only update the victim's stats
-            if (record.isSuicide()) {
-                // Find or create victim player (who committed suicide)
-                Player victim = playerRepository.findByName(record.getVictim());
-                if (victim == null) {
-                    // Create new player with a generated ID based on name
-                    victim = new Player(record.getVictim().toLowerCase().replace(" ", "_") + "_id", record.getVictim());
-                    playerRepository.save(victim);
-                }
-                
-                // Add suicide count instead of a regular death
-                victim.addSuicide();
-                
-                // Save the updated player stats
-                playerRepository.save(victim);
-                
-                // For suicides, we don't update weapon or kill stats
-                return;
-            }
-            
-            // Normal kill processing for non-suicide events
-            // Find or create killer player
-            Player killer = playerRepository.findByName(record.getKiller());
-            if (killer == null) {
-                // Create new player with a generated ID based on name
-                killer = new Player(record.getKiller().toLowerCase().replace(" ", "_") + "_id", record.getKiller());
-                playerRepository.save(killer);
-            }
-            
-            // Find or create victim player
-            Player victim = playerRepository.findByName(record.getVictim());
-            if (victim == null) {
-                // Create new player with a generated ID based on name
-                victim = new Player(record.getVictim().toLowerCase().replace(" ", "_") + "_id", record.getVictim());
-                playerRepository.save(victim);
-            }
-            
-            // Update killer stats
-            killer.addKill();
-            playerRepository.save(killer);
-            
-            // Update victim stats
-            victim.addDeath();
-            playerRepository.save(victim);
-            
-            // Track weapon stats
-            if (killer.getMostUsedWeapon().equals(record.getWeapon())) {
-                killer.setMostUsedWeaponKills(killer.getMostUsedWeaponKills() + 1);
-            } else if (killer.getMostUsedWeaponKills() == 0) {
-                killer.setMostUsedWeapon(record.getWeapon());
-                killer.setMostUsedWeaponKills(1);
-            }
-            
-            // Track victim stats
-            if (killer.getMostKilledPlayer().equals(record.getVictim())) {
-                killer.setMostKilledPlayerCount(killer.getMostKilledPlayerCount() + 1);
-            } else if (killer.getMostKilledPlayerCount() == 0) {
-                killer.setMostKilledPlayer(record.getVictim());
-                killer.setMostKilledPlayerCount(1);
-            }
-            
-            // Track killer stats for victim
-            if (victim.getKilledByMost().equals(record.getKiller())) {
-                victim.setKilledByMostCount(victim.getKilledByMostCount() + 1);
-            } else if (victim.getKilledByMostCount() == 0) {
-                victim.setKilledByMost(record.getKiller());
-                victim.setKilledByMostCount(1);
-            }
-        } catch (Exception e) {
-            logger.error("Error updating player stats for kill record: {} -> {}", 
-                    record.getKiller(), record.getVictim(), e);
-        }
+    static KillRecord createKillRecord(GameServer server, String killer, String victim, String weapon,
+                                       long distance, long timeMs, String line) {
+        // Handle suicide cases - identify if this is a suicide/falling death
+        boolean isSuicide = killer.equals(victim);
+        boolean isFalling = weapon.equalsIgnoreCase("falling") || 
+                           weapon.toLowerCase().contains("fall damage");
+        boolean isMenuSuicide = isSuicide && (weapon.toLowerCase().contains("suicide") || 
+                               weapon.toLowerCase().contains("menu"));
+        
+        KillRecord record = new KillRecord(
+                server.getGuildId(),
+                server.getName(),
+                killer,
+                victim,
+                weapon,
+                distance,
+                timeMs,
+                line
+        );
+        
+        // Add death type flags
+        record.setSuicide(isSuicide);
+        record.setFalling(isFalling);
+        record.setMenuSuicide(isMenuSuicide);
+        
+        return record;
     }
     
     /**
@@ -332,14 +355,16 @@ public class KillfeedParser {
     private void sendKillfeedMessage(TextChannel channel, KillRecord record) {
         if (channel == null) return;
         
+        MessageEmbed embed;
+        
         // Different embed for each death type
         if (record.isSuicide()) {
             if (record.isFalling()) {
                 // Falling death
-                channel.sendMessageEmbeds(AdvancedEmbeds.advancedFallingDeathEmbed(
+                embed = KillfeedEmbeds.falling(
                     record.getVictim(), 
                     (int)record.getDistance()  // Use distance as approximate height
-                )).queue();
+                );
             } else {
                 // Other suicide - normalize menu suicide messages
                 String cause = record.getWeapon();
@@ -348,40 +373,31 @@ public class KillfeedParser {
                 if (record.isMenuSuicide() || 
                     cause.toLowerCase().contains("suicide_by_relocation") ||
                     cause.toLowerCase().contains("menu")) {
-                    
-                    // Normalize menu suicide messages with random variants
-                    String[] menuSuicideCauses = {
-                        "Menu Suicide", 
-                        "Wrong Button", 
-                        "Menu Navigation",
-                        "Respawn Request",
-                        "Voluntary Departure",
-                        "Redeployment",
-                        "Rage Quit",
-                        "Strategic Reposition"
-                    };
-                    
-                    int randomIndex = new Random().nextInt(menuSuicideCauses.length);
-                    cause = menuSuicideCauses[randomIndex];
+                    int randomIndex = RandomService.getInstance().current().nextInt(MENU_SUICIDE_CAUSES.length);
+                    cause = MENU_SUICIDE_CAUSES[randomIndex];
                 }
                 
                 // Clean up other causes
                 cause = cause.replace("_", " ").trim();
                 
-                channel.sendMessageEmbeds(AdvancedEmbeds.advancedSuicideEmbed(
+                embed = AdvancedEmbeds.advancedSuicideEmbed(
                     record.getVictim(), 
                     cause
-                )).queue();
+                );
             }
         } else {
             // Regular kill
-            channel.sendMessageEmbeds(EmbedUtils.killfeedEmbed(
+            embed = KillfeedEmbeds.kill(
                 record.getKiller(), 
                 record.getVictim(), 
                 record.getWeapon(), 
                 (int)record.getDistance()
-            )).queue();
+            );
         }
+        
+        // Killfeed yields to interaction replies and keeps per-channel order in the outbox;
+        // the icon is only uploaded until its CDN URL is known
+        KillfeedEmbeds.send(channel, embed);
     }
     
     /**
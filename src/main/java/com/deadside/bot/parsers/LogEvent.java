@@ -0,0 +1,55 @@
+package com.deadside.bot.parsers;
+
+/**
+ * Typed event read from a Deadside server log line by {@link LogLineClassifier}.
+ * Every event carries the raw timestamp text of its line.
+ */
+public sealed interface LogEvent {
+
+    String timestamp();
+
+    /**
+     * The server started a new log, which happens when it (re)starts
+     */
+    record ServerStart(String timestamp) implements LogEvent {
+    }
+
+    /**
+     * A player connected to the server
+     */
+    record Join(String timestamp, String playerName) implements LogEvent {
+    }
+
+    /**
+     * A player disconnected from the server
+     */
+    record Leave(String timestamp, String playerName) implements LogEvent {
+    }
+
+    /**
+     * A mission changed state
+     * @param state New state, e.g. READY, WAITING, RESPAWN or FAIL; null if the log did not say
+     */
+    record Mission(String timestamp, String name, String state) implements LogEvent {
+    }
+
+    /**
+     * The airdrop changed state
+     */
+    record Airdrop(String timestamp, String state) implements LogEvent {
+    }
+
+    /**
+     * A trader changed state
+     * @param state New state; null if the log did not say
+     */
+    record Trader(String timestamp, String name, String state) implements LogEvent {
+    }
+
+    /**
+     * A helicopter crashed
+     * @param location Location text as logged, e.g. "1234.5, -678.9, 100.0"
+     */
+    record HeliCrash(String timestamp, String location) implements LogEvent {
+    }
+}
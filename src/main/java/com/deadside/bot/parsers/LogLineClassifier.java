@@ -0,0 +1,263 @@
+package com.deadside.bot.parsers;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Single-pass classifier for Deadside server log lines.
+ *
+ * Most log lines are noise, so a line is rejected as early as possible: the bracketed timestamp prefix
+ * is skipped once, the first character of the message selects at most a couple of candidate keywords,
+ * and only a line whose keyword matches has its fields extracted. No regular expressions are run.
+ *
+ * Recognised messages:
+ * <pre>
+ * [2025.05.15-00.11.07:123][ 42]LogSFPS: [Login] Player NAME connected
+ * [2025.05.15-00.11.07:123][ 42]LogSFPS: [Logout] Player NAME disconnected
+ * [2025.05.15-00.11.07:123][ 42]LogSFPS: Mission NAME switched to STATE
+ * [2025.05.15-00.11.07:123][ 42]LogSFPS: Mission NAME will respawn in SECONDS
+ * [2025.05.15-00.11.07:123][ 42]LogSFPS: [USFPSACMission::Fail] NAME
+ * [2025.05.15-00.11.07:123][ 42]LogSFPS: AirDrop switched to STATE
+ * [2025.05.15-00.11.07:123][ 42]LogSFPS: Trader NAME is now STATE
+ * [2025.05.15-00.11.07:123][ 42]LogSFPS: Helicopter crashed at X, Y, Z
+ * </pre>
+ * as well as the shorter {@code [date-time] Player NAME joined the server} style lines
+ * (joined/left, Mission, Event, Trader, Crash), and the {@code Log file open, 05/15/25 00:00:00} line
+ * the server writes when it starts a new log.
+ */
+public final class LogLineClassifier {
+    private static final String GAME_CATEGORY = "LogSFPS: ";
+    private static final String LOG_FILE_OPEN = "Log file open";
+
+    private static final String LOGIN = "[Login] Player ";
+    private static final String LOGIN_SUFFIX = " connected";
+    private static final String LOGOUT = "[Logout] Player ";
+    private static final String LOGOUT_SUFFIX = " disconnected";
+    private static final String MISSION_FAIL = "[USFPSACMission::Fail] ";
+    private static final String MISSION = "Mission ";
+    private static final String SWITCHED_TO = " switched to ";
+    private static final String WILL_RESPAWN = " will respawn in ";
+    private static final String AIRDROP = "AirDrop switched to ";
+    private static final String TRADER = "Trader ";
+    private static final String IS_NOW = " is now ";
+    private static final String HELI_CRASH = "Helicopter crashed at ";
+
+    private static final String PLAYER = "Player ";
+    private static final String JOINED_SUFFIX = " joined the server";
+    private static final String LEFT_SUFFIX = " left the server";
+    private static final String EVENT = "Event ";
+    private static final String CRASH = "Crash ";
+
+    // Shortest line that can hold a timestamp and any recognised message
+    private static final int MIN_LENGTH = 16;
+
+    // Log times are written in UTC
+    private static final DateTimeFormatter GAME_TIME = DateTimeFormatter.ofPattern("yyyy.MM.dd-HH.mm.ss:SSS");
+    private static final DateTimeFormatter SHORT_TIME = DateTimeFormatter.ofPattern("yyyy.MM.dd-HH:mm:ss");
+    private static final DateTimeFormatter LOG_OPEN_TIME = DateTimeFormatter.ofPattern("MM/dd/yy HH:mm:ss");
+    private static final int GAME_TIME_LENGTH = "2025.05.15-00.11.07:123".length();
+
+    private LogLineClassifier() {
+    }
+
+    /**
+     * Classify a log line
+     * @param line The log line, without its line terminator
+     * @return The event on the line, or null if the line holds no event of interest
+     */
+    public static LogEvent classify(String line) {
+        int length = line.length();
+        if (length < MIN_LENGTH) {
+            return null;
+        }
+        if (line.charAt(0) != '[') {
+            if (line.startsWith(LOG_FILE_OPEN)) {
+                int comma = line.indexOf(',', LOG_FILE_OPEN.length());
+                return new LogEvent.ServerStart(comma > 0 ? line.substring(comma + 1).trim() : "");
+            }
+            return null;
+        }
+
+        int timestampEnd = line.indexOf(']', 1);
+        if (timestampEnd < 0) {
+            return null;
+        }
+
+        int pos = timestampEnd + 1;
+        // Optional frame counter, e.g. "[ 42]"
+        if (pos < length && line.charAt(pos) == '[') {
+            int frameEnd = line.indexOf(']', pos + 1);
+            if (frameEnd < 0) {
+                return null;
+            }
+            pos = frameEnd + 1;
+        }
+        while (pos < length && line.charAt(pos) == ' ') {
+            pos++;
+        }
+        if (pos >= length) {
+            return null;
+        }
+
+        if (line.startsWith(GAME_CATEGORY, pos)) {
+            return classifyGameMessage(line, pos + GAME_CATEGORY.length(), timestampEnd);
+        }
+        return classifyShortMessage(line, pos, timestampEnd);
+    }
+
+    private static LogEvent classifyGameMessage(String line, int pos, int timestampEnd) {
+        if (pos >= line.length()) {
+            return null;
+        }
+
+        switch (line.charAt(pos)) {
+            case '[':
+                if (line.startsWith(LOGIN, pos) && line.endsWith(LOGIN_SUFFIX)) {
+                    String name = between(line, pos + LOGIN.length(), line.length() - LOGIN_SUFFIX.length());
+                    return name != null ? new LogEvent.Join(timestamp(line, timestampEnd), name) : null;
+                }
+                if (line.startsWith(LOGOUT, pos) && line.endsWith(LOGOUT_SUFFIX)) {
+                    String name = between(line, pos + LOGOUT.length(), line.length() - LOGOUT_SUFFIX.length());
+                    return name != null ? new LogEvent.Leave(timestamp(line, timestampEnd), name) : null;
+                }
+                if (line.startsWith(MISSION_FAIL, pos)) {
+                    String name = between(line, pos + MISSION_FAIL.length(), line.length());
+                    return name != null ? new LogEvent.Mission(timestamp(line, timestampEnd), name, "FAIL") : null;
+                }
+                return null;
+            case 'M':
+                if (line.startsWith(MISSION, pos)) {
+                    int start = pos + MISSION.length();
+                    int switched = line.indexOf(SWITCHED_TO, start);
+                    if (switched > start) {
+                        String state = between(line, switched + SWITCHED_TO.length(), line.length());
+                        return new LogEvent.Mission(timestamp(line, timestampEnd), line.substring(start, switched), state);
+                    }
+                    int respawn = line.indexOf(WILL_RESPAWN, start);
+                    if (respawn > start) {
+                        return new LogEvent.Mission(timestamp(line, timestampEnd), line.substring(start, respawn), "RESPAWN");
+                    }
+                }
+                return null;
+            case 'A':
+                if (line.startsWith(AIRDROP, pos)) {
+                    String state = between(line, pos + AIRDROP.length(), line.length());
+                    return state != null ? new LogEvent.Airdrop(timestamp(line, timestampEnd), state) : null;
+                }
+                return null;
+            case 'T':
+                if (line.startsWith(TRADER, pos)) {
+                    int start = pos + TRADER.length();
+                    int isNow = line.indexOf(IS_NOW, start);
+                    if (isNow > start) {
+                        String state = between(line, isNow + IS_NOW.length(), line.length());
+                        return new LogEvent.Trader(timestamp(line, timestampEnd), line.substring(start, isNow), state);
+                    }
+                }
+                return null;
+            case 'H':
+                if (line.startsWith(HELI_CRASH, pos)) {
+                    String location = between(line, pos + HELI_CRASH.length(), line.length());
+                    return location != null ? new LogEvent.HeliCrash(timestamp(line, timestampEnd), location) : null;
+                }
+                return null;
+            default:
+                return null;
+        }
+    }
+
+    private static LogEvent classifyShortMessage(String line, int pos, int timestampEnd) {
+        switch (line.charAt(pos)) {
+            case 'P':
+                if (line.startsWith(PLAYER, pos)) {
+                    int start = pos + PLAYER.length();
+                    if (line.endsWith(JOINED_SUFFIX)) {
+                        String name = between(line, start, line.length() - JOINED_SUFFIX.length());
+                        return name != null ? new LogEvent.Join(timestamp(line, timestampEnd), name) : null;
+                    }
+                    if (line.endsWith(LEFT_SUFFIX)) {
+                        String name = between(line, start, line.length() - LEFT_SUFFIX.length());
+                        return name != null ? new LogEvent.Leave(timestamp(line, timestampEnd), name) : null;
+                    }
+                }
+                return null;
+            case 'M':
+                if (line.startsWith(MISSION, pos)) {
+                    String name = between(line, pos + MISSION.length(), line.length());
+                    return name != null ? new LogEvent.Mission(timestamp(line, timestampEnd), name, null) : null;
+                }
+                return null;
+            case 'E':
+                // Generic events only matter here when they are airdrops
+                if (line.startsWith(EVENT, pos) && containsIgnoreCase(line, pos + EVENT.length(), "airdrop")) {
+                    String details = between(line, pos + EVENT.length(), line.length());
+                    return new LogEvent.Airdrop(timestamp(line, timestampEnd), details);
+                }
+                return null;
+            case 'T':
+                if (line.startsWith(TRADER, pos)) {
+                    String name = between(line, pos + TRADER.length(), line.length());
+                    return name != null ? new LogEvent.Trader(timestamp(line, timestampEnd), name, null) : null;
+                }
+                return null;
+            case 'C':
+                if (line.startsWith(CRASH, pos)) {
+                    String location = between(line, pos + CRASH.length(), line.length());
+                    return location != null ? new LogEvent.HeliCrash(timestamp(line, timestampEnd), location) : null;
+                }
+                return null;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Convert the timestamp of a log event to epoch milliseconds
+     * @param fallback Value returned when the timestamp is in no known format
+     */
+    public static long parseTimestamp(String timestamp, long fallback) {
+        if (timestamp == null || timestamp.isEmpty()) {
+            return fallback;
+        }
+        DateTimeFormatter format;
+        if (timestamp.indexOf('/') > 0) {
+            format = LOG_OPEN_TIME;
+        } else if (timestamp.length() == GAME_TIME_LENGTH) {
+            format = GAME_TIME;
+        } else {
+            format = SHORT_TIME;
+        }
+        try {
+            return LocalDateTime.parse(timestamp, format).toInstant(ZoneOffset.UTC).toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return fallback;
+        }
+    }
+
+    private static String timestamp(String line, int timestampEnd) {
+        return line.substring(1, timestampEnd);
+    }
+
+    /**
+     * Trimmed text between two offsets, or null if it is empty
+     */
+    private static String between(String line, int start, int end) {
+        if (end <= start) {
+            return null;
+        }
+        String value = line.substring(start, end).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static boolean containsIgnoreCase(String line, int from, String word) {
+        int last = line.length() - word.length();
+        for (int i = from; i <= last; i++) {
+            if (line.regionMatches(true, i, word, 0, word.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,255 @@
+package com.deadside.bot.parsers;
+
+import com.deadside.bot.config.Config;
+import com.deadside.bot.db.models.GameServer;
+import com.deadside.bot.db.models.LogCursor;
+import com.deadside.bot.db.repositories.LogCursorRepository;
+import com.deadside.bot.sftp.RemoteFileInfo;
+import com.deadside.bot.sftp.SftpConnector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * Tails a server log file by byte offset, detecting rotation and truncation from a file fingerprint.
+ *
+ * Each poll costs one stat of the file while nothing changed. When the size or modification time changed,
+ * the first bytes of the file are checked against the stored checksum:
+ * <ul>
+ *   <li>same head, file grew: only the new bytes are read</li>
+ *   <li>same head, file shrank: the file was truncated and rewritten, so it is read from the start</li>
+ *   <li>different head: the file was rotated or replaced. The rotated copy is looked up by its head
+ *       checksum and its unread tail is processed before the new file is read from the start</li>
+ * </ul>
+ * Only complete lines are handed out; a partial last line stays unread until its newline arrives,
+ * so no line is processed twice or skipped.
+ */
+public class LogTailer {
+    private static final Logger logger = LoggerFactory.getLogger(LogTailer.class);
+    private static final int DEFAULT_HEAD_BYTES = 1024;
+    private static final int DEFAULT_MAX_READ_BYTES = 4 * 1024 * 1024;
+    private static final int MAX_ROTATION_CANDIDATES = 3;
+
+    private final SftpConnector sftpConnector;
+    private final LogCursorRepository cursorRepository;
+    private final int headBytes;
+    private final int maxReadBytes;
+
+    /**
+     * What a poll found
+     */
+    public enum Change {
+        MISSING,
+        UNCHANGED,
+        STARTED,
+        APPENDED,
+        TRUNCATED,
+        ROTATED
+    }
+
+    /**
+     * Outcome of a poll
+     * @param lines Complete lines handed to the consumer
+     * @param bytes Bytes consumed
+     */
+    public record TailResult(Change change, int lines, long bytes) {
+    }
+
+    public LogTailer(SftpConnector sftpConnector) {
+        this(sftpConnector, new LogCursorRepository());
+    }
+
+    public LogTailer(SftpConnector sftpConnector, LogCursorRepository cursorRepository) {
+        this.sftpConnector = sftpConnector;
+        this.cursorRepository = cursorRepository;
+        this.headBytes = Math.max(64, Config.getIntProperty("logs.fingerprintBytes", DEFAULT_HEAD_BYTES));
+        this.maxReadBytes = Math.max(headBytes, Config.getIntProperty("logs.maxReadBytes", DEFAULT_MAX_READ_BYTES));
+    }
+
+    /**
+     * Hand every new complete line of a log file to a consumer
+     * @param directory Directory holding the log file and its rotated copies
+     * @param fileName Name of the live log file
+     * @param lines Receives each new line, without its line terminator
+     */
+    public TailResult poll(GameServer server, String directory, String fileName, Consumer<String> lines) {
+        String path = directory + "/" + fileName;
+        RemoteFileInfo info = sftpConnector.statFile(server, path);
+        if (info == null) {
+            return new TailResult(Change.MISSING, 0, 0);
+        }
+
+        LogCursor cursor = cursorRepository.find(server.getGuildId(), server.getName());
+        if (cursor == null || !fileName.equals(cursor.getFile())) {
+            cursor = new LogCursor(server.getGuildId(), server.getName(), fileName);
+        }
+
+        if (cursor.hasFingerprint() && info.size() == cursor.getSize()
+                && info.modifiedTime() == cursor.getModifiedTime()) {
+            return new TailResult(Change.UNCHANGED, 0, 0);
+        }
+
+        Change change;
+        int delivered = 0;
+        long consumed = 0;
+        if (!cursor.hasFingerprint()) {
+            change = Change.STARTED;
+        } else if (!headMatches(server, path, cursor)) {
+            change = Change.ROTATED;
+            long[] drained = drainRotated(server, directory, fileName, cursor, lines);
+            delivered += (int) drained[0];
+            consumed += drained[1];
+            cursor.reset();
+        } else if (info.size() < cursor.getOffset()) {
+            change = Change.TRUNCATED;
+            logger.warn("Log {} of server {} was truncated from {} to {} bytes, reading it from the start",
+                    fileName, server.getName(), cursor.getOffset(), info.size());
+            cursor.reset();
+        } else {
+            change = Change.APPENDED;
+        }
+
+        long start = cursor.getOffset();
+        int length = (int) Math.min(maxReadBytes, Math.max(0, info.size() - start));
+        byte[] data = length > 0 ? sftpConnector.readFileRange(server, path, start, length) : new byte[0];
+        int complete = completeLength(data);
+        if (complete == 0 && data.length == maxReadBytes) {
+            // A single line longer than the read limit would stall the tailer; skip past it
+            logger.warn("Skipping a log line over {} bytes in {} of server {}", maxReadBytes, fileName, server.getName());
+            complete = data.length;
+        } else {
+            delivered += deliverLines(data, complete, lines);
+        }
+        consumed += complete;
+
+        cursor.setOffset(start + complete);
+        // Remember only what was actually read, so a capped read continues on the next poll
+        cursor.setSize(start + data.length == info.size() ? info.size() : start + data.length);
+        cursor.setModifiedTime(info.modifiedTime());
+        if (cursor.getHeadLength() < headBytes && cursor.getHeadLength() < info.size()) {
+            fingerprintHead(server, path, cursor, (int) Math.min(headBytes, info.size()));
+        }
+        cursorRepository.save(cursor);
+
+        if (change != Change.APPENDED) {
+            logger.info("Log {} of server {}: {}, {} lines read", fileName, server.getName(), change, delivered);
+        }
+        return new TailResult(change, delivered, consumed);
+    }
+
+    /**
+     * Check whether the file still starts with the bytes the cursor was fingerprinted from
+     */
+    private boolean headMatches(GameServer server, String path, LogCursor cursor) {
+        byte[] head = sftpConnector.readFileRange(server, path, 0, cursor.getHeadLength());
+        return head.length == cursor.getHeadLength() && checksum(head, head.length) == cursor.getHeadChecksum();
+    }
+
+    private void fingerprintHead(GameServer server, String path, LogCursor cursor, int length) {
+        byte[] head = sftpConnector.readFileRange(server, path, 0, length);
+        cursor.setHeadLength(head.length);
+        cursor.setHeadChecksum(checksum(head, head.length));
+    }
+
+    /**
+     * Find the rotated copy of the live file by its head checksum and hand out its unread tail
+     * @return Lines delivered and bytes consumed
+     */
+    private long[] drainRotated(GameServer server, String directory, String fileName, LogCursor cursor,
+                                Consumer<String> lines) {
+        String baseName = fileName.endsWith(".log") ? fileName.substring(0, fileName.length() - 4) : fileName;
+        List<String> candidates = new ArrayList<>();
+        for (String name : sftpConnector.listServerFiles(server, directory)) {
+            if (!name.equals(fileName) && name.startsWith(baseName)) {
+                candidates.add(name);
+            }
+        }
+        // Rotated copies carry a date in their name, so the newest sorts last
+        candidates.sort(Comparator.reverseOrder());
+
+        for (int i = 0; i < candidates.size() && i < MAX_ROTATION_CANDIDATES; i++) {
+            String path = directory + "/" + candidates.get(i);
+            RemoteFileInfo info = sftpConnector.statFile(server, path);
+            if (info == null || info.size() < cursor.getOffset() || !headMatches(server, path, cursor)) {
+                continue;
+            }
+
+            long delivered = 0;
+            long offset = cursor.getOffset();
+            while (offset < info.size()) {
+                int length = (int) Math.min(maxReadBytes, info.size() - offset);
+                byte[] data = sftpConnector.readFileRange(server, path, offset, length);
+                if (data.length == 0) {
+                    break;
+                }
+                // The rotated file is closed, so its final line counts even without a newline
+                boolean last = offset + data.length >= info.size();
+                int complete = last ? data.length : completeLength(data);
+                if (complete == 0) {
+                    complete = data.length;
+                }
+                delivered += deliverLines(data, complete, lines);
+                offset += complete;
+            }
+            logger.info("Read the last {} lines of rotated log {} for server {}", delivered, candidates.get(i),
+                    server.getName());
+            return new long[] {delivered, offset - cursor.getOffset()};
+        }
+
+        logger.warn("Log {} of server {} was rotated but the rotated copy was not found; lines after byte {} "
+                + "of the previous file could not be read", fileName, server.getName(), cursor.getOffset());
+        return new long[] {0, 0};
+    }
+
+    /**
+     * Get the number of bytes up to and including the last newline
+     */
+    private static int completeLength(byte[] data) {
+        for (int i = data.length - 1; i >= 0; i--) {
+            if (data[i] == '\n') {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Hand out the lines among the first {@code limit} bytes; text after the last newline counts as a line
+     * @return Number of lines handed out
+     */
+    private static int deliverLines(byte[] data, int limit, Consumer<String> lines) {
+        int count = 0;
+        int lineStart = 0;
+        for (int i = 0; i < limit; i++) {
+            if (data[i] == '\n') {
+                lines.accept(decode(data, lineStart, i));
+                lineStart = i + 1;
+                count++;
+            }
+        }
+        if (lineStart < limit) {
+            lines.accept(decode(data, lineStart, limit));
+            count++;
+        }
+        return count;
+    }
+
+    private static String decode(byte[] data, int start, int end) {
+        if (end > start && data[end - 1] == '\r') {
+            end--;
+        }
+        return new String(data, start, end - start, StandardCharsets.UTF_8);
+    }
+
+    private static long checksum(byte[] data, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(data, 0, length);
+        return crc.getValue();
+    }
+}
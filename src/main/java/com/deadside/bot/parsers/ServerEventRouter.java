@@ -0,0 +1,222 @@
+package com.deadside.bot.parsers;
+
+import com.deadside.bot.config.Config;
+import com.deadside.bot.db.models.GameServer;
+import com.deadside.bot.db.models.GuildConfig;
+import com.deadside.bot.db.repositories.GuildConfigRepository;
+import com.deadside.bot.utils.ServerEventEmbeds;
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Routes game events from server logs (missions, airdrops, traders, helicrashes) to the event channels
+ * the guilds subscribed to.
+ *
+ * The routing table holds, per guild, the channel of every event type. It is loaded from the guild
+ * configs once and kept current through a {@link GuildConfigRepository.ChangeListener} when a config is
+ * saved or deleted, so routing an event is a map lookup. A failed load is retried on the next event.
+ * Events of a guild without a channel for their type are dropped before an embed is built. Notifications
+ * are queued on the outbox, and events older than {@code events.maxAgeMinutes} (e.g. a log read from the
+ * start) are not announced.
+ */
+public class ServerEventRouter {
+    private static final Logger logger = LoggerFactory.getLogger(ServerEventRouter.class);
+    private static final int DEFAULT_MAX_AGE_MINUTES = 15;
+
+    private static ServerEventRouter instance;
+
+    private final Map<Long, long[]> routes = new ConcurrentHashMap<>();
+    // Guilds changed before the load finished; their routes are newer than what it read
+    private final Set<Long> changedBeforeLoad = new HashSet<>();
+    private final Object changeLock = new Object();
+    private final long maxAgeMillis;
+    private volatile boolean loaded = false;
+    private volatile JDA jda;
+
+    /**
+     * Routed event types and the event type name used for their channel in the guild config
+     */
+    public enum EventType {
+        MISSION("mission"),
+        AIRDROP("airdrop"),
+        TRADER("trader"),
+        HELICRASH("helicrash");
+
+        private final String configName;
+
+        EventType(String configName) {
+            this.configName = configName;
+        }
+
+        /**
+         * Get the routed type of a log event, or null if the event is not routed
+         */
+        public static EventType of(LogEvent event) {
+            if (event instanceof LogEvent.Mission mission) {
+                // Missions respawning or still waiting for players are not worth a notification
+                return "RESPAWN".equals(mission.state()) || "WAITING".equals(mission.state()) ? null : MISSION;
+            } else if (event instanceof LogEvent.Airdrop) {
+                return AIRDROP;
+            } else if (event instanceof LogEvent.Trader) {
+                return TRADER;
+            } else if (event instanceof LogEvent.HeliCrash) {
+                return HELICRASH;
+            }
+            return null;
+        }
+    }
+
+    private static final EventType[] EVENT_TYPES = EventType.values();
+
+    private ServerEventRouter() {
+        this.maxAgeMillis = TimeUnit.MINUTES.toMillis(
+                Math.max(1, Config.getIntProperty("events.maxAgeMinutes", DEFAULT_MAX_AGE_MINUTES)));
+        GuildConfigRepository.addChangeListener(new GuildConfigRepository.ChangeListener() {
+            @Override
+            public void onSaved(GuildConfig config) {
+                update(config);
+            }
+            
+            @Override
+            public void onDeleted(long guildId) {
+                unregister(guildId);
+            }
+        });
+    }
+
+    /**
+     * Get the shared event router
+     */
+    public static synchronized ServerEventRouter getInstance() {
+        if (instance == null) {
+            instance = new ServerEventRouter();
+        }
+        return instance;
+    }
+
+    /**
+     * Set the JDA instance used to resolve channels; events are not routed until it is set
+     */
+    public void setJda(JDA jda) {
+        this.jda = jda;
+    }
+
+    /**
+     * Route a log event of a server to the channel its guild subscribed for the event type
+     * @return true if a notification was queued
+     */
+    public boolean route(GameServer server, LogEvent event) {
+        EventType type = EventType.of(event);
+        if (type == null) {
+            return false;
+        }
+        if (!loaded) {
+            load();
+        }
+        long[] channels = routes.get(server.getGuildId());
+        if (channels == null || channels[type.ordinal()] == 0 || jda == null) {
+            return false;
+        }
+
+        long time = LogLineClassifier.parseTimestamp(event.timestamp(), System.currentTimeMillis());
+        if (System.currentTimeMillis() - time > maxAgeMillis) {
+            return false;
+        }
+
+        TextChannel channel = jda.getTextChannelById(channels[type.ordinal()]);
+        if (channel == null) {
+            logger.warn("Could not find text channel with ID {} for server {} and event type {}",
+                    channels[type.ordinal()], server.getName(), type.configName);
+            return false;
+        }
+
+        ServerEventEmbeds.send(channel, embedFor(server.getName(), event));
+        return true;
+    }
+
+    /**
+     * Keep the routes of a guild in step with its saved config
+     */
+    public void update(GuildConfig config) {
+        long[] channels = new long[EVENT_TYPES.length];
+        boolean any = false;
+        for (EventType type : EVENT_TYPES) {
+            channels[type.ordinal()] = config.getLogChannelForEventType(type.configName);
+            any |= channels[type.ordinal()] != 0;
+        }
+        synchronized (changeLock) {
+            markChanged(config.getGuildId());
+            if (any) {
+                routes.put(config.getGuildId(), channels);
+            } else {
+                routes.remove(config.getGuildId());
+            }
+        }
+    }
+
+    /**
+     * Stop routing events to a guild
+     */
+    public void unregister(long guildId) {
+        synchronized (changeLock) {
+            markChanged(guildId);
+            routes.remove(guildId);
+        }
+    }
+
+    private static MessageEmbed embedFor(String serverName, LogEvent event) {
+        if (event instanceof LogEvent.Mission mission) {
+            return ServerEventEmbeds.mission(serverName, mission.name(), mission.state());
+        } else if (event instanceof LogEvent.Airdrop airdrop) {
+            return ServerEventEmbeds.airdrop(serverName, airdrop.state());
+        } else if (event instanceof LogEvent.Trader trader) {
+            return ServerEventEmbeds.trader(serverName, trader.name(), trader.state());
+        }
+        return ServerEventEmbeds.helicrash(serverName, ((LogEvent.HeliCrash) event).location());
+    }
+
+    private synchronized void load() {
+        if (loaded) {
+            return;
+        }
+
+        List<GuildConfig> configs;
+        try {
+            configs = new GuildConfigRepository().findWithEventChannels();
+        } catch (Exception e) {
+            // Stay unloaded, so the next event tries again
+            logger.error("Error loading game event routes", e);
+            return;
+        }
+        synchronized (changeLock) {
+            for (GuildConfig config : configs) {
+                // Guilds saved or deleted while loading are newer than the database
+                if (!changedBeforeLoad.contains(config.getGuildId())) {
+                    update(config);
+                }
+            }
+            loaded = true;
+            changedBeforeLoad.clear();
+        }
+        logger.info("Loaded game event routes for {} guilds", routes.size());
+    }
+
+    /**
+     * Remember a change the load must not overwrite. Must hold the change lock.
+     */
+    private void markChanged(long guildId) {
+        if (!loaded) {
+            changedBeforeLoad.add(guildId);
+        }
+    }
+}
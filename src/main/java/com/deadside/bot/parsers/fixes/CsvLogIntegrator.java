@@ -2,18 +2,21 @@ package com.deadside.bot.parsers.fixes;
 
 import com.deadside.bot.db.models.GameServer;
 import com.deadside.bot.db.models.Player;
+import com.deadside.bot.db.models.PlayerStatDelta;
 import com.deadside.bot.db.repositories.GameServerRepository;
 import com.deadside.bot.db.repositories.PlayerRepository;
 import com.deadside.bot.parsers.DeadsideCsvParser;
+import com.deadside.bot.parsers.DeathlogScanner;
+import com.deadside.bot.parsers.HistoricalBackfillEngine;
+import com.deadside.bot.sftp.LocalMirror;
 import com.deadside.bot.sftp.SftpConnector;
 import net.dv8tion.jda.api.JDA;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -110,8 +113,10 @@ public class CsvLogIntegrator {
                 return;
             }
             
-            // Check if the server deathlog directory exists
-            File deathlogDir = new File(server.getDeathlogsDirectory());
+            // Bring the local mirror of the deathlog directory up to date and check that it exists
+            LocalMirror mirror = LocalMirror.getInstance();
+            mirror.syncDeathlogs(server, sftpConnector);
+            File deathlogDir = mirror.deathlogDirectory(server).toFile();
             if (!deathlogDir.exists() || !deathlogDir.isDirectory()) {
                 // Use appropriate logging level based on context
                 if ("Default Server".equals(server.getName())) {
@@ -144,84 +149,68 @@ public class CsvLogIntegrator {
                 return;
             }
             
-            // Track stats before processing
-            long totalPlayersBefore = playerRepository.countPlayersByGuildIdAndServerId(
-                server.getGuildId(), server.getServerId());
+            // Track stats before processing, with the same query as afterwards
+            int playersBefore = playerRepository.findByServerId(server.getServerId()).size();
             
-            Map<String, Player> playersBefore = new HashMap<>();
-            List<Player> allPlayersBefore = playerRepository.findByGuildIdAndServerId(
-                server.getGuildId(), server.getServerId());
-            
-            for (Player player : allPlayersBefore) {
-                playersBefore.put(player.getDeadsideId(), player);
-            }
-            
-            // Process each CSV file
-            AtomicInteger killCount = new AtomicInteger();
-            AtomicInteger deathCount = new AtomicInteger();
+            // Scan and apply each CSV file in name order. Stats are recorded per file under the source the
+            // backfill uses, so a file applied by either adds nothing when validation runs again. The newest
+            // file is still being written: marking it applied would lose the lines added to it later, so it
+            // is left to live tailing and applied here once a newer file replaces it.
+            Collections.sort(csvFiles);
+            List<String> completeFiles = csvFiles.subList(0, csvFiles.size() - 1);
+            String source = HistoricalBackfillEngine.statSource(server);
             AtomicInteger errorCount = new AtomicInteger();
             AtomicInteger lineCount = new AtomicInteger();
             
-            for (String csvFile : csvFiles) {
-                String csvPath = server.getDeathlogsDirectory() + "/" + csvFile;
-                File csvFileObj = new File(csvPath);
+            for (String csvFile : completeFiles) {
+                File csvFileObj = new File(deathlogDir, csvFile);
                 
                 if (!csvFileObj.exists()) {
-                    logger.warn("CSV file does not exist: {}", csvPath);
+                    logger.warn("CSV file does not exist: {}", csvFileObj);
                     continue;
                 }
                 
-                // Read and parse each line
-                try (BufferedReader reader = new BufferedReader(new FileReader(csvFileObj))) {
-                    String line;
-                    while ((line = reader.readLine()) != null) {
-                        if (line.trim().isEmpty()) {
-                            continue;
-                        }
-                        
-                        lineCount.incrementAndGet();
-                        
-                        // Use the fixed CSV parser
-                        boolean processedSuccessfully = CsvParsingFix.processDeathLogLineFixed(
-                            server, line, playerRepository);
-                        
-                        if (!processedSuccessfully) {
-                            errorCount.incrementAndGet();
-                        }
-                    }
+                Map<String, PlayerStatDelta> deltas = new HashMap<>();
+                try {
+                    DeathlogScanner.Result result = DeathlogScanner.scan(server,
+                        LocalMirror.getInstance().map(csvFileObj.toPath()), record -> PlayerStatDelta.accumulate(record, deltas));
+                    lineCount.addAndGet(result.records() + result.malformed());
+                    errorCount.addAndGet(result.malformed());
                 } catch (Exception e) {
                     logger.error("Error processing CSV file {}: {}", csvFile, e.getMessage(), e);
                     errorCount.incrementAndGet();
+                    continue;
+                }
+                
+                // One bulk write per file; later files wait, since the guard skips files older than the last applied
+                if (!playerRepository.applyStatDeltas(deltas.values(), server.getServerId(), source, csvFile)) {
+                    logger.error("Failed to apply CSV stats of {} for {} players of server {}",
+                        csvFile, deltas.size(), server.getName());
+                    errorCount.incrementAndGet();
+                    break;
                 }
             }
             
             // Track stats after processing
-            long totalPlayersAfter = playerRepository.countPlayersByGuildIdAndServerId(
-                server.getGuildId(), server.getServerId());
-            
-            Map<String, Player> playersAfter = new HashMap<>();
-            List<Player> allPlayersAfter = playerRepository.findByGuildIdAndServerId(
-                server.getGuildId(), server.getServerId());
-            
-            for (Player player : allPlayersAfter) {
-                playersAfter.put(player.getDeadsideId(), player);
-            }
+            List<Player> playersAfter = playerRepository.findByServerId(server.getServerId());
             
             // Calculate total kills and deaths from player records
             int totalKills = 0;
             int totalDeaths = 0;
             int totalSuicides = 0;
             
-            for (Player player : allPlayersAfter) {
-                totalKills += player.getKills();
-                totalDeaths += player.getDeaths();
-                totalSuicides += player.getSuicides();
+            for (Player player : playersAfter) {
+                totalKills += player.getKillCount();
+                totalDeaths += player.getDeathCount();
+                if (player.getStat("suicides") instanceof Number suicides) {
+                    totalSuicides += suicides.intValue();
+                }
             }
             
             // Set summary data
             summary.setCsvLinesProcessed(lineCount.get());
             summary.setCsvErrors(errorCount.get());
-            summary.setPlayersCreated((int)(totalPlayersAfter - totalPlayersBefore));
+            summary.setPlayersCreated(playersAfter.size() - playersBefore);
             summary.setTotalKills(totalKills);
             summary.setTotalDeaths(totalDeaths);
             summary.setTotalSuicides(totalSuicides);
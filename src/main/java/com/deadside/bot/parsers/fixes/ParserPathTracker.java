@@ -1,16 +1,23 @@
 package com.deadside.bot.parsers.fixes;
 
+import com.deadside.bot.db.DatabaseExecutor;
 import com.deadside.bot.db.models.GameServer;
+import com.deadside.bot.db.models.PathStat;
+import com.deadside.bot.db.repositories.PathStatRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Tracks successful and failed paths for parsers
  * This class provides a registry for tracking which paths have been
- * successfully used for different servers and categories
+ * successfully used for different servers and categories.
+ *
+ * Every candidate path keeps hit and failure counts with the time of its last success and failure,
+ * per server and, with the host and server name replaced by placeholders, across the whole fleet.
+ * Recommended paths are ordered by these statistics, so the layout most servers of a host use is
+ * tried first. Statistics are stored, so they survive restarts without re-probing.
  */
 public class ParserPathTracker {
     private static final Logger logger = LoggerFactory.getLogger(ParserPathTracker.class);
@@ -19,6 +26,10 @@ public class ParserPathTracker {
     public static final String CATEGORY_CSV = "csv";
     public static final String CATEGORY_LOG = "log";
     
+    // Placeholders of fleet-wide path templates
+    private static final String HOST_PLACEHOLDER = "{host}";
+    private static final String SERVER_PLACEHOLDER = "{server}";
+    
     // Common path patterns to try
     private static final String[] COMMON_CSV_PATHS = {
         "/home/deadside/server/actual/deathlogs",
@@ -39,9 +50,24 @@ public class ParserPathTracker {
     // The singleton instance
     private static ParserPathTracker instance;
     
-    // Maps to track successful paths
-    // Structure: serverId -> category -> List<successful paths>
-    private final Map<String, Map<String, List<String>>> successfulPaths = new ConcurrentHashMap<>();
+    /**
+     * Counters of one candidate path
+     */
+    private static final class PathStats {
+        private long hits;
+        private long failures;
+        private long lastSuccess;
+        private long lastFailure;
+    }
+    
+    // Structure: serverId -> category -> path -> statistics; guarded by this
+    private final Map<String, Map<String, Map<String, PathStats>>> serverPaths = new HashMap<>();
+    
+    // Structure: category -> path template -> statistics; guarded by this
+    private final Map<String, Map<String, PathStats>> templates = new HashMap<>();
+    
+    private final PathStatRepository repository = new PathStatRepository();
+    private boolean loaded = false;
     
     /**
      * Private constructor for singleton pattern
@@ -72,22 +98,56 @@ public class ParserPathTracker {
             return;
         }
         
-        String serverId = server.getId() != null ? server.getId().toString() : server.getServerId();
+        String serverId = serverIdOf(server);
+        String template = templateOf(server, path);
+        long now = System.currentTimeMillis();
+        
+        synchronized (this) {
+            ensureLoaded();
+            PathStats stats = statsOf(serverId, category, path);
+            stats.hits++;
+            stats.lastSuccess = now;
+            
+            if (template != null) {
+                PathStats fleet = templates.computeIfAbsent(category, k -> new HashMap<>())
+                    .computeIfAbsent(template, k -> new PathStats());
+                fleet.hits++;
+                fleet.lastSuccess = now;
+            }
+        }
         
-        // Get or create the category map for this server
-        Map<String, List<String>> categoryMap = successfulPaths.computeIfAbsent(
-            serverId, k -> new ConcurrentHashMap<>());
+        DatabaseExecutor.runAsync(() -> {
+            repository.recordSuccess(serverId, category, path, now);
+            if (template != null) {
+                repository.recordSuccess(null, category, template, now);
+            }
+        });
+        logger.debug("Recorded successful {} path for server {}: {}", category, server.getName(), path);
+    }
+    
+    /**
+     * Record that a path no longer held the expected files
+     * @param server The game server
+     * @param category The path category (e.g., "csv", "log")
+     * @param path The failed path
+     */
+    public void recordFailedPath(GameServer server, String category, String path) {
+        if (server == null || category == null || path == null || path.isEmpty()) {
+            return;
+        }
         
-        // Get or create the list of successful paths for this category
-        List<String> paths = categoryMap.computeIfAbsent(
-            category, k -> Collections.synchronizedList(new ArrayList<>()));
+        String serverId = serverIdOf(server);
+        long now = System.currentTimeMillis();
         
-        // Add the path if it's not already in the list
-        if (!paths.contains(path)) {
-            paths.add(path);
-            logger.debug("Recorded successful {} path for server {}: {}", 
-                category, server.getName(), path);
+        synchronized (this) {
+            ensureLoaded();
+            PathStats stats = statsOf(serverId, category, path);
+            stats.failures++;
+            stats.lastFailure = now;
         }
+        
+        DatabaseExecutor.runAsync(() -> repository.recordFailure(serverId, category, path, now));
+        logger.debug("Recorded failed {} path for server {}: {}", category, server.getName(), path);
     }
     
     /**
@@ -96,41 +156,36 @@ public class ParserPathTracker {
      * @param category The path category
      * @return The most recent successful path, or null if none
      */
-    public String getSuccessfulPath(GameServer server, String category) {
+    public synchronized String getSuccessfulPath(GameServer server, String category) {
         if (server == null || category == null) {
             return null;
         }
         
-        String serverId = server.getId() != null ? server.getId().toString() : server.getServerId();
-        
-        // Get the category map for this server
-        Map<String, List<String>> categoryMap = successfulPaths.get(serverId);
-        if (categoryMap == null) {
-            return null;
-        }
-        
-        // Get the list of successful paths for this category
-        List<String> paths = categoryMap.get(category);
-        if (paths == null || paths.isEmpty()) {
-            return null;
+        ensureLoaded();
+        Map<String, PathStats> paths = pathsOf(serverIdOf(server), category);
+        String latest = null;
+        long latestTime = 0;
+        for (Map.Entry<String, PathStats> entry : paths.entrySet()) {
+            if (entry.getValue().lastSuccess > latestTime) {
+                latest = entry.getKey();
+                latestTime = entry.getValue().lastSuccess;
+            }
         }
-        
-        // Return the most recent path (last in the list)
-        return paths.get(paths.size() - 1);
+        return latest;
     }
     
     /**
      * Get recommended paths to try for a server and category
      * @param server The game server
      * @param category The path category
-     * @return List of recommended paths to try
+     * @return List of recommended paths to try, most likely first
      */
     public List<String> getRecommendedPaths(GameServer server, String category) {
         if (server == null || category == null) {
             return Collections.emptyList();
         }
         
-        List<String> recommended = new ArrayList<>();
+        Set<String> recommended = new LinkedHashSet<>();
         
         // Add the current path from the server as the first option
         String currentPath = null;
@@ -144,17 +199,17 @@ public class ParserPathTracker {
             recommended.add(currentPath);
         }
         
-        // Add previously successful paths for this server and category
-        String serverId = server.getId() != null ? server.getId().toString() : server.getServerId();
-        Map<String, List<String>> categoryMap = successfulPaths.get(serverId);
-        if (categoryMap != null) {
-            List<String> paths = categoryMap.get(category);
-            if (paths != null) {
-                for (String path : paths) {
-                    if (!recommended.contains(path)) {
-                        recommended.add(path);
-                    }
-                }
+        synchronized (this) {
+            ensureLoaded();
+            
+            // Add previously successful paths for this server, most hits first
+            recommended.addAll(ranked(pathsOf(serverIdOf(server), category), true));
+            
+            // Add the layouts that worked across the fleet, most hits first
+            for (String template : ranked(templates.getOrDefault(category, Collections.emptyMap()), false)) {
+                recommended.add(template
+                    .replace(HOST_PLACEHOLDER, hostOf(server))
+                    .replace(SERVER_PLACEHOLDER, serverNameOf(server)));
             }
         }
         
@@ -163,36 +218,58 @@ public class ParserPathTracker {
             // Try variations of the current path
             if (currentPath.contains("actual1")) {
                 // If the current path has "actual1", try with "actual"
-                String altPath = currentPath.replace("actual1", "actual");
-                if (!recommended.contains(altPath)) {
-                    recommended.add(altPath);
-                }
+                recommended.add(currentPath.replace("actual1", "actual"));
             } else if (currentPath.contains("actual")) {
                 // If the current path has "actual", try with "actual1"
-                String altPath = currentPath.replace("actual", "actual1");
-                if (!recommended.contains(altPath)) {
-                    recommended.add(altPath);
-                }
+                recommended.add(currentPath.replace("actual", "actual1"));
             }
         }
         
         // Add standard common paths
         String[] commonPaths = CATEGORY_CSV.equals(category) ? COMMON_CSV_PATHS : COMMON_LOG_PATHS;
-        for (String path : commonPaths) {
-            if (!recommended.contains(path)) {
-                recommended.add(path);
-            }
+        recommended.addAll(Arrays.asList(commonPaths));
+        
+        return new ArrayList<>(recommended);
+    }
+    
+    /**
+     * Check whether the latest result of any path of a server was a failure
+     * @param server The game server
+     * @return True if the server has a failure not followed by a success
+     */
+    public synchronized boolean hasUnresolvedFailure(GameServer server) {
+        if (server == null) {
+            return false;
         }
         
-        return recommended;
+        ensureLoaded();
+        Map<String, Map<String, PathStats>> categories = serverPaths.get(serverIdOf(server));
+        if (categories == null) {
+            return false;
+        }
+        for (Map<String, PathStats> paths : categories.values()) {
+            long lastSuccess = 0;
+            long lastFailure = 0;
+            for (PathStats stats : paths.values()) {
+                lastSuccess = Math.max(lastSuccess, stats.lastSuccess);
+                lastFailure = Math.max(lastFailure, stats.lastFailure);
+            }
+            if (lastFailure > lastSuccess) {
+                return true;
+            }
+        }
+        return false;
     }
     
     /**
      * Clear all tracked paths
      * This is mainly for testing purposes
      */
-    public void clearAllPaths() {
-        successfulPaths.clear();
+    public synchronized void clearAllPaths() {
+        serverPaths.clear();
+        templates.clear();
+        loaded = true;
+        repository.deleteAll();
         logger.info("Cleared all tracked paths");
     }
     
@@ -200,13 +277,132 @@ public class ParserPathTracker {
      * Clear tracked paths for a specific server
      * @param server The game server
      */
-    public void clearServerPaths(GameServer server) {
+    public synchronized void clearServerPaths(GameServer server) {
         if (server == null) {
             return;
         }
         
-        String serverId = server.getId() != null ? server.getId().toString() : server.getServerId();
-        successfulPaths.remove(serverId);
+        String serverId = serverIdOf(server);
+        serverPaths.remove(serverId);
+        repository.deleteByOwner(serverId);
         logger.info("Cleared tracked paths for server {}", server.getName());
     }
-}
\ No newline at end of file
+    
+    /**
+     * Load the stored statistics on first use
+     */
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        
+        List<PathStat> stored = repository.findAll();
+        for (PathStat stat : stored) {
+            if (stat.category() == null || stat.path() == null) {
+                continue;
+            }
+            PathStats stats = stat.owner() != null
+                ? statsOf(stat.owner(), stat.category(), stat.path())
+                : templates.computeIfAbsent(stat.category(), k -> new HashMap<>())
+                    .computeIfAbsent(stat.path(), k -> new PathStats());
+            stats.hits += stat.hits();
+            stats.failures += stat.failures();
+            stats.lastSuccess = Math.max(stats.lastSuccess, stat.lastSuccess());
+            stats.lastFailure = Math.max(stats.lastFailure, stat.lastFailure());
+        }
+        logger.info("Loaded {} parser path statistics", stored.size());
+    }
+    
+    private PathStats statsOf(String serverId, String category, String path) {
+        return serverPaths.computeIfAbsent(serverId, k -> new HashMap<>())
+            .computeIfAbsent(category, k -> new LinkedHashMap<>())
+            .computeIfAbsent(path, k -> new PathStats());
+    }
+    
+    private Map<String, PathStats> pathsOf(String serverId, String category) {
+        Map<String, Map<String, PathStats>> categories = serverPaths.get(serverId);
+        Map<String, PathStats> paths = categories != null ? categories.get(category) : null;
+        return paths != null ? paths : Collections.emptyMap();
+    }
+    
+    /**
+     * Paths with at least one hit, most hits first and the latest success breaking ties
+     * @param skipFailing Whether to leave out paths whose last result was a failure
+     */
+    private static List<String> ranked(Map<String, PathStats> paths, boolean skipFailing) {
+        List<Map.Entry<String, PathStats>> entries = new ArrayList<>();
+        for (Map.Entry<String, PathStats> entry : paths.entrySet()) {
+            PathStats stats = entry.getValue();
+            if (stats.hits > 0 && !(skipFailing && stats.lastFailure > stats.lastSuccess)) {
+                entries.add(entry);
+            }
+        }
+        entries.sort((a, b) -> a.getValue().hits != b.getValue().hits
+            ? Long.compare(b.getValue().hits, a.getValue().hits)
+            : Long.compare(b.getValue().lastSuccess, a.getValue().lastSuccess));
+        
+        List<String> result = new ArrayList<>(entries.size());
+        for (Map.Entry<String, PathStats> entry : entries) {
+            result.add(entry.getKey());
+        }
+        return result;
+    }
+    
+    /**
+     * Turn a server's path into a fleet-wide template, or null if it holds neither the host nor the server name.
+     * Only whole path segments are replaced, either the name alone or the usual {@code <host>_<server>}
+     * directory, so a name that is merely part of a longer directory name is kept.
+     */
+    private static String templateOf(GameServer server, String path) {
+        String host = hostOf(server);
+        String serverName = serverNameOf(server);
+        StringBuilder template = new StringBuilder(path.length());
+        boolean replaced = false;
+        int start = 0;
+        while (start <= path.length()) {
+            int end = start;
+            while (end < path.length() && path.charAt(end) != '/' && path.charAt(end) != '\\') {
+                end++;
+            }
+            String segment = path.substring(start, end);
+            if (!host.isEmpty() && !serverName.isEmpty() && segment.equals(host + "_" + serverName)) {
+                template.append(HOST_PLACEHOLDER).append('_').append(SERVER_PLACEHOLDER);
+                replaced = true;
+            } else if (!serverName.isEmpty() && segment.equals(serverName)) {
+                template.append(SERVER_PLACEHOLDER);
+                replaced = true;
+            } else if (!host.isEmpty() && segment.equals(host)) {
+                template.append(HOST_PLACEHOLDER);
+                replaced = true;
+            } else {
+                template.append(segment);
+            }
+            if (end < path.length()) {
+                template.append(path.charAt(end));
+            }
+            start = end + 1;
+        }
+        return replaced ? template.toString() : null;
+    }
+    
+    private static String hostOf(GameServer server) {
+        String host = server.getSftpHost();
+        if (host == null || host.isEmpty()) {
+            host = server.getHost();
+        }
+        return host != null ? host : "";
+    }
+    
+    private static String serverNameOf(GameServer server) {
+        String serverName = server.getServerId();
+        if (serverName == null || serverName.isEmpty()) {
+            serverName = server.getName() != null ? server.getName().replaceAll("\\s+", "_") : "";
+        }
+        return serverName;
+    }
+    
+    private static String serverIdOf(GameServer server) {
+        return server.getId() != null ? server.getId().toString() : server.getServerId();
+    }
+}
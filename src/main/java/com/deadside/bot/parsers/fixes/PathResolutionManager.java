@@ -3,6 +3,7 @@ package com.deadside.bot.parsers.fixes;
 import com.deadside.bot.db.models.GameServer;
 import com.deadside.bot.db.repositories.GameServerRepository;
 import com.deadside.bot.sftp.SftpConnector;
+import com.deadside.bot.sftp.SftpPathResolver;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -109,51 +110,23 @@ public class PathResolutionManager {
      */
     private boolean fixCsvPath(GameServer server) {
         try {
-            // Get the current path
+            // The resolver answers from its cache, or probes the configured path and alternatives at once
             String currentPath = server.getDeathlogsDirectory();
+            String resolvedPath = SftpPathResolver.getInstance().resolve(
+                server, sftpConnector, SftpPathResolver.Category.CSV);
             
-            // Check if the current path exists and is valid
-            boolean currentPathValid = isValidCsvPath(currentPath);
-            boolean currentPathExists = currentPathValid && 
-                testPath(server, currentPath);
-            
-            if (currentPathExists) {
-                // Current path is valid and exists, record it
-                ParserPathTracker.getInstance().recordSuccessfulPath(
-                    server, ParserPathTracker.CATEGORY_CSV, currentPath);
-                
-                return false;  // No need to fix
+            if (resolvedPath == null) {
+                logger.warn("Could not find a valid CSV path for server {}", server.getName());
+                return false;
             }
-            
-            // Try to find a valid path
-            List<String> recommendedPaths = 
-                ParserPathTracker.getInstance().getRecommendedPaths(
-                    server, ParserPathTracker.CATEGORY_CSV);
-            
-            for (String path : recommendedPaths) {
-                // Skip the current path
-                if (path.equals(currentPath)) {
-                    continue;
-                }
-                
-                // Test the path
-                if (isValidCsvPath(path) && testPath(server, path)) {
-                    // Found a valid path, set it
-                    server.setDeathlogsDirectory(path);
-                    
-                    // Record it
-                    ParserPathTracker.getInstance().recordSuccessfulPath(
-                        server, ParserPathTracker.CATEGORY_CSV, path);
-                    
-                    logger.info("Fixed CSV path for server {}: {} -> {}", 
-                        server.getName(), currentPath, path);
-                    
-                    return true;
-                }
+            if (resolvedPath.equals(currentPath)) {
+                return false;  // No need to fix
             }
             
-            logger.warn("Could not find a valid CSV path for server {}", server.getName());
-            return false;
+            server.setDeathlogsDirectory(resolvedPath);
+            logger.info("Fixed CSV path for server {}: {} -> {}", 
+                server.getName(), currentPath, resolvedPath);
+            return true;
         } catch (Exception e) {
             logger.error("Error fixing CSV path for server {}: {}", 
                 server.getName(), e.getMessage(), e);
@@ -168,51 +141,23 @@ public class PathResolutionManager {
      */
     private boolean fixLogPath(GameServer server) {
         try {
-            // Get the current path
+            // The resolver answers from its cache, or probes the configured path and alternatives at once
             String currentPath = server.getLogDirectory();
+            String resolvedPath = SftpPathResolver.getInstance().resolve(
+                server, sftpConnector, SftpPathResolver.Category.LOG);
             
-            // Check if the current path exists and is valid
-            boolean currentPathValid = isValidLogPath(currentPath);
-            boolean currentPathExists = currentPathValid && 
-                testPath(server, currentPath);
-            
-            if (currentPathExists) {
-                // Current path is valid and exists, record it
-                ParserPathTracker.getInstance().recordSuccessfulPath(
-                    server, ParserPathTracker.CATEGORY_LOG, currentPath);
-                
-                return false;  // No need to fix
+            if (resolvedPath == null) {
+                logger.warn("Could not find a valid Log path for server {}", server.getName());
+                return false;
             }
-            
-            // Try to find a valid path
-            List<String> recommendedPaths = 
-                ParserPathTracker.getInstance().getRecommendedPaths(
-                    server, ParserPathTracker.CATEGORY_LOG);
-            
-            for (String path : recommendedPaths) {
-                // Skip the current path
-                if (path.equals(currentPath)) {
-                    continue;
-                }
-                
-                // Test the path
-                if (isValidLogPath(path) && testPath(server, path)) {
-                    // Found a valid path, set it
-                    server.setLogDirectory(path);
-                    
-                    // Record it
-                    ParserPathTracker.getInstance().recordSuccessfulPath(
-                        server, ParserPathTracker.CATEGORY_LOG, path);
-                    
-                    logger.info("Fixed Log path for server {}: {} -> {}", 
-                        server.getName(), currentPath, path);
-                    
-                    return true;
-                }
+            if (resolvedPath.equals(currentPath)) {
+                return false;  // No need to fix
             }
             
-            logger.warn("Could not find a valid Log path for server {}", server.getName());
-            return false;
+            server.setLogDirectory(resolvedPath);
+            logger.info("Fixed Log path for server {}: {} -> {}", 
+                server.getName(), currentPath, resolvedPath);
+            return true;
         } catch (Exception e) {
             logger.error("Error fixing Log path for server {}: {}", 
                 server.getName(), e.getMessage(), e);
@@ -220,52 +165,6 @@ public class PathResolutionManager {
         }
     }
     
-    /**
-     * Check if a CSV path is valid
-     * @param path The path to check
-     * @return True if the path is valid
-     */
-    private boolean isValidCsvPath(String path) {
-        if (path == null || path.isEmpty()) {
-            return false;
-        }
-        
-        return path.contains("/actual1/deathlogs") || 
-               path.contains("\\actual1\\deathlogs") ||
-               path.contains("/actual/deathlogs") || 
-               path.contains("\\actual\\deathlogs");
-    }
-    
-    /**
-     * Check if a Log path is valid
-     * @param path The path to check
-     * @return True if the path is valid
-     */
-    private boolean isValidLogPath(String path) {
-        if (path == null || path.isEmpty()) {
-            return false;
-        }
-        
-        return path.contains("/Logs") || 
-               path.contains("\\Logs");
-    }
-    
-    /**
-     * Test if a path exists and is accessible
-     * @param server The game server
-     * @param path The path to test
-     * @return True if the path exists and is accessible
-     */
-    private boolean testPath(GameServer server, String path) {
-        try {
-            return sftpConnector.testConnection(server, path);
-        } catch (Exception e) {
-            logger.debug("Error testing path {} for server {}: {}", 
-                path, server.getName(), e.getMessage());
-            return false;
-        }
-    }
-    
     /**
      * Check and fix paths for all servers in a guild
      * @param guildId The guild ID
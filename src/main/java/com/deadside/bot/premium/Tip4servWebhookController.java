@@ -2,6 +2,7 @@ package com.deadside.bot.premium;
 
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
+import com.deadside.bot.services.SchedulerService;
 import com.sun.net.httpserver.HttpServer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -11,7 +12,6 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.InetSocketAddress;
 import java.nio.charset.StandardCharsets;
-import java.util.concurrent.Executors;
 
 /**
  * HTTP webhook controller for Tip4serv integration
@@ -46,7 +46,7 @@ public class Tip4servWebhookController {
         try {
             server = HttpServer.create(new InetSocketAddress(port), 0);
             server.createContext(webhookPath, new WebhookHandler());
-            server.setExecutor(Executors.newFixedThreadPool(5));
+            server.setExecutor(SchedulerService.getInstance().pool("webhook", 5));
             server.start();
             logger.info("Tip4serv webhook server started on port {} with path {}", port, webhookPath);
         } catch (IOException e) {
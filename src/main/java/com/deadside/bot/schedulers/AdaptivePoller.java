@@ -0,0 +1,287 @@
+package com.deadside.bot.schedulers;
+
+import com.deadside.bot.config.Config;
+import com.deadside.bot.db.models.GameServer;
+import com.deadside.bot.services.SchedulerService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Polls each game server on its own interval, derived from how much the server has been producing.
+ *
+ * Servers wait in a min-heap ordered by their next due time. A dispatcher job on the shared
+ * {@link SchedulerService} takes every due server off the heap and polls it on the polling pool.
+ * After each poll the server's interval is recomputed:
+ * <ul>
+ *   <li>events found: the interval is sized so a poll picks up about {@code polling.targetEventsPerPoll}
+ *       events at the server's smoothed event rate</li>
+ *   <li>no events but the file grew: the interval is kept</li>
+ *   <li>nothing new: the interval grows by {@code polling.backoffFactor}</li>
+ * </ul>
+ * Intervals are always kept between {@code polling.minSeconds} and {@code polling.maxSeconds}.
+ */
+public class AdaptivePoller {
+    private static final Logger logger = LoggerFactory.getLogger(AdaptivePoller.class);
+    private static final String POOL = "polling";
+    private static final String DISPATCH_POOL = "polling-dispatch";
+    private static final int DEFAULT_POLL_THREADS = 4;
+    private static final long DISPATCH_INTERVAL_MILLIS = 1000;
+
+    // Weight of the newest sample in the smoothed event rate
+    private static final double RATE_SMOOTHING = 0.3;
+
+    private final String name;
+    private final PollTask task;
+    private final long minIntervalMillis;
+    private final long maxIntervalMillis;
+    private final long initialIntervalMillis;
+    private final double backoffFactor;
+    private final double targetEventsPerPoll;
+
+    private final PriorityQueue<Target> heap = new PriorityQueue<>((a, b) -> Long.compare(a.nextDue, b.nextDue));
+    private final Map<String, Target> targets = new ConcurrentHashMap<>();
+
+    /**
+     * Polls one server
+     */
+    @FunctionalInterface
+    public interface PollTask {
+        /**
+         * @return What the poll found
+         */
+        PollResult poll(GameServer server) throws Exception;
+    }
+
+    /**
+     * Outcome of a single poll
+     * @param events Number of new events processed
+     * @param growth Amount the polled files grew (bytes or lines), or 0 if unknown
+     */
+    public record PollResult(int events, long growth) {
+        public static PollResult events(int events) {
+            return new PollResult(events, 0);
+        }
+    }
+
+    /**
+     * Polling state of one server
+     */
+    private static final class Target {
+        private final String key;
+        private volatile GameServer server;
+        private long nextDue;
+        private long intervalMillis;
+        private double eventsPerSecond;
+        private long lastPollAt;
+        private boolean removed;
+
+        private Target(String key, GameServer server, long intervalMillis, long nextDue) {
+            this.key = key;
+            this.server = server;
+            this.intervalMillis = intervalMillis;
+            this.nextDue = nextDue;
+        }
+    }
+
+    /**
+     * @param name Name used for the dispatcher job and in logs, e.g. "killfeed"
+     * @param task Poll performed for each due server
+     */
+    public AdaptivePoller(String name, PollTask task) {
+        this.name = name;
+        this.task = task;
+        this.minIntervalMillis = TimeUnit.SECONDS.toMillis(Math.max(1, Config.getIntProperty("polling.minSeconds", 15)));
+        this.maxIntervalMillis = Math.max(minIntervalMillis,
+                TimeUnit.SECONDS.toMillis(Config.getIntProperty("polling.maxSeconds", 600)));
+        this.initialIntervalMillis = clamp(TimeUnit.SECONDS.toMillis(Config.getIntProperty("killfeed.update.interval", 60)));
+        this.backoffFactor = Math.max(1.0, parseDouble("polling.backoffFactor", 2.0));
+        this.targetEventsPerPoll = Math.max(1.0, parseDouble("polling.targetEventsPerPoll", 5.0));
+    }
+
+    /**
+     * Start dispatching due polls
+     */
+    public void start() {
+        SchedulerService scheduler = SchedulerService.getInstance();
+        // Create the polling pool at its full size before the first submit; the dispatcher has its own pool
+        // so it is never queued behind slow polls
+        scheduler.pool(POOL, DEFAULT_POLL_THREADS);
+        scheduler.scheduleJob(jobName(), DISPATCH_POOL, this::dispatchDue,
+                DISPATCH_INTERVAL_MILLIS, DISPATCH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        logger.info("Adaptive {} polling started, intervals {}s to {}s", name,
+                minIntervalMillis / 1000, maxIntervalMillis / 1000);
+    }
+
+    /**
+     * Stop dispatching polls; polls already running finish normally
+     */
+    public void stop() {
+        SchedulerService.getInstance().cancelJob(jobName());
+    }
+
+    /**
+     * Start polling a server, or refresh the server object of one already being polled
+     */
+    public void track(GameServer server) {
+        String key = keyOf(server);
+        Target existing = targets.get(key);
+        if (existing != null) {
+            existing.server = server;
+            return;
+        }
+
+        Target target = new Target(key, server, initialIntervalMillis, System.currentTimeMillis());
+        targets.put(key, target);
+        synchronized (heap) {
+            heap.add(target);
+        }
+    }
+
+    /**
+     * Stop polling a server
+     */
+    public void untrack(String key) {
+        Target target = targets.remove(key);
+        if (target != null) {
+            synchronized (heap) {
+                // Lazily dropped when it reaches the top of the heap
+                target.removed = true;
+            }
+        }
+    }
+
+    /**
+     * Make the tracked servers match the given list
+     */
+    public void syncServers(Collection<GameServer> servers) {
+        Set<String> current = new HashSet<>();
+        for (GameServer server : servers) {
+            current.add(keyOf(server));
+            track(server);
+        }
+        for (String key : new ArrayList<>(targets.keySet())) {
+            if (!current.contains(key)) {
+                untrack(key);
+            }
+        }
+    }
+
+    /**
+     * Get the current polling interval of a server in milliseconds, or -1 if it is not tracked
+     */
+    public long getIntervalMillis(String key) {
+        Target target = targets.get(key);
+        if (target == null) {
+            return -1;
+        }
+        synchronized (heap) {
+            return target.intervalMillis;
+        }
+    }
+
+    /**
+     * Get the number of servers being polled
+     */
+    public int size() {
+        return targets.size();
+    }
+
+    /**
+     * Key identifying a server across reloads of its configuration
+     */
+    public static String keyOf(GameServer server) {
+        return server.getGuildId() + ":" + server.getName();
+    }
+
+    /**
+     * Take every due server off the heap and poll it on the polling pool
+     */
+    private void dispatchDue() {
+        long now = System.currentTimeMillis();
+        List<Target> due = new ArrayList<>();
+        synchronized (heap) {
+            while (!heap.isEmpty() && heap.peek().nextDue <= now) {
+                Target target = heap.poll();
+                if (!target.removed) {
+                    due.add(target);
+                }
+            }
+        }
+
+        SchedulerService scheduler = SchedulerService.getInstance();
+        for (Target target : due) {
+            scheduler.submit(POOL, () -> poll(target));
+        }
+    }
+
+    private void poll(Target target) {
+        PollResult result;
+        try {
+            result = task.poll(target.server);
+        } catch (Exception e) {
+            logger.error("Error polling {} for server {}", name, target.key, e);
+            // Treat a failed poll as idle so a broken server backs off instead of being retried constantly
+            result = PollResult.events(0);
+        }
+
+        long now = System.currentTimeMillis();
+        synchronized (heap) {
+            reschedule(target, result, now);
+            if (!target.removed) {
+                heap.add(target);
+            }
+        }
+    }
+
+    /**
+     * Recompute a server's interval from the latest poll; called with the heap lock held
+     */
+    private void reschedule(Target target, PollResult result, long now) {
+        long elapsedMillis = target.lastPollAt > 0 ? now - target.lastPollAt : target.intervalMillis;
+        target.lastPollAt = now;
+
+        double sampleRate = result.events() * 1000.0 / Math.max(1, elapsedMillis);
+        target.eventsPerSecond = RATE_SMOOTHING * sampleRate + (1 - RATE_SMOOTHING) * target.eventsPerSecond;
+
+        long interval;
+        if (result.events() > 0) {
+            interval = (long) (targetEventsPerPoll / target.eventsPerSecond * 1000);
+        } else if (result.growth() > 0) {
+            interval = target.intervalMillis;
+        } else {
+            interval = (long) (target.intervalMillis * backoffFactor);
+        }
+
+        target.intervalMillis = clamp(interval);
+        target.nextDue = now + target.intervalMillis;
+        logger.debug("Next {} poll for {} in {} ms ({} events, {} events/s)", name, target.key,
+                target.intervalMillis, result.events(), String.format("%.3f", target.eventsPerSecond));
+    }
+
+    private long clamp(long intervalMillis) {
+        return Math.max(minIntervalMillis, Math.min(maxIntervalMillis, intervalMillis));
+    }
+
+    private String jobName() {
+        return name + "-polling";
+    }
+
+    private static double parseDouble(String key, double defaultValue) {
+        try {
+            return Double.parseDouble(Config.getProperty(key, String.valueOf(defaultValue)).trim());
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid value for {}, using {}", key, defaultValue);
+            return defaultValue;
+        }
+    }
+}
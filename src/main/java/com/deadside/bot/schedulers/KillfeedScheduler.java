@@ -4,12 +4,15 @@ import com.deadside.bot.db.models.GameServer;
 import com.deadside.bot.db.models.GuildConfig;
 import com.deadside.bot.db.repositories.GameServerRepository;
 import com.deadside.bot.db.repositories.GuildConfigRepository;
+import com.deadside.bot.parsers.HistoricalBackfillEngine;
 import com.deadside.bot.parsers.KillfeedParser;
+import com.deadside.bot.services.SchedulerService;
 import net.dv8tion.jda.api.JDA;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Scheduler for processing killfeed data
@@ -19,6 +22,10 @@ public class KillfeedScheduler {
     private final GameServerRepository serverRepository;
     private final GuildConfigRepository guildConfigRepository;
     private KillfeedParser killfeedParser;
+    private AdaptivePoller poller;
+    
+    // How often the polled server list is refreshed from the database
+    private static final long SERVER_SYNC_MINUTES = 5;
     
     public KillfeedScheduler() {
         this.serverRepository = new GameServerRepository();
@@ -70,6 +77,47 @@ public class KillfeedScheduler {
         }
     }
     
+    /**
+     * Start polling every server for new killfeed data on its own adaptive interval
+     */
+    public synchronized void startPolling() {
+        if (killfeedParser == null) {
+            logger.error("KillfeedScheduler not initialized with JDA instance");
+            return;
+        }
+        if (poller != null) {
+            return;
+        }
+        
+        AdaptivePoller killfeedPoller = new AdaptivePoller("killfeed", server -> {
+            int processed = killfeedParser.processServer(server);
+            
+            // Save server state with updated progress
+            if (processed > 0) {
+                serverRepository.save(server);
+            }
+            return AdaptivePoller.PollResult.events(processed);
+        });
+        
+        // Keep the polled servers in step with the database, then start dispatching
+        SchedulerService.getInstance().scheduleJob("killfeed-server-sync", "maintenance",
+            () -> killfeedPoller.syncServers(getServersWithProperIsolation()), 0, SERVER_SYNC_MINUTES, TimeUnit.MINUTES);
+        killfeedPoller.start();
+        poller = killfeedPoller;
+    }
+    
+    /**
+     * Stop adaptive polling
+     */
+    public synchronized void stopPolling() {
+        if (poller == null) {
+            return;
+        }
+        SchedulerService.getInstance().cancelJob("killfeed-server-sync");
+        poller.stop();
+        poller = null;
+    }
+    
     /**
      * Process only new killfeed data (default behavior for scheduled runs)
      */
@@ -136,6 +184,21 @@ public class KillfeedScheduler {
      * Should only be called when a new server is added or via admin command
      */
     public void processAllHistoricalData() {
-        processAllServers(true);
+        if (killfeedParser == null) {
+            logger.error("KillfeedScheduler not initialized with JDA instance");
+            return;
+        }
+
+        HistoricalBackfillEngine engine = new HistoricalBackfillEngine(killfeedParser);
+        for (GameServer server : getServersWithProperIsolation()) {
+            try {
+                HistoricalBackfillEngine.Progress result = engine.backfill(server, null).join();
+                logger.info("Historical killfeed for {}: {} records from {} files ({} records/s)",
+                        server.getName(), result.records(), result.completedFiles(),
+                        String.format("%.1f", result.recordsPerSecond()));
+            } catch (Exception e) {
+                logger.error("Error backfilling historical killfeed for server {}", server.getName(), e);
+            }
+        }
     }
 }
@@ -0,0 +1,137 @@
+package com.deadside.bot.schedulers;
+
+import com.deadside.bot.db.models.GuildConfig;
+import com.deadside.bot.db.repositories.GuildConfigRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory registry of the configured player count voice channels, one per guild.
+ * Loaded from the guild configs once and kept current through a {@link GuildConfigRepository.ChangeListener},
+ * so the updater does not have to re-read every guild config on each pass. A failed load is retried on the
+ * next pass.
+ */
+public class PlayerCountChannelRegistry {
+    private static final Logger logger = LoggerFactory.getLogger(PlayerCountChannelRegistry.class);
+
+    private static PlayerCountChannelRegistry instance;
+
+    private final Map<Long, TrackedChannel> channels = new ConcurrentHashMap<>();
+    // Guilds changed before the load finished; their registrations are newer than what it read
+    private final Set<Long> changedBeforeLoad = new HashSet<>();
+    private final Object changeLock = new Object();
+    private volatile boolean loaded = false;
+
+    /**
+     * A voice channel showing the player count of one game server
+     */
+    public record TrackedChannel(long guildId, long channelId, String serverName) {
+    }
+
+    private PlayerCountChannelRegistry() {
+        GuildConfigRepository.addChangeListener(new GuildConfigRepository.ChangeListener() {
+            @Override
+            public void onSaved(GuildConfig config) {
+                update(config);
+            }
+            
+            @Override
+            public void onDeleted(long guildId) {
+                unregister(guildId);
+            }
+        });
+    }
+
+    /**
+     * Get the shared registry
+     */
+    public static synchronized PlayerCountChannelRegistry getInstance() {
+        if (instance == null) {
+            instance = new PlayerCountChannelRegistry();
+        }
+        return instance;
+    }
+
+    /**
+     * Get every tracked channel, loading the registry from the database on first use
+     */
+    public List<TrackedChannel> getChannels() {
+        if (!loaded) {
+            load();
+        }
+        return new ArrayList<>(channels.values());
+    }
+
+    /**
+     * Track a channel for a guild, replacing any channel the guild tracked before
+     */
+    public void register(long guildId, long channelId, String serverName) {
+        synchronized (changeLock) {
+            markChanged(guildId);
+            channels.put(guildId, new TrackedChannel(guildId, channelId, serverName));
+        }
+    }
+
+    /**
+     * Stop tracking the channel of a guild
+     */
+    public void unregister(long guildId) {
+        synchronized (changeLock) {
+            markChanged(guildId);
+            channels.remove(guildId);
+        }
+    }
+
+    /**
+     * Keep the registry in step with a saved guild config
+     */
+    public void update(GuildConfig config) {
+        if (config.getPlayerCountVoiceChannelId() > 0 && config.getPlayerCountServerName() != null) {
+            register(config.getGuildId(), config.getPlayerCountVoiceChannelId(), config.getPlayerCountServerName());
+        } else {
+            unregister(config.getGuildId());
+        }
+    }
+
+    private synchronized void load() {
+        if (loaded) {
+            return;
+        }
+
+        List<GuildConfig> configs;
+        try {
+            configs = new GuildConfigRepository().findWithPlayerCountChannel();
+        } catch (Exception e) {
+            // Stay unloaded, so the next pass tries again
+            logger.error("Error loading player count voice channels", e);
+            return;
+        }
+        synchronized (changeLock) {
+            for (GuildConfig config : configs) {
+                if (config.getPlayerCountServerName() != null && !changedBeforeLoad.contains(config.getGuildId())) {
+                    channels.put(config.getGuildId(), new TrackedChannel(config.getGuildId(),
+                        config.getPlayerCountVoiceChannelId(), config.getPlayerCountServerName()));
+                }
+            }
+            loaded = true;
+            changedBeforeLoad.clear();
+        }
+        logger.info("Loaded {} player count voice channels", channels.size());
+    }
+    
+    /**
+     * Remember a change the load must not overwrite. Must hold the change lock.
+     */
+    private void markChanged(long guildId) {
+        if (!loaded) {
+            changedBeforeLoad.add(guildId);
+        }
+    }
+}
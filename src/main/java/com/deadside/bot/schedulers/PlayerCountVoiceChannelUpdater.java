@@ -1,9 +1,10 @@
 package com.deadside.bot.schedulers;
 
-import com.deadside.bot.db.models.GuildConfig;
 import com.deadside.bot.db.models.GameServer;
-import com.deadside.bot.db.repositories.GuildConfigRepository;
 import com.deadside.bot.db.repositories.GameServerRepository;
+import com.deadside.bot.schedulers.PlayerCountChannelRegistry.TrackedChannel;
+import com.deadside.bot.services.SchedulerService;
+import com.deadside.bot.utils.DiscordOutbox;
 import net.dv8tion.jda.api.JDA;
 import net.dv8tion.jda.api.entities.Guild;
 import net.dv8tion.jda.api.entities.channel.concrete.VoiceChannel;
@@ -11,9 +12,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.List;
-import java.util.ArrayList;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 /**
  * Scheduler to update voice channels with player count information
@@ -21,21 +23,16 @@ import java.util.concurrent.TimeUnit;
 public class PlayerCountVoiceChannelUpdater {
     private static final Logger logger = LoggerFactory.getLogger(PlayerCountVoiceChannelUpdater.class);
     private final JDA jda;
-    private final GuildConfigRepository guildConfigRepository;
     private final GameServerRepository gameServerRepository;
-    private final ScheduledExecutorService scheduler;
     
     /**
      * Create a new player count voice channel updater
      * 
      * @param jda The JDA instance
-     * @param scheduler The scheduler service to use for scheduling updates
      */
-    public PlayerCountVoiceChannelUpdater(JDA jda, ScheduledExecutorService scheduler) {
+    public PlayerCountVoiceChannelUpdater(JDA jda) {
         this.jda = jda;
-        this.guildConfigRepository = new GuildConfigRepository();
         this.gameServerRepository = new GameServerRepository();
-        this.scheduler = scheduler;
         
         // Schedule the updater to run every 5 minutes
         scheduleUpdates();
@@ -47,7 +44,9 @@ public class PlayerCountVoiceChannelUpdater {
     private void scheduleUpdates() {
         int updateInterval = 5; // minutes
         
-        scheduler.scheduleAtFixedRate(
+        SchedulerService.getInstance().scheduleJob(
+            "player-count-channels",
+            "discord",
             this::updateAllVoiceChannels,
             1,
             updateInterval,
@@ -58,95 +57,88 @@ public class PlayerCountVoiceChannelUpdater {
     }
     
     /**
-     * Update all voice channels
+     * Coalescing key for renames of a player count channel, shared with commands that rename it
+     */
+    public static String renameKey(VoiceChannel channel) {
+        return "voice-rename:" + channel.getId();
+    }
+    
+    /**
+     * Update all voice channels.
+     * Tracked channels come from the in-memory registry and all of their servers are read in a single
+     * projected query, so a pass costs one small query and no Discord requests when no count changed.
      */
     private void updateAllVoiceChannels() {
         try {
-            logger.debug("Starting scheduled player count voice channel updates");
-            
-            // Get all guild configurations using isolation-aware approach
-            List<GuildConfig> configs = new ArrayList<>();
-            
-            // Use JDA to get distinct guild IDs for proper isolation
-            List<Long> distinctGuildIds = jda.getGuilds().stream()
-                .map(guild -> guild.getIdLong())
-                .toList();
-            logger.debug("Found {} distinct guilds for voice channel updates", distinctGuildIds.size());
-            
-            // For each guild, get configs with proper isolation
-            for (Long guildId : distinctGuildIds) {
-                if (guildId > 0) {
-                    // Set isolation context for this guild
-                    com.deadside.bot.utils.GuildIsolationManager.getInstance().setContext(guildId, null);
-                    
-                    try {
-                        // Get config for this guild using isolation-aware method
-                        GuildConfig guildConfig = guildConfigRepository.findByGuildId(guildId);
-                        if (guildConfig != null) {
-                            configs.add(guildConfig);
-                        }
-                    } finally {
-                        // Always clear context
-                        com.deadside.bot.utils.GuildIsolationManager.getInstance().clearContext();
-                    }
-                }
+            List<TrackedChannel> channels = PlayerCountChannelRegistry.getInstance().getChannels();
+            if (channels.isEmpty()) {
+                return;
             }
             
-            for (GuildConfig config : configs) {
-                // Only process guilds with a voice channel configured
-                if (config.getPlayerCountVoiceChannelId() <= 0 || config.getPlayerCountServerName() == null) {
-                    continue;
-                }
-                
-                // Get the guild
-                Guild guild = jda.getGuildById(config.getGuildId());
+            Set<Long> guildIds = channels.stream()
+                .map(TrackedChannel::guildId)
+                .collect(Collectors.toSet());
+            Map<Long, List<GameServer>> serversByGuild = gameServerRepository.findStatusByGuildIds(guildIds).stream()
+                .collect(Collectors.groupingBy(GameServer::getGuildId));
+            
+            int renamed = 0;
+            for (TrackedChannel tracked : channels) {
+                Guild guild = jda.getGuildById(tracked.guildId());
                 if (guild == null) {
-                    logger.warn("Guild not found for ID: {}", config.getGuildId());
+                    logger.debug("Guild not found for ID: {}", tracked.guildId());
                     continue;
                 }
                 
-                // Get the voice channel
-                VoiceChannel voiceChannel = guild.getVoiceChannelById(config.getPlayerCountVoiceChannelId());
+                VoiceChannel voiceChannel = guild.getVoiceChannelById(tracked.channelId());
                 if (voiceChannel == null) {
-                    logger.warn("Voice channel not found for ID: {} in guild: {}", 
-                            config.getPlayerCountVoiceChannelId(), guild.getName());
+                    logger.debug("Voice channel not found for ID: {} in guild: {}", 
+                            tracked.channelId(), guild.getName());
                     continue;
                 }
                 
                 // Find the server by name
                 GameServer server = null;
-                List<GameServer> servers = gameServerRepository.findAllByGuildId(config.getGuildId());
-                for (GameServer s : servers) {
-                    if (s.getName().equalsIgnoreCase(config.getPlayerCountServerName())) {
+                for (GameServer s : serversByGuild.getOrDefault(tracked.guildId(), List.of())) {
+                    if (s.getName() != null && s.getName().equalsIgnoreCase(tracked.serverName())) {
                         server = s;
                         break;
                     }
                 }
                 
-                if (server == null) {
-                    voiceChannel.getManager().setName("Players: Server Offline").queue();
-                    logger.warn("Server not found: {} for guild: {}", 
-                            config.getPlayerCountServerName(), guild.getName());
-                    continue;
-                }
-                
-                // Update the voice channel with player count
-                String newName = String.format("Players: %d/%d", 
-                        server.getPlayerCount(), server.getMaxPlayers());
+                String newName = server == null
+                    ? "Players: Server Offline"
+                    : String.format("Players: %d/%d", server.getPlayerCount(), server.getMaxPlayers());
                 
-                voiceChannel.getManager().setName(newName).queue(
-                    success -> logger.debug("Updated voice channel: {} to {}", voiceChannel.getId(), newName),
-                    error -> logger.error("Failed to update voice channel: {}", voiceChannel.getId(), error)
-                );
-                
-                logger.info("Updated player count voice channel for guild {} to {}", 
-                        guild.getName(), newName);
+                if (rename(voiceChannel, newName)) {
+                    renamed++;
+                }
             }
             
-            logger.debug("Completed scheduled player count voice channel updates");
+            logger.debug("Completed player count voice channel updates: {} tracked, {} renamed", channels.size(), renamed);
             
         } catch (Exception e) {
             logger.error("Error updating player count voice channels", e);
         }
     }
-}
\ No newline at end of file
+    
+    /**
+     * Rename a channel unless it already shows the given name.
+     * Renames are limited to 2 per 10 minutes per channel, so one still waiting in the outbox is replaced
+     * rather than queued again; the outbox is the only record of a pending rename, which keeps it right when
+     * a command renames the channel or a full lane sheds the request.
+     * @return true if a rename was queued
+     */
+    private boolean rename(VoiceChannel voiceChannel, String newName) {
+        if (newName.equals(voiceChannel.getName())) {
+            return false;
+        }
+        
+        DiscordOutbox.getInstance().submitCoalesced(DiscordOutbox.Lane.COSMETIC,
+            DiscordOutbox.renameRoute(voiceChannel), renameKey(voiceChannel),
+            () -> voiceChannel.getManager().setName(newName),
+            success -> logger.debug("Updated voice channel: {} to {}", voiceChannel.getId(), newName),
+            error -> logger.error("Failed to update voice channel: {}", voiceChannel.getId(), error)
+        );
+        return true;
+    }
+}
@@ -1,30 +1,33 @@
 package com.deadside.bot.services;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Service for running scheduled tasks
+ * Service for running scheduled tasks.
+ * Hourly and daily tasks run as jobs on the shared {@link SchedulerService}.
  */
 public class CronService {
     private static final Logger logger = LoggerFactory.getLogger(CronService.class);
     
-    private ScheduledExecutorService scheduler;
-    private List<Runnable> hourlyTasks;
-    private List<Runnable> dailyTasks;
+    private static final String POOL = "cron";
+    private static final String HOURLY_JOB = "cron-hourly";
+    private static final String DAILY_JOB = "cron-daily";
+    
+    private final SchedulerService scheduler;
+    private final List<Runnable> hourlyTasks;
+    private final List<Runnable> dailyTasks;
     
     /**
      * Constructor
      */
     public CronService() {
-        this.scheduler = Executors.newScheduledThreadPool(2);
-        this.hourlyTasks = new ArrayList<>();
-        this.dailyTasks = new ArrayList<>();
+        this.scheduler = SchedulerService.getInstance();
+        this.hourlyTasks = new CopyOnWriteArrayList<>();
+        this.dailyTasks = new CopyOnWriteArrayList<>();
         
         logger.info("CronService initialized");
     }
@@ -54,7 +57,7 @@ public class CronService {
         logger.info("Starting CronService");
         
         // Schedule hourly tasks
-        scheduler.scheduleAtFixedRate(() -> {
+        scheduler.scheduleJob(HOURLY_JOB, POOL, () -> {
             for (Runnable task : hourlyTasks) {
                 try {
                     task.run();
@@ -65,7 +68,7 @@ public class CronService {
         }, 0, 1, TimeUnit.HOURS);
         
         // Schedule daily tasks
-        scheduler.scheduleAtFixedRate(() -> {
+        scheduler.scheduleJob(DAILY_JOB, POOL, () -> {
             for (Runnable task : dailyTasks) {
                 try {
                     task.run();
@@ -84,17 +87,9 @@ public class CronService {
     public void shutdown() {
         logger.info("Stopping CronService");
         
-        if (scheduler != null) {
-            scheduler.shutdown();
-            try {
-                if (!scheduler.awaitTermination(60, TimeUnit.SECONDS)) {
-                    scheduler.shutdownNow();
-                }
-            } catch (InterruptedException e) {
-                scheduler.shutdownNow();
-                Thread.currentThread().interrupt();
-            }
-        }
+        // Runs already in progress finish on their own; the shared scheduler is stopped with the bot
+        scheduler.cancelJob(HOURLY_JOB);
+        scheduler.cancelJob(DAILY_JOB);
         
         logger.info("CronService stopped");
     }
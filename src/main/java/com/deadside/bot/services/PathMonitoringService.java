@@ -9,8 +9,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.List;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -29,8 +27,8 @@ public class PathMonitoringService {
     private final GameServerRepository gameServerRepository;
     private final SftpConnector sftpConnector;
     
-    // Scheduler for periodic checks
-    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    // Job name on the shared scheduler
+    private static final String JOB_NAME = "path-monitoring";
     
     // Statistics
     private final AtomicInteger totalChecks = new AtomicInteger(0);
@@ -65,8 +63,8 @@ public class PathMonitoringService {
     public void start() {
         logger.info("Starting path monitoring service");
         
-        // Schedule periodic checks
-        scheduler.scheduleAtFixedRate(this::checkAllServerPaths, 
+        // Schedule periodic checks; only servers with failing paths are probed
+        SchedulerService.getInstance().scheduleJob(JOB_NAME, "maintenance", this::checkAllServerPaths, 
             5, 30, TimeUnit.MINUTES); // Check every 30 minutes
         
         logger.info("Path monitoring service started");
@@ -78,26 +76,19 @@ public class PathMonitoringService {
     public void stop() {
         logger.info("Stopping path monitoring service");
         
-        // Shutdown scheduler
-        scheduler.shutdown();
-        try {
-            if (!scheduler.awaitTermination(5, TimeUnit.SECONDS)) {
-                scheduler.shutdownNow();
-            }
-        } catch (InterruptedException e) {
-            scheduler.shutdownNow();
-            Thread.currentThread().interrupt();
-        }
+        // Cancel the periodic check
+        SchedulerService.getInstance().cancelJob(JOB_NAME);
         
         logger.info("Path monitoring service stopped");
     }
     
     /**
-     * Check all server paths for issues
+     * Check the paths of servers whose last path lookup failed.
+     * Servers whose paths keep resolving are skipped without any SFTP traffic.
      */
     public void checkAllServerPaths() {
         try {
-            logger.info("Checking all server paths for issues");
+            logger.debug("Checking server paths with recent failures");
             totalChecks.incrementAndGet();
             
             // Get all guild IDs
@@ -118,6 +109,11 @@ public class PathMonitoringService {
                             continue;
                         }
                         
+                        // Skip healthy servers: their last path result was a success
+                        if (!ParserPathTracker.getInstance().hasUnresolvedFailure(server)) {
+                            continue;
+                        }
+                        
                         // Check and fix paths
                         if (checkAndFixServerPaths(server)) {
                             fixedInThisRun++;
@@ -133,7 +129,7 @@ public class PathMonitoringService {
                 totalFixed.addAndGet(fixedInThisRun);
                 logger.info("Fixed {} server paths in this check", fixedInThisRun);
             } else {
-                logger.info("No path issues found in this check");
+                logger.debug("No path issues found in this check");
             }
         } catch (Exception e) {
             logger.error("Error checking server paths: {}", e.getMessage(), e);
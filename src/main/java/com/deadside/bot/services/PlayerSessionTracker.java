@@ -0,0 +1,319 @@
+package com.deadside.bot.services;
+
+import com.deadside.bot.config.Config;
+import com.deadside.bot.db.models.GameServer;
+import com.deadside.bot.db.models.PlaytimeDelta;
+import com.deadside.bot.db.models.ServerActivity;
+import com.deadside.bot.db.repositories.PlayerRepository;
+import com.deadside.bot.db.repositories.ServerActivityRepository;
+import com.deadside.bot.utils.ParserStateManager.ServerKey;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tracks player sessions from the join and leave events in server logs.
+ *
+ * Open sessions are kept in memory per server. A session closes when the player leaves, when the server
+ * restarts (a new log is started) or when it has been open longer than {@code sessions.timeoutHours}.
+ * Closed sessions add to the player's playtime, and the number of players online is integrated into an
+ * hourly time series. Both are written in batches by a periodic flush, which also precomputes each
+ * server's activity summary (online now, active and peak in the last 24 hours) for the stats commands.
+ *
+ * Session times come from the log timestamps, so a log read late still yields the right playtime.
+ */
+public class PlayerSessionTracker {
+    private static final Logger logger = LoggerFactory.getLogger(PlayerSessionTracker.class);
+    private static final String FLUSH_JOB = "player-sessions-flush";
+    private static final long HOUR_MILLIS = TimeUnit.HOURS.toMillis(1);
+    private static final long WINDOW_MILLIS = TimeUnit.HOURS.toMillis(24);
+    private static final int DEFAULT_TIMEOUT_HOURS = 12;
+    private static final int DEFAULT_FLUSH_SECONDS = 60;
+
+    private static PlayerSessionTracker instance;
+
+    private final Map<ServerKey, ServerSessions> servers = new ConcurrentHashMap<>();
+    private final PlayerRepository playerRepository;
+    private final ServerActivityRepository activityRepository;
+    private final long timeoutMillis;
+
+    /**
+     * Session state of one server; all access is synchronized on the instance
+     */
+    private static final class ServerSessions {
+        private final long guildId;
+        private final String serverName;
+        // Open sessions: player name to join time
+        private final Map<String, Long> open = new HashMap<>();
+        // Players seen in the activity window: player name to last event time
+        private final Map<String, Long> lastSeen = new HashMap<>();
+        // Most players online at once, by hour start, for the activity window
+        private final Map<Long, Integer> recentPeaks = new HashMap<>();
+        // Not yet written: closed session playtime by player, and {player-milliseconds, peak} by hour start
+        private Map<String, PlaytimeDelta> pendingPlaytime = new HashMap<>();
+        private Map<Long, long[]> pendingHours = new HashMap<>();
+        // Time of the latest event, so events arriving out of order never move time backwards
+        private long clock;
+        private volatile ServerActivity summary;
+
+        private ServerSessions(long guildId, String serverName) {
+            this.guildId = guildId;
+            this.serverName = serverName;
+        }
+
+        private synchronized void join(String player, long time) {
+            advance(time);
+            lastSeen.put(player, clock);
+            if (open.putIfAbsent(player, clock) == null) {
+                long hour = clock - clock % HOUR_MILLIS;
+                long[] bucket = pendingHours.computeIfAbsent(hour, h -> new long[2]);
+                bucket[1] = Math.max(bucket[1], open.size());
+                recentPeaks.merge(hour, open.size(), Math::max);
+            }
+        }
+
+        private synchronized void leave(String player, long time) {
+            advance(time);
+            lastSeen.put(player, clock);
+            Long joinedAt = open.remove(player);
+            // A leave without a join (session opened before tracking started) only updates last seen
+            credit(player, joinedAt != null ? clock - joinedAt : 0, clock);
+        }
+
+        private synchronized int restart(long time) {
+            advance(time);
+            int closed = open.size();
+            for (Map.Entry<String, Long> session : open.entrySet()) {
+                credit(session.getKey(), clock - session.getValue(), clock);
+            }
+            open.clear();
+            return closed;
+        }
+
+        /**
+         * Close sessions that have been open longer than the timeout, crediting them the timeout
+         */
+        private void closeStale(long timeoutMillis) {
+            Iterator<Map.Entry<String, Long>> sessions = open.entrySet().iterator();
+            while (sessions.hasNext()) {
+                Map.Entry<String, Long> session = sessions.next();
+                if (clock - session.getValue() > timeoutMillis) {
+                    credit(session.getKey(), timeoutMillis, session.getValue() + timeoutMillis);
+                    sessions.remove();
+                }
+            }
+        }
+
+        /**
+         * Move the clock to an event time, adding the players online meanwhile to the hourly series
+         */
+        private void advance(long time) {
+            if (clock == 0 || time <= clock) {
+                clock = Math.max(clock, time);
+                return;
+            }
+
+            int online = open.size();
+            if (online > 0) {
+                long from = clock;
+                while (from < time) {
+                    long hour = from - from % HOUR_MILLIS;
+                    long end = Math.min(time, hour + HOUR_MILLIS);
+                    pendingHours.computeIfAbsent(hour, h -> new long[2])[0] += online * (end - from);
+                    from = end;
+                }
+            }
+            clock = time;
+        }
+
+        private void credit(String player, long millis, long endedAt) {
+            pendingPlaytime.computeIfAbsent(player, PlaytimeDelta::new)
+                    .add(TimeUnit.MILLISECONDS.toSeconds(Math.max(0, millis)), endedAt);
+        }
+
+        /**
+         * Take the pending writes and recompute the activity summary
+         */
+        private synchronized Batch drain(long now, long timeoutMillis) {
+            closeStale(timeoutMillis);
+
+            long windowStart = now - WINDOW_MILLIS;
+            lastSeen.values().removeIf(time -> time < windowStart);
+            recentPeaks.keySet().removeIf(hour -> hour + HOUR_MILLIS < windowStart);
+
+            int active = lastSeen.size();
+            for (String player : open.keySet()) {
+                if (!lastSeen.containsKey(player)) {
+                    active++;
+                }
+            }
+            int peak = open.size();
+            for (int hourPeak : recentPeaks.values()) {
+                peak = Math.max(peak, hourPeak);
+            }
+            summary = new ServerActivity(open.size(), active, peak, now);
+
+            Batch batch = new Batch(pendingPlaytime, pendingHours);
+            pendingPlaytime = new HashMap<>();
+            pendingHours = new HashMap<>();
+            return batch;
+        }
+
+        /**
+         * Put back playtime whose write failed, so the next flush retries it
+         */
+        private synchronized void requeue(Map<String, PlaytimeDelta> playtime) {
+            for (PlaytimeDelta delta : playtime.values()) {
+                pendingPlaytime.computeIfAbsent(delta.getPlayerName(), PlaytimeDelta::new).merge(delta);
+            }
+        }
+
+        /**
+         * Put back hourly activity whose write failed, so the next flush retries it
+         */
+        private synchronized void requeueHours(Map<Long, long[]> hours) {
+            for (Map.Entry<Long, long[]> hour : hours.entrySet()) {
+                long[] bucket = pendingHours.computeIfAbsent(hour.getKey(), h -> new long[2]);
+                bucket[0] += hour.getValue()[0];
+                bucket[1] = Math.max(bucket[1], hour.getValue()[1]);
+            }
+        }
+    }
+
+    /**
+     * Writes taken from one server by a flush
+     */
+    private record Batch(Map<String, PlaytimeDelta> playtime, Map<Long, long[]> hours) {
+    }
+
+    private PlayerSessionTracker() {
+        this.playerRepository = new PlayerRepository();
+        this.activityRepository = new ServerActivityRepository();
+        this.timeoutMillis = TimeUnit.HOURS.toMillis(
+                Math.max(1, Config.getIntProperty("sessions.timeoutHours", DEFAULT_TIMEOUT_HOURS)));
+
+        int flushSeconds = Math.max(5, Config.getIntProperty("sessions.flushSeconds", DEFAULT_FLUSH_SECONDS));
+        SchedulerService.getInstance().scheduleJob(FLUSH_JOB, "maintenance", this::flush,
+                flushSeconds, flushSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Get the shared session tracker, starting its flush job on first use
+     */
+    public static synchronized PlayerSessionTracker getInstance() {
+        if (instance == null) {
+            instance = new PlayerSessionTracker();
+        }
+        return instance;
+    }
+
+    /**
+     * A player joined a server
+     * @param time Event time, epoch milliseconds
+     */
+    public void onJoin(GameServer server, String playerName, long time) {
+        sessionsOf(server).join(playerName, time);
+    }
+
+    /**
+     * A player left a server
+     * @param time Event time, epoch milliseconds
+     */
+    public void onLeave(GameServer server, String playerName, long time) {
+        sessionsOf(server).leave(playerName, time);
+    }
+
+    /**
+     * A server restarted; every open session on it ends
+     * @param time Event time, epoch milliseconds
+     */
+    public void onServerRestart(GameServer server, long time) {
+        int closed = sessionsOf(server).restart(time);
+        if (closed > 0) {
+            logger.info("Closed {} open sessions on restart of server {}", closed, server.getName());
+        }
+    }
+
+    /**
+     * Get the precomputed activity of a server
+     * @return The activity from the last flush, the stored summary if this server has not been tracked
+     *         since startup, or null if there is none
+     */
+    public ServerActivity getActivity(GameServer server) {
+        ServerSessions sessions = servers.get(new ServerKey(server.getGuildId(), server.getName()));
+        ServerActivity summary = sessions != null ? sessions.summary : null;
+        return summary != null ? summary : activityRepository.findSummary(server.getGuildId(), server.getName());
+    }
+
+    /**
+     * Write pending playtime and hourly activity, and refresh the activity summaries
+     */
+    public void flush() {
+        long now = System.currentTimeMillis();
+        int players = 0;
+        for (ServerSessions sessions : servers.values()) {
+            Batch batch = sessions.drain(now, timeoutMillis);
+
+            if (!batch.playtime().isEmpty()) {
+                if (playerRepository.applyPlaytime(batch.playtime().values())) {
+                    players += batch.playtime().size();
+                } else {
+                    sessions.requeue(batch.playtime());
+                }
+            }
+
+            if (!batch.hours().isEmpty()) {
+                Map<Long, long[]> hours = new HashMap<>(batch.hours().size());
+                for (Map.Entry<Long, long[]> hour : batch.hours().entrySet()) {
+                    hours.put(hour.getKey(), new long[] {
+                            TimeUnit.MILLISECONDS.toSeconds(hour.getValue()[0]), hour.getValue()[1]});
+                }
+                if (!activityRepository.addHourly(sessions.guildId, sessions.serverName, hours)) {
+                    sessions.requeueHours(batch.hours());
+                }
+            }
+
+            activityRepository.saveSummary(sessions.guildId, sessions.serverName, sessions.summary);
+        }
+        if (players > 0) {
+            logger.debug("Flushed playtime for {} players across {} servers", players, servers.size());
+        }
+    }
+
+    /**
+     * Stop the flush job and write everything still pending
+     */
+    public static synchronized void shutdown() {
+        if (instance == null) {
+            return;
+        }
+
+        SchedulerService.getInstance().cancelJob(FLUSH_JOB);
+        instance.flush();
+        instance = null;
+        logger.info("Player session tracker stopped");
+    }
+
+    /**
+     * Get the number of open sessions across all servers
+     */
+    public int getOpenSessionCount() {
+        int count = 0;
+        for (ServerSessions sessions : servers.values()) {
+            synchronized (sessions) {
+                count += sessions.open.size();
+            }
+        }
+        return count;
+    }
+
+    private ServerSessions sessionsOf(GameServer server) {
+        return servers.computeIfAbsent(new ServerKey(server.getGuildId(), server.getName()),
+                key -> new ServerSessions(key.guildId(), key.serverName()));
+    }
+}
@@ -0,0 +1,337 @@
+package com.deadside.bot.services;
+
+import com.deadside.bot.config.Config;
+import com.deadside.bot.utils.RandomService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Single scheduling service for the bot's background work.
+ *
+ * One timer thread owns every schedule and only hands due jobs to named worker pools, so a slow job never
+ * delays the timers of others. Pool threads are created on demand and exit after a minute of idleness,
+ * which keeps the resident thread count close to the amount of work actually running.
+ *
+ * Recurring jobs get a random start offset (jitter) so jobs registered with the same period do not all
+ * fire at the same moment, and a run is skipped rather than queued while the previous runs of the same
+ * job still hold all of its concurrency permits.
+ *
+ * Once shut down the service stays shut down: later submissions are rejected with a
+ * {@link RejectedExecutionException} and jobs are no longer scheduled.
+ */
+public class SchedulerService {
+    private static final Logger logger = LoggerFactory.getLogger(SchedulerService.class);
+    private static final long IDLE_THREAD_SECONDS = 60;
+
+    private static SchedulerService instance;
+
+    private final ScheduledThreadPoolExecutor timer;
+    private final Map<String, ThreadPoolExecutor> pools = new ConcurrentHashMap<>();
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    private final double jitterFraction;
+    private volatile boolean shuttingDown = false;
+
+    /**
+     * A recurring job and its run statistics
+     */
+    private final class Job implements Runnable {
+        private final String name;
+        private final String pool;
+        private final Runnable task;
+        private final Semaphore permits;
+        private final AtomicLong runs = new AtomicLong();
+        private final AtomicLong skipped = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+        private volatile long lastDurationMillis;
+        private volatile ScheduledFuture<?> future;
+
+        private Job(String name, String pool, Runnable task, int maxConcurrency) {
+            this.name = name;
+            this.pool = pool;
+            this.task = task;
+            this.permits = new Semaphore(Math.max(1, maxConcurrency));
+        }
+
+        /**
+         * Called on the timer thread: hand the run to the job's pool unless it is still busy
+         */
+        @Override
+        public void run() {
+            if (!permits.tryAcquire()) {
+                skipped.incrementAndGet();
+                logger.debug("Skipping run of job {}, previous run still active", name);
+                return;
+            }
+
+            try {
+                pool(pool).execute(this::execute);
+            } catch (RuntimeException e) {
+                permits.release();
+                logger.warn("Could not dispatch job {}: {}", name, e.getMessage());
+            }
+        }
+
+        private void execute() {
+            long start = System.nanoTime();
+            try {
+                task.run();
+            } catch (Exception e) {
+                failures.incrementAndGet();
+                logger.error("Error running scheduled job {}", name, e);
+            } finally {
+                lastDurationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                runs.incrementAndGet();
+                permits.release();
+            }
+        }
+    }
+
+    private SchedulerService() {
+        this.jitterFraction = Math.max(0, Config.getIntProperty("scheduler.jitterPercent", 10)) / 100.0;
+
+        this.timer = new ScheduledThreadPoolExecutor(1, new NamedThreadFactory("scheduler-timer"));
+        this.timer.setRemoveOnCancelPolicy(true);
+        this.timer.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        this.timer.setContinueExistingPeriodicTasksAfterShutdownPolicy(false);
+
+        logger.info("Scheduler service started");
+    }
+
+    /**
+     * Get the shared scheduler service. After {@link #shutdown()} this returns the stopped service.
+     */
+    public static synchronized SchedulerService getInstance() {
+        if (instance == null) {
+            instance = new SchedulerService();
+        }
+        return instance;
+    }
+
+    /**
+     * Get a named worker pool, creating it on first use.
+     * The pool size comes from {@code scheduler.pool.<name>.threads}, falling back to the given default.
+     * @param name Pool name, also used as the thread name prefix
+     * @param defaultThreads Maximum number of concurrent tasks if not configured
+     * @throws RejectedExecutionException if the service has been shut down
+     */
+    public ExecutorService pool(String name, int defaultThreads) {
+        if (shuttingDown) {
+            throw new RejectedExecutionException("Scheduler service is shut down");
+        }
+        return pools.computeIfAbsent(name, key -> {
+            int threads = Math.max(1, Config.getIntProperty("scheduler.pool." + key + ".threads", defaultThreads));
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads,
+                    IDLE_THREAD_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), new NamedThreadFactory(key));
+            executor.allowCoreThreadTimeOut(true);
+            logger.debug("Created worker pool {} with up to {} threads", key, threads);
+            return executor;
+        });
+    }
+
+    /**
+     * Get a named worker pool with a single thread unless configured otherwise
+     */
+    public ExecutorService pool(String name) {
+        return pool(name, 1);
+    }
+
+    /**
+     * Run a task once on a worker pool
+     */
+    public CompletableFuture<Void> submit(String pool, Runnable task) {
+        return CompletableFuture.runAsync(task, pool(pool));
+    }
+
+    /**
+     * Compute a value once on a worker pool
+     */
+    public <T> CompletableFuture<T> supply(String pool, Supplier<T> task) {
+        return CompletableFuture.supplyAsync(task, pool(pool));
+    }
+
+    /**
+     * Run a task once on a worker pool after a delay
+     */
+    public ScheduledFuture<?> schedule(String pool, Runnable task, long delay, TimeUnit unit) {
+        return timer.schedule(() -> pool(pool).execute(task), delay, unit);
+    }
+
+    /**
+     * Register a recurring job that never overlaps with itself
+     * @see #scheduleJob(String, String, Runnable, long, long, TimeUnit, int)
+     */
+    public void scheduleJob(String name, String pool, Runnable task, long initialDelay, long period, TimeUnit unit) {
+        scheduleJob(name, pool, task, initialDelay, period, unit, 1);
+    }
+
+    /**
+     * Register a recurring job, replacing any job registered under the same name.
+     * The first run is delayed by a random extra of up to {@code scheduler.jitterPercent} of the period.
+     * @param name Unique job name
+     * @param pool Worker pool the job runs on
+     * @param initialDelay Delay before the first run, before jitter
+     * @param period Time between run starts
+     * @param maxConcurrency Number of runs of this job that may be active at once; further runs are skipped
+     */
+    public void scheduleJob(String name, String pool, Runnable task, long initialDelay, long period,
+                            TimeUnit unit, int maxConcurrency) {
+        if (shuttingDown) {
+            logger.warn("Not scheduling job {}, scheduler is shutting down", name);
+            return;
+        }
+
+        long periodMillis = unit.toMillis(period);
+        long jitterMillis = (long) (periodMillis * jitterFraction);
+        long startMillis = unit.toMillis(initialDelay)
+                + (jitterMillis > 0 ? RandomService.getInstance().current().nextLong(jitterMillis) : 0);
+
+        Job job = new Job(name, pool, task, maxConcurrency);
+        Job previous = jobs.put(name, job);
+        if (previous != null && previous.future != null) {
+            previous.future.cancel(false);
+        }
+
+        job.future = timer.scheduleAtFixedRate(job, startMillis, periodMillis, TimeUnit.MILLISECONDS);
+        logger.info("Scheduled job {} on pool {} every {} ms, first run in {} ms", name, pool, periodMillis, startMillis);
+    }
+
+    /**
+     * Stop a recurring job; a run that is already active finishes normally
+     * @return true if a job with the name was registered
+     */
+    public boolean cancelJob(String name) {
+        Job job = jobs.remove(name);
+        if (job == null) {
+            return false;
+        }
+        if (job.future != null) {
+            job.future.cancel(false);
+        }
+        return true;
+    }
+
+    /**
+     * Get the number of registered recurring jobs
+     */
+    public int getJobCount() {
+        return jobs.size();
+    }
+
+    /**
+     * Get the number of threads currently alive across all worker pools
+     */
+    public int getActiveThreadCount() {
+        int threads = 0;
+        for (ThreadPoolExecutor executor : pools.values()) {
+            threads += executor.getPoolSize();
+        }
+        return threads;
+    }
+
+    /**
+     * Human readable summary of the registered jobs and pools
+     */
+    public String summary() {
+        StringBuilder builder = new StringBuilder();
+        List<String> names = new ArrayList<>(jobs.keySet());
+        names.sort(null);
+        for (String name : names) {
+            Job job = jobs.get(name);
+            if (job == null) {
+                continue;
+            }
+            builder.append(name)
+                   .append(": runs ").append(job.runs.get())
+                   .append(", skipped ").append(job.skipped.get())
+                   .append(", failures ").append(job.failures.get())
+                   .append(", last ").append(job.lastDurationMillis).append(" ms\n");
+        }
+        for (Map.Entry<String, ThreadPoolExecutor> entry : pools.entrySet()) {
+            ThreadPoolExecutor executor = entry.getValue();
+            builder.append("pool ").append(entry.getKey())
+                   .append(": threads ").append(executor.getPoolSize())
+                   .append(", active ").append(executor.getActiveCount())
+                   .append(", queued ").append(executor.getQueue().size()).append("\n");
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Stop all timers and let running tasks finish, waiting up to the given time before interrupting them
+     */
+    public static synchronized void shutdown(long timeout, TimeUnit unit) {
+        if (instance == null || instance.shuttingDown) {
+            return;
+        }
+
+        SchedulerService service = instance;
+        service.shuttingDown = true;
+        service.timer.shutdownNow();
+        service.jobs.clear();
+
+        for (ExecutorService executor : service.pools.values()) {
+            executor.shutdown();
+        }
+
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        try {
+            for (Map.Entry<String, ThreadPoolExecutor> entry : service.pools.entrySet()) {
+                long remaining = deadline - System.nanoTime();
+                if (!entry.getValue().awaitTermination(Math.max(0, remaining), TimeUnit.NANOSECONDS)) {
+                    logger.warn("Worker pool {} did not finish in time, interrupting", entry.getKey());
+                    entry.getValue().shutdownNow();
+                }
+            }
+        } catch (InterruptedException e) {
+            service.pools.values().forEach(ExecutorService::shutdownNow);
+            Thread.currentThread().interrupt();
+        }
+
+        // The stopped instance is kept, so late callers are rejected instead of starting a new scheduler
+        logger.info("Scheduler service stopped");
+    }
+
+    /**
+     * Stop all timers, giving running tasks 30 seconds to finish
+     */
+    public static void shutdown() {
+        shutdown(30, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Thread factory producing named daemon threads
+     */
+    private static class NamedThreadFactory implements ThreadFactory {
+        private final String prefix;
+        private final AtomicInteger counter = new AtomicInteger();
+
+        private NamedThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
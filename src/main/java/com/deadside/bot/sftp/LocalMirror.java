@@ -0,0 +1,365 @@
+package com.deadside.bot.sftp;
+
+import com.deadside.bot.config.Config;
+import com.deadside.bot.db.models.GameServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Local on-disk copy of the files parsers read from game servers.
+ *
+ * Each server has its own tree under {@code mirror.directory}, laid out like the remote paths. A sync
+ * stats the remote file and appends only the bytes past the local copy's length, so a growing CSV or log
+ * costs one range read per poll rather than a full download. A file whose size and modification time
+ * match the last sync is current without any read. Otherwise the first {@code mirror.fingerprintBytes}
+ * of the copy are compared with the remote file, like {@code LogTailer} does: a remote file that is
+ * shorter than its copy or starts differently was rotated, truncated or replaced, and is copied again
+ * from the start into a temporary file that is then moved over the copy.
+ *
+ * Copies are read through memory-mapped buffers, so backfills and re-parses of the mirror run at local
+ * disk speed and make no SFTP requests. Copies are only ever appended to or replaced whole, never
+ * truncated in place, so a mapping taken earlier stays readable.
+ *
+ * Rotated files a host gzipped are transferred compressed and decoded next to their copy, without the
+ * {@code .gz} suffix, through a streaming decompressor; parsers only ever see the decoded file. Bytes
+ * transferred and decoded are counted in {@link TransferStats}.
+ */
+public class LocalMirror {
+    private static final Logger logger = LoggerFactory.getLogger(LocalMirror.class);
+    private static final String DEFAULT_DIRECTORY = "data/mirror";
+    private static final int DEFAULT_CHUNK_BYTES = 1024 * 1024;
+    private static final int DEFAULT_FINGERPRINT_BYTES = 1024;
+    private static final String CSV_EXTENSION = ".csv";
+    private static final String GZIP_EXTENSION = ".gz";
+    private static final int DECODE_BUFFER_BYTES = 64 * 1024;
+
+    private static LocalMirror instance;
+
+    private final Path root;
+    private final int chunkBytes;
+    private final int fingerprintBytes;
+
+    // One lock per local file, so concurrent syncs of a file do not append the same bytes twice
+    private final Map<Path, Object> locks = new ConcurrentHashMap<>();
+
+    // Remote attributes at the last sync of each local copy
+    private final Map<Path, RemoteFileInfo> synced = new ConcurrentHashMap<>();
+
+    private LocalMirror() {
+        this(Paths.get(Config.getProperty("mirror.directory", DEFAULT_DIRECTORY)),
+                Config.getIntProperty("mirror.chunkBytes", DEFAULT_CHUNK_BYTES),
+                Config.getIntProperty("mirror.fingerprintBytes", DEFAULT_FINGERPRINT_BYTES));
+    }
+
+    /**
+     * Create a mirror under a root directory; everything but tests uses {@link #getInstance()}
+     */
+    LocalMirror(Path root, int chunkBytes, int fingerprintBytes) {
+        this.root = root.toAbsolutePath();
+        this.chunkBytes = Math.max(4096, chunkBytes);
+        this.fingerprintBytes = Math.max(64, fingerprintBytes);
+        logger.info("Local mirror at {}", this.root);
+    }
+
+    /**
+     * Get the shared local mirror
+     */
+    public static synchronized LocalMirror getInstance() {
+        if (instance == null) {
+            instance = new LocalMirror();
+        }
+        return instance;
+    }
+
+    /**
+     * Bring the local copy of a remote file up to date
+     * @return The local copy, or null if the file exists neither remotely nor locally
+     */
+    public Path sync(GameServer server, SftpConnector connector, String remoteFilePath) throws IOException {
+        Path local = localPath(server, remoteFilePath);
+        synchronized (lockFor(local)) {
+            RemoteFileInfo remote = connector.statFile(server, remoteFilePath);
+            if (remote == null) {
+                // Server unreachable or file removed: an existing copy is still readable
+                return Files.exists(local) ? local : null;
+            }
+
+            long localSize = Files.exists(local) ? Files.size(local) : 0;
+            RemoteFileInfo previous = synced.get(local);
+            if (previous != null && localSize == remote.size() && previous.size() == remote.size()
+                    && previous.modifiedTime() == remote.modifiedTime()) {
+                return local;
+            }
+
+            Files.createDirectories(local.getParent());
+            long transferred;
+            if (localSize > 0 && (remote.size() < localSize
+                    || !headMatches(server, connector, remoteFilePath, local, localSize))) {
+                logger.info("{} on server {} was replaced or truncated ({} bytes, copy has {}), copying it again",
+                        remoteFilePath, server.getName(), remote.size(), localSize);
+                transferred = rebuild(server, connector, remoteFilePath, local, remote.size());
+            } else {
+                try (FileChannel channel = FileChannel.open(local, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                    transferred = copyRange(server, connector, remoteFilePath, channel, localSize, remote.size())
+                            - localSize;
+                }
+                if (transferred > 0) {
+                    logger.debug("Appended {} bytes to mirror of {} on server {}",
+                            transferred, remoteFilePath, server.getName());
+                }
+            }
+            synced.put(local, remote);
+
+            if (transferred > 0) {
+                TransferStats stats = TransferStats.getInstance();
+                stats.recordTransferred(transferred);
+                if (!isGzip(remoteFilePath)) {
+                    stats.recordDecoded(transferred);
+                }
+            }
+            return local;
+        }
+    }
+
+    /**
+     * Bring the local copy of a remote file up to date and decode it if it is a gzip archive
+     * @return The readable copy, or null if the file exists neither remotely nor locally
+     */
+    public Path syncDecoded(GameServer server, SftpConnector connector, String remoteFilePath) throws IOException {
+        Path local = sync(server, connector, remoteFilePath);
+        return local != null && isGzip(remoteFilePath) ? decode(local) : local;
+    }
+
+    /**
+     * Bring the local copies of the CSVs in a server's resolved deathlog directory up to date, decoding
+     * archived ones
+     * @return Names of the CSVs in the mirror, oldest first
+     */
+    public List<String> syncDeathlogs(GameServer server, SftpConnector connector) {
+        String directory = SftpPathResolver.getInstance().resolve(server, connector, SftpPathResolver.Category.CSV);
+        if (directory == null) {
+            // No directory holds deathlogs now; the copies mirrored earlier are still readable
+            return listDeathlogs(server);
+        }
+        for (String file : RemoteDirectoryCache.getInstance().listDeathlogs(server, connector, directory)) {
+            try {
+                syncDecoded(server, connector, directory + "/" + file);
+            } catch (Exception e) {
+                logger.error("Error mirroring {} for server {}", file, server.getName(), e);
+            }
+        }
+        return listCsvs(localDirectory(server, directory));
+    }
+
+    /**
+     * Sync a remote file and read its local copy
+     * @return The file content, or an empty string if it cannot be read
+     */
+    public String read(GameServer server, SftpConnector connector, String remoteFilePath) {
+        try {
+            Path local = syncDecoded(server, connector, remoteFilePath);
+            return local != null ? readString(local) : "";
+        } catch (Exception e) {
+            logger.error("Error reading mirror of {} for server {}", remoteFilePath, server.getName(), e);
+            return "";
+        }
+    }
+
+    /**
+     * Get the deathlog CSVs in a server's mirror, oldest first
+     */
+    public List<String> listDeathlogs(GameServer server) {
+        return listCsvs(deathlogDirectory(server));
+    }
+
+    /**
+     * Get the local directory mirroring a server's resolved deathlog directory, without contacting the server
+     */
+    public Path deathlogDirectory(GameServer server) {
+        String directory = SftpPathResolver.getInstance().resolved(server, SftpPathResolver.Category.CSV);
+        return localDirectory(server, directory != null ? directory : "");
+    }
+
+    private List<String> listCsvs(Path directory) {
+        if (!Files.isDirectory(directory)) {
+            return Collections.emptyList();
+        }
+
+        List<String> files = new ArrayList<>();
+        try (Stream<Path> entries = Files.list(directory)) {
+            entries.filter(Files::isRegularFile)
+                    .map(path -> path.getFileName().toString())
+                    .filter(name -> name.toLowerCase().endsWith(CSV_EXTENSION))
+                    .forEach(files::add);
+        } catch (IOException e) {
+            logger.error("Error listing mirror directory {}", directory, e);
+        }
+        Collections.sort(files);
+        return files;
+    }
+
+    /**
+     * Get the local directory mirroring a remote directory
+     */
+    public Path localDirectory(GameServer server, String remoteDirPath) {
+        return localPath(server, remoteDirPath);
+    }
+
+    /**
+     * Map a local copy read-only into memory, never while a sync is writing it
+     */
+    public MappedByteBuffer map(Path local) throws IOException {
+        synchronized (lockFor(local)) {
+            try (FileChannel channel = FileChannel.open(local, StandardOpenOption.READ)) {
+                // The mapping stays valid after the channel is closed
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+        }
+    }
+
+    /**
+     * Read a local copy as UTF-8 text through a memory mapping
+     */
+    public String readString(Path local) throws IOException {
+        return StandardCharsets.UTF_8.decode(map(local)).toString();
+    }
+
+    /**
+     * Check whether a file name or path is a gzip archive
+     */
+    public static boolean isGzip(String fileName) {
+        return fileName.toLowerCase().endsWith(GZIP_EXTENSION);
+    }
+
+    /**
+     * Decode a mirrored gzip archive next to it, unless the decoded file is already newer
+     * @return The decoded file
+     */
+    private Path decode(Path archive) throws IOException {
+        String name = archive.getFileName().toString();
+        Path decoded = archive.resolveSibling(name.substring(0, name.length() - GZIP_EXTENSION.length()));
+        synchronized (lockFor(archive)) {
+            if (Files.exists(decoded)
+                    && Files.getLastModifiedTime(decoded).compareTo(Files.getLastModifiedTime(archive)) >= 0) {
+                return decoded;
+            }
+
+            // Decode to a temporary file first, so an incomplete archive never replaces a good copy
+            Path partial = archive.resolveSibling(name + ".part");
+            try (InputStream in = new GZIPInputStream(Files.newInputStream(archive), DECODE_BUFFER_BYTES)) {
+                long bytes = Files.copy(in, partial, StandardCopyOption.REPLACE_EXISTING);
+                Files.move(partial, decoded, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                TransferStats.getInstance().recordDecoded(bytes);
+                logger.debug("Decoded {} ({} bytes) to {} bytes", archive, Files.size(archive), bytes);
+            } finally {
+                Files.deleteIfExists(partial);
+            }
+            return decoded;
+        }
+    }
+
+    /**
+     * Check whether the remote file still starts with the bytes of the local copy
+     */
+    private boolean headMatches(GameServer server, SftpConnector connector, String remoteFilePath, Path local,
+                                long localSize) throws IOException {
+        int length = (int) Math.min(fingerprintBytes, localSize);
+        ByteBuffer head = ByteBuffer.allocate(length);
+        try (FileChannel channel = FileChannel.open(local, StandardOpenOption.READ)) {
+            int read = 0;
+            while (head.hasRemaining() && read >= 0) {
+                read = channel.read(head);
+            }
+        }
+        byte[] remoteHead = connector.readFileRange(server, remoteFilePath, 0, length);
+        return Arrays.equals(head.array(), remoteHead);
+    }
+
+    /**
+     * Copy a remote file from the start into a temporary file and move it over the local copy
+     * @return Bytes transferred
+     */
+    private long rebuild(GameServer server, SftpConnector connector, String remoteFilePath, Path local,
+                         long size) throws IOException {
+        Path partial = local.resolveSibling(local.getFileName() + ".part");
+        try {
+            long copied;
+            try (FileChannel channel = FileChannel.open(partial, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                copied = copyRange(server, connector, remoteFilePath, channel, 0, size);
+            }
+            // Existing mappings keep the replaced file
+            Files.move(partial, local, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return copied;
+        } finally {
+            Files.deleteIfExists(partial);
+        }
+    }
+
+    /**
+     * Copy the remote bytes from {@code offset} up to {@code size} into a channel at the same position
+     * @return The offset reached, short of {@code size} if the remote file ended first
+     */
+    private long copyRange(GameServer server, SftpConnector connector, String remoteFilePath, FileChannel channel,
+                           long offset, long size) throws IOException {
+        while (offset < size) {
+            int length = (int) Math.min(chunkBytes, size - offset);
+            byte[] bytes = connector.readFileRange(server, remoteFilePath, offset, length);
+            if (bytes.length == 0) {
+                break;
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) {
+                offset += channel.write(buffer, offset);
+            }
+        }
+        return offset;
+    }
+
+    private Object lockFor(Path local) {
+        return locks.computeIfAbsent(local.toAbsolutePath().normalize(), k -> new Object());
+    }
+
+    /**
+     * Place a remote path under the server's mirror root; drive letters and separators are normalized
+     */
+    private Path localPath(GameServer server, String remotePath) {
+        Path local = root.resolve(String.valueOf(server.getGuildId())).resolve(safeName(server.getName()));
+        String relative = remotePath.replace('\\', '/').replaceFirst("^[A-Za-z]:", "");
+        for (String part : relative.split("/")) {
+            if (part.isEmpty() || part.equals(".")) {
+                continue;
+            }
+            if (part.equals("..")) {
+                throw new IllegalArgumentException("Remote path leaves its directory: " + remotePath);
+            }
+            local = local.resolve(part);
+        }
+        return local;
+    }
+
+    private static String safeName(String name) {
+        String safe = name == null ? "" : name.replaceAll("[^A-Za-z0-9._-]", "_");
+        return safe.replace(".", "").isEmpty() ? "_" : safe;
+    }
+}
@@ -1,7 +1,6 @@
 package com.deadside.bot.sftp;
 
 import com.deadside.bot.db.models.GameServer;
-import com.deadside.bot.parsers.fixes.ParserIntegrationHooks;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -21,45 +20,12 @@ public class PathResolutionFix {
      * @param server The game server
      * @param connector The SFTP connector
      * @return List of CSV files
+     * @see SftpPathResolver
      */
     public static List<String> findCsvFilesWithFallback(GameServer server, SftpConnector connector) {
         try {
-            // First try the standard method
-            List<String> files = connector.findDeathlogFiles(server);
-            
-            if (files != null && !files.isEmpty()) {
-                // Record successful path
-                ParserIntegrationHooks.recordSuccessfulCsvPath(server, server.getDeathlogsDirectory());
-                return files;
-            }
-            
-            // If standard path failed, try alternative paths
-            List<String> alternativePaths = getAlternativeCsvPaths(server);
-            
-            for (String path : alternativePaths) {
-                logger.debug("Trying alternative CSV path: {}", path);
-                
-                // Update the server directory for the attempt
-                String originalPath = server.getDeathlogsDirectory();
-                server.setDeathlogsDirectory(path);
-                
-                try {
-                    files = connector.findDeathlogFiles(server);
-                    
-                    if (files != null && !files.isEmpty()) {
-                        // Record successful path
-                        ParserIntegrationHooks.recordSuccessfulCsvPath(server, path);
-                        return files;
-                    }
-                } catch (Exception e) {
-                    logger.debug("Error with alternative path {}: {}", path, e.getMessage());
-                } finally {
-                    // Restore original path
-                    server.setDeathlogsDirectory(originalPath);
-                }
-            }
-            
-            return new ArrayList<>();
+            // Alternative directories are probed by the resolver without modifying the server
+            return SftpPathResolver.getInstance().findDeathlogFiles(server, connector);
         } catch (Exception e) {
             logger.error("Error finding CSV files with fallback: {}", e.getMessage(), e);
             return new ArrayList<>();
@@ -71,124 +37,14 @@ public class PathResolutionFix {
      * @param server The game server
      * @param connector The SFTP connector
      * @return The log file path
+     * @see SftpPathResolver
      */
     public static String findLogFileWithFallback(GameServer server, SftpConnector connector) {
         try {
-            // First try the standard method
-            String logFile = connector.findLogFile(server);
-            
-            if (logFile != null && !logFile.isEmpty()) {
-                // Record successful path
-                ParserIntegrationHooks.recordSuccessfulLogPath(server, server.getLogDirectory());
-                return logFile;
-            }
-            
-            // If standard path failed, try alternative paths
-            List<String> alternativePaths = getAlternativeLogPaths(server);
-            
-            for (String path : alternativePaths) {
-                logger.debug("Trying alternative log path: {}", path);
-                
-                // Update the server directory for the attempt
-                String originalPath = server.getLogDirectory();
-                server.setLogDirectory(path);
-                
-                try {
-                    logFile = connector.findLogFile(server);
-                    
-                    if (logFile != null && !logFile.isEmpty()) {
-                        // Record successful path
-                        ParserIntegrationHooks.recordSuccessfulLogPath(server, path);
-                        return logFile;
-                    }
-                } catch (Exception e) {
-                    logger.debug("Error with alternative path {}: {}", path, e.getMessage());
-                } finally {
-                    // Restore original path
-                    server.setLogDirectory(originalPath);
-                }
-            }
-            
-            return null;
+            return SftpPathResolver.getInstance().findLogFile(server, connector);
         } catch (Exception e) {
             logger.error("Error finding log file with fallback: {}", e.getMessage(), e);
             return null;
         }
     }
-    
-    /**
-     * Get alternative CSV paths for a server
-     * @param server The game server
-     * @return List of alternative paths
-     */
-    private static List<String> getAlternativeCsvPaths(GameServer server) {
-        List<String> paths = new ArrayList<>();
-        
-        // Get server properties
-        String host = server.getSftpHost();
-        if (host == null || host.isEmpty()) {
-            host = server.getHost();
-        }
-        
-        String serverName = server.getServerId();
-        if (serverName == null || serverName.isEmpty()) {
-            serverName = server.getName().replaceAll("\\s+", "_");
-        }
-        
-        // Add alternative paths
-        paths.add(host + "_" + serverName + "/actual1/deathlogs");
-        paths.add(host + "_" + serverName + "/actual/deathlogs");
-        paths.add(host + "/" + serverName + "/actual1/deathlogs");
-        paths.add(host + "/" + serverName + "/actual/deathlogs");
-        paths.add(serverName + "/actual1/deathlogs");
-        paths.add(serverName + "/actual/deathlogs");
-        
-        // Add recommended paths from cache
-        List<String> recommendedPaths = ParserIntegrationHooks.getRecommendedCsvPaths(server);
-        for (String path : recommendedPaths) {
-            if (!paths.contains(path)) {
-                paths.add(path);
-            }
-        }
-        
-        return paths;
-    }
-    
-    /**
-     * Get alternative log paths for a server
-     * @param server The game server
-     * @return List of alternative paths
-     */
-    private static List<String> getAlternativeLogPaths(GameServer server) {
-        List<String> paths = new ArrayList<>();
-        
-        // Get server properties
-        String host = server.getSftpHost();
-        if (host == null || host.isEmpty()) {
-            host = server.getHost();
-        }
-        
-        String serverName = server.getServerId();
-        if (serverName == null || serverName.isEmpty()) {
-            serverName = server.getName().replaceAll("\\s+", "_");
-        }
-        
-        // Add alternative paths
-        paths.add(host + "_" + serverName + "/Logs");
-        paths.add(host + "_" + serverName + "/Deadside/Logs");
-        paths.add(host + "/" + serverName + "/Logs");
-        paths.add(host + "/" + serverName + "/Deadside/Logs");
-        paths.add(serverName + "/Logs");
-        paths.add(serverName + "/Deadside/Logs");
-        
-        // Add recommended paths from cache
-        List<String> recommendedPaths = ParserIntegrationHooks.getRecommendedLogPaths(server);
-        for (String path : recommendedPaths) {
-            if (!paths.contains(path)) {
-                paths.add(path);
-            }
-        }
-        
-        return paths;
-    }
 }
\ No newline at end of file
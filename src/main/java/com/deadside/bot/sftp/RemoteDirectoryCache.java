@@ -0,0 +1,140 @@
+package com.deadside.bot.sftp;
+
+import com.deadside.bot.db.models.GameServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Cache of remote directory listings, refreshed only when a directory changes.
+ *
+ * Each poll stats the directory; the full listing is only fetched again when the directory's modification
+ * time differs from the cached one, which happens when a file is created, removed or renamed. Entries are
+ * kept sorted by name, which for Deadside's date-named files is also their age order.
+ *
+ * Appending to a file does not change its directory, so entry sizes and times are those of the last
+ * listing; a caller following a growing file stats the file itself. Modification times have one-second
+ * resolution, so a listing taken in the same second as the directory's last change is not trusted and
+ * is fetched again on the next poll.
+ */
+public class RemoteDirectoryCache {
+    private static final Logger logger = LoggerFactory.getLogger(RemoteDirectoryCache.class);
+    private static final String CSV_EXTENSION = ".csv";
+    private static final String ARCHIVED_CSV_EXTENSION = ".csv.gz";
+
+    private static RemoteDirectoryCache instance;
+
+    private final Map<String, Listing> listings = new ConcurrentHashMap<>();
+
+    /**
+     * A directory listing and the directory modification time it was taken at
+     * @param modifiedTime Directory modification time in epoch seconds, 0 if unknown
+     * @param listedAt Time the listing was taken, epoch seconds
+     */
+    private record Listing(long modifiedTime, long listedAt, List<RemoteFileInfo> entries) {
+        private boolean isCurrent(long directoryModifiedTime) {
+            return modifiedTime != 0 && modifiedTime == directoryModifiedTime && listedAt > modifiedTime;
+        }
+    }
+
+    private RemoteDirectoryCache() {
+    }
+
+    /**
+     * Get the shared listing cache
+     */
+    public static synchronized RemoteDirectoryCache getInstance() {
+        if (instance == null) {
+            instance = new RemoteDirectoryCache();
+        }
+        return instance;
+    }
+
+    /**
+     * List a directory, reusing the cached listing if the directory has not changed
+     * @return The entries sorted by name, or an empty list if the directory cannot be read
+     */
+    public List<RemoteFileInfo> list(GameServer server, SftpConnector connector, String directory) {
+        if (directory == null || directory.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        String key = server.getGuildId() + ":" + server.getName() + ":" + directory;
+        RemoteFileInfo stat = connector.statFile(server, directory);
+        if (stat == null) {
+            listings.remove(key);
+            return Collections.emptyList();
+        }
+
+        Listing cached = listings.get(key);
+        if (cached != null && cached.isCurrent(stat.modifiedTime())) {
+            return cached.entries();
+        }
+
+        List<RemoteFileInfo> entries = new ArrayList<>(connector.listDirectory(server, directory));
+        entries.sort(Comparator.comparing(RemoteFileInfo::name));
+        List<RemoteFileInfo> sorted = Collections.unmodifiableList(entries);
+        listings.put(key, new Listing(stat.modifiedTime(), System.currentTimeMillis() / 1000, sorted));
+        logger.debug("Listed {} entries in {} on server {}", sorted.size(), directory, server.getName());
+        return sorted;
+    }
+
+    /**
+     * Get the deathlog CSVs of the directory {@link SftpPathResolver} resolved for a server, oldest first
+     * @see #listDeathlogs(GameServer, SftpConnector, String)
+     */
+    public List<String> listDeathlogs(GameServer server, SftpConnector connector) {
+        String directory = SftpPathResolver.getInstance().resolve(server, connector, SftpPathResolver.Category.CSV);
+        return directory != null ? listDeathlogs(server, connector, directory) : Collections.emptyList();
+    }
+
+    /**
+     * Get the deathlog CSVs of a directory, oldest first. Archived CSVs ({@code .csv.gz}) are included
+     * unless the plain file is still there.
+     */
+    public List<String> listDeathlogs(GameServer server, SftpConnector connector, String directory) {
+        List<String> files = names(list(server, connector, directory), RemoteDirectoryCache::isCsv);
+        // Sorted, so an archive directly follows its plain file
+        List<String> deathlogs = new ArrayList<>(files.size());
+        for (String file : files) {
+            String last = deathlogs.isEmpty() ? null : deathlogs.get(deathlogs.size() - 1);
+            if (last == null || !file.equalsIgnoreCase(last + ".gz")) {
+                deathlogs.add(file);
+            }
+        }
+        return deathlogs;
+    }
+
+    /**
+     * Get the files of a sorted listing that follow a cursor file
+     * @param files File names sorted by name, as returned by {@link #listDeathlogs}
+     * @param cursor Name of the last file processed
+     * @return The cursor file and every newer file, or an empty list if the cursor file no longer exists
+     */
+    public static List<String> fromCursor(List<String> files, String cursor) {
+        int index = cursor == null || cursor.isEmpty() ? -1 : Collections.binarySearch(files, cursor);
+        return index < 0 ? Collections.emptyList() : files.subList(index, files.size());
+    }
+
+    private static boolean isCsv(RemoteFileInfo entry) {
+        String name = entry.name().toLowerCase();
+        return name.endsWith(CSV_EXTENSION) || name.endsWith(ARCHIVED_CSV_EXTENSION);
+    }
+
+    private static List<String> names(List<RemoteFileInfo> entries, Predicate<RemoteFileInfo> filter) {
+        List<String> names = new ArrayList<>();
+        for (RemoteFileInfo entry : entries) {
+            if (filter.test(entry)) {
+                names.add(entry.name());
+            }
+        }
+        return names;
+    }
+}
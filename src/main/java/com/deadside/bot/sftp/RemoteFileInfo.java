@@ -0,0 +1,10 @@
+package com.deadside.bot.sftp;
+
+/**
+ * Attributes of a remote file
+ * @param name File name without directory
+ * @param size Size in bytes
+ * @param modifiedTime Last modification time in epoch seconds, 0 if unknown
+ */
+public record RemoteFileInfo(String name, long size, long modifiedTime) {
+}
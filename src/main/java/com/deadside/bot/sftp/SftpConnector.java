@@ -5,8 +5,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.regex.Pattern;
@@ -27,17 +27,26 @@ public class SftpConnector {
         logger.info("Created SftpConnector (readOnly={})", readOnly);
     }
     
+    /**
+     * Download a remote file into the server's local mirror
+     * @param localFileName Unused; the file is stored at its place in the mirror
+     * @return Path of the local copy, or null if it could not be downloaded
+     */
     public String downloadFromServer(GameServer server, String remoteFilePath, String localFileName) {
-        if (server == null || remoteFilePath == null || localFileName == null) {
+        if (server == null || remoteFilePath == null) {
             logger.error("Invalid parameters for downloadFromServer");
             return null;
         }
         
         logger.info("Downloading {} from server {}", remoteFilePath, server.getName());
         
-        // For Phase 0, return test data path
-        Path testDataPath = Paths.get("data/deathlogs/2025.05.15-00.00.00.csv").toAbsolutePath();
-        return testDataPath.toString();
+        try {
+            Path local = LocalMirror.getInstance().sync(server, this, remoteFilePath);
+            return local != null ? local.toString() : null;
+        } catch (Exception e) {
+            logger.error("Error downloading {} from server {}", remoteFilePath, server.getName(), e);
+            return null;
+        }
     }
     
     public boolean uploadToServer(GameServer server, String localFilePath, String remoteFilePath) {
@@ -70,6 +79,20 @@ public class SftpConnector {
         return testFiles;
     }
     
+    /**
+     * List a remote directory with the size and modification time of each entry
+     * @return The entries, or an empty list if the directory cannot be read
+     */
+    public List<RemoteFileInfo> listDirectory(GameServer server, String remoteDirPath) {
+        List<RemoteFileInfo> entries = new ArrayList<>();
+        
+        // Phase 0: names of the test data, sizes and times unknown
+        for (String fileName : listServerFiles(server, remoteDirPath)) {
+            entries.add(new RemoteFileInfo(fileName, 0, 0));
+        }
+        return entries;
+    }
+    
     public List<String> listServerFiles(GameServer server, String remoteDirPath, Pattern pattern) {
         List<String> allFiles = listServerFiles(server, remoteDirPath);
         List<String> matchingFiles = new ArrayList<>();
@@ -113,10 +136,59 @@ public class SftpConnector {
     }
     
     // Additional methods required by the codebase
+    /**
+     * Read a remote file as text; gzip archives are fetched compressed and decoded through the local mirror
+     */
     public String readFile(GameServer server, String remoteFilePath) {
+        if (remoteFilePath != null && LocalMirror.isGzip(remoteFilePath)) {
+            return LocalMirror.getInstance().read(server, this, remoteFilePath);
+        }
         return readServerFileAsString(server, remoteFilePath);
     }
     
+    /**
+     * Get the size and modification time of a remote file
+     * @return The file attributes, or null if the file does not exist
+     */
+    public RemoteFileInfo statFile(GameServer server, String remoteFilePath) {
+        if (server == null || remoteFilePath == null) {
+            logger.error("Invalid parameters for statFile");
+            return null;
+        }
+        
+        logger.debug("Reading attributes of {} on server {}", remoteFilePath, server.getName());
+        
+        // Phase 0: attributes of the test data, modification time unknown
+        byte[] data = readServerFileAsString(server, remoteFilePath).getBytes(StandardCharsets.UTF_8);
+        String name = remoteFilePath.substring(remoteFilePath.lastIndexOf('/') + 1);
+        return new RemoteFileInfo(name, data.length, 0);
+    }
+    
+    /**
+     * Read part of a remote file
+     * @param offset Byte offset to start reading at
+     * @param length Maximum number of bytes to read
+     * @return The bytes read, fewer than requested if the file ends first
+     */
+    public byte[] readFileRange(GameServer server, String remoteFilePath, long offset, int length) {
+        if (server == null || remoteFilePath == null || offset < 0 || length < 0) {
+            logger.error("Invalid parameters for readFileRange");
+            return new byte[0];
+        }
+        
+        logger.debug("Reading {} bytes at {} of {} on server {}", length, offset, remoteFilePath, server.getName());
+        
+        // Phase 0: slice of the test data
+        byte[] data = readServerFileAsString(server, remoteFilePath).getBytes(StandardCharsets.UTF_8);
+        if (offset >= data.length) {
+            return new byte[0];
+        }
+        int end = (int) Math.min(data.length, offset + (long) length);
+        byte[] range = new byte[end - (int) offset];
+        System.arraycopy(data, (int) offset, range, 0, range.length);
+        return range;
+    }
+    
     public boolean testConnection(GameServer server) {
         if (server == null) {
             logger.error("Cannot test connection to null server");
@@ -128,12 +200,18 @@ public class SftpConnector {
     }
     
     public List<String> findDeathlogFiles(GameServer server) {
+        return findDeathlogFiles(server, server != null ? server.getDeathlogsDirectory() : null);
+    }
+    
+    /**
+     * Find deathlog files in a given directory instead of the server's configured one
+     */
+    public List<String> findDeathlogFiles(GameServer server, String deathlogsPath) {
         if (server == null) {
             logger.error("Cannot find deathlogs for null server");
             return new ArrayList<>();
         }
         
-        String deathlogsPath = server.getDeathlogsDirectory();
         logger.info("Looking for deathlog files in: {}", deathlogsPath);
         
         List<String> testFiles = new ArrayList<>();
@@ -142,12 +220,18 @@ public class SftpConnector {
     }
     
     public String findLogFile(GameServer server) {
+        return findLogFile(server, server != null ? server.getLogDirectory() : null);
+    }
+    
+    /**
+     * Find the log file in a given directory instead of the server's configured one
+     */
+    public String findLogFile(GameServer server, String logDirectory) {
         if (server == null) {
             logger.error("Cannot find log file for null server");
             return null;
         }
         
-        String logDirectory = server.getLogDirectory();
         logger.info("Looking for log file in: {}", logDirectory);
         
         return "server_2025-05-15_00-00-00.log";
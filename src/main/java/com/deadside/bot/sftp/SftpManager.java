@@ -22,8 +22,22 @@ public class SftpManager {
         return sftpConnector.testConnection(server);
     }
     
+    /**
+     * Get the killfeed CSVs in a server's resolved deathlogs directory, oldest first; the listing is only
+     * fetched again when the directory changed since the last call
+     */
     public List<String> getKillfeedFiles(GameServer server) {
-        return sftpConnector.findDeathlogFiles(server);
+        return RemoteDirectoryCache.getInstance().listDeathlogs(server, sftpConnector);
+    }
+    
+    /**
+     * Read a killfeed CSV listed by {@link #getKillfeedFiles} from the server's local mirror, after
+     * appending what the server wrote since the last read
+     * @return The file content, or an empty string if it cannot be read
+     */
+    public String readKillfeedFile(GameServer server, String fileName) {
+        String directory = SftpPathResolver.getInstance().resolved(server, SftpPathResolver.Category.CSV);
+        return LocalMirror.getInstance().read(server, sftpConnector, directory + "/" + fileName);
     }
     
     public SftpConnector getSftpConnector() {
@@ -0,0 +1,337 @@
+package com.deadside.bot.sftp;
+
+import com.deadside.bot.config.Config;
+import com.deadside.bot.db.models.GameServer;
+import com.deadside.bot.db.models.ResolvedPath;
+import com.deadside.bot.db.repositories.ResolvedPathRepository;
+import com.deadside.bot.parsers.fixes.ParserIntegrationHooks;
+import com.deadside.bot.parsers.fixes.ParserPathTracker;
+import com.deadside.bot.services.SchedulerService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Finds the remote directory holding a server's deathlog CSVs or logs.
+ *
+ * The configured directory is probed first; if it holds no files, the known alternatives are probed
+ * concurrently on the {@code sftp-probe} pool and the first in priority order that holds files wins. Each
+ * probe passes its directory to the connector, so the {@link GameServer} is never modified. A found directory is cached in memory and
+ * stored, so it survives restarts; it stays valid until the server's configured directory changes or a
+ * caller invalidates it. A probe that found no files is cached for {@code sftp.negativeCacheMinutes}, so
+ * a missing directory costs one cache lookup per poll rather than a round of SFTP requests. A probe cut
+ * short by SFTP errors or timeouts proves nothing: it is not cached and a cached directory is kept.
+ * Concurrent lookups of the same server share one probe.
+ */
+public class SftpPathResolver {
+    private static final Logger logger = LoggerFactory.getLogger(SftpPathResolver.class);
+    private static final String POOL = "sftp-probe";
+    private static final int DEFAULT_PROBE_THREADS = 4;
+    private static final int DEFAULT_NEGATIVE_CACHE_MINUTES = 10;
+    private static final int DEFAULT_PROBE_TIMEOUT_SECONDS = 30;
+
+    private static SftpPathResolver instance;
+
+    private final Map<String, Entry> cache = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+    private final ResolvedPathRepository repository;
+    private final long negativeTtlMillis;
+    private final long probeTimeoutMillis;
+
+    /**
+     * Kinds of server files whose directory is resolved
+     */
+    public enum Category {
+        CSV(ParserPathTracker.CATEGORY_CSV),
+        LOG(ParserPathTracker.CATEGORY_LOG);
+
+        private final String name;
+
+        Category(String name) {
+            this.name = name;
+        }
+
+        private String configuredPath(GameServer server) {
+            return this == CSV ? server.getDeathlogsDirectory() : server.getLogDirectory();
+        }
+
+        private List<String> alternatives(GameServer server) {
+            return this == CSV
+                    ? SftpPathUtils.generateAlternativeCsvPaths(server)
+                    : SftpPathUtils.generateAlternativeLogPaths(server);
+        }
+
+        /**
+         * Check whether a directory holds files of this kind
+         * @return false if the directory is empty or missing; SFTP errors are thrown
+         */
+        private boolean holdsFiles(SftpConnector connector, GameServer server, String path) {
+            if (this == CSV) {
+                List<String> files = connector.findDeathlogFiles(server, path);
+                return files != null && !files.isEmpty();
+            }
+            String logFile = connector.findLogFile(server, path);
+            return logFile != null && !logFile.isEmpty();
+        }
+    }
+
+    /**
+     * Result of one probe
+     * @param path The directory found, or null
+     * @param complete Whether every candidate ahead of the found one answered, so a null path means none holds files
+     */
+    private record Outcome(String path, boolean complete) {
+    }
+
+    /**
+     * A cached probe result; a null path means nothing was found
+     */
+    private record Entry(String configuredPath, String path, long expiresAt) {
+        private boolean isValid(String configured, long now) {
+            // Still valid when the resolved directory has since been written to the server's config
+            boolean sameConfig = Objects.equals(configuredPath, configured) || (path != null && path.equals(configured));
+            return sameConfig && now < expiresAt;
+        }
+    }
+
+    private SftpPathResolver() {
+        this.repository = new ResolvedPathRepository();
+        this.negativeTtlMillis = TimeUnit.MINUTES.toMillis(
+                Math.max(1, Config.getIntProperty("sftp.negativeCacheMinutes", DEFAULT_NEGATIVE_CACHE_MINUTES)));
+        this.probeTimeoutMillis = TimeUnit.SECONDS.toMillis(
+                Math.max(1, Config.getIntProperty("sftp.probeTimeoutSeconds", DEFAULT_PROBE_TIMEOUT_SECONDS)));
+    }
+
+    /**
+     * Get the shared path resolver
+     */
+    public static synchronized SftpPathResolver getInstance() {
+        if (instance == null) {
+            instance = new SftpPathResolver();
+        }
+        return instance;
+    }
+
+    /**
+     * Get the directory holding a server's files, probing for it if it is not cached
+     * @return The directory, or null if no candidate holds any files
+     */
+    public String resolve(GameServer server, SftpConnector connector, Category category) {
+        String key = keyOf(server, category);
+        String configured = category.configuredPath(server);
+        long now = System.currentTimeMillis();
+
+        Entry entry = cache.get(key);
+        if (entry == null) {
+            // First lookup since startup: a stored directory saves the probe
+            ResolvedPath stored = repository.find(server.getGuildId(), server.getName(), category.name);
+            if (stored != null && stored.path() != null && (Objects.equals(stored.configuredPath(), configured)
+                    || stored.path().equals(configured))) {
+                entry = new Entry(stored.configuredPath(), stored.path(), Long.MAX_VALUE);
+                cache.put(key, entry);
+            }
+        }
+        if (entry != null && entry.isValid(configured, now)) {
+            return entry.path();
+        }
+
+        CompletableFuture<String> probe = new CompletableFuture<>();
+        CompletableFuture<String> existing = inFlight.putIfAbsent(key, probe);
+        if (existing != null) {
+            return existing.join();
+        }
+        try {
+            Outcome outcome = probe(server, connector, category);
+            if (outcome.path() != null || outcome.complete()) {
+                remember(server, category, key, configured, outcome.path());
+            } else {
+                logger.warn("Could not probe every {} path for server {}; trying again on the next lookup",
+                        category.name, server.getName());
+            }
+            probe.complete(outcome.path());
+            return outcome.path();
+        } catch (RuntimeException e) {
+            probe.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, probe);
+        }
+    }
+
+    /**
+     * Get the directory last resolved for a server without probing, e.g. to find its mirror offline
+     * @return The resolved directory, or the configured one if none has been resolved
+     */
+    public String resolved(GameServer server, Category category) {
+        String configured = category.configuredPath(server);
+        Entry entry = cache.get(keyOf(server, category));
+        if (entry != null && entry.path() != null && entry.isValid(configured, System.currentTimeMillis())) {
+            return entry.path();
+        }
+        if (entry == null) {
+            ResolvedPath stored = repository.find(server.getGuildId(), server.getName(), category.name);
+            if (stored != null && stored.path() != null && (Objects.equals(stored.configuredPath(), configured)
+                    || stored.path().equals(configured))) {
+                cache.put(keyOf(server, category), new Entry(stored.configuredPath(), stored.path(), Long.MAX_VALUE));
+                return stored.path();
+            }
+        }
+        return configured;
+    }
+
+    /**
+     * Find a server's deathlog files in its resolved directory
+     * @return The files, or an empty list if no directory holds any
+     */
+    public List<String> findDeathlogFiles(GameServer server, SftpConnector connector) {
+        for (int attempt = 0; attempt < 2; attempt++) {
+            String path = resolve(server, connector, Category.CSV);
+            if (path == null) {
+                break;
+            }
+            List<String> files;
+            try {
+                files = connector.findDeathlogFiles(server, path);
+            } catch (RuntimeException e) {
+                // The directory may still be right; keep it and let the next poll try again
+                logger.warn("Error listing deathlogs in {} for server {}: {}", path, server.getName(), e.getMessage());
+                break;
+            }
+            if (files != null && !files.isEmpty()) {
+                return files;
+            }
+            // The cached directory no longer holds files; probe once more
+            invalidate(server, Category.CSV);
+        }
+        return new ArrayList<>();
+    }
+
+    /**
+     * Find a server's log file in its resolved directory
+     * @return The log file, or null if no directory holds one
+     */
+    public String findLogFile(GameServer server, SftpConnector connector) {
+        for (int attempt = 0; attempt < 2; attempt++) {
+            String path = resolve(server, connector, Category.LOG);
+            if (path == null) {
+                break;
+            }
+            String logFile;
+            try {
+                logFile = connector.findLogFile(server, path);
+            } catch (RuntimeException e) {
+                logger.warn("Error finding the log file in {} for server {}: {}", path, server.getName(), e.getMessage());
+                break;
+            }
+            if (logFile != null && !logFile.isEmpty()) {
+                return logFile;
+            }
+            invalidate(server, Category.LOG);
+        }
+        return null;
+    }
+
+    /**
+     * Forget the cached directory of a server, e.g. after it stopped holding files
+     */
+    public void invalidate(GameServer server, Category category) {
+        Entry removed = cache.remove(keyOf(server, category));
+        if (removed != null && removed.path() != null) {
+            ParserPathTracker.getInstance().recordFailedPath(server, category.name, removed.path());
+        }
+        repository.delete(server.getGuildId(), server.getName(), category.name);
+    }
+
+    /**
+     * Probe the configured directory, then every alternative at once, picking the first in priority
+     * order that holds files
+     */
+    private Outcome probe(GameServer server, SftpConnector connector, Category category) {
+        String configured = category.configuredPath(server);
+        boolean complete = true;
+        if (configured != null && !configured.isEmpty()) {
+            try {
+                if (category.holdsFiles(connector, server, configured)) {
+                    return new Outcome(configured, true);
+                }
+            } catch (Exception e) {
+                complete = false;
+                logger.debug("Error probing {} path {} for server {}: {}",
+                        category.name, configured, server.getName(), e.getMessage());
+            }
+        }
+
+        Set<String> unique = new LinkedHashSet<>(category.alternatives(server));
+        unique.addAll(ParserPathTracker.getInstance().getRecommendedPaths(server, category.name));
+        unique.remove(configured);
+        List<String> candidates = new ArrayList<>(unique);
+
+        SchedulerService scheduler = SchedulerService.getInstance();
+        scheduler.pool(POOL, DEFAULT_PROBE_THREADS);
+        List<CompletableFuture<Boolean>> probes = new ArrayList<>(candidates.size());
+        for (String path : candidates) {
+            probes.add(scheduler.supply(POOL, () -> category.holdsFiles(connector, server, path)));
+        }
+
+        long deadline = System.currentTimeMillis() + probeTimeoutMillis;
+        String found = null;
+        for (int i = 0; i < probes.size() && found == null; i++) {
+            try {
+                long remaining = Math.max(0, deadline - System.currentTimeMillis());
+                if (probes.get(i).get(remaining, TimeUnit.MILLISECONDS)) {
+                    found = candidates.get(i);
+                }
+            } catch (Exception e) {
+                complete = false;
+                logger.debug("Probe of {} path {} for server {} did not finish: {}",
+                        category.name, candidates.get(i), server.getName(), e.getMessage());
+            }
+        }
+        // Probes not started yet are skipped
+        for (CompletableFuture<Boolean> probe : probes) {
+            probe.cancel(false);
+        }
+
+        logger.debug("Probed {} alternative {} paths for server {}", candidates.size(), category.name, server.getName());
+        return new Outcome(found, complete);
+    }
+
+    private void remember(GameServer server, Category category, String key, String configured, String path) {
+        if (path == null) {
+            cache.put(key, new Entry(configured, null, System.currentTimeMillis() + negativeTtlMillis));
+            ParserPathTracker.getInstance().recordFailedPath(server, category.name, configured);
+            logger.warn("Could not find a valid {} path for server {}; not probing again for {} minutes",
+                    category.name, server.getName(), TimeUnit.MILLISECONDS.toMinutes(negativeTtlMillis));
+            return;
+        }
+
+        cache.put(key, new Entry(configured, path, Long.MAX_VALUE));
+        repository.save(server.getGuildId(), server.getName(), category.name,
+                new ResolvedPath(configured, path, System.currentTimeMillis()));
+        ParserPathTracker.getInstance().recordSuccessfulPath(server, category.name, path);
+        if (server.getId() != null) {
+            // Parser adapters read the registered path from the integration hooks
+            if (category == Category.CSV) {
+                ParserIntegrationHooks.recordSuccessfulCsvPath(server, path);
+            } else {
+                ParserIntegrationHooks.recordSuccessfulLogPath(server, path);
+            }
+        }
+        if (!path.equals(configured)) {
+            logger.info("Resolved {} path for server {}: {}", category.name, server.getName(), path);
+        }
+    }
+
+    private static String keyOf(GameServer server, Category category) {
+        return server.getGuildId() + ":" + server.getName() + ":" + category.name;
+    }
+}
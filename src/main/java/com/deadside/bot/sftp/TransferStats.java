@@ -0,0 +1,67 @@
+package com.deadside.bot.sftp;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts bytes fetched from game servers against the bytes they decode to.
+ *
+ * File counters cover the {@link LocalMirror}: every byte appended to a copy is transferred, and a plain
+ * file decodes to itself while a gzip archive decodes to its uncompressed size.
+ */
+public class TransferStats {
+    private static TransferStats instance;
+
+    private final AtomicLong transferredBytes = new AtomicLong();
+    private final AtomicLong decodedBytes = new AtomicLong();
+
+    private TransferStats() {
+    }
+
+    /**
+     * Get the shared transfer counters
+     */
+    public static synchronized TransferStats getInstance() {
+        if (instance == null) {
+            instance = new TransferStats();
+        }
+        return instance;
+    }
+
+    /**
+     * Count bytes fetched into the mirror
+     */
+    public void recordTransferred(long bytes) {
+        transferredBytes.addAndGet(bytes);
+    }
+
+    /**
+     * Count bytes of file content made available to parsers
+     */
+    public void recordDecoded(long bytes) {
+        decodedBytes.addAndGet(bytes);
+    }
+
+    public long getTransferredBytes() {
+        return transferredBytes.get();
+    }
+
+    public long getDecodedBytes() {
+        return decodedBytes.get();
+    }
+
+    /**
+     * One-line summary for logs, e.g. {@code 12.0 MB transferred, 96.0 MB decoded (8.0x)}
+     */
+    public String describe() {
+        return megabytes(getTransferredBytes()) + " transferred, " + megabytes(getDecodedBytes()) + " decoded"
+                + ratio(getDecodedBytes(), getTransferredBytes());
+    }
+
+    private static String megabytes(long bytes) {
+        return String.format("%.1f MB", bytes / (1024.0 * 1024.0));
+    }
+
+    private static String ratio(long decoded, long transferred) {
+        return transferred > 0 ? String.format(" (%.1fx)", (double) decoded / transferred) : "";
+    }
+}
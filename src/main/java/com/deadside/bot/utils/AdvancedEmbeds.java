@@ -5,18 +5,18 @@ import net.dv8tion.jda.api.entities.MessageEmbed;
 
 import java.awt.Color;
 import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.ArrayList;
-import java.util.Random;
 import java.util.function.Consumer;
+import java.util.random.RandomGenerator;
 
 /**
  * Advanced embed designs for killfeed and leaderboard displays
  * Implements Phase 6 of the embed modernization with premium-grade UI
  */
 public class AdvancedEmbeds {
-    private static final Random random = new Random();
-    
     // Color scheme for advanced embeds
     private static final Color EMERALD_GREEN = EmbedUtils.EMERALD_GREEN;
     private static final Color DARK_GRAY = EmbedUtils.DARK_GRAY;
@@ -27,6 +27,25 @@ public class AdvancedEmbeds {
     // Standard footer text
     private static final String STANDARD_FOOTER = "Powered By Discord.gg/EmeraldServers";
     
+    // Dynamic killfeed titles and messages for variety
+    private static final String[] KILL_TITLES = {
+        "SURVIVAL OF THE FITTEST",
+        "FATAL CONFRONTATION",
+        "DEADSIDE ELIMINATION",
+        "WASTELAND JUSTICE",
+        "COMBAT REPORT"
+    };
+    
+    private static final String[] KILL_MESSAGES = {
+        "No mercy in these badlands.",
+        "Another one bites the dust.",
+        "The strong survive, the weak perish.",
+        "Life is cheap in the zone.",
+        "Swift and merciless execution."
+    };
+    
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("MM/dd/yyyy hh:mm a");
+    
     /**
      * Create a sleek, minimalist killfeed embed matching the Deadside aesthetic
      * Design based on the provided screenshot for consistent styling
@@ -41,27 +60,10 @@ public class AdvancedEmbeds {
      */
     public static MessageEmbed advancedKillfeedEmbed(String killer, String victim, String weapon, 
                                                   int distance, boolean isBounty, int killStreak) {
-        // Create random dynamic titles for variety
-        String[] killTitles = {
-            "SURVIVAL OF THE FITTEST",
-            "FATAL CONFRONTATION",
-            "DEADSIDE ELIMINATION",
-            "WASTELAND JUSTICE",
-            "COMBAT REPORT"
-        };
-        
-        // Create random dynamic messages for variety
-        String[] killMessages = {
-            "No mercy in these badlands.",
-            "Another one bites the dust.",
-            "The strong survive, the weak perish.",
-            "Life is cheap in the zone.",
-            "Swift and merciless execution."
-        };
-        
         // Generate dynamic content
-        String title = killTitles[random.nextInt(killTitles.length)];
-        String message = killMessages[random.nextInt(killMessages.length)];
+        RandomGenerator random = RandomService.getInstance().current();
+        String title = KILL_TITLES[random.nextInt(KILL_TITLES.length)];
+        String message = KILL_MESSAGES[random.nextInt(KILL_MESSAGES.length)];
         
         // Base color is always emerald green - consistent with screenshot
         Color embedColor = EMERALD_GREEN;
@@ -107,8 +109,7 @@ public class AdvancedEmbeds {
         description.append("\n\nServer: Emerald EU | discord.gg/EmeraldServers | ");
         
         // Add timestamp for server-side tracking
-        java.time.format.DateTimeFormatter formatter = java.time.format.DateTimeFormatter.ofPattern("MM/dd/yyyy hh:mm a");
-        String timestamp = java.time.LocalDateTime.now().format(formatter);
+        String timestamp = LocalDateTime.now().format(TIMESTAMP_FORMAT);
         description.append(timestamp);
         
         // Build the minimalist embed with the thumbnail on the right side
@@ -117,7 +118,7 @@ public class AdvancedEmbeds {
                 .setTitle(title)
                 .setDescription(description.toString())
                 .setColor(embedColor)
-                .setThumbnail("attachment://Killfeed.png"); // Use direct filename rather than constant
+                .setThumbnail(IconUrlCache.getInstance().resolve(ResourceManager.KILLFEED_ICON));
         
         return embed.build();
     }
@@ -217,24 +218,7 @@ public class AdvancedEmbeds {
             cause = cause.replace("_", " ");
         }
         
-        // Get dynamic title and description
-        String title = DynamicTitles.getSuicideTitle();
-        String description = isMenuSuicide ? 
-            player + " returned to the void (Menu Suicide)" : 
-            DynamicTitles.getSuicideDescription(player);
-        
-        // Build the enhanced embed
-        return new EmbedBuilder()
-                .setTitle(title)
-                .setDescription(description)
-                .setColor(DARK_GRAY)
-                .setThumbnail(EmbedUtils.KILLFEED_ICON) // Use killfeed icon instead of helicrash
-                .addField("Player", player, true)
-                .addField("Cause", cause, true)
-                .addField("Location", "Unknown", true)
-                .setFooter(STANDARD_FOOTER)
-                .setTimestamp(Instant.now())
-                .build();
+        return KillfeedEmbeds.suicide(player, cause, isMenuSuicide);
     }
     
     /**
@@ -245,33 +229,7 @@ public class AdvancedEmbeds {
      * @return A visually enhanced embed for falling death events
      */
     public static MessageEmbed advancedFallingDeathEmbed(String player, int height) {
-        // Get dynamic title and description
-        String title = DynamicTitles.getFallingTitle();
-        String description = DynamicTitles.getFallingDescription(player, height);
-        
-        // Calculate severity based on height
-        String severity = "Fatal";
-        if (height > 30) {
-            severity = "Catastrophic";
-        } else if (height > 20) {
-            severity = "Devastating";
-        } else if (height > 10) {
-            severity = "Severe";
-        }
-        
-        // Build the enhanced embed
-        return new EmbedBuilder()
-                .setTitle(title)
-                .setDescription(description)
-                .setColor(DARK_GRAY)
-                .setThumbnail(EmbedUtils.KILLFEED_ICON) // Use killfeed icon instead of helicrash
-                .addField("Player", player, true)
-                .addField("Cause", "Falling damage", true)
-                .addField("Height", height + "m", true)
-                .addField("Severity", severity, true)
-                .setFooter(STANDARD_FOOTER)
-                .setTimestamp(Instant.now())
-                .build();
+        return KillfeedEmbeds.falling(player, height);
     }
     
     /**
@@ -0,0 +1,590 @@
+package com.deadside.bot.utils;
+
+import com.deadside.bot.config.Config;
+import com.deadside.bot.db.MongoMetrics.LatencyHistogram;
+import net.dv8tion.jda.api.entities.channel.middleman.GuildChannel;
+import net.dv8tion.jda.api.entities.channel.middleman.MessageChannel;
+import net.dv8tion.jda.api.interactions.InteractionHook;
+import net.dv8tion.jda.api.requests.RestAction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Central scheduler for outbound Discord requests.
+ *
+ * Requests are queued in priority lanes and released by a single dispatcher thread. A lower lane only
+ * sends when no higher lane has a request ready, so interaction replies never wait behind a killfeed
+ * backlog. Each route (a channel, a channel rename, an interaction) has its own bucket that keeps at most
+ * one request in flight, preserving send order, and models Discord's per-route limits so requests are
+ * held here instead of piling up in JDA's requester. Non-interaction traffic is additionally capped by a
+ * global per-second budget and a maximum number of requests in flight.
+ *
+ * Within a lane, requests are grouped by route and routes take turns, so a route held back by its rate
+ * limit never delays requests for other routes however many it has queued.
+ *
+ * Low-priority work can be coalesced by key, so a newer leaderboard refresh or channel rename replaces a
+ * queued one instead of being sent after it. When a bounded lane is full its oldest coalescible request is
+ * shed first, since a newer one will supersede it; only a lane without any sheds its oldest request, whose
+ * failure callback is then told. Once stopped the outbox stays stopped and rejects requests the same way.
+ */
+public class DiscordOutbox {
+    private static final Logger logger = LoggerFactory.getLogger(DiscordOutbox.class);
+
+    private static final long IDLE_WAIT_MILLIS = 1000;
+    private static final long BUCKET_IDLE_NANOS = TimeUnit.MINUTES.toNanos(15);
+
+    // Discord allows 5 messages per 5 seconds per channel and 2 channel renames per 10 minutes
+    private static final int MESSAGE_ROUTE_LIMIT = 5;
+    private static final long MESSAGE_ROUTE_WINDOW_NANOS = TimeUnit.SECONDS.toNanos(5);
+    private static final int RENAME_ROUTE_LIMIT = 2;
+    private static final long RENAME_ROUTE_WINDOW_NANOS = TimeUnit.MINUTES.toNanos(10);
+
+    private static DiscordOutbox instance;
+
+    /**
+     * Priority lanes, highest first
+     */
+    public enum Lane {
+        // Replies and follow-ups to slash commands, buttons and menus; never dropped
+        INTERACTION(0),
+        // Killfeed and other game event notifications
+        KILLFEED(5000),
+        // Leaderboard posts and progress reports
+        LEADERBOARD(200),
+        // Channel renames and other cosmetic updates
+        COSMETIC(200);
+
+        private final int defaultCapacity;
+
+        Lane(int defaultCapacity) {
+            this.defaultCapacity = defaultCapacity;
+        }
+    }
+
+    private static final Lane[] LANES = Lane.values();
+
+    private final Object lock = new Object();
+    private final LaneQueue[] queues = new LaneQueue[LANES.length];
+    private final int[] capacities = new int[LANES.length];
+    private final Map<String, Task> coalesced = new HashMap<>();
+    private final Map<String, RouteBucket> buckets = new HashMap<>();
+    private final ArrayDeque<Long> globalWindow = new ArrayDeque<>();
+    private final int globalPerSecond;
+    private final int maxInFlight;
+    private int inFlight = 0;
+
+    private final LongAdder[] sent = new LongAdder[LANES.length];
+    private final LongAdder[] dropped = new LongAdder[LANES.length];
+    private final LongAdder[] merged = new LongAdder[LANES.length];
+    private final LatencyHistogram[] queueWait = new LatencyHistogram[LANES.length];
+    private final LongAdder failures = new LongAdder();
+
+    private final Thread dispatcher;
+    private volatile boolean running = true;
+    private long lastBucketSweep = System.nanoTime();
+
+    /**
+     * A queued request
+     */
+    private static final class Task {
+        private final Lane lane;
+        private final String route;
+        private final String coalesceKey;
+        private Consumer<Runnable> starter;
+        private Consumer<Throwable> rejecter;
+        private final long enqueuedNanos;
+
+        private Task(Lane lane, String route, String coalesceKey, Consumer<Runnable> starter, Consumer<Throwable> rejecter) {
+            this.lane = lane;
+            this.route = route;
+            this.coalesceKey = coalesceKey;
+            this.starter = starter;
+            this.rejecter = rejecter;
+            this.enqueuedNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * The requests of one lane, queued per route. Routes are kept in turn order: a route that sends
+     * moves behind the others.
+     */
+    private static final class LaneQueue {
+        private final LinkedHashMap<String, ArrayDeque<Task>> routes = new LinkedHashMap<>();
+        private int size = 0;
+
+        void add(Task task) {
+            routes.computeIfAbsent(task.route, key -> new ArrayDeque<>()).addLast(task);
+            size++;
+        }
+
+        /**
+         * Take the head of a route and move the route to the back of the turn order
+         */
+        Task takeHead(String route) {
+            ArrayDeque<Task> queue = routes.remove(route);
+            Task task = queue.pollFirst();
+            if (!queue.isEmpty()) {
+                routes.put(route, queue);
+            }
+            size--;
+            return task;
+        }
+
+        void remove(Task task) {
+            ArrayDeque<Task> queue = routes.get(task.route);
+            if (queue != null && queue.remove(task)) {
+                if (queue.isEmpty()) {
+                    routes.remove(task.route);
+                }
+                size--;
+            }
+        }
+
+        /**
+         * @return The request queued longest, or null if the lane is empty
+         */
+        Task oldest() {
+            Task oldest = null;
+            for (ArrayDeque<Task> queue : routes.values()) {
+                Task head = queue.peekFirst();
+                if (oldest == null || head.enqueuedNanos - oldest.enqueuedNanos < 0) {
+                    oldest = head;
+                }
+            }
+            return oldest;
+        }
+    }
+
+    /**
+     * Send state for one route: one request in flight, at most {@code limit} sends per window
+     */
+    private static final class RouteBucket {
+        private final int limit;
+        private final long windowNanos;
+        private final ArrayDeque<Long> sends = new ArrayDeque<>();
+        private boolean inFlight = false;
+        private long lastUsed = System.nanoTime();
+
+        private RouteBucket(int limit, long windowNanos) {
+            this.limit = limit;
+            this.windowNanos = windowNanos;
+        }
+
+        /**
+         * @return When the next request may be sent, or Long.MAX_VALUE while one is in flight
+         */
+        long readyAt(long now) {
+            if (inFlight) {
+                return Long.MAX_VALUE;
+            }
+            if (limit <= 0) {
+                return now;
+            }
+            while (!sends.isEmpty() && now - sends.peekFirst() >= windowNanos) {
+                sends.pollFirst();
+            }
+            return sends.size() < limit ? now : sends.peekFirst() + windowNanos;
+        }
+
+        void recordSend(long now) {
+            inFlight = true;
+            lastUsed = now;
+            if (limit > 0) {
+                sends.addLast(now);
+            }
+        }
+    }
+
+    /**
+     * Create an outbox and start its dispatcher; everything but tests uses {@link #getInstance()}
+     */
+    DiscordOutbox() {
+        this.globalPerSecond = Math.max(1, Config.getIntProperty("discord.outbox.globalPerSecond", 40));
+        this.maxInFlight = Math.max(1, Config.getIntProperty("discord.outbox.maxInFlight", 10));
+
+        for (Lane lane : LANES) {
+            int i = lane.ordinal();
+            queues[i] = new LaneQueue();
+            capacities[i] = Config.getIntProperty("discord.outbox.capacity." + lane.name().toLowerCase(), lane.defaultCapacity);
+            sent[i] = new LongAdder();
+            dropped[i] = new LongAdder();
+            merged[i] = new LongAdder();
+            queueWait[i] = new LatencyHistogram();
+        }
+
+        this.dispatcher = new Thread(this::run, "discord-outbox");
+        this.dispatcher.setDaemon(true);
+        this.dispatcher.start();
+    }
+
+    /**
+     * Get the shared outbox, starting its dispatcher on first use. After {@link #shutdown()} this
+     * returns the stopped outbox, which rejects every request.
+     */
+    public static synchronized DiscordOutbox getInstance() {
+        if (instance == null) {
+            instance = new DiscordOutbox();
+        }
+        return instance;
+    }
+
+    /**
+     * Route key for messages sent to a channel
+     */
+    public static String messageRoute(MessageChannel channel) {
+        return "channel:" + channel.getId();
+    }
+
+    /**
+     * Route key for renaming or otherwise editing a channel
+     */
+    public static String renameRoute(GuildChannel channel) {
+        return "rename:" + channel.getId();
+    }
+
+    /**
+     * Route key for replies and follow-ups on an interaction
+     */
+    public static String interactionRoute(InteractionHook hook) {
+        return "interaction:" + hook.getInteraction().getId();
+    }
+
+    /**
+     * Queue a request
+     * @param lane Priority lane
+     * @param route Route key from {@link #messageRoute}, {@link #renameRoute} or {@link #interactionRoute}
+     * @param action Builds the request when it is dispatched
+     */
+    public <T> void submit(Lane lane, String route, Supplier<? extends RestAction<? extends T>> action) {
+        submit(lane, route, action, null, null);
+    }
+
+    /**
+     * Queue a request with completion callbacks
+     * @param success Called with the result, may be null
+     * @param failure Called with the error, may be null in which case the error is logged
+     */
+    public <T> void submit(Lane lane, String route, Supplier<? extends RestAction<? extends T>> action,
+                           Consumer<? super T> success, Consumer<? super Throwable> failure) {
+        Task rejected;
+        synchronized (lock) {
+            rejected = enqueue(new Task(lane, route, null, starter(route, action, success, failure), rejecter(route, failure)));
+        }
+        reject(rejected);
+    }
+
+    /**
+     * Queue a request that replaces any request still queued under the same key.
+     * The replacement keeps the queued request's place in its lane.
+     * @param coalesceKey Identifies superseded work, e.g. "leaderboard:" + channel ID
+     */
+    public <T> void submitCoalesced(Lane lane, String route, String coalesceKey, Supplier<? extends RestAction<? extends T>> action,
+                                    Consumer<? super T> success, Consumer<? super Throwable> failure) {
+        Consumer<Runnable> starter = starter(route, action, success, failure);
+        Consumer<Throwable> rejecter = rejecter(route, failure);
+        Task rejected;
+        synchronized (lock) {
+            Task queued = running ? coalesced.get(coalesceKey) : null;
+            if (queued != null) {
+                queued.starter = starter;
+                queued.rejecter = rejecter;
+                merged[queued.lane.ordinal()].increment();
+                return;
+            }
+            rejected = enqueue(new Task(lane, route, coalesceKey, starter, rejecter));
+        }
+        reject(rejected);
+    }
+
+    /**
+     * Get the number of requests waiting in a lane
+     */
+    public int getQueueDepth(Lane lane) {
+        synchronized (lock) {
+            return queues[lane.ordinal()].size;
+        }
+    }
+
+    /**
+     * Get the number of requests currently in flight, excluding interaction replies
+     */
+    public int getInFlight() {
+        synchronized (lock) {
+            return inFlight;
+        }
+    }
+
+    /**
+     * Build a one-line-per-lane summary suitable for logs or an admin command
+     * @return Summary text
+     */
+    public String summary() {
+        StringBuilder sb = new StringBuilder();
+        synchronized (lock) {
+            sb.append("In flight: ").append(inFlight).append(", routes: ").append(buckets.size())
+              .append(", failures: ").append(failures.sum()).append("\n");
+            for (Lane lane : LANES) {
+                int i = lane.ordinal();
+                sb.append(lane.name().toLowerCase()).append(": ").append(queues[i].size).append(" queued, ")
+                  .append(sent[i].sum()).append(" sent, ").append(merged[i].sum()).append(" coalesced, ")
+                  .append(dropped[i].sum()).append(" dropped, wait ").append(queueWait[i]).append("\n");
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Stop the dispatcher; queued requests are discarded. The outbox is not restarted by later use.
+     */
+    public static synchronized void shutdown() {
+        if (instance == null || !instance.running) {
+            return;
+        }
+        synchronized (instance.lock) {
+            instance.running = false;
+        }
+        instance.dispatcher.interrupt();
+        logger.info("Discord outbox stopped with {} queued requests", instance.totalQueued());
+    }
+
+    private <T> Consumer<Runnable> starter(String route, Supplier<? extends RestAction<? extends T>> action,
+                                           Consumer<? super T> success, Consumer<? super Throwable> failure) {
+        return done -> {
+            try {
+                action.get().queue(result -> {
+                    done.run();
+                    if (success != null) {
+                        success.accept(result);
+                    }
+                }, error -> {
+                    done.run();
+                    handleFailure(route, error, failure);
+                });
+            } catch (Exception e) {
+                done.run();
+                handleFailure(route, e, failure);
+            }
+        };
+    }
+
+    private Consumer<Throwable> rejecter(String route, Consumer<? super Throwable> failure) {
+        return error -> handleFailure(route, error, failure);
+    }
+
+    private void handleFailure(String route, Throwable error, Consumer<? super Throwable> failure) {
+        failures.increment();
+        if (failure != null) {
+            failure.accept(error);
+        } else {
+            logger.warn("Discord request on {} failed: {}", route, error.getMessage());
+        }
+    }
+
+    /**
+     * Queue a request, shedding one if its lane is full. Must hold the lock.
+     * @return The request to report as failed once the lock is released, or null
+     */
+    private Task enqueue(Task task) {
+        if (!running) {
+            return task;
+        }
+
+        int i = task.lane.ordinal();
+        LaneQueue queue = queues[i];
+        Task rejected = null;
+        if (capacities[i] > 0 && queue.size >= capacities[i]) {
+            Task shed = oldestCoalesced(task.lane);
+            if (shed == null) {
+                shed = queue.oldest();
+            }
+            queue.remove(shed);
+            forget(shed);
+            dropped[i].increment();
+            long total = dropped[i].sum();
+            if (total == 1 || total % 100 == 0) {
+                logger.warn("Discord outbox {} lane is full ({} queued), shed {} requests so far",
+                    task.lane.name().toLowerCase(), queue.size, total);
+            }
+            // Coalescible work is superseded by its next submission; anything else is lost and reported
+            rejected = shed.coalesceKey == null ? shed : null;
+        }
+
+        queue.add(task);
+        if (task.coalesceKey != null) {
+            coalesced.put(task.coalesceKey, task);
+        }
+        lock.notifyAll();
+        return rejected;
+    }
+
+    private void reject(Task task) {
+        if (task != null) {
+            task.rejecter.accept(new IllegalStateException(running
+                ? "Discord outbox " + task.lane.name().toLowerCase() + " lane is full"
+                : "Discord outbox is stopped"));
+        }
+    }
+
+    /**
+     * @return The coalescible request of a lane queued longest, or null if it has none
+     */
+    private Task oldestCoalesced(Lane lane) {
+        Task oldest = null;
+        for (Task task : coalesced.values()) {
+            if (task.lane == lane && (oldest == null || task.enqueuedNanos - oldest.enqueuedNanos < 0)) {
+                oldest = task;
+            }
+        }
+        return oldest;
+    }
+
+    private void run() {
+        while (running) {
+            Task task;
+            synchronized (lock) {
+                task = nextTask();
+                if (task == null) {
+                    continue;
+                }
+            }
+
+            Task dispatched = task;
+            try {
+                dispatched.starter.accept(() -> complete(dispatched));
+            } catch (Exception e) {
+                complete(dispatched);
+                logger.error("Error dispatching Discord request on {}", dispatched.route, e);
+            }
+        }
+    }
+
+    /**
+     * Pick the next ready request, waiting while none is. Must hold the lock.
+     * @return The request to send, or null if the caller should check again
+     */
+    private Task nextTask() {
+        long now = System.nanoTime();
+        long wakeAt = now + TimeUnit.MILLISECONDS.toNanos(IDLE_WAIT_MILLIS);
+        sweepBuckets(now);
+
+        for (Lane lane : LANES) {
+            boolean interaction = lane == Lane.INTERACTION;
+            if (!interaction) {
+                if (inFlight >= maxInFlight) {
+                    // A completing request wakes the dispatcher
+                    break;
+                }
+                long globalReady = globalReadyAt(now);
+                if (globalReady > now) {
+                    wakeAt = Math.min(wakeAt, globalReady);
+                    break;
+                }
+            }
+
+            // Only each route's head can be sent, so one check per route covers the whole lane
+            LaneQueue queue = queues[lane.ordinal()];
+            String readyRoute = null;
+            for (String route : queue.routes.keySet()) {
+                long readyAt = bucketFor(route).readyAt(now);
+                if (readyAt <= now) {
+                    readyRoute = route;
+                    break;
+                }
+                wakeAt = Math.min(wakeAt, readyAt);
+            }
+
+            if (readyRoute != null) {
+                Task task = queue.takeHead(readyRoute);
+                forget(task);
+                bucketFor(readyRoute).recordSend(now);
+                if (!interaction) {
+                    inFlight++;
+                    globalWindow.addLast(now);
+                }
+                int i = lane.ordinal();
+                sent[i].increment();
+                queueWait[i].record(TimeUnit.NANOSECONDS.toMillis(now - task.enqueuedNanos));
+                return task;
+            }
+        }
+
+        long waitMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(wakeAt - now));
+        try {
+            lock.wait(waitMillis);
+        } catch (InterruptedException e) {
+            if (!running) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return null;
+    }
+
+    private void complete(Task task) {
+        synchronized (lock) {
+            RouteBucket bucket = buckets.get(task.route);
+            if (bucket != null) {
+                bucket.inFlight = false;
+            }
+            if (task.lane != Lane.INTERACTION) {
+                inFlight--;
+            }
+            lock.notifyAll();
+        }
+    }
+
+    private long globalReadyAt(long now) {
+        long window = TimeUnit.SECONDS.toNanos(1);
+        while (!globalWindow.isEmpty() && now - globalWindow.peekFirst() >= window) {
+            globalWindow.pollFirst();
+        }
+        return globalWindow.size() < globalPerSecond ? now : globalWindow.peekFirst() + window;
+    }
+
+    private RouteBucket bucketFor(String route) {
+        return buckets.computeIfAbsent(route, key -> {
+            if (key.startsWith("rename:")) {
+                return new RouteBucket(RENAME_ROUTE_LIMIT, RENAME_ROUTE_WINDOW_NANOS);
+            }
+            if (key.startsWith("channel:")) {
+                return new RouteBucket(MESSAGE_ROUTE_LIMIT, MESSAGE_ROUTE_WINDOW_NANOS);
+            }
+            return new RouteBucket(0, 0);
+        });
+    }
+
+    private void forget(Task task) {
+        if (task != null && task.coalesceKey != null) {
+            coalesced.remove(task.coalesceKey, task);
+        }
+    }
+
+    /**
+     * Drop buckets that have been idle longer than any route window
+     */
+    private void sweepBuckets(long now) {
+        if (now - lastBucketSweep < BUCKET_IDLE_NANOS) {
+            return;
+        }
+        lastBucketSweep = now;
+        buckets.values().removeIf(bucket -> !bucket.inFlight && now - bucket.lastUsed >= BUCKET_IDLE_NANOS);
+    }
+
+    private int totalQueued() {
+        synchronized (lock) {
+            int total = 0;
+            for (LaneQueue queue : queues) {
+                total += queue.size;
+            }
+            return total;
+        }
+    }
+}
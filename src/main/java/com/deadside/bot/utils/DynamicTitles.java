@@ -1,14 +1,10 @@
 package com.deadside.bot.utils;
 
-import java.util.Random;
-
 /**
  * Utility class for generating dynamic titles for embeds
  * This adds variety to the embed titles for a more engaging experience
  */
 public class DynamicTitles {
-    private static final Random random = new Random();
-    
     // Airdrop titles
     private static final String[] AIRDROP_TITLES = {
         "Supply Drop Incoming",
@@ -90,53 +86,70 @@ public class DynamicTitles {
         "Gravity Check Failed"
     };
     
+    // Killfeed description formats (killer, victim, weapon, distance)
+    private static final String[] KILLFEED_DESCRIPTIONS = {
+        "**%s** eliminated **%s** with %s from %d meters",
+        "**%s** took down **%s** using %s (%d meters)",
+        "**%s** defeated **%s** with %s at %d meters",
+        "**%s** claimed **%s** using %s from a distance of %d meters"
+    };
+    
+    // Suicide description formats (player)
+    private static final String[] SUICIDE_DESCRIPTIONS = {
+        "**%s** died by their own hand",
+        "**%s** couldn't take it anymore",
+        "**%s** eliminated themselves",
+        "**%s** chose a permanent end"
+    };
+    
+    // Falling description formats (player, height)
+    private static final String[] FALLING_DESCRIPTIONS = {
+        "**%s** fell %d meters to their death",
+        "**%s** didn't survive a %d meter drop",
+        "**%s** tested gravity from %d meters up",
+        "**%s** attempted flying and failed from %d meters"
+    };
+    
     /**
      * Get a random airdrop title
      */
     public static String getAirdropTitle() {
-        return AIRDROP_TITLES[random.nextInt(AIRDROP_TITLES.length)];
+        return pick(AIRDROP_TITLES);
     }
     
     /**
      * Get a random mission title
      */
     public static String getMissionTitle() {
-        return MISSION_TITLES[random.nextInt(MISSION_TITLES.length)];
+        return pick(MISSION_TITLES);
     }
     
     /**
      * Get a random helicrash title
      */
     public static String getHelicrashTitle() {
-        return HELICRASH_TITLES[random.nextInt(HELICRASH_TITLES.length)];
+        return pick(HELICRASH_TITLES);
     }
     
     /**
      * Get a random killfeed title
      */
     public static String getKillfeedTitle() {
-        return KILLFEED_TITLES[random.nextInt(KILLFEED_TITLES.length)];
+        return pick(KILLFEED_TITLES);
     }
     
     /**
      * Get a random bounty title
      */
     public static String getBountyTitle() {
-        return BOUNTY_TITLES[random.nextInt(BOUNTY_TITLES.length)];
+        return pick(BOUNTY_TITLES);
     }
     
     /**
      * Get a killfeed description for a kill event
      */
     public static String getKillfeedDescription(String killer, String victim, String weapon, int distance) {
-        String[] formats = {
-            "**%s** eliminated **%s** with %s from %d meters",
-            "**%s** took down **%s** using %s (%d meters)",
-            "**%s** defeated **%s** with %s at %d meters",
-            "**%s** claimed **%s** using %s from a distance of %d meters"
-        };
-        
-        String format = formats[random.nextInt(formats.length)];
+        String format = pick(KILLFEED_DESCRIPTIONS);
         return String.format(format, killer, victim, weapon, distance);
     }
     
@@ -144,35 +157,28 @@ public class DynamicTitles {
      * Get a random leaderboard title
      */
     public static String getLeaderboardTitle() {
-        return LEADERBOARD_TITLES[random.nextInt(LEADERBOARD_TITLES.length)];
+        return pick(LEADERBOARD_TITLES);
     }
     
     /**
      * Get a random leaderboard description
      */
     public static String getLeaderboardDescription() {
-        return LEADERBOARD_DESCRIPTIONS[random.nextInt(LEADERBOARD_DESCRIPTIONS.length)];
+        return pick(LEADERBOARD_DESCRIPTIONS);
     }
     
     /**
      * Get a random suicide title
      */
     public static String getSuicideTitle() {
-        return SUICIDE_TITLES[random.nextInt(SUICIDE_TITLES.length)];
+        return pick(SUICIDE_TITLES);
     }
     
     /**
      * Get a suicide description for a player
      */
     public static String getSuicideDescription(String playerName) {
-        String[] formats = {
-            "**%s** died by their own hand",
-            "**%s** couldn't take it anymore",
-            "**%s** eliminated themselves",
-            "**%s** chose a permanent end"
-        };
-        
-        String format = formats[random.nextInt(formats.length)];
+        String format = pick(SUICIDE_DESCRIPTIONS);
         return String.format(format, playerName);
     }
     
@@ -180,21 +186,21 @@ public class DynamicTitles {
      * Get a random falling title
      */
     public static String getFallingTitle() {
-        return FALLING_TITLES[random.nextInt(FALLING_TITLES.length)];
+        return pick(FALLING_TITLES);
     }
     
     /**
      * Get a falling description for a player and height
      */
     public static String getFallingDescription(String playerName, int height) {
-        String[] formats = {
-            "**%s** fell %d meters to their death",
-            "**%s** didn't survive a %d meter drop",
-            "**%s** tested gravity from %d meters up",
-            "**%s** attempted flying and failed from %d meters"
-        };
-        
-        String format = formats[random.nextInt(formats.length)];
+        String format = pick(FALLING_DESCRIPTIONS);
         return String.format(format, playerName, height);
     }
-}
\ No newline at end of file
+    
+    /**
+     * Pick a random entry using the calling thread's generator
+     */
+    private static String pick(String[] options) {
+        return options[RandomService.getInstance().current().nextInt(options.length)];
+    }
+}
@@ -4,6 +4,7 @@ import net.dv8tion.jda.api.entities.MessageEmbed;
 import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
 import net.dv8tion.jda.api.interactions.InteractionHook;
+import net.dv8tion.jda.api.requests.RestAction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -12,7 +13,9 @@ import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
 /**
- * Utility class for sending embeds with proper error handling
+ * Utility class for sending embeds with proper error handling.
+ * Interaction replies go through the {@link DiscordOutbox} interaction lane and channel messages through
+ * the killfeed lane, so command replies are never queued behind channel traffic.
  */
 public class EmbedSender {
     private static final Logger logger = LoggerFactory.getLogger(EmbedSender.class);
@@ -26,13 +29,11 @@ public class EmbedSender {
      */
     public static void sendEmbed(SlashCommandInteractionEvent event, MessageEmbed embed, boolean ephemeral) {
         try {
-            if (!event.isAcknowledged()) {
-                event.replyEmbeds(embed).setEphemeral(ephemeral).queue(null, 
-                    error -> handleError(error, "Failed to send embed response", event.getUser().getName()));
-            } else {
-                event.getHook().sendMessageEmbeds(embed).queue(null, 
-                    error -> handleError(error, "Failed to send embed response", event.getUser().getName()));
-            }
+            DiscordOutbox.getInstance().submit(DiscordOutbox.Lane.INTERACTION, DiscordOutbox.interactionRoute(event.getHook()),
+                () -> event.isAcknowledged()
+                    ? (RestAction<?>) event.getHook().sendMessageEmbeds(embed)
+                    : event.replyEmbeds(embed).setEphemeral(ephemeral),
+                null, error -> handleError(error, "Failed to send embed response", event.getUser().getName()));
         } catch (Exception e) {
             logger.error("Error sending embed to {}", event.getUser().getName(), e);
         }
@@ -46,8 +47,9 @@ public class EmbedSender {
      */
     public static void sendEmbed(TextChannel channel, MessageEmbed embed) {
         try {
-            channel.sendMessageEmbeds(embed).queue(null, 
-                error -> handleError(error, "Failed to send embed to channel", channel.getName()));
+            DiscordOutbox.getInstance().submit(DiscordOutbox.Lane.KILLFEED, DiscordOutbox.messageRoute(channel),
+                () -> channel.sendMessageEmbeds(embed),
+                null, error -> handleError(error, "Failed to send embed to channel", channel.getName()));
         } catch (Exception e) {
             logger.error("Error sending embed to channel {}", channel.getName(), e);
         }
@@ -63,9 +65,10 @@ public class EmbedSender {
      */
     public static void sendTemporaryEmbed(TextChannel channel, MessageEmbed embed, int deleteAfter, TimeUnit unit) {
         try {
-            channel.sendMessageEmbeds(embed).queue(message -> 
-                message.delete().queueAfter(deleteAfter, unit, null, 
-                    error -> handleError(error, "Failed to delete temporary message", channel.getName())), 
+            DiscordOutbox.getInstance().submit(DiscordOutbox.Lane.KILLFEED, DiscordOutbox.messageRoute(channel),
+                () -> channel.sendMessageEmbeds(embed),
+                message -> message.delete().queueAfter(deleteAfter, unit, null,
+                    error -> handleError(error, "Failed to delete temporary message", channel.getName())),
                 error -> handleError(error, "Failed to send temporary embed", channel.getName()));
         } catch (Exception e) {
             logger.error("Error sending temporary embed to channel {}", channel.getName(), e);
@@ -81,7 +84,9 @@ public class EmbedSender {
      */
     public static void sendEmbedWithCallback(TextChannel channel, MessageEmbed embed, Consumer<Void> callback) {
         try {
-            channel.sendMessageEmbeds(embed).queue(message -> callback.accept(null), 
+            DiscordOutbox.getInstance().submit(DiscordOutbox.Lane.KILLFEED, DiscordOutbox.messageRoute(channel),
+                () -> channel.sendMessageEmbeds(embed),
+                message -> callback.accept(null),
                 error -> handleError(error, "Failed to send embed with callback", channel.getName()));
         } catch (Exception e) {
             logger.error("Error sending embed with callback to channel {}", channel.getName(), e);
@@ -96,8 +101,9 @@ public class EmbedSender {
      */
     public static void editEmbed(InteractionHook hook, MessageEmbed embed) {
         try {
-            hook.editOriginalEmbeds(embed).queue(null, 
-                error -> handleError(error, "Failed to edit embed", "interaction"));
+            DiscordOutbox.getInstance().submit(DiscordOutbox.Lane.INTERACTION, DiscordOutbox.interactionRoute(hook),
+                () -> hook.editOriginalEmbeds(embed),
+                null, error -> handleError(error, "Failed to edit embed", "interaction"));
         } catch (Exception e) {
             logger.error("Error editing embed", e);
         }
@@ -124,7 +130,8 @@ public class EmbedSender {
     public static CompletableFuture<Void> sendEmbedAsync(TextChannel channel, MessageEmbed embed) {
         CompletableFuture<Void> future = new CompletableFuture<>();
         try {
-            channel.sendMessageEmbeds(embed).queue(
+            DiscordOutbox.getInstance().submit(DiscordOutbox.Lane.KILLFEED, DiscordOutbox.messageRoute(channel),
+                () -> channel.sendMessageEmbeds(embed),
                 message -> future.complete(null),
                 error -> {
                     handleError(error, "Failed to send embed asynchronously", channel.getName());
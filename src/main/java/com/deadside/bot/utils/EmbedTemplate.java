@@ -0,0 +1,49 @@
+package com.deadside.bot.utils;
+
+import net.dv8tion.jda.api.EmbedBuilder;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+
+import java.awt.Color;
+import java.time.Instant;
+import java.util.function.Supplier;
+
+/**
+ * The invariant part of one embed type, built once: color, footer, icon and title pool.
+ * Each embed starts as a copy of the prebuilt prototype, so only the per-event content is added at send time.
+ */
+public class EmbedTemplate {
+    private final MessageEmbed prototype;
+    private final String iconName;
+    private final Supplier<String> titles;
+
+    /**
+     * @param color Embed color
+     * @param footer Footer text
+     * @param iconName File name of the thumbnail icon, or null for no thumbnail
+     * @param titles Source of titles, e.g. {@code DynamicTitles::getKillfeedTitle}, or null for no title
+     */
+    public EmbedTemplate(Color color, String footer, String iconName, Supplier<String> titles) {
+        // EmbedBuilder refuses to build an empty embed, so the prototype carries a placeholder description
+        this.prototype = new EmbedBuilder()
+                .setColor(color)
+                .setFooter(footer)
+                .setDescription("\u200B")
+                .build();
+        this.iconName = iconName;
+        this.titles = titles;
+    }
+
+    /**
+     * Start a new embed from the template, with a title from the pool, the icon and the current timestamp
+     */
+    public EmbedBuilder builder() {
+        EmbedBuilder builder = new EmbedBuilder(prototype).setTimestamp(Instant.now());
+        if (titles != null) {
+            builder.setTitle(titles.get());
+        }
+        if (iconName != null) {
+            builder.setThumbnail(IconUrlCache.getInstance().resolve(iconName));
+        }
+        return builder;
+    }
+}
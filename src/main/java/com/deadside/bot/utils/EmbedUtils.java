@@ -151,6 +151,41 @@ public class EmbedUtils {
         return builder.build();
     }
     
+    /**
+     * Create a killfeed embed for a player kill
+     * 
+     * @param killer The player who made the kill
+     * @param victim The player who was killed
+     * @param weapon The weapon used
+     * @param distance The distance of the kill in meters
+     * @return The killfeed embed
+     */
+    public static MessageEmbed killfeedEmbed(String killer, String victim, String weapon, int distance) {
+        return KillfeedEmbeds.kill(killer, victim, weapon, distance);
+    }
+    
+    /**
+     * Create a killfeed embed for a suicide
+     * 
+     * @param player The player who died
+     * @param cause The raw cause of death from the log
+     * @return The suicide embed
+     */
+    public static MessageEmbed suicideEmbed(String player, String cause) {
+        return AdvancedEmbeds.advancedSuicideEmbed(player, cause);
+    }
+    
+    /**
+     * Create a killfeed embed for a falling death
+     * 
+     * @param player The player who died
+     * @param height The height of the fall in meters
+     * @return The falling death embed
+     */
+    public static MessageEmbed fallingDeathEmbed(String player, int height) {
+        return KillfeedEmbeds.falling(player, height);
+    }
+    
     /**
      * Set the footer of an embed builder with the user's name and avatar
      * 
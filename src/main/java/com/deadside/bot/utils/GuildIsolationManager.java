@@ -10,6 +10,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import com.deadside.bot.db.models.GameServer;
 
+import java.util.function.Consumer;
+
 /**
  * Manages guild isolation context to ensure data operations are always scoped
  * properly to the correct guild and game server
@@ -236,6 +238,34 @@ public class GuildIsolationManager {
         logger.debug("Cleared isolation context");
     }
     
+    /**
+     * Wrap a callback so it runs with the context of the calling thread, e.g. a future's continuation that
+     * completes on a database thread after the caller has already cleared its context
+     * @param callback The callback to run
+     * @return The callback, setting the captured context before it runs and restoring the thread's own
+     *         context afterwards
+     */
+    public <T> Consumer<T> withCurrentContext(Consumer<T> callback) {
+        FilterContext captured = currentContext.get();
+        return value -> {
+            FilterContext previous = currentContext.get();
+            if (captured != null) {
+                currentContext.set(captured);
+            } else {
+                currentContext.remove();
+            }
+            try {
+                callback.accept(value);
+            } finally {
+                if (previous != null) {
+                    currentContext.set(previous);
+                } else {
+                    currentContext.remove();
+                }
+            }
+        };
+    }
+    
     /**
      * Create a new filter context with the specified guild and server IDs
      * This method now also checks and includes isolation mode information
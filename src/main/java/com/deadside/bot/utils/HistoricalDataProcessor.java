@@ -7,7 +7,9 @@ import com.deadside.bot.db.repositories.GuildConfigRepository;
 import com.deadside.bot.db.repositories.KillRecordRepository;
 import com.deadside.bot.db.repositories.PlayerRepository;
 import com.deadside.bot.parsers.DeadsideCsvParser;
+import com.deadside.bot.parsers.HistoricalBackfillEngine;
 import com.deadside.bot.parsers.KillfeedParser;
+import com.deadside.bot.services.SchedulerService;
 import com.deadside.bot.sftp.SftpConnector;
 import net.dv8tion.jda.api.EmbedBuilder;
 import net.dv8tion.jda.api.JDA;
@@ -18,6 +20,7 @@ import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEve
 import net.dv8tion.jda.api.interactions.InteractionHook;
 import java.time.Instant;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -28,6 +31,10 @@ import org.slf4j.LoggerFactory;
 public class HistoricalDataProcessor {
     private static final Logger logger = LoggerFactory.getLogger(HistoricalDataProcessor.class);
     
+    // Worker pool on the shared scheduler and the delay before processing starts
+    private static final String POOL = "historical";
+    private static final long START_DELAY_SECONDS = 30;
+    
     /**
      * Schedule processing of historical data for a server with a delay
      * using the command channel for output
@@ -39,13 +46,10 @@ public class HistoricalDataProcessor {
         // Get the interaction hook from the event for sending messages to the command channel
         InteractionHook hook = event.getHook();
         
-        // Create a new thread to handle the delayed processing
-        Thread processingThread = new Thread(() -> {
+        // Wait 30 seconds to allow database to fully populate and SFTP connections to initialize
+        logger.info("Scheduling historical data processing for server {} in {} seconds", server.getName(), START_DELAY_SECONDS);
+        SchedulerService.getInstance().schedule(POOL, () -> {
             try {
-                // Wait 30 seconds to allow database to fully populate and SFTP connections to initialize
-                logger.info("Scheduling historical data processing for server {} in 30 seconds", server.getName());
-                Thread.sleep(30000);
-                
                 logger.info("Starting historical data processing for server {}", server.getName());
                 
                 // Send initial processing message with themed embed to the command channel
@@ -55,7 +59,7 @@ public class HistoricalDataProcessor {
                 
                 MessageEmbed embed = EmbedThemes.historicalDataEmbed(title, description);
                 
-                hook.sendMessageEmbeds(embed).queue();
+                sendProgress(hook, embed);
                 
                 // Create the parsers
                 KillfeedParser killfeedParser = new KillfeedParser(event.getJDA());
@@ -65,7 +69,9 @@ public class HistoricalDataProcessor {
                 csvParser.setProcessingHistoricalData(true);
                 
                 // Process killfeed data
-                int killfeedProcessed = killfeedParser.processServer(server, true);
+                HistoricalBackfillEngine.Progress killfeedResult =
+                    new HistoricalBackfillEngine(killfeedParser).backfill(server, null).join();
+                long killfeedProcessed = killfeedResult.records();
                 
                 // Send progress update after killfeed processing with modern embed to the command channel
                 title = "Killfeed Processing Complete";
@@ -77,12 +83,13 @@ public class HistoricalDataProcessor {
                     .setDescription(description)
                     .setColor(EmbedUtils.STEEL_BLUE)
                     .addField("Killfeed Records", String.valueOf(killfeedProcessed), true)
+                    .addField("Throughput", String.format("%.0f records/s", killfeedResult.recordsPerSecond()), true)
                     .addField("Status", "Processing Death Logs...", true)
                     .setFooter(EmbedUtils.STANDARD_FOOTER)
                     .setTimestamp(Instant.now())
                     .build();
                 
-                hook.sendMessageEmbeds(embed).queue();
+                sendProgress(hook, embed);
                 
                 // Get CSV file count before processing
                 SftpConnector sftpConnector = new SftpConnector();
@@ -123,7 +130,7 @@ public class HistoricalDataProcessor {
                     playersAfter
                 );
                 
-                hook.sendMessageEmbeds(embed).queue();
+                sendProgress(hook, embed);
                 
                 logger.info("Completed historical data processing for server {}: {} killfeed records, {} deathlogs", 
                         server.getName(), killfeedProcessed, deathlogsProcessed);
@@ -132,17 +139,12 @@ public class HistoricalDataProcessor {
                         server.getName(), e.getMessage(), e);
                 
                 // Send error message to the command channel
-                hook.sendMessageEmbeds(
+                sendProgress(hook,
                     EmbedUtils.errorEmbed("Historical Data Processing Error", 
                         "An error occurred while processing historical data for **" + server.getName() + "**: " + e.getMessage())
-                ).queue();
+                );
             }
-        });
-        
-        // Set as daemon thread so it doesn't block JVM shutdown
-        processingThread.setDaemon(true);
-        processingThread.setName("HistoricalProcessor-" + server.getName());
-        processingThread.start();
+        }, START_DELAY_SECONDS, TimeUnit.SECONDS);
     }
     
     /**
@@ -152,13 +154,10 @@ public class HistoricalDataProcessor {
      * @param server The game server to process historical data for
      */
     public static void scheduleProcessing(JDA jda, GameServer server) {
-        // Create a new thread to handle the delayed processing
-        Thread processingThread = new Thread(() -> {
+        // Wait 30 seconds to allow database to fully populate and SFTP connections to initialize
+        logger.info("Scheduling historical data processing for server {} in {} seconds", server.getName(), START_DELAY_SECONDS);
+        SchedulerService.getInstance().schedule(POOL, () -> {
             try {
-                // Wait 30 seconds to allow database to fully populate and SFTP connections to initialize
-                logger.info("Scheduling historical data processing for server {} in 30 seconds", server.getName());
-                Thread.sleep(30000);
-                
                 logger.info("Starting historical data processing for server {}", server.getName());
                 
                 // Find the admin channel to send status updates
@@ -178,7 +177,7 @@ public class HistoricalDataProcessor {
                         .setTimestamp(Instant.now())
                         .build();
                     
-                    adminChannel.sendMessageEmbeds(embed).queue();
+                    sendProgress(adminChannel, embed);
                 }
                 
                 // Create the parsers
@@ -189,7 +188,9 @@ public class HistoricalDataProcessor {
                 csvParser.setProcessingHistoricalData(true);
                 
                 // Process killfeed data
-                int killfeedProcessed = killfeedParser.processServer(server, true);
+                HistoricalBackfillEngine.Progress killfeedResult =
+                    new HistoricalBackfillEngine(killfeedParser).backfill(server, null).join();
+                long killfeedProcessed = killfeedResult.records();
                 
                 // Send progress update after killfeed processing with modern embed
                 if (adminChannel != null) {
@@ -202,12 +203,13 @@ public class HistoricalDataProcessor {
                         .setDescription(description)
                         .setColor(EmbedUtils.STEEL_BLUE)
                         .addField("Killfeed Records", String.valueOf(killfeedProcessed), true)
+                        .addField("Throughput", String.format("%.0f records/s", killfeedResult.recordsPerSecond()), true)
                         .addField("Status", "Processing Death Logs...", true)
                         .setFooter(EmbedUtils.STANDARD_FOOTER)
                         .setTimestamp(Instant.now())
                         .build();
                     
-                    adminChannel.sendMessageEmbeds(embed).queue();
+                    sendProgress(adminChannel, embed);
                 }
                 
                 // Process death logs with historical mode flag
@@ -224,12 +226,13 @@ public class HistoricalDataProcessor {
                         .setDescription(description)
                         .setColor(EmbedUtils.EMERALD_GREEN)
                         .addField("Killfeed Records", String.valueOf(killfeedProcessed), true)
+                        .addField("Throughput", String.format("%.0f records/s", killfeedResult.recordsPerSecond()), true)
                         .addField("Death Logs", String.valueOf(deathlogsProcessed), true)
                         .setFooter(EmbedUtils.STANDARD_FOOTER)
                         .setTimestamp(Instant.now())
                         .build();
                     
-                    adminChannel.sendMessageEmbeds(embed).queue();
+                    sendProgress(adminChannel, embed);
                 }
                 
                 logger.info("Completed historical data processing for server {}: {} killfeed records, {} deathlogs", 
@@ -238,12 +241,7 @@ public class HistoricalDataProcessor {
                 logger.error("Error during historical data processing for server {}: {}", 
                         server.getName(), e.getMessage(), e);
             }
-        });
-        
-        // Set as daemon thread so it doesn't block JVM shutdown
-        processingThread.setDaemon(true);
-        processingThread.setName("HistoricalProcessor-" + server.getName());
-        processingThread.start();
+        }, START_DELAY_SECONDS, TimeUnit.SECONDS);
     }
     
     /**
@@ -288,4 +286,21 @@ public class HistoricalDataProcessor {
             return null;
         }
     }
+    
+    /**
+     * Queue a progress message on the command's interaction hook.
+     * Progress reports use the leaderboard lane so they never delay interactive replies.
+     */
+    private static void sendProgress(InteractionHook hook, MessageEmbed embed) {
+        DiscordOutbox.getInstance().submit(DiscordOutbox.Lane.LEADERBOARD, DiscordOutbox.interactionRoute(hook),
+            () -> hook.sendMessageEmbeds(embed));
+    }
+    
+    /**
+     * Queue a progress message in the admin channel
+     */
+    private static void sendProgress(TextChannel channel, MessageEmbed embed) {
+        DiscordOutbox.getInstance().submit(DiscordOutbox.Lane.LEADERBOARD, DiscordOutbox.messageRoute(channel),
+            () -> channel.sendMessageEmbeds(embed));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,118 @@
+package com.deadside.bot.utils;
+
+import com.deadside.bot.config.Config;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import net.dv8tion.jda.api.requests.restaction.MessageCreateAction;
+import net.dv8tion.jda.api.utils.FileUpload;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolves embed icons to URLs so each icon is uploaded once instead of with every message.
+ *
+ * When {@code embed.iconBaseUrl} is configured, icons are served from that location and never uploaded.
+ * Otherwise an icon is attached the first time it is used and the CDN URL Discord returns for the
+ * attachment is reused by later embeds. Discord attachment URLs are signed and expire, so a cached URL
+ * is only used for {@code embed.iconUrlTtlHours} before the icon is uploaded again.
+ */
+public class IconUrlCache {
+    private static final Logger logger = LoggerFactory.getLogger(IconUrlCache.class);
+    private static final String ATTACHMENT_PREFIX = "attachment://";
+
+    private static IconUrlCache instance;
+
+    private final String baseUrl;
+    private final long ttlMillis;
+    private final Map<String, CachedUrl> urls = new ConcurrentHashMap<>();
+
+    /**
+     * An uploaded icon's CDN URL and when it stops being used
+     */
+    private record CachedUrl(String url, long expiresAt) {
+    }
+
+    private IconUrlCache() {
+        String configuredBase = Config.getProperty("embed.iconBaseUrl", "").trim();
+        if (!configuredBase.isEmpty() && !configuredBase.endsWith("/")) {
+            configuredBase += "/";
+        }
+        this.baseUrl = configuredBase;
+        this.ttlMillis = TimeUnit.HOURS.toMillis(Config.getIntProperty("embed.iconUrlTtlHours", 12));
+    }
+
+    /**
+     * Get the shared icon cache
+     */
+    public static synchronized IconUrlCache getInstance() {
+        if (instance == null) {
+            instance = new IconUrlCache();
+        }
+        return instance;
+    }
+
+    /**
+     * Get the URL an embed should use for an icon: the configured base URL, a cached CDN URL,
+     * or an attachment reference if the icon has to be uploaded with the message
+     * @param iconName File name of the icon, e.g. {@link ResourceManager#KILLFEED_ICON}
+     */
+    public String resolve(String iconName) {
+        if (!baseUrl.isEmpty()) {
+            return baseUrl + iconName;
+        }
+
+        CachedUrl cached = urls.get(iconName);
+        if (cached != null && cached.expiresAt() > System.currentTimeMillis()) {
+            return cached.url();
+        }
+        return ATTACHMENT_PREFIX + iconName;
+    }
+
+    /**
+     * Attach the icons an embed references by attachment, leaving the message unchanged if
+     * every icon already resolves to a URL
+     */
+    public MessageCreateAction attachIcons(MessageCreateAction action, MessageEmbed embed) {
+        attachIfReferenced(action, embed.getThumbnail() != null ? embed.getThumbnail().getUrl() : null);
+        attachIfReferenced(action, embed.getFooter() != null ? embed.getFooter().getIconUrl() : null);
+        return action;
+    }
+
+    /**
+     * Remember the CDN URLs of icons uploaded with a sent message
+     */
+    public void remember(Message message) {
+        long expiresAt = System.currentTimeMillis() + ttlMillis;
+        for (Message.Attachment attachment : message.getAttachments()) {
+            String name = attachment.getFileName();
+            if (ResourceManager.isKnownImage(name)) {
+                CachedUrl previous = urls.put(name, new CachedUrl(attachment.getUrl(), expiresAt));
+                if (previous == null) {
+                    logger.debug("Cached CDN URL for icon {}", name);
+                }
+            }
+        }
+    }
+
+    /**
+     * Forget every cached URL, so icons are uploaded again with the next message
+     */
+    public void clear() {
+        urls.clear();
+    }
+
+    private void attachIfReferenced(MessageCreateAction action, String url) {
+        if (url == null || !url.startsWith(ATTACHMENT_PREFIX)) {
+            return;
+        }
+
+        FileUpload upload = ResourceManager.getImageAsFileUpload(url);
+        if (upload != null) {
+            action.addFiles(upload);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.deadside.bot.utils;
+
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import net.dv8tion.jda.api.entities.channel.middleman.MessageChannel;
+
+import java.awt.Color;
+
+/**
+ * Killfeed embeds built from prebuilt templates, and sending them with their icons uploaded only when needed
+ */
+public class KillfeedEmbeds {
+    private static final String FOOTER = "Powered By Discord.gg/EmeraldServers";
+    private static final Color DARK_GRAY = new Color(47, 49, 54);
+
+    private static final EmbedTemplate KILL = new EmbedTemplate(
+            EmbedThemes.DEADSIDE_KILLFEED, FOOTER, ResourceManager.KILLFEED_ICON, DynamicTitles::getKillfeedTitle);
+    private static final EmbedTemplate SUICIDE = new EmbedTemplate(
+            DARK_GRAY, FOOTER, ResourceManager.KILLFEED_ICON, DynamicTitles::getSuicideTitle);
+    private static final EmbedTemplate FALLING = new EmbedTemplate(
+            DARK_GRAY, FOOTER, ResourceManager.KILLFEED_ICON, DynamicTitles::getFallingTitle);
+
+    /**
+     * Create a killfeed embed for a player kill
+     */
+    public static MessageEmbed kill(String killer, String victim, String weapon, int distance) {
+        return KILL.builder()
+                .setDescription(DynamicTitles.getKillfeedDescription(killer, victim, weapon, distance))
+                .addField("Killer", killer, true)
+                .addField("Victim", victim, true)
+                .addField("Weapon", weapon, true)
+                .addField("Distance", distance + "m", true)
+                .build();
+    }
+
+    /**
+     * Create a killfeed embed for a suicide
+     * @param cause Normalized cause of death, e.g. "Menu Suicide"
+     * @param menuSuicide Whether the player died through the respawn menu
+     */
+    public static MessageEmbed suicide(String player, String cause, boolean menuSuicide) {
+        String description = menuSuicide
+                ? player + " returned to the void (Menu Suicide)"
+                : DynamicTitles.getSuicideDescription(player);
+
+        return SUICIDE.builder()
+                .setDescription(description)
+                .addField("Player", player, true)
+                .addField("Cause", cause, true)
+                .addField("Location", "Unknown", true)
+                .build();
+    }
+
+    /**
+     * Create a killfeed embed for a falling death
+     * @param height Height of the fall in meters
+     */
+    public static MessageEmbed falling(String player, int height) {
+        String severity = "Fatal";
+        if (height > 30) {
+            severity = "Catastrophic";
+        } else if (height > 20) {
+            severity = "Devastating";
+        } else if (height > 10) {
+            severity = "Severe";
+        }
+
+        return FALLING.builder()
+                .setDescription(DynamicTitles.getFallingDescription(player, height))
+                .addField("Player", player, true)
+                .addField("Cause", "Falling damage", true)
+                .addField("Height", height + "m", true)
+                .addField("Severity", severity, true)
+                .build();
+    }
+
+    /**
+     * Queue a killfeed embed on the outbox. Icons the embed references by attachment are uploaded
+     * with the message, and the returned CDN URLs are cached for the embeds that follow.
+     */
+    public static void send(MessageChannel channel, MessageEmbed embed) {
+        IconUrlCache icons = IconUrlCache.getInstance();
+        DiscordOutbox.getInstance().submit(DiscordOutbox.Lane.KILLFEED, DiscordOutbox.messageRoute(channel),
+            () -> icons.attachIcons(channel.sendMessageEmbeds(embed), embed),
+            icons::remember, null);
+    }
+}
@@ -1,157 +1,344 @@
 package com.deadside.bot.utils;
 
-import java.util.HashMap;
+import java.util.EnumMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Manages parser state to coordinate between different parser components
+ * Manages parser state to coordinate between different parser components.
+ *
+ * Every server has its own state, with one phase per parser scope (killfeed, CSV, log). Phases change
+ * through atomic compare-and-set transitions, so one server can be backfilling while others keep tailing
+ * without any global lock or flag. Listeners are told about every transition.
  */
 public class ParserStateManager {
     private static final Logger logger = LoggerFactory.getLogger(ParserStateManager.class);
-    private static boolean processingHistoricalData = false;
-    
-    // Track parser state by server (key = serverName:guildId)
-    private static final Map<String, ParserState> killfeedParsers = new HashMap<>();
-    private static final Map<String, ParserState> csvParsers = new HashMap<>();
-    
+
+    private static final Map<ServerKey, ServerState> states = new ConcurrentHashMap<>();
+    private static final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Parser whose state is tracked
+     */
+    public enum Scope {
+        KILLFEED,
+        CSV,
+        LOG
+    }
+
+    /**
+     * What a parser is doing for a server
+     */
+    public enum Phase {
+        IDLE,
+        TAILING,
+        BACKFILLING,
+        PAUSED
+    }
+
+    /**
+     * Identifies a server by guild and server name without building strings
+     */
+    public record ServerKey(long guildId, String serverName) {
+    }
+
+    /**
+     * A completed phase change
+     * @param reason Reason given for the change, may be null
+     */
+    public record Transition(ServerKey key, Scope scope, Phase from, Phase to, String reason) {
+    }
+
+    /**
+     * Receives phase changes; called on the thread that made the change
+     */
+    @FunctionalInterface
+    public interface Listener {
+        void onTransition(Transition transition);
+    }
+
+    /**
+     * Phase of one scope, with the phase to return to when a pause or backfill ends
+     */
+    private record Status(Phase phase, Phase previous, String reason, long since) {
+        private static final Status IDLE = new Status(Phase.IDLE, Phase.IDLE, null, 0);
+    }
+
     /**
-     * Check if the parser is currently processing historical data
+     * Parser state of one server
      */
-    public static boolean isProcessingHistoricalData() {
-        return processingHistoricalData;
+    public static final class ServerState {
+        private final ServerKey key;
+        // Filled in the constructor and never modified, so reads need no locking
+        private final Map<Scope, AtomicReference<Status>> scopes = new EnumMap<>(Scope.class);
+
+        private ServerState(ServerKey key) {
+            this.key = key;
+            for (Scope scope : Scope.values()) {
+                scopes.put(scope, new AtomicReference<>(Status.IDLE));
+            }
+        }
+
+        public ServerKey getKey() {
+            return key;
+        }
+
+        public Phase getPhase(Scope scope) {
+            return scopes.get(scope).get().phase();
+        }
+
+        /**
+         * Get the reason for the current phase, or null if none was given
+         */
+        public String getReason(Scope scope) {
+            return scopes.get(scope).get().reason();
+        }
+
+        /**
+         * Get when the current phase was entered, in epoch milliseconds
+         */
+        public long getSince(Scope scope) {
+            return scopes.get(scope).get().since();
+        }
+
+        /**
+         * Apply a transition atomically
+         * @param update Returns the new status, or null if the transition does not apply to the current one
+         * @return true if the phase was changed
+         */
+        private boolean transition(Scope scope, String reason, UnaryOperator<Status> update) {
+            AtomicReference<Status> ref = scopes.get(scope);
+            while (true) {
+                Status current = ref.get();
+                Status next = update.apply(current);
+                if (next == null) {
+                    return false;
+                }
+                if (ref.compareAndSet(current, next)) {
+                    if (current.phase() != next.phase()) {
+                        notifyListeners(new Transition(key, scope, current.phase(), next.phase(), reason));
+                    }
+                    return true;
+                }
+            }
+        }
     }
-    
+
+    /**
+     * Get the parser state of a server, creating it on first use
+     */
+    public static ServerState getState(String serverName, long guildId) {
+        return states.computeIfAbsent(new ServerKey(guildId, serverName), ServerState::new);
+    }
+
     /**
-     * Set the historical data processing state
+     * Register a listener for phase changes of every server
      */
-    public static void setProcessingHistoricalData(boolean state) {
-        processingHistoricalData = state;
+    public static void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public static void removeListener(Listener listener) {
+        listeners.remove(listener);
     }
-    
+
     /**
-     * Generate a unique key for server state tracking
+     * Mark a parser as tailing a server, if it was idle
+     * @return true if the parser is tailing
      */
-    private static String getServerKey(String serverName, long guildId) {
-        return serverName + ":" + guildId;
+    public static boolean markTailing(String serverName, long guildId, Scope scope) {
+        return getState(serverName, guildId).transition(scope, null, status -> switch (status.phase()) {
+            case IDLE -> new Status(Phase.TAILING, Phase.IDLE, null, System.currentTimeMillis());
+            case TAILING -> status;
+            default -> null;
+        });
     }
-    
+
+    /**
+     * Check whether live data may be processed for a server, i.e. the parser is neither paused nor backfilling
+     */
+    public static boolean canTail(String serverName, long guildId, Scope scope) {
+        Phase phase = getState(serverName, guildId).getPhase(scope);
+        return phase == Phase.IDLE || phase == Phase.TAILING;
+    }
+
+    /**
+     * Start backfilling a server. Fails if the server is already backfilling or is paused.
+     * @return true if the server is now backfilling
+     */
+    public static boolean beginBackfill(String serverName, long guildId, Scope scope, String reason) {
+        boolean started = getState(serverName, guildId).transition(scope, reason, status ->
+                status.phase() == Phase.IDLE || status.phase() == Phase.TAILING
+                        ? new Status(Phase.BACKFILLING, status.phase(), reason, System.currentTimeMillis())
+                        : null);
+        if (started) {
+            logger.info("Started {} backfill for server '{}' in guild {}: {}", scope, serverName, guildId, reason);
+        }
+        return started;
+    }
+
+    /**
+     * Finish a backfill and return the parser to what it was doing before.
+     * If the parser was paused during the backfill it stays paused.
+     */
+    public static void endBackfill(String serverName, long guildId, Scope scope) {
+        boolean ended = getState(serverName, guildId).transition(scope, "Backfill finished", status -> {
+            if (status.phase() == Phase.BACKFILLING) {
+                return new Status(status.previous(), Phase.IDLE, null, System.currentTimeMillis());
+            }
+            if (status.phase() == Phase.PAUSED && status.previous() == Phase.BACKFILLING) {
+                return new Status(Phase.PAUSED, Phase.IDLE, status.reason(), status.since());
+            }
+            return null;
+        });
+        if (ended) {
+            logger.info("Finished {} backfill for server '{}' in guild {}", scope, serverName, guildId);
+        }
+    }
+
+    /**
+     * Check whether a parser is backfilling a server
+     */
+    public static boolean isBackfilling(String serverName, long guildId, Scope scope) {
+        return getState(serverName, guildId).getPhase(scope) == Phase.BACKFILLING;
+    }
+
+    /**
+     * Pause a parser for a server
+     */
+    public static void pause(String serverName, long guildId, Scope scope, String reason) {
+        boolean paused = getState(serverName, guildId).transition(scope, reason, status ->
+                status.phase() == Phase.PAUSED
+                        ? new Status(Phase.PAUSED, status.previous(), reason, status.since())
+                        : new Status(Phase.PAUSED, status.phase(), reason, System.currentTimeMillis()));
+        if (paused) {
+            logger.info("Paused {} parser for server '{}' in guild {}: {}", scope, serverName, guildId, reason);
+        }
+    }
+
+    /**
+     * Resume a paused parser for a server, returning it to what it was doing before the pause
+     */
+    public static void resume(String serverName, long guildId, Scope scope) {
+        boolean resumed = getState(serverName, guildId).transition(scope, null, status ->
+                status.phase() == Phase.PAUSED
+                        ? new Status(status.previous(), Phase.IDLE, null, System.currentTimeMillis())
+                        : null);
+        if (resumed) {
+            logger.info("Resumed {} parser for server '{}' in guild {}", scope, serverName, guildId);
+        }
+    }
+
+    /**
+     * Check if a parser is paused for a server
+     */
+    public static boolean isPaused(String serverName, long guildId, Scope scope) {
+        ServerState state = states.get(new ServerKey(guildId, serverName));
+        return state != null && state.getPhase(scope) == Phase.PAUSED;
+    }
+
+    /**
+     * Get the reason why a parser is paused, or null if it is not paused
+     */
+    public static String getPauseReason(String serverName, long guildId, Scope scope) {
+        ServerState state = states.get(new ServerKey(guildId, serverName));
+        return state != null && state.getPhase(scope) == Phase.PAUSED ? state.getReason(scope) : null;
+    }
+
     /**
      * Pause the killfeed parser for a server
      */
     public static void pauseKillfeedParser(String serverName, long guildId, String reason) {
-        String key = getServerKey(serverName, guildId);
-        killfeedParsers.put(key, new ParserState(false, reason));
-        logger.info("Paused killfeed parser for server '{}' in guild {}: {}", 
-                serverName, guildId, reason);
+        pause(serverName, guildId, Scope.KILLFEED, reason);
     }
-    
+
     /**
      * Resume the killfeed parser for a server
      */
     public static void resumeKillfeedParser(String serverName, long guildId) {
-        String key = getServerKey(serverName, guildId);
-        if (killfeedParsers.containsKey(key)) {
-            killfeedParsers.remove(key);
-            logger.info("Resumed killfeed parser for server '{}' in guild {}", 
-                    serverName, guildId);
-        }
+        resume(serverName, guildId, Scope.KILLFEED);
     }
-    
+
     /**
      * Check if the killfeed parser is paused for a server
      */
     public static boolean isKillfeedParserPaused(String serverName, long guildId) {
-        String key = getServerKey(serverName, guildId);
-        return killfeedParsers.containsKey(key);
+        return isPaused(serverName, guildId, Scope.KILLFEED);
     }
-    
+
     /**
      * Get the reason why a killfeed parser is paused
      */
     public static String getKillfeedPauseReason(String serverName, long guildId) {
-        String key = getServerKey(serverName, guildId);
-        ParserState state = killfeedParsers.get(key);
-        return state != null ? state.getReason() : null;
+        return getPauseReason(serverName, guildId, Scope.KILLFEED);
     }
-    
+
     /**
      * Pause the CSV parser for a server
      */
     public static void pauseCSVParser(String serverName, long guildId, String reason) {
-        String key = getServerKey(serverName, guildId);
-        csvParsers.put(key, new ParserState(false, reason));
-        logger.info("Paused CSV parser for server '{}' in guild {}: {}", 
-                serverName, guildId, reason);
+        pause(serverName, guildId, Scope.CSV, reason);
     }
-    
+
     /**
      * Resume the CSV parser for a server
      */
     public static void resumeCSVParser(String serverName, long guildId) {
-        String key = getServerKey(serverName, guildId);
-        if (csvParsers.containsKey(key)) {
-            csvParsers.remove(key);
-            logger.info("Resumed CSV parser for server '{}' in guild {}", 
-                    serverName, guildId);
-        }
+        resume(serverName, guildId, Scope.CSV);
     }
-    
+
     /**
      * Check if the CSV parser is paused for a server
      */
     public static boolean isCSVParserPaused(String serverName, long guildId) {
-        String key = getServerKey(serverName, guildId);
-        return csvParsers.containsKey(key);
+        return isPaused(serverName, guildId, Scope.CSV);
     }
-    
+
     /**
      * Get the reason why a CSV parser is paused
      */
     public static String getCSVPauseReason(String serverName, long guildId) {
-        String key = getServerKey(serverName, guildId);
-        ParserState state = csvParsers.get(key);
-        return state != null ? state.getReason() : null;
+        return getPauseReason(serverName, guildId, Scope.CSV);
     }
-    
+
     /**
      * Reset all parser state for a server
      */
     public static void resetParserState(String serverName, long guildId) {
-        String key = getServerKey(serverName, guildId);
-        killfeedParsers.remove(key);
-        csvParsers.remove(key);
-        logger.info("Reset parser state for server '{}' in guild {}", 
+        states.remove(new ServerKey(guildId, serverName));
+        logger.info("Reset parser state for server '{}' in guild {}",
                 serverName, guildId);
     }
-    
+
     /**
      * Get overall parser status for a server
      */
     public static boolean isAnyParserPaused(String serverName, long guildId) {
-        return isKillfeedParserPaused(serverName, guildId) || 
-               isCSVParserPaused(serverName, guildId);
-    }
-    
-    /**
-     * Inner class to track parser state
-     */
-    private static class ParserState {
-        private final boolean active;
-        private final String reason;
-        
-        public ParserState(boolean active, String reason) {
-            this.active = active;
-            this.reason = reason;
+        ServerState state = states.get(new ServerKey(guildId, serverName));
+        if (state == null) {
+            return false;
         }
-        
-        public boolean isActive() {
-            return active;
+        for (Scope scope : Scope.values()) {
+            if (state.getPhase(scope) == Phase.PAUSED) {
+                return true;
+            }
         }
-        
-        public String getReason() {
-            return reason;
+        return false;
+    }
+
+    private static void notifyListeners(Transition transition) {
+        for (Listener listener : listeners) {
+            try {
+                listener.onTransition(transition);
+            } catch (Exception e) {
+                logger.warn("Parser state listener failed for {}: {}", transition, e.getMessage());
+            }
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,141 @@
+package com.deadside.bot.utils;
+
+import com.deadside.bot.config.Config;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.security.SecureRandom;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.random.RandomGenerator;
+
+/**
+ * Source of randomness for game outcomes and cosmetic choices.
+ *
+ * Every thread draws from its own {@link SplittableRandom} split off a common root, so concurrent
+ * interactions never contend on shared seed state.
+ *
+ * When {@code rng.seed} is configured the service runs in replay mode: each game outcome gets its own
+ * generator whose seed is derived from the configured seed and a sequence number, and that seed is logged
+ * together with the game and subject. Passing a logged seed to {@link #replay(long)} reproduces the
+ * outcome exactly, which is used for disputes and benchmarks.
+ */
+public class RandomService {
+    private static final Logger logger = LoggerFactory.getLogger(RandomService.class);
+
+    // Odd constant from SplittableRandom's seed sequence, used to spread sequence numbers over the seed space
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private static RandomService instance;
+
+    private final SplittableRandom root;
+    private final ThreadLocal<SplittableRandom> streams;
+    private final boolean replayMode;
+    private final long masterSeed;
+    private final AtomicLong sequence = new AtomicLong();
+
+    private RandomService() {
+        String configuredSeed = Config.getProperty("rng.seed", "").trim();
+        long seed;
+        boolean seeded = false;
+        if (!configuredSeed.isEmpty()) {
+            try {
+                seed = Long.parseLong(configuredSeed);
+                seeded = true;
+            } catch (NumberFormatException e) {
+                logger.warn("Invalid rng.seed '{}', falling back to unseeded random", configuredSeed);
+                seed = new SecureRandom().nextLong();
+            }
+        } else {
+            seed = new SecureRandom().nextLong();
+        }
+
+        this.masterSeed = seed;
+        this.replayMode = seeded;
+        this.root = new SplittableRandom(seed);
+        this.streams = ThreadLocal.withInitial(this::splitRoot);
+
+        if (replayMode) {
+            logger.info("Random service running in replay mode with seed {}", masterSeed);
+        }
+    }
+
+    /**
+     * Get the shared random service
+     */
+    public static synchronized RandomService getInstance() {
+        if (instance == null) {
+            instance = new RandomService();
+        }
+        return instance;
+    }
+
+    /**
+     * Get the calling thread's generator, for cosmetic randomness that never needs replaying.
+     * The generator must not be shared with other threads.
+     */
+    public RandomGenerator current() {
+        return streams.get();
+    }
+
+    /**
+     * Get a generator for a single game outcome, such as a deck shuffle, a reel spin or a wheel spin.
+     * In replay mode the generator is freshly seeded and the seed is logged; otherwise this is the
+     * calling thread's generator. Use it on the calling thread only.
+     * @param game Game or feature drawing the outcome, e.g. "roulette"
+     * @param subject Who or what the outcome is for, usually the Discord user ID
+     */
+    public RandomGenerator outcome(String game, String subject) {
+        if (!replayMode) {
+            return streams.get();
+        }
+
+        long seed = mix(masterSeed + sequence.incrementAndGet() * GOLDEN_GAMMA);
+        logger.info("RNG outcome game={} subject={} seed={}", game, subject, seed);
+        return new SplittableRandom(seed);
+    }
+
+    /**
+     * Check whether outcome seeds are being logged for replay
+     */
+    public boolean isReplayMode() {
+        return replayMode;
+    }
+
+    /**
+     * Recreate the generator of a logged outcome
+     * @param seed Seed from an "RNG outcome" log line
+     */
+    public static RandomGenerator replay(long seed) {
+        return new SplittableRandom(seed);
+    }
+
+    /**
+     * Shuffle a list in place with the given generator (Fisher-Yates)
+     */
+    public static <T> void shuffle(List<T> list, RandomGenerator random) {
+        for (int i = list.size() - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            T swap = list.get(i);
+            list.set(i, list.get(j));
+            list.set(j, swap);
+        }
+    }
+
+    private SplittableRandom splitRoot() {
+        // SplittableRandom is not thread-safe, so splitting the root is serialized; this only runs once per thread
+        synchronized (root) {
+            return root.split();
+        }
+    }
+
+    /**
+     * MurmurHash3 finalizer, so consecutive sequence numbers give unrelated seeds
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9e53e13d31bL;
+        return z ^ (z >>> 33);
+    }
+}
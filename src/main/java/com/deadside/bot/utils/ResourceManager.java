@@ -11,9 +11,9 @@ import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Manages resources for the Deadside Bot including logos and images
@@ -21,7 +21,7 @@ import java.util.Properties;
 public class ResourceManager {
     private static final Logger LOGGER = LoggerFactory.getLogger(ResourceManager.class);
     private static final Properties properties = new Properties();
-    private static boolean initialized = false;
+    private static volatile boolean initialized = false;
     
     // Paths for the resource folders
     private static final String MAIN_RESOURCES_PATH = "src/main/resources";
@@ -42,14 +42,14 @@ public class ResourceManager {
     public static final String WEAPON_STATS_ICON = "WeaponStats.png";
     public static final String HELICRASH_ICON = "Helicrash.png";
     
-    // Cache for FileUpload objects
-    private static final Map<String, FileUpload> fileUploadCache = new HashMap<>();
+    // Image contents by file name; an empty array marks an image that could not be found
+    private static final Map<String, byte[]> imageCache = new ConcurrentHashMap<>();
     
     /**
      * Initialize the ResourceManager
      * This ensures all resources are loaded and ready for use
      */
-    public static void initialize() {
+    public static synchronized void initialize() {
         if (initialized) {
             return;
         }
@@ -100,50 +100,62 @@ public class ResourceManager {
      */
     private static void preloadResource(String imageName) {
         try {
-            FileUpload upload = getImageAsFileUpload(imageName);
-            if (upload != null) {
-                fileUploadCache.put(imageName, upload);
-            }
+            getImageBytes(imageName);
         } catch (Exception e) {
             LOGGER.error("Failed to preload resource: " + imageName, e);
         }
     }
     
     /**
-     * Get a FileUpload for an image resource with enhanced support for Discord file attachments
+     * Get a FileUpload for an image resource with enhanced support for Discord file attachments.
+     * The image is read once and kept in memory; every call returns a new upload over the cached bytes,
+     * since an upload can only be sent once.
      * @param imageName The name of the image file
      * @return FileUpload object for the image
      */
     public static FileUpload getImageAsFileUpload(String imageName) {
+        // For attachment:// URLs, extract just the filename
+        if (imageName.startsWith("attachment://")) {
+            imageName = imageName.substring("attachment://".length());
+        }
+        
+        byte[] bytes = getImageBytes(imageName);
+        return bytes != null ? FileUpload.fromData(bytes, imageName) : null;
+    }
+    
+    /**
+     * Get the contents of an image resource, reading it on first use only
+     * @param imageName The name of the image file
+     * @return The image bytes, or null if the image could not be found
+     */
+    public static byte[] getImageBytes(String imageName) {
+        byte[] bytes = imageCache.computeIfAbsent(imageName, ResourceManager::loadImageBytes);
+        return bytes.length > 0 ? bytes : null;
+    }
+    
+    /**
+     * Check whether a file name belongs to a known image resource
+     * @param imageName The name of the image file
+     * @return true if the image has been loaded successfully
+     */
+    public static boolean isKnownImage(String imageName) {
+        byte[] bytes = imageCache.get(imageName);
+        return bytes != null && bytes.length > 0;
+    }
+    
+    /**
+     * Read an image from the first location that has it
+     * @return The image bytes, or an empty array if the image could not be found
+     */
+    private static byte[] loadImageBytes(String imageName) {
         try {
-            // For attachment:// URLs, extract just the filename
-            if (imageName.startsWith("attachment://")) {
-                imageName = imageName.substring("attachment://".length());
-            }
-            
-            // Create FileUpload from attached_assets directory (highest priority)
-            File attachedFile = new File("attached_assets/" + imageName);
-            if (attachedFile.exists() && attachedFile.isFile() && attachedFile.canRead()) {
-                LOGGER.debug("Found image in attached_assets: {}", attachedFile.getAbsolutePath());
-                return FileUpload.fromData(attachedFile, imageName);
-            }
-            
-            // Try resources/images folder
-            File resourcesFile = new File("src/main/resources/images/" + imageName);
-            if (resourcesFile.exists() && resourcesFile.isFile() && resourcesFile.canRead()) {
-                LOGGER.debug("Found image in resources: {}", resourcesFile.getAbsolutePath());
-                return FileUpload.fromData(resourcesFile, imageName);
-            }
-            
-            // Try target/classes/images folder (for compiled resources)
-            File targetFile = new File("target/classes/images/" + imageName);
-            if (targetFile.exists() && targetFile.isFile() && targetFile.canRead()) {
-                LOGGER.debug("Found image in target: {}", targetFile.getAbsolutePath());
-                return FileUpload.fromData(targetFile, imageName);
-            }
-            
-            // Try absolute paths for other resources directories
             File[] possibleLocations = {
+                // attached_assets directory (highest priority)
+                new File("attached_assets/" + imageName),
+                // resources/images folder
+                new File("src/main/resources/images/" + imageName),
+                // target/classes/images folder (for compiled resources)
+                new File("target/classes/images/" + imageName),
                 // Try various common locations
                 new File(System.getProperty("user.dir") + "/resources/images/" + imageName),
                 new File(System.getProperty("user.dir") + "/images/" + imageName),
@@ -154,29 +166,26 @@ public class ResourceManager {
             
             for (File possibleFile : possibleLocations) {
                 if (possibleFile.exists() && possibleFile.isFile() && possibleFile.canRead()) {
-                    LOGGER.debug("Found image in alternative location: {}", possibleFile.getAbsolutePath());
-                    return FileUpload.fromData(possibleFile, imageName);
+                    LOGGER.debug("Found image at: {}", possibleFile.getAbsolutePath());
+                    return Files.readAllBytes(possibleFile.toPath());
                 }
             }
             
             // Use classpath resource loading as last resort
             try (InputStream is = ResourceManager.class.getClassLoader().getResourceAsStream("images/" + imageName)) {
                 if (is != null) {
-                    // Create temporary file from stream
-                    Path tempFile = Files.createTempFile("discord-image-", imageName);
-                    Files.copy(is, tempFile, java.nio.file.StandardCopyOption.REPLACE_EXISTING);
-                    LOGGER.debug("Created temp file from classpath resource: {}", tempFile);
-                    return FileUpload.fromData(tempFile.toFile(), imageName);
+                    LOGGER.debug("Found image on classpath: {}", imageName);
+                    return is.readAllBytes();
                 }
             }
             
-            // If we reach here, log the failure and return null
+            // If we reach here, log the failure; the empty result is cached so the search is not repeated
             LOGGER.warn("FAILED to find image: {} - Images will not display correctly", imageName);
-            return null;
+            return new byte[0];
             
         } catch (Exception e) {
             LOGGER.error("Error loading image resource: {}", imageName, e);
-            return null;
+            return new byte[0];
         }
     }
     
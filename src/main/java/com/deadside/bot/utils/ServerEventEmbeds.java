@@ -0,0 +1,78 @@
+package com.deadside.bot.utils;
+
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import net.dv8tion.jda.api.entities.channel.middleman.MessageChannel;
+
+/**
+ * Game event embeds (missions, airdrops, traders, helicrashes) built from prebuilt templates
+ */
+public class ServerEventEmbeds {
+    private static final String FOOTER = "Powered By Discord.gg/EmeraldServers";
+
+    private static final EmbedTemplate MISSION = new EmbedTemplate(
+            EmbedThemes.EVENT_COLOR, FOOTER, ResourceManager.MISSION_ICON, DynamicTitles::getMissionTitle);
+    private static final EmbedTemplate AIRDROP = new EmbedTemplate(
+            EmbedThemes.EVENT_COLOR, FOOTER, ResourceManager.AIRDROP_ICON, DynamicTitles::getAirdropTitle);
+    private static final EmbedTemplate TRADER = new EmbedTemplate(
+            EmbedThemes.EVENT_COLOR, FOOTER, ResourceManager.TRADER_ICON, () -> "Trader Update");
+    private static final EmbedTemplate HELICRASH = new EmbedTemplate(
+            EmbedThemes.EVENT_COLOR, FOOTER, ResourceManager.HELICRASH_ICON, DynamicTitles::getHelicrashTitle);
+
+    /**
+     * Create an embed for a mission changing state
+     * @param state New state, or null if the log did not say
+     */
+    public static MessageEmbed mission(String serverName, String mission, String state) {
+        return MISSION.builder()
+                .setDescription(state != null
+                        ? "Mission **" + mission + "** is now **" + state + "**"
+                        : "Mission **" + mission + "**")
+                .addField("Server", serverName, true)
+                .build();
+    }
+
+    /**
+     * Create an embed for the airdrop changing state
+     */
+    public static MessageEmbed airdrop(String serverName, String state) {
+        return AIRDROP.builder()
+                .setDescription("Airdrop is now **" + state + "**")
+                .addField("Server", serverName, true)
+                .build();
+    }
+
+    /**
+     * Create an embed for a trader changing state
+     * @param state New state, or null if the log did not say
+     */
+    public static MessageEmbed trader(String serverName, String trader, String state) {
+        return TRADER.builder()
+                .setDescription(state != null
+                        ? "Trader **" + trader + "** is now **" + state + "**"
+                        : "Trader **" + trader + "**")
+                .addField("Server", serverName, true)
+                .build();
+    }
+
+    /**
+     * Create an embed for a helicopter crash
+     * @param location Location text as logged
+     */
+    public static MessageEmbed helicrash(String serverName, String location) {
+        return HELICRASH.builder()
+                .setDescription("A helicopter has crashed")
+                .addField("Server", serverName, true)
+                .addField("Location", location, true)
+                .build();
+    }
+
+    /**
+     * Queue a game event embed on the outbox, in the same lane as the killfeed
+     */
+    public static void send(MessageChannel channel, MessageEmbed embed) {
+        IconUrlCache icons = IconUrlCache.getInstance();
+        DiscordOutbox.getInstance().submit(DiscordOutbox.Lane.KILLFEED, DiscordOutbox.messageRoute(channel),
+            () -> icons.attachIcons(channel.sendMessageEmbeds(embed), embed),
+            icons::remember, null);
+    }
+}
@@ -0,0 +1,263 @@
+package com.deadside.bot.economy;
+
+import com.deadside.bot.db.models.Currency;
+import com.deadside.bot.db.models.LedgerEntry;
+import com.deadside.bot.db.repositories.CurrencyRepository;
+import com.deadside.bot.db.repositories.LedgerRepository;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EconomyLedgerTest {
+    private static final long GUILD = 1L;
+    private static final String SERVER = "server";
+    private static final long ALICE = 10L;
+    private static final long BOB = 20L;
+
+    private InMemoryLedgerRepository ledgerRepository;
+    private InMemoryCurrencyRepository currencyRepository;
+    private EconomyLedger ledger;
+
+    @BeforeEach
+    void setUp() {
+        ledgerRepository = new InMemoryLedgerRepository();
+        currencyRepository = new InMemoryCurrencyRepository();
+        ledger = new EconomyLedger(ledgerRepository, currencyRepository);
+    }
+
+    @Test
+    void balanceIncludesQueuedAndFlushedEntries() {
+        ledger.record(ALICE, GUILD, SERVER, 100, "test", null);
+        ledger.record(ALICE, GUILD, SERVER, -30, "test", null);
+        assertEquals(70, ledger.getBalance(ALICE, GUILD, SERVER));
+
+        ledger.flush();
+
+        assertEquals(2, ledgerRepository.entries.size());
+        assertEquals(70, ledger.getBalance(ALICE, GUILD, SERVER));
+    }
+
+    @Test
+    void failedBatchStaysPendingUntilRetried() {
+        ledgerRepository.failInserts = true;
+        ledger.record(ALICE, GUILD, SERVER, 50, "test", null);
+        ledger.flush();
+
+        assertTrue(ledgerRepository.entries.isEmpty());
+        assertEquals(50, ledger.getBalance(ALICE, GUILD, SERVER));
+
+        ledgerRepository.failInserts = false;
+        ledger.flush();
+
+        assertEquals(1, ledgerRepository.entries.size());
+        assertEquals(50, ledger.getBalance(ALICE, GUILD, SERVER));
+    }
+
+    @Test
+    void snapshotFoldsLedgerIntoBalancesAndAdvancesWatermark() {
+        ledger.record(ALICE, GUILD, SERVER, 100, "test", null);
+        ledger.record(BOB, GUILD, SERVER, 40, "test", null);
+        ledger.record(ALICE, GUILD, SERVER, -25, "test", null);
+
+        ledger.snapshot();
+
+        ObjectId latest = ledgerRepository.findLatestId();
+        assertEquals(latest, ledgerRepository.state.getObjectId("watermark"));
+        assertNull(ledgerRepository.state.get("pendingCutoff"));
+        assertEquals(75, currencyRepository.coins(ALICE));
+        assertEquals(40, currencyRepository.coins(BOB));
+        assertEquals(0, ledgerRepository.sumAfter(ALICE, GUILD, SERVER, currencyRepository.watermark(ALICE)));
+        assertEquals(75, ledger.getBalance(ALICE, GUILD, SERVER));
+        assertEquals(40, ledger.getBalance(BOB, GUILD, SERVER));
+
+        // Nothing new since the watermark, so a second pass changes nothing
+        ledger.snapshot();
+        assertEquals(75, currencyRepository.coins(ALICE));
+        assertEquals(40, currencyRepository.coins(BOB));
+    }
+
+    @Test
+    void interruptedSnapshotResumesOverTheSameRangeWithoutDoubleCounting() {
+        ledger.record(ALICE, GUILD, SERVER, 100, "test", null);
+        ledger.record(BOB, GUILD, SERVER, 40, "test", null);
+        ledger.flush();
+        ObjectId cutoff = ledgerRepository.findLatestId();
+
+        currencyRepository.failingUsers.add(BOB);
+        ledger.snapshot();
+
+        // Alice was folded, Bob was not; the watermark waits for the whole range
+        assertNull(ledgerRepository.state.get("watermark"));
+        assertEquals(cutoff, ledgerRepository.state.getObjectId("pendingCutoff"));
+        assertEquals(100, currencyRepository.coins(ALICE));
+        assertEquals(100, ledger.getBalance(ALICE, GUILD, SERVER));
+        assertEquals(40, ledger.getBalance(BOB, GUILD, SERVER));
+
+        // Entries written after the cutoff are left for the pass after the resumed one
+        ledger.record(ALICE, GUILD, SERVER, 5, "test", null);
+        currencyRepository.failingUsers.clear();
+        ledger.snapshot();
+
+        assertEquals(cutoff, ledgerRepository.state.getObjectId("watermark"));
+        assertNull(ledgerRepository.state.get("pendingCutoff"));
+        assertEquals(100, currencyRepository.coins(ALICE));
+        assertEquals(40, currencyRepository.coins(BOB));
+        assertEquals(105, ledger.getBalance(ALICE, GUILD, SERVER));
+        assertEquals(40, ledger.getBalance(BOB, GUILD, SERVER));
+
+        ledger.snapshot();
+        assertEquals(105, currencyRepository.coins(ALICE));
+        assertEquals(105, ledger.getBalance(ALICE, GUILD, SERVER));
+    }
+
+    @Test
+    void debitsAreCheckedAgainstTheLedgerBalance() {
+        ledger.record(ALICE, GUILD, SERVER, 100, "test", null);
+        ledger.snapshot();
+        ledger.record(ALICE, GUILD, SERVER, 20, "test", null);
+
+        assertEquals(CurrencyRepository.INSUFFICIENT_FUNDS, ledger.tryDebit(ALICE, GUILD, SERVER, 121, "test", null));
+        assertEquals(0, ledger.tryDebit(ALICE, GUILD, SERVER, 120, "test", null));
+        assertEquals(0, ledger.debitUpTo(ALICE, GUILD, SERVER, 10, "test", null));
+        assertEquals(0, ledger.getBalance(ALICE, GUILD, SERVER));
+    }
+
+    /**
+     * Ledger collection kept in insert order, which is ID order since IDs come from one writer
+     */
+    private static class InMemoryLedgerRepository extends LedgerRepository {
+        final List<LedgerEntry> entries = new ArrayList<>();
+        Document state = new Document("_id", "snapshot");
+        volatile boolean failInserts;
+
+        @Override
+        public synchronized boolean insertBatch(List<LedgerEntry> batch) {
+            if (failInserts) {
+                return false;
+            }
+            for (LedgerEntry entry : batch) {
+                if (entries.stream().noneMatch(stored -> stored.getId().equals(entry.getId()))) {
+                    entries.add(entry);
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public synchronized long sumAfter(long userId, long guildId, String serverId, ObjectId watermark) {
+            return entries.stream()
+                .filter(entry -> entry.getUserId() == userId && entry.getGuildId() == guildId
+                    && entry.getServerId().equals(serverId))
+                .filter(entry -> watermark == null || entry.getId().compareTo(watermark) > 0)
+                .mapToLong(LedgerEntry::getDelta)
+                .sum();
+        }
+
+        @Override
+        public synchronized ObjectId findLatestId() {
+            return entries.isEmpty() ? null : entries.get(entries.size() - 1).getId();
+        }
+
+        @Override
+        public synchronized List<Document> sumByWallet(ObjectId after, ObjectId upTo) {
+            Map<List<Object>, Document> totals = new LinkedHashMap<>();
+            for (LedgerEntry entry : entries) {
+                ObjectId id = entry.getId();
+                if ((after != null && id.compareTo(after) <= 0) || id.compareTo(upTo) > 0) {
+                    continue;
+                }
+                Document total = totals.computeIfAbsent(
+                    List.of(entry.getUserId(), entry.getGuildId(), entry.getServerId()),
+                    key -> new Document("_id", new Document("userId", entry.getUserId())
+                        .append("guildId", entry.getGuildId())
+                        .append("serverId", entry.getServerId()))
+                        .append("total", 0L));
+                total.put("total", total.getLong("total") + entry.getDelta());
+                total.put("lastId", id);
+            }
+            return new ArrayList<>(totals.values());
+        }
+
+        @Override
+        public synchronized List<LedgerEntry> findRecent(long userId, long guildId, String serverId, int limit) {
+            List<LedgerEntry> recent = new ArrayList<>();
+            for (int i = entries.size() - 1; i >= 0 && recent.size() < limit; i--) {
+                LedgerEntry entry = entries.get(i);
+                if (entry.getUserId() == userId && entry.getGuildId() == guildId
+                        && entry.getServerId().equals(serverId)) {
+                    recent.add(entry);
+                }
+            }
+            return recent;
+        }
+
+        @Override
+        public synchronized Document getSnapshotState() {
+            return new Document(state);
+        }
+
+        @Override
+        public synchronized boolean saveSnapshotState(Document newState) {
+            state = new Document(newState);
+            return true;
+        }
+    }
+
+    /**
+     * Balances of a single guild and server, folded with the same watermark check as the real repository
+     */
+    private static class InMemoryCurrencyRepository extends CurrencyRepository {
+        private final Map<Long, Currency> balances = new HashMap<>();
+        final Set<Long> failingUsers = new HashSet<>();
+
+        @Override
+        public synchronized Currency findSnapshot(long userId, long guildId, String serverId) {
+            return balances.get(userId);
+        }
+
+        @Override
+        public synchronized boolean applyLedgerSnapshot(long userId, long guildId, String serverId,
+                                                        long ledgerTotal, ObjectId lastEntryId) {
+            if (failingUsers.contains(userId)) {
+                return false;
+            }
+            Currency currency = balances.computeIfAbsent(userId, id -> {
+                Currency created = new Currency();
+                created.setUserId(userId);
+                created.setGuildId(guildId);
+                created.setServerId(serverId);
+                return created;
+            });
+            ObjectId watermark = currency.getLedgerWatermark();
+            if (watermark == null || watermark.compareTo(lastEntryId) < 0) {
+                currency.setCoins(currency.getCoins() + ledgerTotal);
+                currency.setLedgerWatermark(lastEntryId);
+            }
+            return true;
+        }
+
+        synchronized long coins(long userId) {
+            Currency currency = balances.get(userId);
+            return currency != null ? currency.getCoins() : 0;
+        }
+
+        synchronized ObjectId watermark(long userId) {
+            Currency currency = balances.get(userId);
+            return currency != null ? currency.getLedgerWatermark() : null;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.deadside.bot.parsers;
+
+import com.deadside.bot.db.models.GameServer;
+import com.deadside.bot.db.models.KillRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DeathlogScannerTest {
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy.MM.dd-HH.mm.ss");
+
+    // Accepted and rejected lines; each must be treated the way KillfeedParser's CSV_PATTERN treats it
+    private static final List<String> LINES = List.of(
+            "2025.05.15-00.11.07;Fatalben0;0002548521ba4271a497e39d5bfe5611;Rogue731;00022ac42542497589f654e6ac2c0a6f;MR5;20;XSX;XSX;",
+            "2025.05.15-00.12.30;Player One;id1;Player Two;id2;AK-74;153;PS5;PC;",
+            "2025.05.15-00.13.00;Žemaitis;id3;Žemaitis;id3;suicide_by_relocation;0;PC;PC;",
+            "2025.05.15-00.14.00;Faller;id4;Faller;id4;falling;0;PC;PC;",
+            "2025.12.31-23.59.59;a;b;c;d;e;123456789012345678;f;g;",
+            "2025.05.15-00.11.07;Fatalben0;id;Rogue731;id;MR5;20;XSX;XSX",
+            "2025.05.15-00.11.07;Fatalben0;id;Rogue731;id;MR5;20;XSX;XSX;extra;",
+            "2025.05.15-00.11.07;Fatalben0;id;Rogue731;id;MR5;20;XSX;",
+            "2025.05.15-00.11.07;Fatalben0;;Rogue731;id;MR5;20;XSX;XSX;",
+            "2025.05.15-00.11.07;Fatalben0;id;Rogue731;id;MR5;20m;XSX;XSX;",
+            "2025.05.15-00.11.07;Fatalben0;id;Rogue731;id;MR5;-20;XSX;XSX;",
+            "2025.05.15-00.11.07;Fatalben0;id;Rogue731;id;MR5;99999999999999999999;XSX;XSX;",
+            "2025.13.15-00.11.07;Fatalben0;id;Rogue731;id;MR5;20;XSX;XSX;",
+            "2025.05.15-25.11.07;Fatalben0;id;Rogue731;id;MR5;20;XSX;XSX;",
+            "2025-05-15 00:11:07;Fatalben0;id;Rogue731;id;MR5;20;XSX;XSX;",
+            "25.05.15-00.11.07;Fatalben0;id;Rogue731;id;MR5;20;XSX;XSX;",
+            "\"1970/01/01-00:00:00\",\"PlayerName1\",\"killed\",\"PlayerName2\",\"with\",\"WeaponName\",\"from\",\"100m\"",
+            "not a deathlog line"
+    );
+
+    private GameServer server;
+
+    @BeforeEach
+    void setUp() {
+        server = new GameServer();
+        server.setGuildId(42L);
+        server.setName("Test Server");
+    }
+
+    @Test
+    void acceptsExactlyTheLinesTheRegexAccepts() {
+        for (String line : LINES) {
+            List<KillRecord> scanned = scan(line);
+            KillRecord expected = parseWithRegex(line);
+            if (expected == null) {
+                assertTrue(scanned.isEmpty(), "Scanner accepted " + line);
+            } else {
+                assertEquals(1, scanned.size(), "Scanner rejected " + line);
+                assertSameRecord(expected, scanned.get(0));
+            }
+        }
+    }
+
+    @Test
+    void scansAWholeFileInOrder() {
+        // Mixed terminators and lengths put newlines at every offset within an eight-byte word
+        StringBuilder content = new StringBuilder();
+        List<KillRecord> expected = new ArrayList<>();
+        int malformed = 0;
+        for (int i = 0; i < LINES.size(); i++) {
+            String line = LINES.get(i);
+            content.append(line).append(i % 3 == 0 ? "\r\n" : "\n");
+            KillRecord record = parseWithRegex(line);
+            if (record != null) {
+                expected.add(record);
+            } else {
+                malformed++;
+            }
+        }
+        content.append("\n  \n");
+        content.append(LINES.get(0));
+
+        ByteBuffer buffer = ByteBuffer.wrap(content.toString().getBytes(StandardCharsets.UTF_8));
+        List<KillRecord> scanned = new ArrayList<>();
+        DeathlogScanner.Result result = DeathlogScanner.scan(server, buffer, scanned::add);
+
+        expected.add(parseWithRegex(LINES.get(0)));
+        assertEquals(LINES.size() + 3, result.lines());
+        assertEquals(expected.size(), result.records());
+        assertEquals(malformed, result.malformed());
+        assertEquals(expected.size(), scanned.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertSameRecord(expected.get(i), scanned.get(i));
+        }
+        assertEquals(0, buffer.position());
+    }
+
+    @Test
+    void scansFromTheBufferPositionToItsLimit() {
+        byte[] skipped = (LINES.get(1) + "\n").getBytes(StandardCharsets.UTF_8);
+        byte[] wanted = (LINES.get(0) + "\n").getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocate(skipped.length + wanted.length + skipped.length);
+        buffer.put(skipped).put(wanted).put(skipped);
+        buffer.position(skipped.length).limit(skipped.length + wanted.length);
+
+        List<KillRecord> scanned = new ArrayList<>();
+        DeathlogScanner.Result result = DeathlogScanner.scan(server, buffer, scanned::add);
+
+        assertEquals(1, result.records());
+        assertSameRecord(parseWithRegex(LINES.get(0)), scanned.get(0));
+        assertEquals(skipped.length, buffer.position());
+    }
+
+    private List<KillRecord> scan(String line) {
+        List<KillRecord> records = new ArrayList<>();
+        DeathlogScanner.scan(server, ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8)), records::add);
+        return records;
+    }
+
+    /**
+     * Parse a line the way KillfeedParser does
+     */
+    private KillRecord parseWithRegex(String line) {
+        Matcher matcher = KillfeedParser.CSV_PATTERN.matcher(line);
+        if (!matcher.matches()) {
+            return null;
+        }
+        try {
+            long distance = Long.parseLong(matcher.group(7));
+            long timeMs = LocalDateTime.parse(matcher.group(1), DATE_FORMAT)
+                    .atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            return KillfeedParser.createKillRecord(server, matcher.group(2), matcher.group(4), matcher.group(6),
+                    distance, timeMs, line);
+        } catch (DateTimeParseException | NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static void assertSameRecord(KillRecord expected, KillRecord actual) {
+        assertEquals(expected.getGuildId(), actual.getGuildId());
+        assertEquals(expected.getServerId(), actual.getServerId());
+        assertEquals(expected.getKiller(), actual.getKiller());
+        assertEquals(expected.getVictim(), actual.getVictim());
+        assertEquals(expected.getWeapon(), actual.getWeapon());
+        assertEquals(expected.getDistance(), actual.getDistance());
+        assertEquals(expected.getTimestamp(), actual.getTimestamp());
+        assertEquals(expected.getOriginalLine(), actual.getOriginalLine());
+        assertEquals(expected.isSuicide(), actual.isSuicide());
+        assertEquals(expected.isFalling(), actual.isFalling());
+        assertEquals(expected.isMenuSuicide(), actual.isMenuSuicide());
+    }
+}
@@ -0,0 +1,83 @@
+package com.deadside.bot.parsers;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class LogLineClassifierTest {
+    private static final String PREFIX = "[2025.05.15-00.11.07:123][ 42]LogSFPS: ";
+    private static final String TIME = "2025.05.15-00.11.07:123";
+
+    @Test
+    void classifiesLoginAndLogout() {
+        assertEquals(new LogEvent.Join(TIME, "Fatalben0"),
+                LogLineClassifier.classify(PREFIX + "[Login] Player Fatalben0 connected"));
+        assertEquals(new LogEvent.Leave(TIME, "Rogue 731"),
+                LogLineClassifier.classify(PREFIX + "[Logout] Player Rogue 731 disconnected"));
+    }
+
+    @Test
+    void classifiesMissions() {
+        assertEquals(new LogEvent.Mission(TIME, "GA_Airport_mis_01_SFPSACMission", "READY"),
+                LogLineClassifier.classify(PREFIX + "Mission GA_Airport_mis_01_SFPSACMission switched to READY"));
+        assertEquals(new LogEvent.Mission(TIME, "GA_Beregovoy_Mis1", "RESPAWN"),
+                LogLineClassifier.classify(PREFIX + "Mission GA_Beregovoy_Mis1 will respawn in 1200"));
+        assertEquals(new LogEvent.Mission(TIME, "GA_Military_02_Mis1", "FAIL"),
+                LogLineClassifier.classify(PREFIX + "[USFPSACMission::Fail] GA_Military_02_Mis1"));
+    }
+
+    @Test
+    void classifiesWorldEvents() {
+        assertEquals(new LogEvent.Airdrop(TIME, "Flying"),
+                LogLineClassifier.classify(PREFIX + "AirDrop switched to Flying"));
+        assertEquals(new LogEvent.Trader(TIME, "Bunker_Trader", "Active"),
+                LogLineClassifier.classify(PREFIX + "Trader Bunker_Trader is now Active"));
+        assertEquals(new LogEvent.HeliCrash(TIME, "1234.5, -678.9, 100.0"),
+                LogLineClassifier.classify(PREFIX + "Helicopter crashed at 1234.5, -678.9, 100.0"));
+    }
+
+    @Test
+    void classifiesShortStyleLines() {
+        String time = "2025.05.15-00:11:07";
+        assertEquals(new LogEvent.Join(time, "Fatalben0"),
+                LogLineClassifier.classify("[" + time + "] Player Fatalben0 joined the server"));
+        assertEquals(new LogEvent.Leave(time, "Fatalben0"),
+                LogLineClassifier.classify("[" + time + "] Player Fatalben0 left the server"));
+        assertEquals(new LogEvent.Mission(time, "Bunker", null),
+                LogLineClassifier.classify("[" + time + "] Mission Bunker"));
+        assertEquals(new LogEvent.Airdrop(time, "Airdrop incoming"),
+                LogLineClassifier.classify("[" + time + "] Event Airdrop incoming"));
+        assertNull(LogLineClassifier.classify("[" + time + "] Event Storm incoming"));
+    }
+
+    @Test
+    void classifiesServerStart() {
+        assertEquals(new LogEvent.ServerStart("05/15/25 00:00:00"),
+                LogLineClassifier.classify("Log file open, 05/15/25 00:00:00"));
+    }
+
+    @Test
+    void rejectsNoise() {
+        assertNull(LogLineClassifier.classify(""));
+        assertNull(LogLineClassifier.classify("short line"));
+        assertNull(LogLineClassifier.classify(PREFIX + "Garbage collection took 12ms"));
+        assertNull(LogLineClassifier.classify("[2025.05.15-00.11.07:123][ 42]LogNet: Player Fatalben0 connected"));
+        assertNull(LogLineClassifier.classify(PREFIX + "[Login] Player  connected"));
+        assertNull(LogLineClassifier.classify("[2025.05.15-00.11.07:123 no closing bracket on this line"));
+    }
+
+    @Test
+    void parsesEveryTimestampFormatAsUtc() {
+        long expected = LocalDateTime.of(2025, 5, 15, 0, 11, 7).toInstant(ZoneOffset.UTC).toEpochMilli();
+
+        assertEquals(expected + 123, LogLineClassifier.parseTimestamp(TIME, -1));
+        assertEquals(expected, LogLineClassifier.parseTimestamp("2025.05.15-00:11:07", -1));
+        assertEquals(expected, LogLineClassifier.parseTimestamp("05/15/25 00:11:07", -1));
+        assertEquals(-1, LogLineClassifier.parseTimestamp("not a time", -1));
+        assertEquals(-1, LogLineClassifier.parseTimestamp(null, -1));
+    }
+}
@@ -0,0 +1,133 @@
+package com.deadside.bot.parsers;
+
+import com.deadside.bot.config.Config;
+import com.deadside.bot.db.models.GameServer;
+import com.deadside.bot.db.models.LogCursor;
+import com.deadside.bot.db.repositories.LogCursorRepository;
+import com.deadside.bot.parsers.LogTailer.Change;
+import com.deadside.bot.parsers.LogTailer.TailResult;
+import com.deadside.bot.sftp.InMemorySftpConnector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LogTailerTest {
+    private static final String DIRECTORY = "/home/deadside/Logs";
+    private static final String LIVE = "Deadside.log";
+    private static final String LIVE_PATH = DIRECTORY + "/" + LIVE;
+
+    private InMemorySftpConnector connector;
+    private LogTailer tailer;
+    private GameServer server;
+    private final List<String> lines = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        connector = new InMemorySftpConnector();
+        tailer = new LogTailer(connector, new InMemoryCursorRepository());
+        server = new GameServer();
+        server.setGuildId(42L);
+        server.setName("Test Server");
+    }
+
+    @Test
+    void missingFileIsReported() {
+        assertEquals(Change.MISSING, poll().change());
+    }
+
+    @Test
+    void readsOnlyNewLinesAsTheFileGrows() {
+        connector.put(LIVE_PATH, "line 1\nline 2\n");
+        assertEquals(new TailResult(Change.STARTED, 2, 14), poll());
+
+        connector.append(LIVE_PATH, "line 3\r\n");
+        assertEquals(new TailResult(Change.APPENDED, 1, 8), poll());
+
+        assertEquals(Change.UNCHANGED, poll().change());
+        assertEquals(List.of("line 1", "line 2", "line 3"), lines);
+    }
+
+    @Test
+    void partialLastLineWaitsForItsNewline() {
+        connector.put(LIVE_PATH, "line 1\nline");
+        assertEquals(1, poll().lines());
+
+        connector.append(LIVE_PATH, " 2\n");
+        assertEquals(1, poll().lines());
+
+        assertEquals(List.of("line 1", "line 2"), lines);
+    }
+
+    @Test
+    void truncatedFileIsReadFromTheStart() {
+        // The head fingerprint has to survive the truncation, so the first line is longer than it
+        String header = "x".repeat(Config.getIntProperty("logs.fingerprintBytes", 1024) + 10);
+        connector.put(LIVE_PATH, header + "\nline 1\nline 2\n");
+        poll();
+        lines.clear();
+
+        connector.put(LIVE_PATH, header + "\nnew\n");
+
+        assertEquals(Change.TRUNCATED, poll().change());
+        assertEquals(List.of(header, "new"), lines);
+    }
+
+    @Test
+    void rotationDrainsTheRotatedCopyBeforeTheNewFile() {
+        connector.put(LIVE_PATH, "old 1\nold 2\n");
+        poll();
+        lines.clear();
+
+        // Written after the last poll, then the server rotated the log
+        connector.append(LIVE_PATH, "old 3\nold 4");
+        connector.rename(LIVE_PATH, DIRECTORY + "/Deadside-backup-2025.05.15-00.00.00.log");
+        connector.put(DIRECTORY + "/Deadside-backup-2025.05.14-00.00.00.log", "older\n");
+        connector.put(LIVE_PATH, "new 1\n");
+
+        TailResult result = poll();
+
+        assertEquals(Change.ROTATED, result.change());
+        assertEquals(List.of("old 3", "old 4", "new 1"), lines);
+        assertEquals(3, result.lines());
+
+        assertEquals(Change.UNCHANGED, poll().change());
+    }
+
+    @Test
+    void rotationWithoutTheRotatedCopyStartsOnTheNewFile() {
+        connector.put(LIVE_PATH, "old 1\n");
+        poll();
+        lines.clear();
+
+        connector.delete(LIVE_PATH);
+        connector.put(LIVE_PATH, "new 1\nnew 2\n");
+
+        assertEquals(Change.ROTATED, poll().change());
+        assertEquals(List.of("new 1", "new 2"), lines);
+    }
+
+    private TailResult poll() {
+        return tailer.poll(server, DIRECTORY, LIVE, lines::add);
+    }
+
+    private static class InMemoryCursorRepository extends LogCursorRepository {
+        private final Map<String, LogCursor> cursors = new HashMap<>();
+
+        @Override
+        public LogCursor find(long guildId, String serverName) {
+            return cursors.get(guildId + ":" + serverName);
+        }
+
+        @Override
+        public boolean save(LogCursor cursor) {
+            cursors.put(cursor.getGuildId() + ":" + cursor.getServerName(), cursor);
+            return true;
+        }
+    }
+}
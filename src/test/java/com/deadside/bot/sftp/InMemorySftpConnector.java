@@ -0,0 +1,96 @@
+package com.deadside.bot.sftp;
+
+import com.deadside.bot.db.models.GameServer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * SFTP connector over an in-memory file tree, recording every range read
+ */
+public class InMemorySftpConnector extends SftpConnector {
+    private final Map<String, byte[]> files = new TreeMap<>();
+    private final Map<String, Long> modifiedTimes = new TreeMap<>();
+    private final List<long[]> reads = Collections.synchronizedList(new ArrayList<>());
+    private long clock = 1_700_000_000L;
+
+    /**
+     * Create or replace a file
+     */
+    public synchronized void put(String path, String content) {
+        put(path, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public synchronized void put(String path, byte[] content) {
+        files.put(path, content.clone());
+        modifiedTimes.put(path, ++clock);
+    }
+
+    public synchronized void append(String path, String content) {
+        byte[] current = files.getOrDefault(path, new byte[0]);
+        byte[] added = content.getBytes(StandardCharsets.UTF_8);
+        byte[] grown = Arrays.copyOf(current, current.length + added.length);
+        System.arraycopy(added, 0, grown, current.length, added.length);
+        put(path, grown);
+    }
+
+    public synchronized void rename(String from, String to) {
+        files.put(to, files.remove(from));
+        modifiedTimes.put(to, modifiedTimes.remove(from));
+    }
+
+    public synchronized void delete(String path) {
+        files.remove(path);
+        modifiedTimes.remove(path);
+    }
+
+    /**
+     * Get the range reads made so far, each as {offset, bytes returned}
+     */
+    public List<long[]> reads() {
+        synchronized (reads) {
+            return new ArrayList<>(reads);
+        }
+    }
+
+    public void clearReads() {
+        reads.clear();
+    }
+
+    @Override
+    public synchronized List<String> listServerFiles(GameServer server, String remoteDirPath) {
+        String prefix = remoteDirPath + "/";
+        List<String> names = new ArrayList<>();
+        for (String path : files.keySet()) {
+            if (path.startsWith(prefix) && path.indexOf('/', prefix.length()) < 0) {
+                names.add(path.substring(prefix.length()));
+            }
+        }
+        return names;
+    }
+
+    @Override
+    public synchronized RemoteFileInfo statFile(GameServer server, String remoteFilePath) {
+        byte[] data = files.get(remoteFilePath);
+        if (data == null) {
+            return null;
+        }
+        String name = remoteFilePath.substring(remoteFilePath.lastIndexOf('/') + 1);
+        return new RemoteFileInfo(name, data.length, modifiedTimes.get(remoteFilePath));
+    }
+
+    @Override
+    public synchronized byte[] readFileRange(GameServer server, String remoteFilePath, long offset, int length) {
+        byte[] data = files.getOrDefault(remoteFilePath, new byte[0]);
+        int start = (int) Math.min(offset, data.length);
+        int end = (int) Math.min(data.length, offset + (long) length);
+        byte[] range = Arrays.copyOfRange(data, start, end);
+        reads.add(new long[] {offset, range.length});
+        return range;
+    }
+}
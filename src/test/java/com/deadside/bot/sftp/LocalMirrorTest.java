@@ -0,0 +1,138 @@
+package com.deadside.bot.sftp;
+
+import com.deadside.bot.db.models.GameServer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LocalMirrorTest {
+    private static final String REMOTE = "/home/deadside/Logs/Deadside.log";
+
+    @TempDir
+    Path root;
+
+    private LocalMirror mirror;
+    private InMemorySftpConnector connector;
+    private GameServer server;
+
+    @BeforeEach
+    void setUp() {
+        mirror = new LocalMirror(root, 4096, 64);
+        connector = new InMemorySftpConnector();
+        server = new GameServer();
+        server.setGuildId(42L);
+        server.setName("Test Server");
+    }
+
+    @Test
+    void firstSyncCopiesTheWholeFileUnderTheServerTree() throws IOException {
+        connector.put(REMOTE, "line 1\nline 2\n");
+
+        Path local = mirror.sync(server, connector, REMOTE);
+
+        assertEquals(root.resolve("42").resolve("Test_Server").resolve("home/deadside/Logs/Deadside.log"), local);
+        assertEquals("line 1\nline 2\n", mirror.readString(local));
+    }
+
+    @Test
+    void unchangedFileIsNotRead() throws IOException {
+        connector.put(REMOTE, "line 1\n");
+        mirror.sync(server, connector, REMOTE);
+        connector.clearReads();
+
+        mirror.sync(server, connector, REMOTE);
+
+        assertTrue(connector.reads().isEmpty());
+    }
+
+    @Test
+    void grownFileOnlyFetchesTheNewBytes() throws IOException {
+        String first = "2025.05.15-00.11.07;a;1;b;2;MR5;20;XSX;XSX;\n";
+        String second = "2025.05.15-00.12.00;c;3;d;4;AK;5;PS5;PS5;\n";
+        connector.put(REMOTE, first);
+        mirror.sync(server, connector, REMOTE);
+        connector.clearReads();
+        long transferred = TransferStats.getInstance().getTransferredBytes();
+
+        connector.append(REMOTE, second);
+        Path local = mirror.sync(server, connector, REMOTE);
+
+        List<long[]> reads = connector.reads();
+        // One head check from the start, then the appended range only
+        assertEquals(2, reads.size());
+        assertEquals(0, reads.get(0)[0]);
+        assertEquals(first.length(), reads.get(1)[0]);
+        assertEquals(second.length(), TransferStats.getInstance().getTransferredBytes() - transferred);
+        assertEquals(first + second, mirror.readString(local));
+    }
+
+    @Test
+    void replacedFileIsCopiedAgain() throws IOException {
+        connector.put(REMOTE, "old first line\n");
+        Path local = mirror.sync(server, connector, REMOTE);
+
+        connector.put(REMOTE, "new first line\nnew second line\n");
+        mirror.sync(server, connector, REMOTE);
+
+        assertEquals("new first line\nnew second line\n", mirror.readString(local));
+        assertTrue(Files.notExists(local.resolveSibling("Deadside.log.part")));
+    }
+
+    @Test
+    void truncatedFileIsCopiedAgain() throws IOException {
+        connector.put(REMOTE, "line 1\nline 2\nline 3\n");
+        Path local = mirror.sync(server, connector, REMOTE);
+
+        connector.put(REMOTE, "line 1\n");
+        mirror.sync(server, connector, REMOTE);
+
+        assertEquals("line 1\n", mirror.readString(local));
+    }
+
+    @Test
+    void existingCopyStaysReadableWhenTheRemoteFileIsGone() throws IOException {
+        connector.put(REMOTE, "line 1\n");
+        Path local = mirror.sync(server, connector, REMOTE);
+        connector.delete(REMOTE);
+
+        assertEquals(local, mirror.sync(server, connector, REMOTE));
+        assertEquals("line 1\n", mirror.readString(local));
+        assertNull(mirror.sync(server, connector, "/home/deadside/Logs/missing.log"));
+    }
+
+    @Test
+    void gzippedFileIsDecodedNextToItsCopy() throws IOException {
+        byte[] csv = "2025.05.15-00.11.07;a;1;b;2;MR5;20;XSX;XSX;\n".getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(csv);
+        }
+        connector.put("/deathlogs/2025.05.15.csv.gz", compressed.toByteArray());
+
+        Path decoded = mirror.syncDecoded(server, connector, "/deathlogs/2025.05.15.csv.gz");
+
+        assertEquals("2025.05.15.csv", decoded.getFileName().toString());
+        assertArrayEquals(csv, Files.readAllBytes(decoded));
+    }
+
+    @Test
+    void pathsCannotLeaveTheServerTree() {
+        connector.put("/../escape.log", "x\n");
+
+        assertThrows(IllegalArgumentException.class, () -> mirror.sync(server, connector, "/../escape.log"));
+    }
+}
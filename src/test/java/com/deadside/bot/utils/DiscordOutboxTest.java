@@ -0,0 +1,143 @@
+package com.deadside.bot.utils;
+
+import com.deadside.bot.config.Config;
+import com.deadside.bot.utils.DiscordOutbox.Lane;
+import net.dv8tion.jda.api.requests.RestAction;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DiscordOutboxTest {
+    private DiscordOutbox outbox;
+    private final List<String> sent = Collections.synchronizedList(new ArrayList<>());
+    private final CountDownLatch dispatcherHeld = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        outbox = new DiscordOutbox();
+
+        // Hold the dispatcher inside a request so the test can queue work before anything is picked
+        outbox.submit(Lane.INTERACTION, "interaction:blocker", () -> {
+            dispatcherHeld.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return completed();
+        });
+        assertTrue(dispatcherHeld.await(5, TimeUnit.SECONDS));
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+    }
+
+    @Test
+    void higherLanesSendFirst() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(4);
+        outbox.submit(Lane.COSMETIC, "rename:1", record("cosmetic", done));
+        outbox.submit(Lane.LEADERBOARD, "channel:2", record("leaderboard", done));
+        outbox.submit(Lane.KILLFEED, "channel:3", record("killfeed", done));
+        outbox.submit(Lane.INTERACTION, "interaction:4", record("interaction", done));
+
+        release.countDown();
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("interaction", "killfeed", "leaderboard", "cosmetic"), sent);
+    }
+
+    @Test
+    void routesTakeTurnsWithinALane() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(4);
+        outbox.submit(Lane.KILLFEED, "channel:a", record("a1", done));
+        outbox.submit(Lane.KILLFEED, "channel:a", record("a2", done));
+        outbox.submit(Lane.KILLFEED, "channel:a", record("a3", done));
+        outbox.submit(Lane.KILLFEED, "channel:b", record("b1", done));
+        assertEquals(4, outbox.getQueueDepth(Lane.KILLFEED));
+
+        release.countDown();
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("a1", "b1", "a2", "a3"), sent);
+    }
+
+    @Test
+    void coalescedRequestReplacesQueuedOneInPlace() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(2);
+        outbox.submitCoalesced(Lane.LEADERBOARD, "channel:1", "leaderboard:1", record("old", done), null, null);
+        outbox.submit(Lane.LEADERBOARD, "channel:2", record("other", done));
+        outbox.submitCoalesced(Lane.LEADERBOARD, "channel:1", "leaderboard:1", record("new", done), null, null);
+        assertEquals(2, outbox.getQueueDepth(Lane.LEADERBOARD));
+
+        release.countDown();
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("new", "other"), sent);
+        assertTrue(outbox.summary().contains("leaderboard: 0 queued, 2 sent, 1 coalesced, 0 dropped"));
+    }
+
+    @Test
+    void fullLaneShedsCoalescibleRequestsBeforeReportingALoss() {
+        int capacity = Config.getIntProperty("discord.outbox.capacity.cosmetic", 200);
+        List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+
+        outbox.submitCoalesced(Lane.COSMETIC, "rename:0", "rename:0", record("coalesced", null), null, failures::add);
+        for (int i = 1; i < capacity; i++) {
+            outbox.submit(Lane.COSMETIC, "rename:" + i, record("plain" + i, null), null, failures::add);
+        }
+        assertEquals(capacity, outbox.getQueueDepth(Lane.COSMETIC));
+
+        // The coalescible request goes first and nobody is told, since a newer one would replace it
+        outbox.submit(Lane.COSMETIC, "rename:extra1", record("extra1", null));
+        assertEquals(capacity, outbox.getQueueDepth(Lane.COSMETIC));
+        assertTrue(failures.isEmpty());
+
+        // Then the oldest plain request is shed and its failure callback runs
+        outbox.submit(Lane.COSMETIC, "rename:extra2", record("extra2", null));
+        assertEquals(capacity, outbox.getQueueDepth(Lane.COSMETIC));
+        assertEquals(1, failures.size());
+        assertInstanceOf(IllegalStateException.class, failures.get(0));
+        assertTrue(outbox.summary().contains("2 dropped"));
+    }
+
+    private Supplier<RestAction<Void>> record(String name, CountDownLatch done) {
+        return () -> {
+            sent.add(name);
+            if (done != null) {
+                done.countDown();
+            }
+            return completed();
+        };
+    }
+
+    /**
+     * A request that succeeds as soon as it is queued
+     */
+    @SuppressWarnings("unchecked")
+    private static RestAction<Void> completed() {
+        return (RestAction<Void>) Proxy.newProxyInstance(RestAction.class.getClassLoader(),
+            new Class<?>[] {RestAction.class}, (proxy, method, args) -> {
+                if (method.getName().equals("queue") && args != null && args.length == 2 && args[0] != null) {
+                    ((Consumer<Object>) args[0]).accept(null);
+                    return null;
+                }
+                throw new UnsupportedOperationException(method.getName());
+            });
+    }
+}
@@ -0,0 +1,103 @@
+package com.deadside.bot.utils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HashedTimerWheelTest {
+    private HashedTimerWheel wheel;
+
+    @BeforeEach
+    void setUp() {
+        wheel = new HashedTimerWheel("timer-wheel-test", 10, TimeUnit.MILLISECONDS, 8);
+    }
+
+    @AfterEach
+    void tearDown() {
+        wheel.stop();
+    }
+
+    @Test
+    void runsTaskAfterDelay() throws InterruptedException {
+        CountDownLatch fired = new CountDownLatch(1);
+        long start = System.nanoTime();
+
+        HashedTimerWheel.Timeout timeout = wheel.schedule(fired::countDown, 50, TimeUnit.MILLISECONDS);
+
+        assertTrue(fired.await(2, TimeUnit.SECONDS));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+        assertTrue(timeout.isExpired());
+        assertEquals(0, wheel.getPendingTimeouts());
+    }
+
+    @Test
+    void delayLongerThanOneRotationDoesNotFireEarly() throws InterruptedException {
+        // 8 buckets of 10ms make an 80ms rotation, so this timeout has to wait out several rounds
+        CountDownLatch fired = new CountDownLatch(1);
+        long start = System.nanoTime();
+
+        wheel.schedule(fired::countDown, 250, TimeUnit.MILLISECONDS);
+
+        assertFalse(fired.await(150, TimeUnit.MILLISECONDS));
+        assertTrue(fired.await(2, TimeUnit.SECONDS));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(250));
+    }
+
+    @Test
+    void cancelledTaskNeverRuns() throws InterruptedException {
+        AtomicBoolean ran = new AtomicBoolean();
+        CountDownLatch later = new CountDownLatch(1);
+
+        HashedTimerWheel.Timeout timeout = wheel.schedule(() -> ran.set(true), 50, TimeUnit.MILLISECONDS);
+        wheel.schedule(later::countDown, 100, TimeUnit.MILLISECONDS);
+        assertEquals(2, wheel.getPendingTimeouts());
+
+        assertTrue(timeout.cancel());
+        assertFalse(timeout.cancel());
+        assertEquals(1, wheel.getPendingTimeouts());
+
+        assertTrue(later.await(2, TimeUnit.SECONDS));
+        assertFalse(ran.get());
+        assertTrue(timeout.isCancelled());
+        assertFalse(timeout.isExpired());
+    }
+
+    @Test
+    void expiredTaskCannotBeCancelled() throws InterruptedException {
+        CountDownLatch fired = new CountDownLatch(1);
+
+        HashedTimerWheel.Timeout timeout = wheel.schedule(fired::countDown, 0, TimeUnit.MILLISECONDS);
+
+        assertTrue(fired.await(2, TimeUnit.SECONDS));
+        assertFalse(timeout.cancel());
+        assertFalse(timeout.isCancelled());
+    }
+
+    @Test
+    void failingTaskDoesNotStopTheWorker() throws InterruptedException {
+        CountDownLatch fired = new CountDownLatch(1);
+
+        wheel.schedule(() -> {
+            throw new IllegalStateException("boom");
+        }, 10, TimeUnit.MILLISECONDS);
+        wheel.schedule(fired::countDown, 40, TimeUnit.MILLISECONDS);
+
+        assertTrue(fired.await(2, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void scheduleAfterStopIsRejected() {
+        wheel.stop();
+
+        assertThrows(IllegalStateException.class, () -> wheel.schedule(() -> { }, 10, TimeUnit.MILLISECONDS));
+    }
+}